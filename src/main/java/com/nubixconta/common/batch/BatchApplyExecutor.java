@@ -0,0 +1,110 @@
+package com.nubixconta.common.batch;
+
+import com.nubixconta.common.exception.BadRequestException;
+import com.nubixconta.common.exception.NotFoundException;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Aplicación masiva de documentos (ventas, compras, notas de crédito) por bloques.
+ * Cada bloque de 'nubixconta.batch-apply.chunk-size' documentos se carga con una sola consulta
+ * (documento, detalles, productos y cliente/proveedor) y se aplica en su propia transacción.
+ * Si un documento del bloque falla, el bloque se revierte y sus documentos se reintentan uno a uno,
+ * para que el error quede asociado solo al documento que lo provocó.
+ * No debe llamarse dentro de una transacción: cada bloque confirma por separado.
+ */
+@Slf4j
+@Component
+public class BatchApplyExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final int chunkSize;
+    private final int maxDocuments;
+
+    public BatchApplyExecutor(PlatformTransactionManager transactionManager,
+                              EntityManager entityManager,
+                              @Value("${nubixconta.batch-apply.chunk-size:50}") int chunkSize,
+                              @Value("${nubixconta.batch-apply.max-documents:1000}") int maxDocuments) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxDocuments = maxDocuments;
+    }
+
+    /**
+     * @param ids             IDs de los documentos, en el orden en que se deben aplicar (se ignoran repetidos).
+     * @param loader          Carga en una consulta los documentos de un bloque, indexados por ID.
+     * @param applier         Aplica un documento ya cargado (la misma lógica que el endpoint individual).
+     * @param notFoundMessage Mensaje para un ID que no existe en la empresa actual.
+     */
+    public <T> BatchApplyResultDTO apply(List<Integer> ids,
+                                         Function<List<Integer>, Map<Integer, T>> loader,
+                                         Consumer<T> applier,
+                                         IntFunction<String> notFoundMessage) {
+        if (ids == null || ids.isEmpty()) {
+            throw new BadRequestException("Debe indicar al menos un documento a aplicar.");
+        }
+        List<Integer> uniqueIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (uniqueIds.size() > maxDocuments) {
+            throw new BadRequestException("Se pueden aplicar como máximo " + maxDocuments + " documentos por solicitud.");
+        }
+
+        List<BatchApplyItemDTO> results = new ArrayList<>(uniqueIds.size());
+        for (int from = 0; from < uniqueIds.size(); from += chunkSize) {
+            List<Integer> chunk = uniqueIds.subList(from, Math.min(from + chunkSize, uniqueIds.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> applyChunk(chunk, loader, applier, notFoundMessage));
+                chunk.forEach(id -> results.add(new BatchApplyItemDTO(id, true, null)));
+            } catch (RuntimeException chunkError) {
+                log.debug("Bloque de aplicación masiva revertido, se reintenta documento por documento: {}", chunkError.getMessage());
+                for (Integer id : chunk) {
+                    results.add(applySingle(id, loader, applier, notFoundMessage));
+                }
+            }
+            // Libera las entidades del bloque anterior si el EntityManager vive toda la petición (open-in-view).
+            entityManager.clear();
+        }
+
+        int applied = (int) results.stream().filter(BatchApplyItemDTO::isApplied).count();
+        return new BatchApplyResultDTO(results.size(), applied, results.size() - applied, results);
+    }
+
+    private <T> BatchApplyItemDTO applySingle(Integer id,
+                                              Function<List<Integer>, Map<Integer, T>> loader,
+                                              Consumer<T> applier,
+                                              IntFunction<String> notFoundMessage) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> applyChunk(List.of(id), loader, applier, notFoundMessage));
+            return new BatchApplyItemDTO(id, true, null);
+        } catch (RuntimeException e) {
+            return new BatchApplyItemDTO(id, false, e.getMessage());
+        }
+    }
+
+    private static <T> void applyChunk(List<Integer> ids,
+                                       Function<List<Integer>, Map<Integer, T>> loader,
+                                       Consumer<T> applier,
+                                       IntFunction<String> notFoundMessage) {
+        Map<Integer, T> documents = loader.apply(ids);
+        for (Integer id : ids) {
+            T document = documents.get(id);
+            if (document == null) {
+                throw new NotFoundException(notFoundMessage.apply(id));
+            }
+            applier.accept(document);
+        }
+    }
+}
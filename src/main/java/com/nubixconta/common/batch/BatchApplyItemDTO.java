@@ -0,0 +1,15 @@
+package com.nubixconta.common.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Resultado de un documento dentro de una aplicación masiva.
+ */
+@Data
+@AllArgsConstructor
+public class BatchApplyItemDTO {
+    private Integer id;
+    private boolean applied;
+    private String error; // null si se aplicó correctamente.
+}
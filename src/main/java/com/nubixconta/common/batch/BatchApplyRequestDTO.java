@@ -0,0 +1,16 @@
+package com.nubixconta.common.batch;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Cuerpo de los endpoints '/apply-batch': IDs de los documentos PENDIENTES a aplicar.
+ */
+@Data
+public class BatchApplyRequestDTO {
+    @NotEmpty(message = "Debe indicar al menos un documento a aplicar.")
+    private List<@NotNull Integer> ids;
+}
@@ -0,0 +1,18 @@
+package com.nubixconta.common.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Reporte de una aplicación masiva: totales y el resultado de cada documento, en el orden recibido.
+ */
+@Data
+@AllArgsConstructor
+public class BatchApplyResultDTO {
+    private int total;
+    private int applied;
+    private int failed;
+    private List<BatchApplyItemDTO> results;
+}
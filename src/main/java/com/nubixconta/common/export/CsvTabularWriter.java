@@ -0,0 +1,58 @@
+package com.nubixconta.common.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+final class CsvTabularWriter implements TabularWriter {
+    private final Writer writer;
+    private boolean completed;
+
+    CsvTabularWriter(OutputStream out) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        // BOM para que Excel reconozca el UTF-8 (tildes y eñes).
+        this.writer.write('\uFEFF');
+    }
+
+    @Override
+    public void header(Object... cells) throws IOException {
+        row(cells);
+    }
+
+    @Override
+    public void row(Object... cells) throws IOException {
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) writer.write(',');
+            Object value = cells[i];
+            if (value == null) continue;
+            writer.write(escape(value instanceof BigDecimal amount ? amount.toPlainString() : value.toString()));
+        }
+        writer.write("\r\n");
+    }
+
+    private static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @Override
+    public void complete() {
+        completed = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Solo se vacía el buffer: el stream de la respuesta no es nuestro.
+        // Si la exportación falló, lo que quede en el buffer se descarta; si aún no se envió nada,
+        // la respuesta puede ser un error en lugar de un CSV truncado.
+        if (completed) {
+            writer.flush();
+        }
+    }
+}
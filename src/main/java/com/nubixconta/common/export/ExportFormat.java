@@ -0,0 +1,25 @@
+package com.nubixconta.common.export;
+
+/**
+ * Formatos de exportación de reportes (parámetro '?format=' de los endpoints que exportan).
+ */
+public enum ExportFormat {
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,55 @@
+package com.nubixconta.common.export;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Destino tabular común para XLSX y CSV. Al cerrarlo se termina de escribir el archivo,
+ * pero el stream de la respuesta lo cierra el contenedor.
+ * Si se cierra sin haber llamado a complete() (porque la exportación falló a mitad), el archivo se
+ * descarta en lugar de enviarse truncado, y el error puede responderse como tal.
+ */
+public interface TabularWriter extends Closeable {
+
+    void header(Object... cells) throws IOException;
+
+    void row(Object... cells) throws IOException;
+
+    /**
+     * Marca la exportación como terminada: solo entonces close() escribe el archivo.
+     */
+    void complete();
+
+    static TabularWriter open(ExportFormat format, String title, OutputStream out) throws IOException {
+        return format == ExportFormat.XLSX ? new XlsxTabularWriter(title, out) : new CsvTabularWriter(out);
+    }
+
+    /**
+     * Valida el formato pedido ('xlsx' o 'csv') y prepara las cabeceras de descarga.
+     */
+    static ExportFormat prepareDownload(HttpServletResponse response, String format, String fileName) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.valueOf(format.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Formato no soportado: '" + format + "'. Use xlsx o csv.");
+        }
+
+        response.setContentType(exportFormat.getContentType());
+        if (exportFormat == ExportFormat.CSV) {
+            response.setCharacterEncoding("UTF-8");
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(fileName + "." + exportFormat.getExtension(), StandardCharsets.UTF_8)
+                .build().toString());
+        return exportFormat;
+    }
+}
@@ -0,0 +1,128 @@
+package com.nubixconta.common.export;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * XLSX con SXSSFWorkbook: solo mantiene en memoria una ventana de ROW_WINDOW filas y el resto se
+ * vuelca a un archivo temporal comprimido.
+ */
+final class XlsxTabularWriter implements TabularWriter {
+
+    // Filas que SXSSF mantiene en memoria antes de volcarlas a disco.
+    private static final int ROW_WINDOW = 100;
+    // Límite de filas de una hoja de Excel; al llegar se continúa en una hoja nueva.
+    private static final int MAX_ROWS_PER_SHEET = 1_048_576;
+
+    private final SXSSFWorkbook workbook;
+    private final OutputStream out;
+    private final String title;
+    private final CellStyle headerStyle;
+    private final CellStyle dateStyle;
+    private final CellStyle dateTimeStyle;
+    private final CellStyle amountStyle;
+    private SXSSFSheet sheet;
+    private Object[] header;
+    private int rowNum;
+    private int sheetCount;
+    private boolean completed;
+
+    XlsxTabularWriter(String title, OutputStream out) {
+        this.workbook = new SXSSFWorkbook(ROW_WINDOW);
+        this.workbook.setCompressTempFiles(true);
+        this.out = out;
+        this.title = title;
+
+        Font bold = workbook.createFont();
+        bold.setBold(true);
+        this.headerStyle = workbook.createCellStyle();
+        this.headerStyle.setFont(bold);
+        short dateFormat = workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd");
+        this.dateStyle = workbook.createCellStyle();
+        this.dateStyle.setDataFormat(dateFormat);
+        short dateTimeFormat = workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd hh:mm");
+        this.dateTimeStyle = workbook.createCellStyle();
+        this.dateTimeStyle.setDataFormat(dateTimeFormat);
+        short amountFormat = workbook.getCreationHelper().createDataFormat().getFormat("#,##0.00");
+        this.amountStyle = workbook.createCellStyle();
+        this.amountStyle.setDataFormat(amountFormat);
+        newSheet();
+    }
+
+    private void newSheet() {
+        sheetCount++;
+        // Los nombres de hoja admiten como máximo 31 caracteres.
+        String name = sheetCount == 1 ? title : title + " (" + sheetCount + ")";
+        sheet = workbook.createSheet(name.length() > 31 ? name.substring(0, 31) : name);
+        rowNum = 0;
+    }
+
+    @Override
+    public void header(Object... cells) {
+        this.header = cells;
+        write(cells, headerStyle);
+    }
+
+    @Override
+    public void row(Object... cells) {
+        if (rowNum >= MAX_ROWS_PER_SHEET) {
+            newSheet();
+            if (header != null) write(header, headerStyle);
+        }
+        write(cells, null);
+    }
+
+    private void write(Object[] cells, CellStyle rowStyle) {
+        Row row = sheet.createRow(rowNum++);
+        for (int i = 0; i < cells.length; i++) {
+            Object value = cells[i];
+            if (value == null) continue;
+            Cell cell = row.createCell(i);
+            if (value instanceof BigDecimal amount) {
+                cell.setCellValue(amount.doubleValue());
+                cell.setCellStyle(amountStyle);
+            } else if (value instanceof Number number) {
+                cell.setCellValue(number.doubleValue());
+            } else if (value instanceof LocalDateTime dateTime) {
+                cell.setCellValue(dateTime);
+                cell.setCellStyle(dateTimeStyle);
+            } else if (value instanceof LocalDate date) {
+                cell.setCellValue(date);
+                cell.setCellStyle(dateStyle);
+            } else {
+                cell.setCellValue(value.toString());
+            }
+            if (rowStyle != null) cell.setCellStyle(rowStyle);
+        }
+    }
+
+    @Override
+    public void complete() {
+        completed = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            // Aún no se envió nada: si la exportación falló, no se escribe un XLSX incompleto.
+            if (completed) {
+                workbook.write(out);
+                out.flush();
+            }
+        } finally {
+            // Elimina los archivos temporales de SXSSF.
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+}
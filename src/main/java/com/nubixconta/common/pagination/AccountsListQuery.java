@@ -0,0 +1,163 @@
+package com.nubixconta.common.pagination;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consultas de los listados de cuentas por cobrar y por pagar, como proyecciones y sin hidratar entidades.
+ * Un listado son siempre dos consultas: los encabezados (ordenados y paginados en SQL, ver findRows)
+ * y los abonos de esos encabezados (findDetails).
+ *
+ * En las consultas, la cuenta usa el alias 'h' y cada abono el alias 'd'. Los abonos (cobros o pagos)
+ * deben tener 'company', 'paymentStatus', 'paymentDetailDescription', 'paymentMethod', 'paymentAmount'
+ * y 'reference'.
+ *
+ * @param <R> Fila del encabezado; su constructor recibe las columnas de 'rowColumns' y al final el rango de estado.
+ * @param <D> Abono del listado.
+ */
+public final class AccountsListQuery<R, D> {
+
+    private static final String DETAIL_STATUS_RANK =
+            "CASE d.paymentStatus WHEN 'PENDIENTE' THEN 0 WHEN 'APLICADO' THEN 1 WHEN 'ANULADO' THEN 2 ELSE 99 END";
+
+    private final Class<R> rowType;
+    private final String rowColumns;
+    private final String from;
+    private final String documentDate;
+    private final String detailEntity;
+    private final String detailAccount;
+    private final String detailDate;
+    private final DetailFactory<D> detailFactory;
+
+    // Estado más pendiente de los abonos de la cuenta; 99 si no tiene abonos o el estado no es conocido.
+    private final String statusRank;
+
+    /**
+     * @param rowColumns    Columnas del encabezado, en el orden del constructor de 'rowType' (sin el rango).
+     * @param from          Cláusula FROM con la cuenta ('h') y sus JOIN al documento y al tercero.
+     * @param documentDate  Fecha del documento para el orden FECHA (p. ej. "s.issueDate").
+     * @param detailEntity  Entidad de los abonos (p. ej. "CollectionDetail").
+     * @param detailAccount Atributo del abono que apunta a la cuenta (p. ej. "accountReceivable").
+     * @param detailDate    Atributo de fecha del abono.
+     */
+    public AccountsListQuery(Class<R> rowType, String rowColumns, String from, String documentDate,
+                             String detailEntity, String detailAccount, String detailDate,
+                             DetailFactory<D> detailFactory) {
+        this.rowType = rowType;
+        this.rowColumns = rowColumns;
+        this.from = from;
+        this.documentDate = documentDate;
+        this.detailEntity = detailEntity;
+        this.detailAccount = detailAccount;
+        this.detailDate = detailDate;
+        this.detailFactory = detailFactory;
+        this.statusRank = "COALESCE((SELECT MIN(" + DETAIL_STATUS_RANK + ") FROM " + detailEntity +
+                " d WHERE d." + detailAccount + " = h), 99)";
+    }
+
+    /**
+     * Encabezados del listado en el orden pedido.
+     * Con 'afterId' se continúa después de esa fila (keyset); FECHA necesita además 'afterIssueDate'
+     * y ESTADO 'afterStatusRank'. Ver AccountsListSort sobre el costo del orden ESTADO.
+     * @param limit Máximo de filas; null para traerlas todas.
+     */
+    public List<R> findRows(EntityManager entityManager, Integer companyId, AccountsListSort sort,
+                            LocalDateTime afterIssueDate, Integer afterStatusRank, Integer afterId, Integer limit) {
+        String rank = sort == AccountsListSort.ESTADO ? statusRank : "99";
+        Map<String, Object> params = new HashMap<>();
+        params.put("companyId", companyId);
+
+        StringBuilder jpql = new StringBuilder("SELECT new ")
+                .append(rowType.getName())
+                .append("(").append(rowColumns).append(", ").append(rank).append(") ")
+                .append(from)
+                .append(" WHERE h.company.id = :companyId ");
+
+        if (afterId != null) {
+            switch (sort) {
+                case FECHA -> {
+                    jpql.append("AND (").append(documentDate).append(" < :afterIssueDate OR (")
+                            .append(documentDate).append(" = :afterIssueDate AND h.id < :afterId)) ");
+                    params.put("afterIssueDate", afterIssueDate);
+                }
+                case ESTADO -> {
+                    jpql.append("AND (").append(rank).append(" > :afterRank OR (")
+                            .append(rank).append(" = :afterRank AND h.id > :afterId)) ");
+                    params.put("afterRank", afterStatusRank);
+                }
+                default -> jpql.append("AND h.id > :afterId ");
+            }
+            params.put("afterId", afterId);
+        }
+
+        jpql.append(switch (sort) {
+            case FECHA -> "ORDER BY " + documentDate + " DESC, h.id DESC";
+            case ESTADO -> "ORDER BY " + rank + ", h.id";
+            default -> "ORDER BY h.id";
+        });
+
+        TypedQuery<R> query = entityManager.createQuery(jpql.toString(), rowType);
+        params.forEach(query::setParameter);
+        if (limit != null) {
+            query.setMaxResults(limit);
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * Abonos agrupados por cuenta, ordenados dentro de cada cuenta según 'sort'.
+     * @param accountIds Cuentas a incluir; null para todas las de la empresa.
+     */
+    public Map<Integer, List<D>> findDetails(EntityManager entityManager, Integer companyId,
+                                             Collection<Integer> accountIds, AccountsListSort sort) {
+        StringBuilder jpql = new StringBuilder("SELECT d.").append(detailAccount).append(".id, d.id, d.paymentStatus, ")
+                .append("d.paymentDetailDescription, d.").append(detailDate).append(", d.paymentMethod, d.paymentAmount, d.reference ")
+                .append("FROM ").append(detailEntity).append(" d WHERE d.company.id = :companyId ");
+        if (accountIds != null) {
+            jpql.append("AND d.").append(detailAccount).append(".id IN :ids ");
+        }
+        jpql.append(switch (sort) {
+            case FECHA -> "ORDER BY d." + detailDate + " DESC NULLS LAST, d.id";
+            case ESTADO -> "ORDER BY " + DETAIL_STATUS_RANK + ", d.id";
+            default -> "ORDER BY d.id";
+        });
+
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class)
+                .setParameter("companyId", companyId);
+        if (accountIds != null) {
+            query.setParameter("ids", accountIds);
+        }
+
+        Map<Integer, List<D>> byAccount = new HashMap<>();
+        for (Tuple t : query.getResultList()) {
+            byAccount.computeIfAbsent(t.get(0, Integer.class), id -> new ArrayList<>())
+                    .add(detailFactory.create(
+                            t.get(1, Integer.class),
+                            t.get(2, String.class),
+                            t.get(3, String.class),
+                            t.get(4, LocalDateTime.class),
+                            t.get(5, String.class),
+                            t.get(6, BigDecimal.class),
+                            t.get(7, String.class)));
+        }
+        return byAccount;
+    }
+
+    /**
+     * Construye un abono a partir de sus columnas (coincide con el constructor de los DTO de respuesta).
+     */
+    @FunctionalInterface
+    public interface DetailFactory<D> {
+        D create(Integer id, String paymentStatus, String description, LocalDateTime date,
+                 String paymentMethod, BigDecimal paymentAmount, String reference);
+    }
+}
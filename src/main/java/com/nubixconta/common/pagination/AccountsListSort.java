@@ -0,0 +1,14 @@
+package com.nubixconta.common.pagination;
+
+/**
+ * Orden de los listados de cuentas por cobrar y por pagar (ver AccountsListQuery).
+ * REGISTRO: por orden de creación. FECHA: por fecha del documento, de la más reciente a la más antigua.
+ * ESTADO: por el estado más pendiente de sus abonos (PENDIENTE, APLICADO, ANULADO; sin abonos al final).
+ * El rango de ESTADO se calcula por cuenta a partir de sus abonos, así que ningún índice sirve ese
+ * orden: cada página recorre las cuentas de la empresa (REGISTRO y FECHA sí tienen costo constante).
+ */
+public enum AccountsListSort {
+    REGISTRO,
+    FECHA,
+    ESTADO
+}
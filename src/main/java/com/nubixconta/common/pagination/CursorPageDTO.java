@@ -0,0 +1,17 @@
+package com.nubixconta.common.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Página de un listado paginado por cursor. Para pedir la siguiente se envía 'nextCursor' como '?cursor='.
+ */
+@Data
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,40 @@
+package com.nubixconta.common.pagination;
+
+import com.nubixconta.common.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posición del último documento devuelto: rango de estado, fecha e id.
+ * Viaja al cliente como texto opaco (Base64) y este lo devuelve tal cual en '?cursor='.
+ */
+public record DocumentCursor(int statusRank, LocalDateTime date, long id) {
+
+    public String encode() {
+        String raw = statusRank + "|" + date + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return El cursor, o null si viene vacío (primera página).
+     * @throws BadRequestException si el texto no es un cursor válido.
+     */
+    public static DocumentCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException(raw);
+            }
+            return new DocumentCursor(Integer.parseInt(parts[0]), LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("El cursor no es válido.");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.nubixconta.common.pagination;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Parámetros de un listado paginado de documentos, ya validados.
+ * @param statusRank Filtro por estado (opcional), expresado como DocumentStatusRank.
+ * @param from       Fecha mínima, inclusive (opcional).
+ * @param to         Fecha máxima, inclusive hasta el final del día (opcional).
+ */
+public record DocumentListRequest(DocumentSort sort, DocumentCursor cursor, int limit,
+                                  Integer statusRank, LocalDateTime from, LocalDateTime to) {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+
+    /**
+     * Construye la petición a partir de los parámetros tal como llegan al controlador.
+     */
+    public static DocumentListRequest of(String sortBy, String cursor, Integer limit,
+                                         String status, LocalDate startDate, LocalDate endDate) {
+        int pageSize = limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        return new DocumentListRequest(
+                DocumentSort.from(sortBy),
+                DocumentCursor.decode(cursor),
+                pageSize,
+                status != null && !status.isBlank() ? DocumentStatusRank.of(status) : null,
+                startDate != null ? startDate.atStartOfDay() : null,
+                endDate != null ? endDate.atTime(LocalTime.MAX) : null);
+    }
+}
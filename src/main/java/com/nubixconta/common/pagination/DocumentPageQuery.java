@@ -0,0 +1,141 @@
+package com.nubixconta.common.pagination;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Consulta paginada por cursor (keyset) común a los listados de documentos (ventas, compras,
+ * notas de crédito, retenciones, movimientos de inventario y partidas contables).
+ *
+ * Cada entidad debe tener 'company', la columna generada 'statusRank' (ver DocumentStatusRank),
+ * una fecha y un id. La página se pide con una fila de más para saber si hay otra sin hacer un COUNT,
+ * y la siguiente continúa después del último documento devuelto, así el costo de cualquier página
+ * no depende de cuántos documentos tenga la empresa.
+ *
+ * @param <E> La entidad del documento.
+ */
+public final class DocumentPageQuery<E> {
+
+    private static final String STATUS_RANK = "statusRank";
+
+    private final String dateAttribute;
+    private final Function<E, LocalDateTime> dateOf;
+    private final String idAttribute;
+    private final Function<E, ? extends Number> idOf;
+    private final Function<E, Integer> statusRankOf;
+    private final Consumer<Root<E>> fetches;
+
+    /**
+     * @param dateAttribute Atributo de fecha por el que se ordena y filtra (p. ej. "issueDate").
+     * @param idAttribute   Atributo del id, usado para desempatar.
+     */
+    public DocumentPageQuery(String dateAttribute, Function<E, LocalDateTime> dateOf,
+                             String idAttribute, Function<E, ? extends Number> idOf,
+                             Function<E, Integer> statusRankOf) {
+        this(dateAttribute, dateOf, idAttribute, idOf, statusRankOf, null);
+    }
+
+    private DocumentPageQuery(String dateAttribute, Function<E, LocalDateTime> dateOf,
+                              String idAttribute, Function<E, ? extends Number> idOf,
+                              Function<E, Integer> statusRankOf, Consumer<Root<E>> fetches) {
+        this.dateAttribute = dateAttribute;
+        this.dateOf = dateOf;
+        this.idAttribute = idAttribute;
+        this.idOf = idOf;
+        this.statusRankOf = statusRankOf;
+        this.fetches = fetches;
+    }
+
+    /**
+     * Relaciones @ManyToOne que el mapeo a DTO necesita, cargadas con JOIN FETCH en la misma consulta.
+     */
+    public DocumentPageQuery<E> withFetches(Consumer<Root<E>> fetches) {
+        return new DocumentPageQuery<>(dateAttribute, dateOf, idAttribute, idOf, statusRankOf, fetches);
+    }
+
+    public <D> CursorPageDTO<D> fetch(JpaSpecificationExecutor<E> repository, Integer companyId,
+                                      DocumentListRequest request, Function<E, D> mapper) {
+        Specification<E> spec = (root, query, cb) -> {
+            if (fetches != null) {
+                fetches.accept(root);
+            }
+            return cb.and(predicates(root, cb, companyId, request).toArray(new Predicate[0]));
+        };
+
+        List<E> rows = new ArrayList<>(repository.findBy(spec, q -> q
+                .sortBy(sort(request.sort()))
+                .limit(request.limit() + 1)
+                .all()));
+
+        boolean hasMore = rows.size() > request.limit();
+        if (hasMore) {
+            rows.remove(request.limit());
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            E last = rows.get(rows.size() - 1);
+            nextCursor = new DocumentCursor(
+                    Objects.requireNonNullElse(statusRankOf.apply(last), DocumentStatusRank.OTRO),
+                    dateOf.apply(last),
+                    idOf.apply(last).longValue()).encode();
+        }
+
+        return new CursorPageDTO<>(rows.stream().map(mapper).toList(), nextCursor, hasMore);
+    }
+
+    private List<Predicate> predicates(Root<E> root, CriteriaBuilder cb, Integer companyId, DocumentListRequest request) {
+        Path<LocalDateTime> date = root.get(dateAttribute);
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(root.get("company").get("id"), companyId));
+        if (request.statusRank() != null) {
+            predicates.add(cb.equal(root.get(STATUS_RANK), request.statusRank()));
+        }
+        if (request.from() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(date, request.from()));
+        }
+        if (request.to() != null) {
+            predicates.add(cb.lessThanOrEqualTo(date, request.to()));
+        }
+        if (request.cursor() != null) {
+            predicates.add(afterCursor(root, cb, date, request));
+        }
+        return predicates;
+    }
+
+    // Documentos que van después del cursor en el orden pedido.
+    private Predicate afterCursor(Root<E> root, CriteriaBuilder cb, Path<LocalDateTime> date, DocumentListRequest request) {
+        DocumentCursor cursor = request.cursor();
+        Path<Number> id = root.get(idAttribute);
+        Number cursorId = id.getJavaType() == Long.class ? (Number) cursor.id() : Integer.valueOf((int) cursor.id());
+
+        Predicate olderThanCursor = cb.or(
+                cb.lessThan(date, cursor.date()),
+                cb.and(cb.equal(date, cursor.date()), cb.lt(id, cursorId)));
+        if (request.sort() == DocumentSort.DATE) {
+            return olderThanCursor;
+        }
+
+        Path<Integer> rank = root.get(STATUS_RANK);
+        return cb.or(
+                cb.greaterThan(rank, cursor.statusRank()),
+                cb.and(cb.equal(rank, cursor.statusRank()), olderThanCursor));
+    }
+
+    private Sort sort(DocumentSort sort) {
+        Sort byDate = Sort.by(Sort.Order.desc(dateAttribute), Sort.Order.desc(idAttribute));
+        return sort == DocumentSort.STATUS ? Sort.by(Sort.Order.asc(STATUS_RANK)).and(byDate) : byDate;
+    }
+}
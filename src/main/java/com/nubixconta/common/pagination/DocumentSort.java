@@ -0,0 +1,27 @@
+package com.nubixconta.common.pagination;
+
+import com.nubixconta.common.exception.BadRequestException;
+
+/**
+ * Orden de los listados de documentos.
+ * STATUS: por estado (PENDIENTE, APLICADA, ANULADA) y luego por fecha descendente.
+ * DATE: solo por fecha descendente.
+ * En ambos casos el id descendente desempata, para que el cursor sea único.
+ */
+public enum DocumentSort {
+    STATUS,
+    DATE;
+
+    /**
+     * Interpreta el parámetro 'sortBy' ('status' o 'date') que ya usan los controladores.
+     */
+    public static DocumentSort from(String sortBy) {
+        if (sortBy == null || sortBy.isBlank() || "status".equalsIgnoreCase(sortBy)) {
+            return STATUS;
+        }
+        if ("date".equalsIgnoreCase(sortBy)) {
+            return DATE;
+        }
+        throw new BadRequestException("Valor de 'sortBy' no válido. Use 'status' o 'date'.");
+    }
+}
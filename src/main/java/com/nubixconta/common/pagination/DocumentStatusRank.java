@@ -0,0 +1,36 @@
+package com.nubixconta.common.pagination;
+
+import com.nubixconta.common.exception.BadRequestException;
+
+/**
+ * Orden de los estados de un documento en los listados: PENDIENTE, APLICADA, ANULADA y cualquier otro al final.
+ * Cada documento lo guarda en la columna generada 'status_rank', que la base de datos calcula a partir del
+ * estado; así el orden por estado puede usar el índice (company_id, status_rank, fecha) en lugar de un CASE.
+ */
+public final class DocumentStatusRank {
+
+    public static final int PENDIENTE = 1;
+    public static final int APLICADA = 2;
+    public static final int ANULADA = 3;
+    public static final int OTRO = 4;
+
+    // Se arma con el nombre de la columna de estado de cada tabla: PREFIX + "sale_status" + SUFFIX.
+    public static final String COLUMN_DEFINITION_PREFIX = "integer GENERATED ALWAYS AS (CASE ";
+    public static final String COLUMN_DEFINITION_SUFFIX =
+            " WHEN 'PENDIENTE' THEN 1 WHEN 'APLICADA' THEN 2 WHEN 'ANULADA' THEN 3 ELSE 4 END) STORED";
+
+    private DocumentStatusRank() {
+    }
+
+    /**
+     * Convierte el filtro de estado recibido en la petición a su rango.
+     */
+    public static int of(String status) {
+        return switch (status.trim().toUpperCase()) {
+            case "PENDIENTE" -> PENDIENTE;
+            case "APLICADA" -> APLICADA;
+            case "ANULADA" -> ANULADA;
+            default -> throw new BadRequestException("Estado no válido: '" + status + "'. Use PENDIENTE, APLICADA o ANULADA.");
+        };
+    }
+}
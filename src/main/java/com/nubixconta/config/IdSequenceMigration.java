@@ -0,0 +1,92 @@
+package com.nubixconta.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Migración de las tablas de partidas y detalles de documentos de IDENTITY a secuencias.
+ * Las entidades usan ahora @SequenceGenerator con allocationSize = 50 (optimizador "pooled"),
+ * lo que permite a Hibernate agrupar los INSERT en lotes JDBC.
+ * Para cada tabla se asegura la secuencia, se quita la IDENTITY de la columna si la tenía, se fija
+ * la secuencia como DEFAULT del ID (así los INSERT nativos siguen funcionando) y se adelanta la
+ * secuencia por encima del ID máximo existente. Es idempotente: en arranques posteriores no hace cambios.
+ * Se ejecuta después de que Hibernate actualice el esquema y antes de atender peticiones; un error detiene
+ * el arranque, porque los INSERT por lotes fallarían con la tabla a medio migrar.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class IdSequenceMigration implements InitializingBean {
+
+    // Debe coincidir con el allocationSize de las entidades.
+    private static final int ALLOCATION_SIZE = 50;
+
+    private record SequencedTable(String table, String idColumn) {
+        String sequence() {
+            return table + "_seq";
+        }
+    }
+
+    private static final List<SequencedTable> TABLES = List.of(
+            new SequencedTable("sale_entry", "sale_entry_id"),
+            new SequencedTable("credit_note_entry", "credit_note_entry_id"),
+            new SequencedTable("purchase_entry", "purchase_entry_id"),
+            new SequencedTable("purchase_credit_note_entry", "purchase_credit_note_entry_id"),
+            new SequencedTable("income_tax_entry", "income_tax_entry_id"),
+            new SequencedTable("collection_entry", "collection_entry_id"),
+            new SequencedTable("payment_entry", "payment_entry_id"),
+            new SequencedTable("bank_entry", "id_bank_entry"),
+            new SequencedTable("accounting_entry", "accounting_entry_id"),
+            new SequencedTable("journal_line", "journal_line_id"),
+            new SequencedTable("sale_detail", "sale_detail_id"),
+            new SequencedTable("credit_note_detail", "credit_note_detail_id"),
+            new SequencedTable("purchasedetail", "purchase_detail_id"),
+            new SequencedTable("purchase_credit_note_detail", "credit_note_detail_id")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterPropertiesSet() {
+        for (SequencedTable t : TABLES) {
+            try {
+                migrate(t);
+            } catch (RuntimeException e) {
+                throw new IllegalStateException(
+                        "No se pudo migrar la tabla '" + t.table() + "' a la secuencia '" + t.sequence() + "'", e);
+            }
+        }
+    }
+
+    private void migrate(SequencedTable t) {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + t.sequence() + " INCREMENT BY " + ALLOCATION_SIZE);
+
+        String isIdentity = jdbcTemplate.queryForObject(
+                "SELECT is_identity FROM information_schema.columns " +
+                        "WHERE table_schema = current_schema() AND table_name = ? AND column_name = ?",
+                String.class, t.table(), t.idColumn());
+        if ("YES".equals(isIdentity)) {
+            jdbcTemplate.execute("ALTER TABLE " + t.table() + " ALTER COLUMN " + t.idColumn() + " DROP IDENTITY IF EXISTS");
+            log.info("Tabla '{}' migrada de IDENTITY a la secuencia '{}'.", t.table(), t.sequence());
+        }
+
+        // También para las tablas que ya nacieron con secuencia (p. ej. 'journal_line'): Hibernate las
+        // crea sin DEFAULT y los INSERT nativos que omiten el ID fallarían por NOT NULL.
+        jdbcTemplate.execute("ALTER TABLE " + t.table() + " ALTER COLUMN " + t.idColumn() +
+                " SET DEFAULT nextval('" + t.sequence() + "')");
+
+        // El optimizador pooled reparte los IDs (valor - 49 .. valor), así que el próximo valor
+        // de la secuencia debe quedar al menos ALLOCATION_SIZE por encima del ID máximo.
+        jdbcTemplate.queryForList(
+                "SELECT setval('" + t.sequence() + "', m.max_id + " + ALLOCATION_SIZE + ", false) " +
+                        "FROM (SELECT COALESCE(MAX(" + t.idColumn() + "), 0) AS max_id FROM " + t.table() + ") m " +
+                        "WHERE m.max_id >= (SELECT last_value FROM " + t.sequence() + ")");
+    }
+}
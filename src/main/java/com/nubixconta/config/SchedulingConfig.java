@@ -0,0 +1,12 @@
+package com.nubixconta.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas (@Scheduled), como la limpieza de reportes expirados.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,18 +1,26 @@
 package com.nubixconta.modules.AccountsPayable.controller;
 
+import com.nubixconta.common.pagination.AccountsListSort;
+import com.nubixconta.modules.AccountsPayable.dto.AccountsPayable.AccountsPayablePageDTO;
 import com.nubixconta.modules.AccountsPayable.dto.AccountsPayable.AccountsPayablePurchaseResponseDTO;
 import com.nubixconta.modules.AccountsPayable.dto.AccountsPayable.AccountsPayableReponseDTO;
+import com.nubixconta.modules.AccountsPayable.dto.Aging.AccountsPayableAgingDTO;
+import com.nubixconta.modules.AccountsPayable.dto.Aging.CashRequirementsForecastDTO;
+import com.nubixconta.modules.AccountsPayable.dto.Aging.PayableInvoicePageDTO;
+import com.nubixconta.modules.AccountsPayable.service.AccountsPayableAgingService;
 import com.nubixconta.modules.AccountsPayable.service.AccountsPayableService;
 import org.modelmapper.ModelMapper;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.io.Serializable;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -21,10 +29,13 @@ import java.util.Map;
 public class AccountsPayableController {
 
     private final AccountsPayableService service;
+    private final AccountsPayableAgingService agingService;
 
     private final ModelMapper modelMapper;
-    public AccountsPayableController(AccountsPayableService service, ModelMapper modelMapper) {
+    public AccountsPayableController(AccountsPayableService service, AccountsPayableAgingService agingService,
+                                     ModelMapper modelMapper) {
         this.service = service;
+        this.agingService = agingService;
         this.modelMapper= modelMapper;
     }
 
@@ -89,4 +100,53 @@ public class AccountsPayableController {
         List<AccountsPayableReponseDTO> sortedData = service.findAllSortedByDate();
         return ResponseEntity.ok(sortedData);
     }
-}
\ No newline at end of file
+
+    // Listado paginado por cursor (sort = REGISTRO, FECHA o ESTADO; por defecto FECHA).
+    @GetMapping("/page")
+    public ResponseEntity<AccountsPayablePageDTO> getPage(
+            @RequestParam(required = false) AccountsListSort sort,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterIssueDate,
+            @RequestParam(required = false) Integer afterStatusRank,
+            @RequestParam(required = false) Integer afterId,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(service.findPage(sort, afterIssueDate, afterStatusRank, afterId, size));
+    }
+
+    // Antigüedad de saldos por proveedor (corriente, 1-30, 31-60, 61-90, más de 90 días) a una fecha de corte.
+    @GetMapping("/aging")
+    public ResponseEntity<AccountsPayableAgingDTO> getAging(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate) {
+        return ResponseEntity.ok(agingService.getAging(asOfDate));
+    }
+
+    // Detalle de la antigüedad de un proveedor, paginado por cursor (afterDueDate + afterId).
+    @GetMapping("/aging/{supplierId}/invoices")
+    public ResponseEntity<PayableInvoicePageDTO> getAgingInvoices(
+            @PathVariable Integer supplierId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate afterDueDate,
+            @RequestParam(required = false) Integer afterId,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(agingService.getInvoices(supplierId, asOfDate, null, null, afterDueDate, afterId, size));
+    }
+
+    // Proyección semanal de pagos a proveedores según el vencimiento de las compras pendientes.
+    @GetMapping("/cash-forecast")
+    public ResponseEntity<CashRequirementsForecastDTO> getCashForecast(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate,
+            @RequestParam(required = false) Integer weeks) {
+        return ResponseEntity.ok(agingService.getCashRequirements(asOfDate, weeks));
+    }
+
+    // Detalle de la proyección: compras que vencen entre dueFrom y dueTo, paginadas por cursor.
+    @GetMapping("/cash-forecast/invoices")
+    public ResponseEntity<PayableInvoicePageDTO> getCashForecastInvoices(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueTo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate afterDueDate,
+            @RequestParam(required = false) Integer afterId,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(agingService.getInvoices(null, asOfDate, dueFrom, dueTo, afterDueDate, afterId, size));
+    }
+}
@@ -57,27 +57,10 @@ public class PaymentDetailsController {
             @PathVariable Integer id,
             @RequestBody @Valid PaymentDetailsUpdateDTO dto) {
 
-        return service.findById(id)
-                .map(existing -> {
-
-                    Integer payableId = dto.getAccountsPayableId() != null
-                            ? dto.getAccountsPayableId()
-                            : existing.getAccountsPayable().getId();
-
-                    if (dto.getReference() != null) existing.setReference(dto.getReference());
-                    if (dto.getPaymentMethod() != null) existing.setPaymentMethod(dto.getPaymentMethod());
-                    if (dto.getPaymentAmount() != null) existing.setPaymentAmount(dto.getPaymentAmount());
-                    if (dto.getPaymentStatus() != null) existing.setPaymentStatus(dto.getPaymentStatus());
-                    if (dto.getPaymentDetailDescription() != null) existing.setPaymentDetailDescription(dto.getPaymentDetailDescription());
-                    if (dto.getAccountId() != null) existing.setAccountId(dto.getAccountId());
-
-                    PaymentDetails actualizado = service.save(existing);
-
-                    service.recalcularBalancePorPayableId(payableId);
-                    // Mapear la entidad actualizada al DTO antes de devolverla
-                    PaymentDetailsResponseDTO responseDto = modelMapper.map(actualizado, PaymentDetailsResponseDTO.class);
-                    return ResponseEntity.ok(responseDto);
-                })
+        // El ajuste del saldo y el guardado ocurren en la misma transacción del servicio.
+        return service.update(id, dto)
+                .map(actualizado -> modelMapper.map(actualizado, PaymentDetailsResponseDTO.class))
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
     //Metodo para registrar el pago
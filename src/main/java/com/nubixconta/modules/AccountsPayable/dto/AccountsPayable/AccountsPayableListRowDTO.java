@@ -0,0 +1,29 @@
+package com.nubixconta.modules.AccountsPayable.dto.AccountsPayable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Fila del listado de cuentas por pagar, proyectada directamente desde la consulta
+ * (AccountsPayableListRepository) sin cargar las entidades.
+ * 'statusRank' solo se calcula al ordenar por ESTADO; en los demás órdenes vale 99.
+ */
+@Data
+@AllArgsConstructor
+public class AccountsPayableListRowDTO {
+    private Integer accountPayableId;
+    private BigDecimal balance;
+    private BigDecimal payableAmount;
+    private Integer idPurchase;
+    private String documentNumber;
+    private LocalDateTime issueDate;
+    private BigDecimal totalAmount;
+    private String purchaseDescription;
+    private String supplierName;
+    private String supplierLastName;
+    private Integer creditDay;
+    private Integer statusRank;
+}
@@ -0,0 +1,22 @@
+package com.nubixconta.modules.AccountsPayable.dto.AccountsPayable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Página del listado de cuentas por pagar. Para pedir la siguiente se envían, con el mismo 'sort',
+ * 'nextAfterId' como 'afterId' y, según el orden, 'nextAfterIssueDate' (FECHA) o
+ * 'nextAfterStatusRank' (ESTADO).
+ */
+@Data
+@AllArgsConstructor
+public class AccountsPayablePageDTO {
+    private List<AccountsPayableReponseDTO> items;
+    private LocalDateTime nextAfterIssueDate;
+    private Integer nextAfterStatusRank;
+    private Integer nextAfterId;
+    private boolean hasMore;
+}
@@ -0,0 +1,20 @@
+package com.nubixconta.modules.AccountsPayable.dto.Aging;
+
+import com.nubixconta.modules.accountsreceivable.dto.aging.AgingBucketsDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Reporte de antigüedad de cuentas por pagar a una fecha de corte: una fila por proveedor
+ * con saldo pendiente y los totales de la empresa.
+ */
+@Data
+@AllArgsConstructor
+public class AccountsPayableAgingDTO {
+    private LocalDate asOfDate;
+    private List<SupplierAgingDTO> suppliers;
+    private AgingBucketsDTO totals;
+}
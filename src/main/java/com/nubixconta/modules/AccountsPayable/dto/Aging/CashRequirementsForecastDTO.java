@@ -0,0 +1,24 @@
+package com.nubixconta.modules.AccountsPayable.dto.Aging;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Proyección semanal de pagos a proveedores según el vencimiento de las compras pendientes.
+ * 'overdue' es lo ya vencido antes de la primera semana y 'later' lo que vence después de la última.
+ */
+@Data
+@AllArgsConstructor
+public class CashRequirementsForecastDTO {
+    private LocalDate asOfDate;
+    private long overdueCount;
+    private BigDecimal overdue;
+    private List<CashRequirementsWeekDTO> weeks;
+    private long laterCount;
+    private BigDecimal later;
+    private BigDecimal total;
+}
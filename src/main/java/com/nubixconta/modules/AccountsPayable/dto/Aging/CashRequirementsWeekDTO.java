@@ -0,0 +1,23 @@
+package com.nubixconta.modules.AccountsPayable.dto.Aging;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Monto que vence en una semana (lunes a domingo) y el acumulado hasta esa semana,
+ * incluyendo lo ya vencido.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CashRequirementsWeekDTO {
+    private LocalDate weekStart;
+    private LocalDate weekEnd;
+    private long documentCount;
+    private BigDecimal amount;
+    private BigDecimal cumulativeAmount;
+}
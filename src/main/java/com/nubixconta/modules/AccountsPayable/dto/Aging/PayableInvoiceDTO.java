@@ -0,0 +1,31 @@
+package com.nubixconta.modules.AccountsPayable.dto.Aging;
+
+import com.nubixconta.modules.accountsreceivable.dto.aging.AgingBucket;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Compra con saldo pendiente a la fecha de corte, para el detalle de la antigüedad y de la proyección.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayableInvoiceDTO {
+    private Integer accountPayableId;
+    private Integer purchaseId;
+    private String documentNumber;
+    private Integer supplierId;
+    private String supplierName;
+    private String supplierLastName;
+    private LocalDateTime issueDate;
+    private LocalDate dueDate;
+    private BigDecimal payableAmount;
+    private BigDecimal outstanding;
+    private int daysLate;
+    private AgingBucket bucket;
+}
@@ -0,0 +1,20 @@
+package com.nubixconta.modules.AccountsPayable.dto.Aging;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Página del detalle de compras pendientes. Para pedir la siguiente se envían
+ * 'nextAfterDueDate' y 'nextAfterId' como 'afterDueDate' y 'afterId'.
+ */
+@Data
+@AllArgsConstructor
+public class PayableInvoicePageDTO {
+    private List<PayableInvoiceDTO> invoices;
+    private LocalDate nextAfterDueDate;
+    private Integer nextAfterId;
+    private boolean hasMore;
+}
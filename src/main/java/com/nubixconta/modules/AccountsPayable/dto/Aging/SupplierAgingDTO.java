@@ -0,0 +1,19 @@
+package com.nubixconta.modules.AccountsPayable.dto.Aging;
+
+import com.nubixconta.modules.accountsreceivable.dto.aging.AgingBucketsDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Antigüedad de saldos de un proveedor.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SupplierAgingDTO {
+    private Integer supplierId;
+    private String supplierName;
+    private String supplierLastName;
+    private AgingBucketsDTO buckets;
+}
@@ -12,7 +12,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "accounts_payable")
+@Table(name = "accounts_payable",
+        indexes = @Index(name = "idx_accounts_payable_company_purchase", columnList = "company_id, purcharse_id"))
 @Data
 public class AccountsPayable {
         @Id
@@ -35,13 +36,13 @@ public class AccountsPayable {
         private Purchase purchase;
 
         @NotNull(message = "El saldo es obligatorio")
-        @Column(precision = 10, scale = 2)
+        @Column(precision = 10, scale = 2, updatable = false)
         @Digits(integer = 8, fraction = 2, message = "El saldo puede tener hasta 8 dígitos enteros y 2 decimales")
         @DecimalMin(value="0.00",inclusive=true,message = "El Saldo no puede ser negativo")
         private BigDecimal balance;
 
         @NotNull(message = "El monto es obligatorio")
-        @Column(name = "payable_amount", precision = 10, scale = 2)
+        @Column(name = "payable_amount", precision = 10, scale = 2, updatable = false)
         @Digits(integer = 8, fraction = 2, message = "El monto puede tener hasta 8 dígitos enteros y 2 decimales")
         @DecimalMin(value="0.00",inclusive=true,message = "El Monto no puede ser negativo")
         private BigDecimal payableAmount;
@@ -16,7 +16,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "payment_details")
+@Table(name = "payment_details",
+        indexes = @Index(name = "idx_payment_details_payable_date", columnList = "account_payment_id, collection_detail_date"))
 @Data
 @Filter(name = "tenantFilter", condition = "company_id = :companyId")
 public class PaymentDetails {
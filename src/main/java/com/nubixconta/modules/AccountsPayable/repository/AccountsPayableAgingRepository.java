@@ -0,0 +1,174 @@
+package com.nubixconta.modules.AccountsPayable.repository;
+
+import com.nubixconta.modules.AccountsPayable.dto.Aging.PayableInvoiceDTO;
+import com.nubixconta.modules.AccountsPayable.dto.Aging.SupplierAgingDTO;
+import com.nubixconta.modules.accountsreceivable.dto.aging.AgingBucket;
+import com.nubixconta.modules.accountsreceivable.dto.aging.AgingBucketsDTO;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Consultas de antigüedad y proyección de pagos de cuentas por pagar, resueltas en la base de datos.
+ * Solo se consideran compras APLICADAS. El saldo de cada compra a la fecha de corte es su saldo
+ * actual más los pagos no anulados registrados después de esa fecha, y el vencimiento es
+ * 'purchase.issue_date + supplier.credit_day'.
+ * Son consultas nativas (SQL de PostgreSQL) porque el vencimiento y los tramos usan aritmética de fechas.
+ */
+@Repository
+public class AccountsPayableAgingRepository {
+
+    /**
+     * Compras con saldo pendiente a la fecha de corte, con su vencimiento y días de atraso.
+     */
+    private static final String OPEN_ITEMS =
+            "WITH items AS ( " +
+            "  SELECT ap.account_payable_id, p.id_purchase, p.document_number, p.issue_date, ap.payable_amount, " +
+            "         s.id_supplier, s.suplier_name, s.suplier_last_name, " +
+            "         CAST(p.issue_date AS date) + s.credit_day AS due_date, " +
+            "         ap.balance + COALESCE((SELECT SUM(pd.payment_amount) FROM payment_details pd " +
+            "             WHERE pd.account_payment_id = ap.account_payable_id " +
+            "               AND UPPER(COALESCE(pd.payment_status, '')) <> 'ANULADO' " +
+            "               AND pd.collection_detail_date >= :asOfEnd), 0) AS outstanding " +
+            "  FROM accounts_payable ap " +
+            "  JOIN purchase p ON p.id_purchase = ap.purcharse_id " +
+            "  JOIN supplier s ON s.id_supplier = p.id_supplier " +
+            "  WHERE ap.company_id = :companyId AND p.purchase_status = 'APLICADA' AND p.issue_date < :asOfEnd " +
+            "), open_items AS ( " +
+            "  SELECT i.*, GREATEST(CAST(:asOfDate AS date) - i.due_date, 0) AS days_late " +
+            "  FROM items i WHERE i.outstanding > 0 " +
+            ") ";
+
+    private static final String SUMMARY_SQL = OPEN_ITEMS +
+            "SELECT id_supplier, suplier_name, suplier_last_name, COUNT(*) AS document_count, " +
+            "  COALESCE(SUM(outstanding) FILTER (WHERE days_late = 0), 0) AS current_amount, " +
+            "  COALESCE(SUM(outstanding) FILTER (WHERE days_late BETWEEN 1 AND 30), 0) AS days_1_30, " +
+            "  COALESCE(SUM(outstanding) FILTER (WHERE days_late BETWEEN 31 AND 60), 0) AS days_31_60, " +
+            "  COALESCE(SUM(outstanding) FILTER (WHERE days_late BETWEEN 61 AND 90), 0) AS days_61_90, " +
+            "  COALESCE(SUM(outstanding) FILTER (WHERE days_late > 90), 0) AS over_90, " +
+            "  SUM(outstanding) AS total " +
+            "FROM open_items " +
+            "GROUP BY id_supplier, suplier_name, suplier_last_name " +
+            "ORDER BY total DESC, id_supplier";
+
+    // Lo vencido antes de la primera semana y lo posterior a la última se agrupan aparte (week_start NULL).
+    private static final String FORECAST_SQL = OPEN_ITEMS +
+            "SELECT CASE WHEN due_date < :firstWeek THEN 'VENCIDO' " +
+            "            WHEN due_date >= :horizonEnd THEN 'POSTERIOR' ELSE 'SEMANA' END AS period, " +
+            "       CASE WHEN due_date >= :firstWeek AND due_date < :horizonEnd " +
+            "            THEN CAST(date_trunc('week', CAST(due_date AS timestamp)) AS date) END AS week_start, " +
+            "       COUNT(*) AS document_count, SUM(outstanding) AS amount " +
+            "FROM open_items " +
+            "GROUP BY 1, 2";
+
+    /**
+     * Fila agregada de la proyección: 'period' es VENCIDO, SEMANA o POSTERIOR; 'weekStart' solo
+     * viene en las filas SEMANA.
+     */
+    public record ForecastRow(String period, LocalDate weekStart, long documentCount, BigDecimal amount) {
+    }
+
+    private static final RowMapper<PayableInvoiceDTO> INVOICE_MAPPER = (rs, rowNum) -> {
+        int daysLate = rs.getInt("days_late");
+        return new PayableInvoiceDTO(
+                rs.getInt("account_payable_id"),
+                rs.getInt("id_purchase"),
+                rs.getString("document_number"),
+                rs.getInt("id_supplier"),
+                rs.getString("suplier_name"),
+                rs.getString("suplier_last_name"),
+                rs.getObject("issue_date", LocalDateTime.class),
+                rs.getObject("due_date", LocalDate.class),
+                rs.getBigDecimal("payable_amount"),
+                rs.getBigDecimal("outstanding"),
+                daysLate,
+                AgingBucket.of(daysLate));
+    };
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public AccountsPayableAgingRepository(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Tramos por proveedor, en una sola consulta agrupada. Solo incluye proveedores con saldo pendiente.
+     */
+    public List<SupplierAgingDTO> findSupplierAging(Integer companyId, LocalDate asOfDate) {
+        return jdbc.query(SUMMARY_SQL, params(companyId, asOfDate), (rs, rowNum) -> new SupplierAgingDTO(
+                rs.getInt("id_supplier"),
+                rs.getString("suplier_name"),
+                rs.getString("suplier_last_name"),
+                new AgingBucketsDTO(
+                        rs.getLong("document_count"),
+                        rs.getBigDecimal("current_amount"),
+                        rs.getBigDecimal("days_1_30"),
+                        rs.getBigDecimal("days_31_60"),
+                        rs.getBigDecimal("days_61_90"),
+                        rs.getBigDecimal("over_90"),
+                        rs.getBigDecimal("total"))));
+    }
+
+    /**
+     * Montos por semana de vencimiento entre 'firstWeek' (un lunes) y 'horizonEnd' (exclusivo).
+     * Solo devuelve las semanas que tienen vencimientos.
+     */
+    public List<ForecastRow> findCashRequirements(Integer companyId, LocalDate asOfDate,
+                                                  LocalDate firstWeek, LocalDate horizonEnd) {
+        MapSqlParameterSource params = params(companyId, asOfDate)
+                .addValue("firstWeek", firstWeek)
+                .addValue("horizonEnd", horizonEnd);
+        return jdbc.query(FORECAST_SQL, params, (rs, rowNum) -> new ForecastRow(
+                rs.getString("period"),
+                rs.getObject("week_start", LocalDate.class),
+                rs.getLong("document_count"),
+                rs.getBigDecimal("amount")));
+    }
+
+    /**
+     * Compras pendientes paginadas por cursor sobre (due_date, account_payable_id).
+     * @param supplierId Proveedor (opcional).
+     * @param dueFrom    Vencimiento mínimo, inclusive (opcional).
+     * @param dueTo      Vencimiento máximo, inclusive (opcional).
+     */
+    public List<PayableInvoiceDTO> findInvoicePage(Integer companyId, LocalDate asOfDate, Integer supplierId,
+                                                   LocalDate dueFrom, LocalDate dueTo,
+                                                   LocalDate afterDueDate, Integer afterId, int limit) {
+        MapSqlParameterSource params = params(companyId, asOfDate)
+                .addValue("afterDueDate", afterDueDate)
+                .addValue("afterId", afterId)
+                .addValue("limit", limit);
+
+        StringBuilder sql = new StringBuilder(OPEN_ITEMS)
+                .append("SELECT * FROM open_items ")
+                .append("WHERE (due_date > :afterDueDate OR (due_date = :afterDueDate AND account_payable_id > :afterId)) ");
+        if (supplierId != null) {
+            sql.append("AND id_supplier = :supplierId ");
+            params.addValue("supplierId", supplierId);
+        }
+        if (dueFrom != null) {
+            sql.append("AND due_date >= :dueFrom ");
+            params.addValue("dueFrom", dueFrom);
+        }
+        if (dueTo != null) {
+            sql.append("AND due_date <= :dueTo ");
+            params.addValue("dueTo", dueTo);
+        }
+        sql.append("ORDER BY due_date, account_payable_id LIMIT :limit");
+
+        return jdbc.query(sql.toString(), params, INVOICE_MAPPER);
+    }
+
+    private static MapSqlParameterSource params(Integer companyId, LocalDate asOfDate) {
+        return new MapSqlParameterSource()
+                .addValue("companyId", companyId)
+                .addValue("asOfDate", asOfDate)
+                .addValue("asOfEnd", asOfDate.plusDays(1).atStartOfDay());
+    }
+}
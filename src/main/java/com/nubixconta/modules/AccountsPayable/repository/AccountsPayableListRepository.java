@@ -0,0 +1,54 @@
+package com.nubixconta.modules.AccountsPayable.repository;
+
+import com.nubixconta.common.pagination.AccountsListQuery;
+import com.nubixconta.common.pagination.AccountsListSort;
+import com.nubixconta.modules.AccountsPayable.dto.AccountsPayable.AccountsPayableListRowDTO;
+import com.nubixconta.modules.AccountsPayable.dto.PaymentDetails.PaymentDetailsResponseDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Listados de cuentas por pagar como proyecciones, sin hidratar AccountsPayable, Purchase ni Supplier.
+ * Un listado son siempre dos consultas: los encabezados (ordenados y paginados en SQL) y los
+ * pagos de esos encabezados (ver AccountsListQuery).
+ */
+@Repository
+public class AccountsPayableListRepository {
+
+    private static final AccountsListQuery<AccountsPayableListRowDTO, PaymentDetailsResponseDTO> QUERY =
+            new AccountsListQuery<>(AccountsPayableListRowDTO.class,
+                    "h.id, h.balance, h.payableAmount, p.idPurchase, p.documentNumber, p.issueDate, p.totalAmount, " +
+                    "p.purchaseDescription, su.supplierName, su.supplierLastName, su.creditDay",
+                    "FROM AccountsPayable h JOIN h.purchase p LEFT JOIN p.supplier su",
+                    "p.issueDate",
+                    "PaymentDetails", "accountsPayable", "paymentDetailsDate",
+                    PaymentDetailsResponseDTO::new);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Encabezados del listado en el orden pedido (ver AccountsListQuery.findRows).
+     * @param limit Máximo de filas; null para traerlas todas.
+     */
+    public List<AccountsPayableListRowDTO> findRows(Integer companyId, AccountsListSort sort,
+                                                    LocalDateTime afterIssueDate, Integer afterStatusRank,
+                                                    Integer afterId, Integer limit) {
+        return QUERY.findRows(entityManager, companyId, sort, afterIssueDate, afterStatusRank, afterId, limit);
+    }
+
+    /**
+     * Pagos agrupados por cuenta por pagar, ordenados dentro de cada cuenta según 'sort'.
+     * @param payableIds Cuentas a incluir; null para todas las de la empresa.
+     */
+    public Map<Integer, List<PaymentDetailsResponseDTO>> findDetails(Integer companyId, Collection<Integer> payableIds,
+                                                                     AccountsListSort sort) {
+        return QUERY.findDetails(entityManager, companyId, payableIds, sort);
+    }
+}
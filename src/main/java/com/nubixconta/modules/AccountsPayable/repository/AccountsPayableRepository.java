@@ -9,7 +9,9 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,11 +31,20 @@ public interface AccountsPayableRepository extends JpaRepository<AccountsPayable
 
     @Query("SELECT ar FROM AccountsPayable ar JOIN FETCH ar.paymentDetails cd WHERE ar.purchase.idPurchase = :idPurchase AND ar.company.id = :companyId")
     Optional<AccountsPayable> findByPurchase_idPurchaseAndCompany_IdWithPayableDetails(@Param("idPurchase") Integer idPurchase, @Param("companyId") Integer companyId);
-}
-
-
-
-
-
-
 
+    // --- Mantenimiento atómico del saldo (ver PaymentDetailsService y AccountsPayableService) ---
+    // Cada cambio es una sola sentencia sobre los montos vigentes; devuelve el saldo resultante
+    // o vacío si el ajuste dejaría algún monto negativo.
+
+    @Transactional
+    @Query(value = "UPDATE accounts_payable SET balance = balance + :delta " +
+            "WHERE account_payable_id = :id AND balance + :delta >= 0 RETURNING balance",
+            nativeQuery = true)
+    Optional<BigDecimal> addToBalance(@Param("id") Integer id, @Param("delta") BigDecimal delta);
+
+    @Transactional
+    @Query(value = "UPDATE accounts_payable SET payable_amount = payable_amount + :delta, balance = balance + :delta " +
+            "WHERE account_payable_id = :id AND payable_amount + :delta >= 0 AND balance + :delta >= 0 RETURNING balance",
+            nativeQuery = true)
+    Optional<BigDecimal> addToPayableAmountAndBalance(@Param("id") Integer id, @Param("delta") BigDecimal delta);
+}
@@ -0,0 +1,154 @@
+package com.nubixconta.modules.AccountsPayable.service;
+
+import com.nubixconta.common.exception.BadRequestException;
+import com.nubixconta.common.exception.BusinessRuleException;
+import com.nubixconta.modules.AccountsPayable.dto.Aging.AccountsPayableAgingDTO;
+import com.nubixconta.modules.AccountsPayable.dto.Aging.CashRequirementsForecastDTO;
+import com.nubixconta.modules.AccountsPayable.dto.Aging.CashRequirementsWeekDTO;
+import com.nubixconta.modules.AccountsPayable.dto.Aging.PayableInvoiceDTO;
+import com.nubixconta.modules.AccountsPayable.dto.Aging.PayableInvoicePageDTO;
+import com.nubixconta.modules.AccountsPayable.dto.Aging.SupplierAgingDTO;
+import com.nubixconta.modules.AccountsPayable.repository.AccountsPayableAgingRepository;
+import com.nubixconta.modules.AccountsPayable.repository.AccountsPayableAgingRepository.ForecastRow;
+import com.nubixconta.modules.accountsreceivable.dto.aging.AgingBucketsDTO;
+import com.nubixconta.security.TenantContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Antigüedad de saldos de cuentas por pagar y proyección semanal de pagos a proveedores.
+ * Ambos reportes son una sola consulta agregada (AccountsPayableAgingRepository) y devuelven
+ * solo los totales; el detalle de compras se pide aparte, paginado por cursor.
+ */
+@Service
+@RequiredArgsConstructor
+public class AccountsPayableAgingService {
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int DEFAULT_FORECAST_WEEKS = 12;
+    private static final int MAX_FORECAST_WEEKS = 52;
+    // Cursor inicial: anterior a cualquier vencimiento posible.
+    private static final LocalDate MIN_DUE_DATE = LocalDate.of(1900, 1, 1);
+
+    private final AccountsPayableAgingRepository agingRepository;
+
+    private Integer getCompanyIdFromContext() {
+        return TenantContext.getCurrentTenant()
+                .orElseThrow(() -> new BusinessRuleException("No se ha seleccionado una empresa en el contexto."));
+    }
+
+    /**
+     * Tramos por proveedor y totales de la empresa.
+     * @param asOfDate Fecha de corte (opcional; por defecto, hoy).
+     */
+    @Transactional(readOnly = true)
+    public AccountsPayableAgingDTO getAging(LocalDate asOfDate) {
+        Integer companyId = getCompanyIdFromContext();
+        LocalDate cutoff = asOfDate != null ? asOfDate : LocalDate.now();
+
+        List<SupplierAgingDTO> suppliers = agingRepository.findSupplierAging(companyId, cutoff);
+        AgingBucketsDTO totals = new AgingBucketsDTO();
+        suppliers.forEach(supplier -> totals.add(supplier.getBuckets()));
+        return new AccountsPayableAgingDTO(cutoff, suppliers, totals);
+    }
+
+    /**
+     * Proyección de pagos por semana (lunes a domingo) a partir de la semana de la fecha de corte.
+     * Se devuelven todas las semanas del horizonte, aunque no tengan vencimientos.
+     * @param weeks Número de semanas (opcional; por defecto 12, máximo 52).
+     */
+    @Transactional(readOnly = true)
+    public CashRequirementsForecastDTO getCashRequirements(LocalDate asOfDate, Integer weeks) {
+        Integer companyId = getCompanyIdFromContext();
+        LocalDate cutoff = asOfDate != null ? asOfDate : LocalDate.now();
+        int horizon = weeks == null || weeks <= 0 ? DEFAULT_FORECAST_WEEKS : Math.min(weeks, MAX_FORECAST_WEEKS);
+        LocalDate firstWeek = cutoff.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        LocalDate horizonEnd = firstWeek.plusWeeks(horizon);
+
+        long overdueCount = 0;
+        BigDecimal overdue = BigDecimal.ZERO;
+        long laterCount = 0;
+        BigDecimal later = BigDecimal.ZERO;
+        Map<LocalDate, ForecastRow> byWeek = new HashMap<>();
+        for (ForecastRow row : agingRepository.findCashRequirements(companyId, cutoff, firstWeek, horizonEnd)) {
+            switch (row.period()) {
+                case "VENCIDO" -> {
+                    overdueCount = row.documentCount();
+                    overdue = row.amount();
+                }
+                case "POSTERIOR" -> {
+                    laterCount = row.documentCount();
+                    later = row.amount();
+                }
+                default -> byWeek.put(row.weekStart(), row);
+            }
+        }
+
+        List<CashRequirementsWeekDTO> weekList = new ArrayList<>(horizon);
+        BigDecimal cumulative = overdue;
+        for (LocalDate weekStart = firstWeek; weekStart.isBefore(horizonEnd); weekStart = weekStart.plusWeeks(1)) {
+            ForecastRow row = byWeek.get(weekStart);
+            BigDecimal amount = row != null ? row.amount() : BigDecimal.ZERO;
+            cumulative = cumulative.add(amount);
+            weekList.add(new CashRequirementsWeekDTO(weekStart, weekStart.plusDays(6),
+                    row != null ? row.documentCount() : 0, amount, cumulative));
+        }
+
+        return new CashRequirementsForecastDTO(cutoff, overdueCount, overdue, weekList, laterCount, later,
+                cumulative.add(later));
+    }
+
+    /**
+     * Compras pendientes ordenadas por vencimiento, paginadas por cursor. Sirve como detalle de
+     * un proveedor de la antigüedad (supplierId) o de una semana de la proyección (dueFrom/dueTo).
+     */
+    @Transactional(readOnly = true)
+    public PayableInvoicePageDTO getInvoices(Integer supplierId, LocalDate asOfDate, LocalDate dueFrom, LocalDate dueTo,
+                                             LocalDate afterDueDate, Integer afterId, Integer size) {
+        if (dueFrom != null && dueTo != null && dueFrom.isAfter(dueTo)) {
+            throw new BadRequestException("La fecha 'dueFrom' no puede ser posterior a 'dueTo'.");
+        }
+        Integer companyId = getCompanyIdFromContext();
+        LocalDate cutoff = asOfDate != null ? asOfDate : LocalDate.now();
+        int pageSize = normalizePageSize(size);
+        boolean hasCursor = afterDueDate != null && afterId != null;
+
+        // Se pide una fila de más para saber si hay página siguiente sin hacer un COUNT.
+        List<PayableInvoiceDTO> invoices = new ArrayList<>(agingRepository.findInvoicePage(
+                companyId, cutoff, supplierId, dueFrom, dueTo,
+                hasCursor ? afterDueDate : MIN_DUE_DATE,
+                hasCursor ? afterId : 0,
+                pageSize + 1));
+
+        boolean hasMore = invoices.size() > pageSize;
+        if (hasMore) {
+            invoices.remove(pageSize);
+        }
+        PayableInvoiceDTO last = invoices.isEmpty() ? null : invoices.get(invoices.size() - 1);
+
+        return new PayableInvoicePageDTO(
+                invoices,
+                last != null ? last.getDueDate() : null,
+                last != null ? last.getAccountPayableId() : null,
+                hasMore
+        );
+    }
+
+    private static int normalizePageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+}
@@ -1,11 +1,16 @@
 package com.nubixconta.modules.AccountsPayable.service;
 
+import com.nubixconta.common.exception.BadRequestException;
 import com.nubixconta.common.exception.BusinessRuleException;
+import com.nubixconta.common.pagination.AccountsListSort;
+import com.nubixconta.modules.AccountsPayable.dto.AccountsPayable.AccountsPayableListRowDTO;
+import com.nubixconta.modules.AccountsPayable.dto.AccountsPayable.AccountsPayablePageDTO;
 import com.nubixconta.modules.AccountsPayable.dto.AccountsPayable.AccountsPayablePurchaseResponseDTO;
 import com.nubixconta.modules.AccountsPayable.dto.AccountsPayable.AccountsPayableReponseDTO;
 import com.nubixconta.modules.AccountsPayable.dto.PaymentDetails.PaymentDetailsResponseDTO;
 import com.nubixconta.modules.AccountsPayable.entity.AccountsPayable;
 import com.nubixconta.modules.AccountsPayable.entity.PaymentDetails;
+import com.nubixconta.modules.AccountsPayable.repository.AccountsPayableListRepository;
 import com.nubixconta.modules.AccountsPayable.repository.AccountsPayableRepository;
 import com.nubixconta.modules.AccountsPayable.repository.PaymentDetailsRepository;
 import com.nubixconta.modules.purchases.dto.purchases.PurchaseForAccountsPayableDTO;
@@ -33,17 +38,17 @@ public class AccountsPayableService {
     private final ModelMapper modelMapper;
     private final PaymentDetailsRepository paymentDetailsRepository;
 
-    // Mapa estático para definir el orden numérico de los estados.
-    private static final Map<String, Integer> STATUS_ORDER = Map.of(
-            "PENDIENTE", 0,
-            "APLICADO", 1,
-            "ANULADO", 2
-    );
+    private final AccountsPayableListRepository listRepository;
 
-    public AccountsPayableService(AccountsPayableRepository repository, ModelMapper modelMapper,PaymentDetailsRepository paymentDetailsRepository) {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    public AccountsPayableService(AccountsPayableRepository repository, ModelMapper modelMapper,PaymentDetailsRepository paymentDetailsRepository,
+                                  AccountsPayableListRepository listRepository) {
         this.repository = repository;
         this.modelMapper = modelMapper;
         this.paymentDetailsRepository = paymentDetailsRepository;
+        this.listRepository = listRepository;
 
 
     }
@@ -162,72 +167,13 @@ public class AccountsPayableService {
 
 
     /**
-     * MÉTODO ORIGINAL: Devuelve todos los registros sin un orden específico en los detalles
+     * Devuelve todas las cuentas por pagar en orden de registro.
      */
+    @Transactional(readOnly = true)
     public List<AccountsPayableReponseDTO> findAll() {
-        Integer companyId = getCompanyIdFromContext();
-
-        // *** 1. USAMOS EL NUEVO MÉTODO DEL REPOSITORIO ***
-        // Esto asegura que la lista 'paymentDetails' se cargue (resuelve el Lazy Loading).
-        List<AccountsPayable> accounts = repository.findByCompanyIdWithDetails(companyId);
-
-        return accounts.stream()
-                .map(this::mapEntityToDTO) // Delegamos el mapeo a un método dedicado
-                .collect(Collectors.toList());
-    }
-
-
-    private AccountsPayableReponseDTO mapEntityToDTO(AccountsPayable account) {
-        AccountsPayableReponseDTO dto = new AccountsPayableReponseDTO();
-
-        // 1. Mapeo de propiedades directas
-        dto.setBalance(account.getBalance());
-        dto.setPayableAmount(account.getPayableAmount());
-
-        // 2. Mapeo de Compra (Purchase)
-        if (account.getPurchase() != null) {
-            PurchaseForAccountsPayableDTO purchaseDTO = new PurchaseForAccountsPayableDTO();
-            purchaseDTO.setDocumentNumber(account.getPurchase().getDocumentNumber());
-            purchaseDTO.setIssueDate(account.getPurchase().getIssueDate());
-            purchaseDTO.setTotalAmount(account.getPurchase().getTotalAmount());
-
-            if (account.getPurchase().getSupplier() != null) {
-                // Mapeo explícito que resuelve el conflicto de ModelMapper
-                purchaseDTO.setSupplierName(account.getPurchase().getSupplier().getSupplierName());
-                purchaseDTO.setSupplierLastName(account.getPurchase().getSupplier().getSupplierLastName());
-                purchaseDTO.setCreditDay(account.getPurchase().getSupplier().getCreditDay());
-            }
-
-            dto.setPurchase(purchaseDTO);
-        }
-
-        // 3. Mapeo de Detalles de Pago (PaymentDetails)
-        if (account.getPaymentDetails() != null) {
-            List<PaymentDetailsResponseDTO> detailsDTO = account.getPaymentDetails().stream()
-                    .map(this::mapPaymentDetailToDTO)
-                    .collect(Collectors.toList());
-
-            dto.setPaymentDetails(detailsDTO);
-        } else {
-            dto.setPaymentDetails(Collections.emptyList());
-        }
-
-        return dto;
+        return findAllSorted(AccountsListSort.REGISTRO);
     }
 
-    private PaymentDetailsResponseDTO mapPaymentDetailToDTO(PaymentDetails detail) {
-        PaymentDetailsResponseDTO dto = new PaymentDetailsResponseDTO();
-
-        // Mapeo de las propiedades de PaymentDetails a PaymentDetailsResponseDTO
-        dto.setId(detail.getId());
-        dto.setPaymentAmount(detail.getPaymentAmount());
-        dto.setPaymentMethod(detail.getPaymentMethod());
-        dto.setPaymentStatus(detail.getPaymentStatus());
-        dto.setPaymentDetailsDate(detail.getPaymentDetailsDate());
-        dto.setPaymentDetailDescription(detail.getPaymentDetailDescription());
-
-        return dto;
-    }
     /**
      * Actualiza el payableAmount y el balance de una cuenta por pagar basándose en un tipo de operación.
      * Si el tipo de operación es "ANULADA", se suma la cantidad al payableAmount y al balance.
@@ -251,34 +197,28 @@ public class AccountsPayableService {
             throw new BusinessRuleException("La cantidad debe ser un valor positivo.");
         }
 
-        BigDecimal currentPayableAmount = accountsPayable.getPayableAmount();
-        BigDecimal currentBalance = accountsPayable.getBalance();
-        BigDecimal newPayableAmount;
-        BigDecimal newBalance;
-
+        BigDecimal delta;
         switch (operationType.toUpperCase()) {
             case "ANULADA":
                 // Si es "ANULADA", se suma la cantidad
-                newPayableAmount = currentPayableAmount.add(amount);
-                newBalance = currentBalance.add(amount);
+                delta = amount;
                 break;
             case "APLICADA":
                 // Si es "APLICADA", se resta la cantidad
-                // Validar que el PayableAmount y el Balance no se vuelvan negativos
-                if (currentPayableAmount.compareTo(amount) < 0 || currentBalance.compareTo(amount) < 0) {
-                    throw new BusinessRuleException("La cantidad a restar excede el monto a pagar o el saldo actual.");
-                }
-                newPayableAmount = currentPayableAmount.subtract(amount);
-                newBalance = currentBalance.subtract(amount);
+                delta = amount.negate();
                 break;
             default:
                 throw new BusinessRuleException("Tipo de operación no reconocido. Use 'ANULADA' o 'APLICADA'.");
         }
 
-        accountsPayable.setPayableAmount(newPayableAmount);
-        accountsPayable.setBalance(newBalance);
+        // Ambos montos se ajustan en un solo UPDATE sobre los valores vigentes, así un pago
+        // concurrente no puede pisar el ajuste. Vacío si alguno quedaría negativo.
+        BigDecimal newBalance = repository.addToPayableAmountAndBalance(accountsPayable.getId(), delta)
+                .orElseThrow(() -> new BusinessRuleException("La cantidad a restar excede el monto a pagar o el saldo actual."));
 
-        return repository.save(accountsPayable);
+        accountsPayable.setPayableAmount(accountsPayable.getPayableAmount().add(delta));
+        accountsPayable.setBalance(newBalance);
+        return accountsPayable;
     }
 
 
@@ -331,99 +271,99 @@ public class AccountsPayableService {
 
  */
 
+    /**
+     * Devuelve los datos con los detalles ordenados por estado personalizado,
+     * y la lista principal ordenada por el estado de su primer detalle.
+     */
+    @Transactional(readOnly = true)
     public List<AccountsPayableReponseDTO> findAllSortedByStatus() {
-        Integer companyId = getCompanyIdFromContext();
-        List<AccountsPayable> accounts = repository.findByCompanyId(companyId);
-
-        // 1. Define el comparador para ordenar los detalles de cada cuenta
-        Comparator<PaymentDetailsResponseDTO> statusComparator = Comparator
-                .comparing(dto -> STATUS_ORDER.getOrDefault(dto.getPaymentStatus(), 99));
-
-        // 2. Define el comparador para ordenar la lista principal de cuentas por cobrar
-        Comparator<AccountsPayableReponseDTO> mainListComparator = Comparator
-                .comparing(dto -> {
-                    // Obtiene el estado del primer detalle de cobro para ordenar la lista principal
-                    return dto.getPaymentDetails().stream()
-                            .findFirst()
-                            .map(detail -> STATUS_ORDER.getOrDefault(detail.getPaymentStatus(), 99))
-                            .orElse(99); // Cuentas sin detalles van al final
-                });
-
-        return accounts.stream()
-                // Mapea las entidades a DTOs y ordena los detalles internos
-                .map(account -> mapToDtoAndSortDetails(account, statusComparator))
-                // Ordena la lista principal de DTOs usando el estado del primer detalle
-                .sorted(mainListComparator)
-                .collect(Collectors.toList());
+        return findAllSorted(AccountsListSort.ESTADO);
     }
+
     /**
-     *   Devuelve los datos con los detalles ordenados por fecha descendente.
+     *   Devuelve los datos ordenados por fecha de la compra, con los pagos ordenados por fecha descendente.
      */
+    @Transactional(readOnly = true)
     public List<AccountsPayableReponseDTO> findAllSortedByDate() {
-        Integer companyId = getCompanyIdFromContext();
-        List<AccountsPayable> accounts = repository.findByCompanyId(companyId);
+        return findAllSorted(AccountsListSort.FECHA);
+    }
 
-        // Define el comparador para ordenar los detalles de cobro por fecha (de más reciente a más antiguo)
-        Comparator<PaymentDetailsResponseDTO> detailDateComparator = Comparator
-                .comparing(PaymentDetailsResponseDTO::getPaymentDetailsDate, Comparator.nullsLast(Comparator.reverseOrder()));
+    /**
+     * Listado paginado por cursor. Cada página son dos consultas (encabezados y sus pagos),
+     * sin importar cuántas cuentas tenga la empresa (salvo el costo del orden ESTADO, ver AccountsListSort).
+     */
+    @Transactional(readOnly = true)
+    public AccountsPayablePageDTO findPage(AccountsListSort sort, LocalDateTime afterIssueDate,
+                                           Integer afterStatusRank, Integer afterId, Integer size) {
+        Integer companyId = getCompanyIdFromContext();
+        AccountsListSort order = sort != null ? sort : AccountsListSort.FECHA;
+        if (afterId != null && ((order == AccountsListSort.FECHA && afterIssueDate == null)
+                || (order == AccountsListSort.ESTADO && afterStatusRank == null))) {
+            throw new BadRequestException("El cursor está incompleto para el orden " + order + ".");
+        }
+        int pageSize = normalizePageSize(size);
+
+        // Se pide una fila de más para saber si hay página siguiente sin hacer un COUNT.
+        List<AccountsPayableListRowDTO> rows = new ArrayList<>(listRepository.findRows(
+                companyId, order, afterIssueDate, afterStatusRank, afterId, pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows.remove(pageSize);
+        }
 
-        // Define el comparador para ordenar la lista principal de cuentas por cobrar (por fecha de la venta)
-        Comparator<AccountsPayableReponseDTO> mainListComparator = Comparator
-                .comparing(dto -> dto.getPurchase().getIssueDate(), Comparator.nullsLast(Comparator.reverseOrder()));
+        Map<Integer, List<PaymentDetailsResponseDTO>> details = rows.isEmpty()
+                ? Map.of()
+                : listRepository.findDetails(companyId,
+                        rows.stream().map(AccountsPayableListRowDTO::getAccountPayableId).toList(), order);
+        AccountsPayableListRowDTO last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+
+        return new AccountsPayablePageDTO(
+                rows.stream().map(row -> toResponseDto(row, details)).collect(Collectors.toList()),
+                last != null ? last.getIssueDate() : null,
+                last != null && order == AccountsListSort.ESTADO ? last.getStatusRank() : null,
+                last != null ? last.getAccountPayableId() : null,
+                hasMore
+        );
+    }
 
-        return accounts.stream()
-                // Primero, mapea a DTOs y ordena los detalles internos
-                .map(account -> mapToDtoAndSortDetails(account, detailDateComparator))
-                // Luego, ordena la lista principal de DTOs usando el nuevo comparador
-                .sorted(mainListComparator)
+    // Listado completo: los encabezados y todos los pagos de la empresa, en dos consultas.
+    private List<AccountsPayableReponseDTO> findAllSorted(AccountsListSort sort) {
+        Integer companyId = getCompanyIdFromContext();
+        List<AccountsPayableListRowDTO> rows = listRepository.findRows(companyId, sort, null, null, null, null);
+        Map<Integer, List<PaymentDetailsResponseDTO>> details = listRepository.findDetails(companyId, null, sort);
+        return rows.stream()
+                .map(row -> toResponseDto(row, details))
                 .collect(Collectors.toList());
     }
 
-    private AccountsPayableReponseDTO mapToDtoAndSortDetails(AccountsPayable account, Comparator<PaymentDetailsResponseDTO> detailComparator) {
-        AccountsPayableReponseDTO dto = new AccountsPayableReponseDTO();
-        dto.setBalance(account.getBalance());
-        dto.setPayableAmount(account.getPayableAmount()); // Asegúrate de mapear esto también
-
-        if (account.getPurchase() != null) {
-            PurchaseForAccountsPayableDTO purchaseDTO = new PurchaseForAccountsPayableDTO();
-            purchaseDTO.setDocumentNumber(account.getPurchase().getDocumentNumber());
-            purchaseDTO.setIssueDate(account.getPurchase().getIssueDate());
-            purchaseDTO.setTotalAmount(account.getPurchase().getTotalAmount());
-            purchaseDTO.setIdPurchase(account.getPurchase().getIdPurchase()); // Asegúrate de mapear el ID de la compra
-            purchaseDTO.setPurchaseDescription(account.getPurchase().getPurchaseDescription()); // Y la descripción
+    private AccountsPayableReponseDTO toResponseDto(AccountsPayableListRowDTO row,
+                                                    Map<Integer, List<PaymentDetailsResponseDTO>> details) {
+        PurchaseForAccountsPayableDTO purchaseDTO = new PurchaseForAccountsPayableDTO();
+        purchaseDTO.setIdPurchase(row.getIdPurchase());
+        purchaseDTO.setDocumentNumber(row.getDocumentNumber());
+        purchaseDTO.setIssueDate(row.getIssueDate());
+        purchaseDTO.setTotalAmount(row.getTotalAmount());
+        purchaseDTO.setPurchaseDescription(row.getPurchaseDescription());
+        purchaseDTO.setSupplierName(row.getSupplierName());
+        purchaseDTO.setSupplierLastName(row.getSupplierLastName());
+        purchaseDTO.setCreditDay(row.getCreditDay());
 
-            if (account.getPurchase().getSupplier() != null) {
-                // Mapeo manual para evitar el conflicto con ModelMapper
-                purchaseDTO.setSupplierName(account.getPurchase().getSupplier().getSupplierName());
-                purchaseDTO.setSupplierLastName(account.getPurchase().getSupplier().getSupplierLastName());
-                purchaseDTO.setCreditDay(account.getPurchase().getSupplier().getCreditDay());
-            }
-            dto.setPurchase(purchaseDTO);
-        }
+        AccountsPayableReponseDTO dto = new AccountsPayableReponseDTO();
+        dto.setBalance(row.getBalance());
+        dto.setPayableAmount(row.getPayableAmount());
+        dto.setPurchase(purchaseDTO);
+        dto.setCreditDay(row.getCreditDay());
+        dto.setPaymentDetails(details.getOrDefault(row.getAccountPayableId(), new ArrayList<>()));
+        return dto;
+    }
 
-        // Mapeo manual de detalles que ya tenías
-        List<PaymentDetailsResponseDTO> paymentDTOs = account.getPaymentDetails().stream()
-                .map(cd -> new PaymentDetailsResponseDTO(
-                        cd.getId(),
-                        cd.getPaymentStatus(),
-                        cd.getPaymentDetailDescription(),
-                        cd.getPaymentDetailsDate(),
-                        cd.getPaymentMethod(),
-                        cd.getPaymentAmount(),
-                        cd.getReference()
-                ))
-                .collect(Collectors.toList()); // Usamos toList() para que sea mutable
-
-
-        // Si se proporcionó un comparador, se usa para ordenar la lista de detalles.
-        if (detailComparator != null) {
-            paymentDTOs.sort(detailComparator);
+    private static int normalizePageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_PAGE_SIZE;
         }
-
-        dto.setPaymentDetails(paymentDTOs);
-        dto.setCreditDay(account.getPurchase() != null && account.getPurchase().getSupplier() != null ? account.getPurchase().getSupplier().getCreditDay() : null); // Mapear CreditDay
-        return dto;
+        return Math.min(size, MAX_PAGE_SIZE);
     }
+
     // ¡ MÉTODO PARA FILTRAR POR RANGO DE FECHAS!
     @Transactional(readOnly = true)
     public List<AccountsPayableReponseDTO> findByPaymentDateRange(LocalDate startDate, LocalDate endDate) {
@@ -4,6 +4,7 @@ import com.nubixconta.common.exception.BusinessRuleException;
 import com.nubixconta.common.exception.NotFoundException;
 import com.nubixconta.modules.AccountsPayable.dto.PaymentDetails.PaymentDetailsCreateDTO;
 import com.nubixconta.modules.AccountsPayable.dto.PaymentDetails.PaymentDetailsResponseDTO;
+import com.nubixconta.modules.AccountsPayable.dto.PaymentDetails.PaymentDetailsUpdateDTO;
 import com.nubixconta.modules.AccountsPayable.entity.AccountsPayable;
 import com.nubixconta.modules.AccountsPayable.entity.PaymentDetails;
 import com.nubixconta.modules.AccountsPayable.repository.AccountsPayableRepository;
@@ -17,6 +18,7 @@ import com.nubixconta.modules.purchases.entity.PurchaseCreditNote;
 import com.nubixconta.modules.purchases.repository.PurchaseRepository;
 import com.nubixconta.security.TenantContext;
 import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.Hibernate;
 import org.springframework.transaction.annotation.Transactional;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -79,13 +81,13 @@ public class PaymentDetailsService {
             throw new IllegalStateException("No se puede eliminar un pago ya aplicado.");
         }
 
-        Integer accountsPayableId = detail.getAccountsPayable().getId();
+        AccountsPayable accountsPayable = detail.getAccountsPayable();
+        BigDecimal released = effectiveAmount(detail);
 
-        // Primero eliminar
         repository.deleteById(id);
 
-        // Luego recalcular el saldo
-        recalcularBalancePorPayableId(accountsPayableId);
+        // El monto del pago eliminado vuelve al saldo.
+        applyBalanceDelta(accountsPayable, released);
     }
 
     public Optional<PaymentDetails> findById(Integer id) {
@@ -112,36 +114,59 @@ public class PaymentDetailsService {
         detail.setAccountsPayable(accountPayable);
         return repository.save(detail);
     }
-    @Transactional
-    public void recalcularBalancePorPayableId(Integer payableId) {
-        var ar = accountsPayableRepository.findById(payableId)
-                .orElseThrow(() -> new RuntimeException("AccountsPayable no encontrado"));
-
-        // Obtener solo los abonos que NO estén anulados
-        Integer companyId = getCompanyIdFromContext();
-        List<PaymentDetails> abonos = repository.findByAccountsPayableAndCompanyId(payableId,companyId).stream()
-                .filter(detalle -> !"ANULADO".equalsIgnoreCase(detalle.getPaymentStatus()))
-                .toList();
 
-        BigDecimal totalAbonos = abonos.stream()
-                .map(PaymentDetails::getPaymentAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    /**
+     * Actualiza parcialmente un pago y ajusta el saldo de su cuenta por pagar por la diferencia
+     * del monto (o del estado), en una sola transacción: si el guardado falla, el ajuste se revierte.
+     * @return El pago actualizado, o vacío si no existe.
+     */
+    @Transactional
+    public Optional<PaymentDetails> update(Integer id, PaymentDetailsUpdateDTO dto) {
+        return repository.findById(id).map(existing -> {
+            BigDecimal amountBefore = effectiveAmount(existing);
+
+            if (dto.getReference() != null) existing.setReference(dto.getReference());
+            if (dto.getPaymentMethod() != null) existing.setPaymentMethod(dto.getPaymentMethod());
+            if (dto.getPaymentAmount() != null) existing.setPaymentAmount(dto.getPaymentAmount());
+            if (dto.getPaymentStatus() != null) existing.setPaymentStatus(dto.getPaymentStatus());
+            if (dto.getPaymentDetailDescription() != null) existing.setPaymentDetailDescription(dto.getPaymentDetailDescription());
+            if (dto.getAccountId() != null) existing.setAccountId(dto.getAccountId());
+
+            applyBalanceDelta(existing.getAccountsPayable(), amountBefore.subtract(effectiveAmount(existing)));
+            return save(existing);
+        });
+    }
 
-        Purchase purchase = ar.getPurchase();
-        if (purchase == null) {
-            throw new IllegalStateException("La relación con la compra no está disponible para esta cuenta por pagar.");
+    /**
+     * Ajusta el saldo de una cuenta por pagar con un UPDATE atómico sobre el saldo vigente,
+     * sin recorrer los demás pagos. La consistencia con el detalle la revisa BalanceDriftVerifier.
+     * Si la entidad ya está cargada, recibe el saldo resultante para no quedar desactualizada
+     * durante el resto de la transacción (la columna no es actualizable, así que no genera otro UPDATE).
+     * @param delta Negativo al registrar un pago; positivo al eliminarlo o anularlo.
+     * @throws IllegalArgumentException si el saldo quedaría negativo.
+     */
+    @Transactional
+    public void applyBalanceDelta(AccountsPayable accountsPayable, BigDecimal delta) {
+        if (delta.signum() == 0) {
+            return;
         }
-
-        BigDecimal montoTotalCompra = purchase.getTotalAmount();
-        BigDecimal nuevoBalance = montoTotalCompra.subtract(totalAbonos);
-
-        if (nuevoBalance.compareTo(BigDecimal.ZERO) < 0) {
-            throw new IllegalStateException("El balance calculado es negativo, lo que indica un error en los datos.");
+        BigDecimal newBalance = accountsPayableRepository.addToBalance(accountsPayable.getId(), delta)
+                .orElseThrow(() -> new IllegalArgumentException("El monto a abonar excede el saldo restante de la compra."));
+        // Un proxy sin inicializar leerá el saldo ya actualizado cuando se use.
+        if (Hibernate.isInitialized(accountsPayable)) {
+            accountsPayable.setBalance(newBalance);
         }
-        ar.setBalance(nuevoBalance);
-        accountsPayableRepository.save(ar);
     }
 
+    /**
+     * Monto con el que un pago afecta el saldo: cero si está anulado.
+     */
+    public static BigDecimal effectiveAmount(PaymentDetails detail) {
+        if ("ANULADO".equalsIgnoreCase(detail.getPaymentStatus()) || detail.getPaymentAmount() == null) {
+            return BigDecimal.ZERO;
+        }
+        return detail.getPaymentAmount();
+    }
 
     @Transactional
     public PaymentDetails makePayment(PaymentDetailsCreateDTO dto) {
@@ -159,18 +184,6 @@ public class PaymentDetailsService {
                 .orElseThrow(() -> new EntityNotFoundException("Cuenta por cobrar no encontrada para la venta. Asegúrese de que la venta haya sido aplicada."));
 
 
-        BigDecimal montoTotalCompra = ar.getPurchase().getTotalAmount();
-        BigDecimal saldoActual = ar.getBalance();
-        BigDecimal abonoNuevo = dto.getPaymentAmount();
-        BigDecimal nuevoSaldo = saldoActual.subtract(abonoNuevo);
-
-        if (nuevoSaldo.compareTo(BigDecimal.ZERO) < 0) {
-            throw new IllegalArgumentException("El monto a abonar excede el saldo restante de la compra.");
-        }
-        // Actualizar el balance
-        ar.setBalance(nuevoSaldo);
-        accountsPayableRepository.save(ar);
-
         //Obtener la referencia a la empresa.
         Company companyRef = companyRepository.getReferenceById(companyId);
 
@@ -187,8 +200,9 @@ public class PaymentDetailsService {
         detail.setPaymentDetailsDate(dto.getPaymentDetailsDate());
         detail.setModuleType(dto.getModuleType());
 
+        // Descuenta el abono del saldo en una sola sentencia; falla si excede el saldo restante.
+        applyBalanceDelta(ar, effectiveAmount(detail).negate());
         PaymentDetails saved = repository.save(detail);
-        recalcularBalancePorPayableId(ar.getId());
 
         // Bitácora de cambios
         changeHistoryService.logChange(
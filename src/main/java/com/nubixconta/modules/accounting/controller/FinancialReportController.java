@@ -1,20 +1,30 @@
 package com.nubixconta.modules.accounting.controller;
 
 import com.nubixconta.modules.accounting.dto.reports.*;
-import com.nubixconta.modules.accounting.entity.GeneralLedgerView;
+import com.nubixconta.modules.accounting.entity.enums.PeriodGranularity;
+import com.nubixconta.modules.accounting.service.AccountBalanceService;
+import com.nubixconta.modules.accounting.service.ComparativeReportService;
 import com.nubixconta.modules.accounting.service.FinancialReportService;
+import com.nubixconta.modules.accounting.service.FinancialReportStreamingService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/reports")
@@ -22,6 +32,9 @@ import java.util.List;
 public class FinancialReportController {
 
     private final FinancialReportService reportService;
+    private final AccountBalanceService accountBalanceService;
+    private final FinancialReportStreamingService streamingService;
+    private final ComparativeReportService comparativeReportService;
 
     @GetMapping("/libro-diario")
     public ResponseEntity<List<LibroDiarioMovimientoDTO>> getLibroDiario( // <-- CAMBIO AQUÍ
@@ -44,6 +57,73 @@ public class FinancialReportController {
         return ResponseEntity.ok(reportService.getLibroMayor(startDate, endDate, catalogId));
     }
 
+    /**
+     * Libro Diario en streaming (NDJSON). Se activa con 'Accept: application/x-ndjson'.
+     * Cada línea es un movimiento; la memoria usada no depende del rango de fechas.
+     */
+    @GetMapping(value = "/libro-diario", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamLibroDiario(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            HttpServletResponse response) throws IOException {
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        streamingService.writeLibroDiario(startDate, endDate, response.getOutputStream());
+    }
+
+    /**
+     * Libro Mayor en streaming (NDJSON). Se activa con 'Accept: application/x-ndjson'.
+     * Cada línea es una cuenta con sus movimientos y totales.
+     */
+    @GetMapping(value = "/libro-mayor", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamLibroMayor(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer catalogId,
+            HttpServletResponse response) throws IOException {
+
+        if (startDate == null && endDate == null && catalogId == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Debe proporcionar al menos un filtro: rango de fechas o ID de cuenta.");
+        }
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        streamingService.writeLibroMayor(startDate, endDate, catalogId, response.getOutputStream());
+    }
+
+    /**
+     * Libro Diario paginado por cursor. La primera página se pide sin 'afterDate'/'afterId';
+     * las siguientes con los valores 'nextAfterDate'/'nextAfterId' de la respuesta anterior.
+     */
+    @GetMapping("/libro-diario/page")
+    public ResponseEntity<LibroDiarioPageDTO> getLibroDiarioPage(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterDate,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Integer size) {
+
+        return ResponseEntity.ok(reportService.getLibroDiarioPage(startDate, endDate, afterDate, afterId, size));
+    }
+
+    /**
+     * Movimientos de una cuenta paginados por cursor, con saldo inicial de cada página.
+     * Se usa para el Libro Mayor de una cuenta y para el detalle de una línea de la Balanza
+     * (mismo servicio, con el período de la Balanza como rango).
+     */
+    @GetMapping({"/libro-mayor/{catalogId}/page", "/balanza-comprobacion/{catalogId}/movimientos"})
+    public ResponseEntity<LibroMayorPageDTO> getLibroMayorPage(
+            @PathVariable Integer catalogId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterDate,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Integer size) {
+
+        return ResponseEntity.ok(reportService.getLibroMayorPage(catalogId, startDate, endDate, afterDate, afterId, size));
+    }
+
     @GetMapping("/balanza-comprobacion")
     public ResponseEntity<List<BalanzaComprobacionLineaDTO>> getBalanzaDeComprobacion(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
@@ -52,6 +132,19 @@ public class FinancialReportController {
         return ResponseEntity.ok(reportService.getBalanzaDeComprobacion(startDate, endDate));
     }
 
+    /**
+     * Balanza de Comprobación por niveles, con subtotales de cada cuenta de grupo.
+     * @param maxLevel Profundidad máxima (1 = rubros, 2 = cuentas, ...). Por defecto, todos los niveles.
+     */
+    @GetMapping("/balanza-comprobacion/jerarquica")
+    public ResponseEntity<List<CuentaJerarquicaDTO>> getBalanzaJerarquica(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer maxLevel) {
+
+        return ResponseEntity.ok(reportService.getBalanzaJerarquica(startDate, endDate, maxLevel));
+    }
+
     @GetMapping("/estado-resultados")
     public ResponseEntity<EstadoResultadosResponseDTO> getEstadoDeResultados(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
@@ -67,4 +160,70 @@ public class FinancialReportController {
         return ResponseEntity.ok(reportService.getBalanceGeneral(endDate));
     }
 
-}
\ No newline at end of file
+    /**
+     * Paquete de cierre: Balanza, Estado de Resultados y Balance General del mismo período,
+     * calculados con una sola lectura del libro.
+     */
+    @GetMapping("/paquete-financiero")
+    public ResponseEntity<PaqueteFinancieroDTO> getPaqueteFinanciero(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        validateRange(startDate, endDate);
+        return ResponseEntity.ok(reportService.getPaqueteFinanciero(startDate, endDate));
+    }
+
+    /**
+     * Balance General por niveles (Activo, Pasivo y Patrimonio), con subtotales de cada cuenta de grupo.
+     */
+    @GetMapping("/balance-general/jerarquico")
+    public ResponseEntity<List<CuentaJerarquicaDTO>> getBalanceGeneralJerarquico(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer maxLevel) {
+
+        return ResponseEntity.ok(reportService.getBalanceGeneralJerarquico(endDate, maxLevel));
+    }
+
+    /**
+     * Estado de Resultados comparativo: una columna por mes, trimestre o año del rango,
+     * con variación absoluta y porcentual respecto al período anterior.
+     */
+    @GetMapping("/estado-resultados/comparativo")
+    public ResponseEntity<ReporteComparativoDTO> getEstadoResultadosComparativo(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "MES") PeriodGranularity granularity) {
+
+        validateRange(startDate, endDate);
+        return ResponseEntity.ok(comparativeReportService.getEstadoResultadosComparativo(startDate, endDate, granularity));
+    }
+
+    /**
+     * Balanza de Comprobación comparativa: Debe, Haber y saldo al cierre de cada período.
+     */
+    @GetMapping("/balanza-comprobacion/comparativa")
+    public ResponseEntity<ReporteComparativoDTO> getBalanzaComparativa(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "MES") PeriodGranularity granularity) {
+
+        validateRange(startDate, endDate);
+        return ResponseEntity.ok(comparativeReportService.getBalanzaComparativa(startDate, endDate, granularity));
+    }
+
+    /**
+     * Reconstruye los saldos diarios por cuenta de la empresa actual desde el libro diario.
+     * Útil tras una carga de datos manual o para corregir cualquier desviación.
+     */
+    @PostMapping("/account-balances/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildAccountBalances() {
+        int rows = accountBalanceService.rebuildForCurrentCompany();
+        return ResponseEntity.ok(Map.of("rows", rows));
+    }
+
+    private void validateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "La fecha de inicio no puede ser posterior a la fecha de fin.");
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.nubixconta.modules.accounting.controller;
+
+import com.nubixconta.common.export.ExportFormat;
+import com.nubixconta.common.export.TabularWriter;
+import com.nubixconta.modules.accounting.entity.enums.PeriodGranularity;
+import com.nubixconta.modules.accounting.service.ReportExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Exportación de los reportes financieros a Excel o CSV.
+ * Usa las mismas rutas que FinancialReportController; se activa al agregar '?format=xlsx' o
+ * '?format=csv', y el archivo se escribe directamente en la respuesta.
+ */
+@RestController
+@RequestMapping("/api/v1/reports")
+@RequiredArgsConstructor
+public class ReportExportController {
+
+    private final ReportExportService exportService;
+
+    @GetMapping(value = "/libro-diario", params = "format")
+    public void exportLibroDiario(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam String format,
+            HttpServletResponse response) throws IOException {
+
+        ExportFormat exportFormat = TabularWriter.prepareDownload(response, format, "libro-diario_" + startDate + "_" + endDate);
+        exportService.exportLibroDiario(startDate, endDate, exportFormat, response.getOutputStream());
+    }
+
+    @GetMapping(value = "/libro-mayor", params = "format")
+    public void exportLibroMayor(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer catalogId,
+            @RequestParam String format,
+            HttpServletResponse response) throws IOException {
+
+        if (startDate == null && endDate == null && catalogId == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Debe proporcionar al menos un filtro: rango de fechas o ID de cuenta.");
+        }
+        ExportFormat exportFormat = TabularWriter.prepareDownload(response, format, "libro-mayor");
+        exportService.exportLibroMayor(startDate, endDate, catalogId, exportFormat, response.getOutputStream());
+    }
+
+    @GetMapping(value = "/balanza-comprobacion", params = "format")
+    public void exportBalanzaDeComprobacion(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam String format,
+            HttpServletResponse response) throws IOException {
+
+        ExportFormat exportFormat = TabularWriter.prepareDownload(response, format, "balanza-comprobacion_" + startDate + "_" + endDate);
+        exportService.exportBalanzaDeComprobacion(startDate, endDate, exportFormat, response.getOutputStream());
+    }
+
+    @GetMapping(value = "/balanza-comprobacion/jerarquica", params = "format")
+    public void exportBalanzaJerarquica(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer maxLevel,
+            @RequestParam String format,
+            HttpServletResponse response) throws IOException {
+
+        ExportFormat exportFormat = TabularWriter.prepareDownload(response, format, "balanza-niveles_" + startDate + "_" + endDate);
+        exportService.exportBalanzaJerarquica(startDate, endDate, maxLevel, exportFormat, response.getOutputStream());
+    }
+
+    @GetMapping(value = "/balanza-comprobacion/comparativa", params = "format")
+    public void exportBalanzaComparativa(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "MES") PeriodGranularity granularity,
+            @RequestParam String format,
+            HttpServletResponse response) throws IOException {
+
+        ExportFormat exportFormat = TabularWriter.prepareDownload(response, format, "balanza-comparativa_" + startDate + "_" + endDate);
+        exportService.exportBalanzaComparativa(startDate, endDate, granularity, exportFormat, response.getOutputStream());
+    }
+
+    @GetMapping(value = "/estado-resultados", params = "format")
+    public void exportEstadoDeResultados(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam String format,
+            HttpServletResponse response) throws IOException {
+
+        ExportFormat exportFormat = TabularWriter.prepareDownload(response, format, "estado-resultados_" + startDate + "_" + endDate);
+        exportService.exportEstadoDeResultados(startDate, endDate, exportFormat, response.getOutputStream());
+    }
+
+    @GetMapping(value = "/estado-resultados/comparativo", params = "format")
+    public void exportEstadoResultadosComparativo(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "MES") PeriodGranularity granularity,
+            @RequestParam String format,
+            HttpServletResponse response) throws IOException {
+
+        ExportFormat exportFormat = TabularWriter.prepareDownload(response, format, "estado-resultados-comparativo_" + startDate + "_" + endDate);
+        exportService.exportEstadoResultadosComparativo(startDate, endDate, granularity, exportFormat, response.getOutputStream());
+    }
+
+    @GetMapping(value = "/balance-general", params = "format")
+    public void exportBalanceGeneral(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam String format,
+            HttpServletResponse response) throws IOException {
+
+        ExportFormat exportFormat = TabularWriter.prepareDownload(response, format, "balance-general_" + endDate);
+        exportService.exportBalanceGeneral(endDate, exportFormat, response.getOutputStream());
+    }
+
+    @GetMapping(value = "/balance-general/jerarquico", params = "format")
+    public void exportBalanceGeneralJerarquico(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer maxLevel,
+            @RequestParam String format,
+            HttpServletResponse response) throws IOException {
+
+        ExportFormat exportFormat = TabularWriter.prepareDownload(response, format, "balance-general-niveles_" + endDate);
+        exportService.exportBalanceGeneralJerarquico(endDate, maxLevel, exportFormat, response.getOutputStream());
+    }
+}
@@ -0,0 +1,61 @@
+package com.nubixconta.modules.accounting.controller;
+
+import com.nubixconta.modules.accounting.dto.reports.jobs.ReportJobRequestDTO;
+import com.nubixconta.modules.accounting.dto.reports.jobs.ReportJobStatusDTO;
+import com.nubixconta.modules.accounting.service.ReportJobService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Generación de reportes financieros en segundo plano.
+ * Flujo: POST para encolar, GET /{jobId} para consultar el avance y GET /{jobId}/download
+ * para descargar el resultado (JSON con el mismo formato del endpoint síncrono).
+ */
+@RestController
+@RequestMapping("/api/v1/reports/jobs")
+@RequiredArgsConstructor
+public class ReportJobController {
+
+    private final ReportJobService reportJobService;
+
+    @PostMapping
+    public ResponseEntity<ReportJobStatusDTO> submit(@Valid @RequestBody ReportJobRequestDTO request) {
+        return new ResponseEntity<>(reportJobService.submit(request), HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ReportJobStatusDTO>> listJobs() {
+        return ResponseEntity.ok(reportJobService.listJobs());
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ReportJobStatusDTO> getStatus(@PathVariable String jobId) {
+        return ResponseEntity.ok(reportJobService.getStatus(jobId));
+    }
+
+    @PostMapping("/{jobId}/cancel")
+    public ResponseEntity<ReportJobStatusDTO> cancel(@PathVariable String jobId) {
+        return ResponseEntity.ok(reportJobService.cancel(jobId));
+    }
+
+    @GetMapping("/{jobId}/download")
+    public ResponseEntity<Resource> download(@PathVariable String jobId) {
+        Resource resource = new FileSystemResource(reportJobService.getResultFile(jobId));
+        String fileName = reportJobService.getDownloadFileName(jobId);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(resource);
+    }
+}
@@ -1,6 +1,8 @@
 package com.nubixconta.modules.accounting.controller;
 
 import com.nubixconta.common.exception.BadRequestException;
+import com.nubixconta.common.pagination.CursorPageDTO;
+import com.nubixconta.common.pagination.DocumentListRequest;
 import com.nubixconta.modules.accounting.dto.accounting.TransactionAccountingCreateDTO;
 import com.nubixconta.modules.accounting.dto.accounting.TransactionAccountingResponseDTO;
 import com.nubixconta.modules.accounting.dto.accounting.TransactionAccountingUpdateDTO;
@@ -41,6 +43,22 @@ public class TransactionAccountingController {
         return ResponseEntity.ok(transactions);
     }
 
+    /**
+     * Listado de partidas contables paginado por cursor. Se activa al enviar 'cursor' (vacío para la primera página);
+     * la respuesta trae 'nextCursor' para pedir la siguiente. Filtros opcionales: 'status', 'startDate' y 'endDate'.
+     */
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageDTO<TransactionAccountingResponseDTO>> getTransactionsPage(
+            @RequestParam String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(name = "sortBy", defaultValue = "status") String sortBy,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        DocumentListRequest request = DocumentListRequest.of(sortBy, cursor, limit, status, startDate, endDate);
+        return ResponseEntity.ok(transactionService.findPage(request));
+    }
+
     @PostMapping
     public ResponseEntity<TransactionAccountingResponseDTO> createTransaction(@Valid @RequestBody TransactionAccountingCreateDTO createDTO) {
         TransactionAccountingResponseDTO createdTransaction = transactionService.createTransaction(createDTO);
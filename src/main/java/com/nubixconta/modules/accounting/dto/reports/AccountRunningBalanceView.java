@@ -0,0 +1,12 @@
+package com.nubixconta.modules.accounting.dto.reports;
+
+import java.math.BigDecimal;
+
+/**
+ * Proyección de la consulta nativa del saldo acumulado por cuenta
+ * (ver AccountDailyBalanceRepository.getAccumulatedBalancesBefore).
+ */
+public interface AccountRunningBalanceView {
+    Integer getIdCatalog();
+    BigDecimal getBalance();
+}
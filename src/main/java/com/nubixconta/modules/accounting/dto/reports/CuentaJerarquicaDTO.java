@@ -0,0 +1,25 @@
+package com.nubixconta.modules.accounting.dto.reports;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+/**
+ * Línea de un reporte jerárquico (Balanza o Balance General por niveles).
+ * Los importes de las cuentas de grupo son la suma de todas sus subcuentas.
+ * Los saldos se expresan según la naturaleza de la cuenta: positivos si son deudores en cuentas
+ * de Activo/Costo/Gasto, o acreedores en cuentas de Pasivo/Patrimonio/Ingreso.
+ */
+@Data
+public class CuentaJerarquicaDTO {
+    private Integer idCatalog;
+    private Integer parentIdCatalog;
+    private String accountCode;
+    private String accountName;
+    private int nivel;              // 1 = rubro, 2 = cuenta, 3 = subcuenta...
+    private boolean postable;
+
+    private BigDecimal saldoInicial;
+    private BigDecimal totalDebePeriodo;
+    private BigDecimal totalHaberPeriodo;
+    private BigDecimal saldoFinal;
+}
@@ -0,0 +1,45 @@
+package com.nubixconta.modules.accounting.dto.reports;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Línea del libro diario para las consultas paginadas por cursor.
+ * Incluye el 'lineId', que junto con 'accountingDate' forma el cursor de la página siguiente.
+ */
+@Data
+@NoArgsConstructor
+public class LedgerLineDTO {
+    private Long lineId;
+    private Long documentId;
+    private String documentType;
+    private LocalDateTime accountingDate;
+    private Integer idCatalog;
+    private String accountCode;
+    private String accountName;
+    private BigDecimal debe;
+    private BigDecimal haber;
+    private String description;
+
+    // Saldo acumulado de la cuenta después de este movimiento (solo en el Libro Mayor)
+    private BigDecimal saldo;
+
+    // Constructor para la proyección JPQL
+    public LedgerLineDTO(Long lineId, Long documentId, String documentType, LocalDateTime accountingDate,
+                         Integer idCatalog, String accountCode, String accountName,
+                         BigDecimal debe, BigDecimal haber, String description) {
+        this.lineId = lineId;
+        this.documentId = documentId;
+        this.documentType = documentType;
+        this.accountingDate = accountingDate;
+        this.idCatalog = idCatalog;
+        this.accountCode = accountCode;
+        this.accountName = accountName;
+        this.debe = debe;
+        this.haber = haber;
+        this.description = description;
+    }
+}
@@ -8,7 +8,7 @@ import java.time.LocalDateTime;
 @Data
 @AllArgsConstructor // JPQL necesita este constructor para crear el objeto
 public class LedgerMovementDetailDTO {
-    // Campos de GeneralLedgerView
+    // Campos de JournalLine
     private String uniqueId;
     private Long documentId;
     private String documentType;
@@ -19,7 +19,7 @@ public class LedgerMovementDetailDTO {
     private String accountCode;
     private String accountName;
 
-    // Campos de GeneralLedgerView (continuación)
+    // Campos de JournalLine (continuación)
     private BigDecimal debe;
     private BigDecimal haber;
     private String description;
@@ -0,0 +1,20 @@
+package com.nubixconta.modules.accounting.dto.reports;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Página del Libro Diario. Para pedir la siguiente se envían 'nextAfterDate' y 'nextAfterId'
+ * como 'afterDate' y 'afterId'.
+ */
+@Data
+@AllArgsConstructor
+public class LibroDiarioPageDTO {
+    private List<LedgerLineDTO> movimientos;
+    private LocalDateTime nextAfterDate;
+    private Long nextAfterId;
+    private boolean hasMore;
+}
@@ -0,0 +1,29 @@
+package com.nubixconta.modules.accounting.dto.reports;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Página de movimientos de una cuenta (Libro Mayor o detalle de una línea de la Balanza).
+ * 'saldoInicial' es el saldo acumulado de la cuenta antes del primer movimiento de la página
+ * y 'saldoFinal' el saldo después del último, que es el saldo inicial de la página siguiente.
+ */
+@Data
+public class LibroMayorPageDTO {
+    private Integer idCatalog;
+    private String accountCode;
+    private String accountName;
+
+    private BigDecimal saldoInicial;
+    private BigDecimal saldoFinal;
+
+    private List<LedgerLineDTO> movimientos;
+
+    // --- Cursor para la página siguiente ---
+    private LocalDateTime nextAfterDate;
+    private Long nextAfterId;
+    private boolean hasMore;
+}
@@ -0,0 +1,28 @@
+package com.nubixconta.modules.accounting.dto.reports;
+
+import lombok.Data;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Fila de un reporte comparativo: un importe por período, en el mismo orden que
+ * ReporteComparativoDTO.periodos.
+ * 'variaciones' y 'variacionesPorcentuales' comparan cada período con el anterior; para el
+ * primer período, o si el anterior es cero, el porcentaje es null.
+ * Las filas de totales tienen 'idCatalog' null y sección "TOTAL".
+ */
+@Data
+public class LineaComparativaDTO {
+    private Integer idCatalog;
+    private String accountCode;
+    private String accountName;
+    private String seccion;
+
+    private List<BigDecimal> valores;
+    private List<BigDecimal> variaciones;
+    private List<BigDecimal> variacionesPorcentuales;
+
+    // Solo en la Balanza comparativa: movimientos de cada período.
+    private List<BigDecimal> debes;
+    private List<BigDecimal> haberes;
+}
@@ -0,0 +1,18 @@
+package com.nubixconta.modules.accounting.dto.reports;
+
+import lombok.Data;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Paquete de cierre de mes: los tres estados financieros para el mismo período,
+ * calculados a partir de una sola lectura de saldos (ver FinancialReportService.getPaqueteFinanciero).
+ */
+@Data
+public class PaqueteFinancieroDTO {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private List<BalanzaComprobacionLineaDTO> balanzaComprobacion;
+    private EstadoResultadosResponseDTO estadoResultados;
+    private BalanceGeneralResponseDTO balanceGeneral;
+}
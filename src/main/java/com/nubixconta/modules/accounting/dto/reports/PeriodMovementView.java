@@ -0,0 +1,15 @@
+package com.nubixconta.modules.accounting.dto.reports;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Proyección de la consulta nativa de movimientos agrupados por cuenta y período
+ * (ver AccountDailyBalanceRepository.getMovementsByPeriod).
+ */
+public interface PeriodMovementView {
+    Integer getIdCatalog();
+    LocalDate getPeriodStart();
+    BigDecimal getTotalDebe();
+    BigDecimal getTotalHaber();
+}
@@ -0,0 +1,19 @@
+package com.nubixconta.modules.accounting.dto.reports;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Columna de un reporte comparativo. El primer y el último período se recortan al rango pedido.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PeriodoComparativoDTO {
+    private String etiqueta;
+    private LocalDate startDate;
+    private LocalDate endDate;
+}
@@ -0,0 +1,12 @@
+package com.nubixconta.modules.accounting.dto.reports;
+
+import com.nubixconta.modules.accounting.entity.enums.PeriodGranularity;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class ReporteComparativoDTO {
+    private PeriodGranularity granularidad;
+    private List<PeriodoComparativoDTO> periodos;
+    private List<LineaComparativaDTO> lineas;
+}
@@ -0,0 +1,24 @@
+package com.nubixconta.modules.accounting.dto.reports.jobs;
+
+import com.nubixconta.modules.accounting.entity.enums.ReportType;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Solicitud para generar un reporte en segundo plano.
+ * Los parámetros son los mismos que los del endpoint síncrono de cada reporte.
+ */
+@Data
+public class ReportJobRequestDTO {
+
+    @NotNull(message = "El tipo de reporte es obligatorio.")
+    private ReportType reportType;
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    // Solo para el Libro Mayor
+    private Integer catalogId;
+}
@@ -0,0 +1,21 @@
+package com.nubixconta.modules.accounting.dto.reports.jobs;
+
+import com.nubixconta.modules.accounting.entity.enums.ReportJobStatus;
+import com.nubixconta.modules.accounting.entity.enums.ReportType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class ReportJobStatusDTO {
+    private String jobId;
+    private ReportType reportType;
+    private ReportJobStatus status;
+    private int progress; // 0 - 100
+    private String errorMessage;
+    private LocalDateTime submittedAt;
+    private LocalDateTime finishedAt;
+    private LocalDateTime expiresAt;
+}
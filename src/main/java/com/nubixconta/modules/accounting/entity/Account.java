@@ -1,13 +1,17 @@
 package com.nubixconta.modules.accounting.entity;
 
+import com.nubixconta.common.pagination.DocumentListRequest;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.HashSet;
 import java.util.Set;
 
+// Los proxies de una página de documentos se cargan por lotes (una consulta IN) al mapearlos.
+@BatchSize(size = DocumentListRequest.MAX_LIMIT)
 @Entity
 @Table(name = "account")
 @Getter
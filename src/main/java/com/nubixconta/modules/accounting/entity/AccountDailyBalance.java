@@ -0,0 +1,56 @@
+package com.nubixconta.modules.accounting.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Saldo diario acumulado por cuenta del catálogo y empresa.
+ * Cada fila guarda la suma del Debe y del Haber de todos los movimientos contables
+ * de un día y el saldo acumulado de la cuenta hasta ese día, de modo que el saldo inicial
+ * a cualquier fecha se obtiene leyendo una sola fila por cuenta.
+ * La tabla se mantiene de forma incremental desde los servicios que generan o eliminan
+ * partidas (ver AccountBalanceService) y puede reconstruirse desde 'journal_line'.
+ */
+@Entity
+@Table(name = "account_daily_balance",
+        uniqueConstraints = {
+                @UniqueConstraint(columnNames = {"company_id", "id_catalog", "balance_date"})
+        },
+        indexes = {
+                @Index(name = "idx_account_daily_balance_company_date", columnList = "company_id, balance_date")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+public class AccountDailyBalance {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "account_daily_balance_id")
+    private Long id;
+
+    @Column(name = "company_id", nullable = false)
+    private Integer companyId;
+
+    @Column(name = "id_catalog", nullable = false)
+    private Integer idCatalog;
+
+    @Column(name = "balance_date", nullable = false)
+    private LocalDate balanceDate;
+
+    @Column(name = "total_debe", precision = 14, scale = 2, nullable = false)
+    private BigDecimal totalDebe = BigDecimal.ZERO;
+
+    @Column(name = "total_haber", precision = 14, scale = 2, nullable = false)
+    private BigDecimal totalHaber = BigDecimal.ZERO;
+
+    // Saldo acumulado (Debe - Haber) de la cuenta hasta el final de este día, incluido.
+    // Es NULL solo en filas anteriores a la columna, hasta que AccountBalanceService las inicializa.
+    @Column(name = "running_balance", precision = 16, scale = 2)
+    private BigDecimal runningBalance;
+}
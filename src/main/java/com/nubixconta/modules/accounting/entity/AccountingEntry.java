@@ -18,7 +18,8 @@ public class AccountingEntry {
     // Aunque el diagrama sugiere una clave compuesta, usar una clave subrogada simple (un ID único)
     // es una práctica recomendada en JPA para simplificar la gestión de la entidad.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "accounting_entry_seq")
+    @SequenceGenerator(name = "accounting_entry_seq", sequenceName = "accounting_entry_seq", allocationSize = 50)
     @Column(name = "accounting_entry_id")
     private Long id;
 
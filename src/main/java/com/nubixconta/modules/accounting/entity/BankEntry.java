@@ -19,7 +19,8 @@ import java.time.LocalDateTime;
 public class BankEntry {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bank_entry_seq")
+    @SequenceGenerator(name = "bank_entry_seq", sequenceName = "bank_entry_seq", allocationSize = 50)
     @Column(name = "id_bank_entry")
     private Integer idBankEntry;
 
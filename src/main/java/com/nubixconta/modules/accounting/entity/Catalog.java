@@ -1,10 +1,12 @@
 package com.nubixconta.modules.accounting.entity;
 
+import com.nubixconta.common.pagination.DocumentListRequest;
 import com.nubixconta.modules.administration.entity.Company;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.Objects;
 
@@ -14,6 +16,8 @@ import java.util.Objects;
  * y una empresa específica (Company).
  * Cada registro en esta tabla significa "La empresa X ha activado la cuenta Y para su uso".
  */
+// Los proxies de una página de documentos se cargan por lotes (una consulta IN) al mapearlos.
+@BatchSize(size = DocumentListRequest.MAX_LIMIT)
 @Entity
 @Table(name = "catalog", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"account_id", "company_id"})
@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 public class CollectionEntry {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "collection_entry_seq")
+    @SequenceGenerator(name = "collection_entry_seq", sequenceName = "collection_entry_seq", allocationSize = 50)
     @Column(name = "collection_entry_id")
     private Integer id;
 
@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class CreditNoteEntry {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "credit_note_entry_seq")
+    @SequenceGenerator(name = "credit_note_entry_seq", sequenceName = "credit_note_entry_seq", allocationSize = 50)
     @Column(name = "credit_note_entry_id")
     private Integer id;
 
@@ -22,7 +22,8 @@ import java.time.LocalDateTime;
 public class IncomeTaxEntry {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "income_tax_entry_seq")
+    @SequenceGenerator(name = "income_tax_entry_seq", sequenceName = "income_tax_entry_seq", allocationSize = 50)
     @Column(name = "income_tax_entry_id")
     private Integer id;
 
@@ -0,0 +1,59 @@
+package com.nubixconta.modules.accounting.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Línea del libro diario unificado.
+ * Reemplaza a la vista 'v_general_ledger': cada servicio que genera una partida
+ * (ventas, compras, cobros, pagos, bancos, partidas manuales...) escribe aquí sus líneas
+ * en la misma transacción, y todos los reportes leen directamente de esta tabla.
+ * Las líneas nunca se modifican; al anular un documento se eliminan las suyas (ver JournalLineService).
+ */
+@Entity
+@Table(name = "journal_line",
+        indexes = {
+                @Index(name = "idx_journal_line_company_date", columnList = "company_id, accounting_date"),
+                @Index(name = "idx_journal_line_company_catalog_date", columnList = "company_id, id_catalog, accounting_date"),
+                @Index(name = "idx_journal_line_document", columnList = "company_id, document_type, document_id")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+public class JournalLine {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "journal_line_seq")
+    @SequenceGenerator(name = "journal_line_seq", sequenceName = "journal_line_seq", allocationSize = 50)
+    @Column(name = "journal_line_id")
+    private Long id;
+
+    @Column(name = "company_id", nullable = false)
+    private Integer companyId;
+
+    @Column(name = "document_type", length = 50, nullable = false)
+    private String documentType;
+
+    @Column(name = "document_id", nullable = false)
+    private Long documentId;
+
+    @Column(name = "accounting_date", nullable = false)
+    private LocalDateTime accountingDate;
+
+    @Column(name = "id_catalog", nullable = false)
+    private Integer idCatalog;
+
+    @Column(name = "debe", precision = 14, scale = 2, nullable = false)
+    private BigDecimal debe = BigDecimal.ZERO;
+
+    @Column(name = "haber", precision = 14, scale = 2, nullable = false)
+    private BigDecimal haber = BigDecimal.ZERO;
+
+    @Column(name = "description", columnDefinition = "TEXT")
+    private String description;
+}
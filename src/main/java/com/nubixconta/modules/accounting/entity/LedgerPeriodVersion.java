@@ -0,0 +1,40 @@
+package com.nubixconta.modules.accounting.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Contador de versiones del libro diario por empresa y mes.
+ * Cada vez que se confirma una transacción que registró o eliminó líneas de un mes, su versión
+ * se incrementa (ver ReportCacheService.markChangedAfterCommit). La caché de reportes compara estas versiones para saber si un
+ * resultado guardado sigue siendo válido; los meses cerrados nunca cambian de versión.
+ */
+@Entity
+@Table(name = "ledger_period_version",
+        uniqueConstraints = {
+                @UniqueConstraint(columnNames = {"company_id", "period_month"})
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+public class LedgerPeriodVersion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "ledger_period_version_id")
+    private Long id;
+
+    @Column(name = "company_id", nullable = false)
+    private Integer companyId;
+
+    // Primer día del mes
+    @Column(name = "period_month", nullable = false)
+    private LocalDate periodMonth;
+
+    @Column(name = "version", nullable = false)
+    private Long version = 0L;
+}
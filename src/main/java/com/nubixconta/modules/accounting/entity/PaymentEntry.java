@@ -16,7 +16,8 @@ import java.time.LocalDateTime;
 @Data
 public class PaymentEntry {
         @Id
-        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_entry_seq")
+        @SequenceGenerator(name = "payment_entry_seq", sequenceName = "payment_entry_seq", allocationSize = 50)
         @Column(name = "payment_entry_id")
         private Integer id;
 
@@ -22,7 +22,8 @@ import java.time.LocalDateTime;
 public class PurchaseCreditNoteEntry {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "purchase_credit_note_entry_seq")
+    @SequenceGenerator(name = "purchase_credit_note_entry_seq", sequenceName = "purchase_credit_note_entry_seq", allocationSize = 50)
     @Column(name = "purchase_credit_note_entry_id")
     private Integer id;
 
@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class SaleEntry {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sale_entry_seq")
+    @SequenceGenerator(name = "sale_entry_seq", sequenceName = "sale_entry_seq", allocationSize = 50)
     @Column(name = "sale_entry_id")
     private Integer id;
 
@@ -1,8 +1,11 @@
 package com.nubixconta.modules.accounting.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.nubixconta.common.pagination.DocumentStatusRank;
 import com.nubixconta.modules.accounting.entity.enums.AccountingTransactionStatus;
 import com.nubixconta.modules.administration.entity.Company;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -15,7 +18,11 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "transaction_accounting")
+@Table(name = "transaction_accounting", indexes = {
+        // Listados paginados por cursor (DocumentPageQuery), en el mismo orden y sentido que sus dos ordenamientos.
+        @Index(name = "idx_transaction_accounting_company_status_date_id", columnList = "company_id, status_rank, transaction_date DESC, account_transaction_id DESC"),
+        @Index(name = "idx_transaction_accounting_company_date_id", columnList = "company_id, transaction_date DESC, account_transaction_id DESC")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -40,6 +47,14 @@ public class TransactionAccounting {
     @Column(name = "accounting_transaction_status", length = 20, nullable = false)
     private AccountingTransactionStatus status;
 
+    // Rango del estado (ver DocumentStatusRank), calculado por la base de datos; solo se usa para
+    // ordenar y paginar los listados.
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "status_rank", insertable = false, updatable = false,
+            columnDefinition = DocumentStatusRank.COLUMN_DEFINITION_PREFIX + "accounting_transaction_status" + DocumentStatusRank.COLUMN_DEFINITION_SUFFIX)
+    private Integer statusRank;
+
     @Column(name = "module_type", length = 30, nullable = false)
     private String moduleType;
 
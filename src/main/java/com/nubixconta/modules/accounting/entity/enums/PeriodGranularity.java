@@ -0,0 +1,45 @@
+package com.nubixconta.modules.accounting.entity.enums;
+
+import java.time.LocalDate;
+
+/**
+ * Tamaño de las columnas de los reportes comparativos (ver ComparativeReportService).
+ * 'sqlUnit' es la unidad que recibe date_trunc en PostgreSQL.
+ */
+public enum PeriodGranularity {
+    MES("month", 1),
+    TRIMESTRE("quarter", 3),
+    ANIO("year", 12);
+
+    private final String sqlUnit;
+    private final int months;
+
+    PeriodGranularity(String sqlUnit, int months) {
+        this.sqlUnit = sqlUnit;
+        this.months = months;
+    }
+
+    public String getSqlUnit() {
+        return sqlUnit;
+    }
+
+    /** Primer día del período que contiene la fecha (mismo resultado que date_trunc). */
+    public LocalDate truncate(LocalDate date) {
+        int firstMonth = ((date.getMonthValue() - 1) / months) * months + 1;
+        return LocalDate.of(date.getYear(), firstMonth, 1);
+    }
+
+    /** Primer día del período siguiente. */
+    public LocalDate next(LocalDate periodStart) {
+        return periodStart.plusMonths(months);
+    }
+
+    /** Etiqueta de la columna: "2025-03", "2025-T1" o "2025". */
+    public String label(LocalDate periodStart) {
+        return switch (this) {
+            case MES -> String.format("%d-%02d", periodStart.getYear(), periodStart.getMonthValue());
+            case TRIMESTRE -> periodStart.getYear() + "-T" + ((periodStart.getMonthValue() - 1) / 3 + 1);
+            case ANIO -> String.valueOf(periodStart.getYear());
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package com.nubixconta.modules.accounting.entity.enums;
+
+/**
+ * Ciclo de vida de un trabajo de generación de reporte en segundo plano.
+ */
+public enum ReportJobStatus {
+    /**
+     * El trabajo fue aceptado y espera un hilo libre.
+     */
+    EN_COLA,
+
+    /**
+     * El reporte se está calculando.
+     */
+    EN_PROCESO,
+
+    /**
+     * El resultado está en disco y puede descargarse hasta que expire.
+     */
+    COMPLETADO,
+
+    /**
+     * El cálculo terminó con error; el mensaje queda en el trabajo.
+     */
+    FALLIDO,
+
+    /**
+     * El usuario canceló el trabajo antes de que terminara.
+     */
+    CANCELADO
+}
@@ -0,0 +1,12 @@
+package com.nubixconta.modules.accounting.entity.enums;
+
+/**
+ * Reportes financieros que pueden generarse en segundo plano (ver ReportJobService).
+ */
+public enum ReportType {
+    LIBRO_DIARIO,
+    LIBRO_MAYOR,
+    BALANZA_COMPROBACION,
+    ESTADO_RESULTADOS,
+    BALANCE_GENERAL
+}
@@ -0,0 +1,168 @@
+package com.nubixconta.modules.accounting.repository;
+
+import com.nubixconta.modules.accounting.dto.reports.AccountBalanceDTO;
+import com.nubixconta.modules.accounting.dto.reports.AccountRunningBalanceView;
+import com.nubixconta.modules.accounting.dto.reports.PeriodMovementView;
+import com.nubixconta.modules.accounting.entity.AccountDailyBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface AccountDailyBalanceRepository extends JpaRepository<AccountDailyBalance, Long> {
+
+    // Saldo acumulado de cada fila 'd' a partir de sus totales diarios.
+    String RUNNING_BALANCE_WINDOW =
+            "SUM(d.total_debe - d.total_haber) OVER (PARTITION BY d.company_id, d.id_catalog ORDER BY d.balance_date)";
+
+    /**
+     * Serializa, hasta el final de la transacción, las actualizaciones de saldo de una cuenta.
+     * Sin él, una fila nueva podría calcular su saldo acumulado sin ver el movimiento de una
+     * transacción concurrente con fecha anterior (ver AccountBalanceService).
+     */
+    @Query(value = "SELECT COUNT(*) FROM (SELECT pg_advisory_xact_lock(:companyId, :catalogId)) l", nativeQuery = true)
+    long lockAccount(@Param("companyId") Integer companyId, @Param("catalogId") Integer catalogId);
+
+    /**
+     * Suma (o resta, si los montos son negativos) un movimiento al saldo diario de una cuenta.
+     * Si la fila del día no existe la crea, con el saldo acumulado del día anterior con movimiento
+     * más el del propio día; si existe, la actualiza de forma atómica en la BD.
+     * Los días posteriores se ajustan aparte con shiftRunningBalancesAfter(...).
+     */
+    @Modifying
+    @Query(value = "INSERT INTO account_daily_balance (company_id, id_catalog, balance_date, total_debe, total_haber, running_balance) " +
+            "SELECT :companyId, :catalogId, :balanceDate, :debe, :haber, " +
+            "  COALESCE((SELECT p.running_balance FROM account_daily_balance p " +
+            "            WHERE p.company_id = :companyId AND p.id_catalog = :catalogId AND p.balance_date < :balanceDate " +
+            "            ORDER BY p.balance_date DESC LIMIT 1), 0) + :debe - :haber " +
+            "ON CONFLICT (company_id, id_catalog, balance_date) DO UPDATE SET " +
+            "  total_debe = account_daily_balance.total_debe + EXCLUDED.total_debe, " +
+            "  total_haber = account_daily_balance.total_haber + EXCLUDED.total_haber, " +
+            "  running_balance = account_daily_balance.running_balance + EXCLUDED.total_debe - EXCLUDED.total_haber",
+            nativeQuery = true)
+    void addMovement(@Param("companyId") Integer companyId,
+                     @Param("catalogId") Integer catalogId,
+                     @Param("balanceDate") LocalDate balanceDate,
+                     @Param("debe") BigDecimal debe,
+                     @Param("haber") BigDecimal haber);
+
+    /**
+     * Ajusta el saldo acumulado de los días posteriores a un movimiento con fecha anterior.
+     * Para los movimientos del día (el caso normal) no hay filas posteriores.
+     */
+    @Modifying
+    @Query(value = "UPDATE account_daily_balance SET running_balance = running_balance + :delta " +
+            "WHERE company_id = :companyId AND id_catalog = :catalogId AND balance_date > :balanceDate",
+            nativeQuery = true)
+    void shiftRunningBalancesAfter(@Param("companyId") Integer companyId,
+                                   @Param("catalogId") Integer catalogId,
+                                   @Param("balanceDate") LocalDate balanceDate,
+                                   @Param("delta") BigDecimal delta);
+
+    /**
+     * Saldo acumulado (Debe - Haber) de cada cuenta hasta una fecha de corte (exclusiva).
+     * Por cada cuenta del catálogo de la empresa se lee solo la última fila anterior al corte
+     * (índice único company_id, id_catalog, balance_date), así que el costo no crece con el historial.
+     */
+    @Query(value = "SELECT c.id_catalog AS idCatalog, last.running_balance AS balance " +
+            "FROM catalog c " +
+            "CROSS JOIN LATERAL (SELECT b.running_balance FROM account_daily_balance b " +
+            "                    WHERE b.company_id = :companyId AND b.id_catalog = c.id_catalog AND b.balance_date < :endDate " +
+            "                    ORDER BY b.balance_date DESC LIMIT 1) last " +
+            "WHERE c.company_id = :companyId",
+            nativeQuery = true)
+    List<AccountRunningBalanceView> findRunningBalancesBefore(@Param("companyId") Integer companyId,
+                                                              @Param("endDate") LocalDate endDate);
+
+    default List<AccountBalanceDTO> getAccumulatedBalancesBefore(Integer companyId, LocalDate endDate) {
+        return findRunningBalancesBefore(companyId, endDate).stream()
+                .map(row -> new AccountBalanceDTO(row.getIdCatalog(), row.getBalance()))
+                .toList();
+    }
+
+    /**
+     * Movimientos (Debe y Haber) de cada cuenta agrupados por período en una sola consulta, para los
+     * reportes comparativos. 'unit' es la unidad de date_trunc ('month', 'quarter', 'year');
+     * 'periodStart' es el primer día del período, aunque el rango empiece después.
+     */
+    @Query(value = "SELECT b.id_catalog AS idCatalog, " +
+            "  CAST(date_trunc(:unit, CAST(b.balance_date AS timestamp)) AS date) AS periodStart, " +
+            "  SUM(b.total_debe) AS totalDebe, SUM(b.total_haber) AS totalHaber " +
+            "FROM account_daily_balance b " +
+            "WHERE b.company_id = :companyId AND b.balance_date BETWEEN :startDate AND :endDate " +
+            "GROUP BY 1, 2",
+            nativeQuery = true)
+    List<PeriodMovementView> getMovementsByPeriod(@Param("companyId") Integer companyId,
+                                                  @Param("unit") String unit,
+                                                  @Param("startDate") LocalDate startDate,
+                                                  @Param("endDate") LocalDate endDate);
+
+    /**
+     * Saldo acumulado (Debe - Haber) de una sola cuenta hasta una fecha de corte (exclusiva).
+     */
+    @Query(value = "SELECT COALESCE((SELECT b.running_balance FROM account_daily_balance b " +
+            "  WHERE b.company_id = :companyId AND b.id_catalog = :catalogId AND b.balance_date < :endDate " +
+            "  ORDER BY b.balance_date DESC LIMIT 1), 0)",
+            nativeQuery = true)
+    BigDecimal getAccountBalanceBefore(@Param("companyId") Integer companyId,
+                                       @Param("catalogId") Integer catalogId,
+                                       @Param("endDate") LocalDate endDate);
+
+    @Modifying
+    @Query("DELETE FROM AccountDailyBalance b WHERE b.companyId = :companyId")
+    void deleteByCompanyId(@Param("companyId") Integer companyId);
+
+    /**
+     * Reconstruye los saldos diarios de una empresa a partir de 'journal_line'.
+     * Se usa como carga inicial y para corregir cualquier desviación.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO account_daily_balance (company_id, id_catalog, balance_date, total_debe, total_haber, running_balance) " +
+            "SELECT d.company_id, d.id_catalog, d.balance_date, d.total_debe, d.total_haber, " + RUNNING_BALANCE_WINDOW + " " +
+            "FROM (SELECT j.company_id, j.id_catalog, CAST(j.accounting_date AS date) AS balance_date, " +
+            "             COALESCE(SUM(j.debe), 0) AS total_debe, COALESCE(SUM(j.haber), 0) AS total_haber " +
+            "      FROM journal_line j " +
+            "      WHERE j.company_id = :companyId " +
+            "      GROUP BY j.company_id, j.id_catalog, CAST(j.accounting_date AS date)) d",
+            nativeQuery = true)
+    int rebuildFromLedger(@Param("companyId") Integer companyId);
+
+    /**
+     * Carga inicial para todas las empresas que tienen líneas en 'journal_line'
+     * pero todavía no tienen ningún saldo diario registrado.
+     * Se ejecuta en su propia transacción porque se invoca al arrancar la aplicación.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO account_daily_balance (company_id, id_catalog, balance_date, total_debe, total_haber, running_balance) " +
+            "SELECT d.company_id, d.id_catalog, d.balance_date, d.total_debe, d.total_haber, " + RUNNING_BALANCE_WINDOW + " " +
+            "FROM (SELECT j.company_id, j.id_catalog, CAST(j.accounting_date AS date) AS balance_date, " +
+            "             COALESCE(SUM(j.debe), 0) AS total_debe, COALESCE(SUM(j.haber), 0) AS total_haber " +
+            "      FROM journal_line j " +
+            "      WHERE NOT EXISTS (SELECT 1 FROM account_daily_balance b WHERE b.company_id = j.company_id) " +
+            "      GROUP BY j.company_id, j.id_catalog, CAST(j.accounting_date AS date)) d",
+            nativeQuery = true)
+    int backfillMissingCompanies();
+
+    /**
+     * Calcula el saldo acumulado de las empresas que tienen filas creadas antes de que existiera
+     * la columna 'running_balance'. Se recalculan todas las filas de esas empresas.
+     * Se ejecuta en su propia transacción porque se invoca al arrancar la aplicación.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE account_daily_balance t SET running_balance = d.running_balance " +
+            "FROM (SELECT d.account_daily_balance_id, " + RUNNING_BALANCE_WINDOW + " AS running_balance " +
+            "      FROM account_daily_balance d " +
+            "      WHERE d.company_id IN (SELECT n.company_id FROM account_daily_balance n WHERE n.running_balance IS NULL)) d " +
+            "WHERE t.account_daily_balance_id = d.account_daily_balance_id",
+            nativeQuery = true)
+    int initializeMissingRunningBalances();
+}
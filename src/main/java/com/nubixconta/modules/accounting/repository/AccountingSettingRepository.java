@@ -5,12 +5,22 @@ import com.nubixconta.modules.accounting.entity.AccountingSetting;
 // Se importa la clase estática interna.
 import com.nubixconta.modules.accounting.entity.AccountingSetting.AccountingSettingId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * Repositorio para AccountingSetting, actualizado para usar la clave primaria compuesta (AccountingSettingId).
  */
 @Repository
 public interface AccountingSettingRepository extends JpaRepository<AccountingSetting, AccountingSettingId> {
     // Los métodos CRUD básicos como findById() ahora funcionarán con el objeto AccountingSettingId.
+
+    /**
+     * Todas las configuraciones de una empresa en una sola consulta (ver AccountingConfigurationService).
+     */
+    @Query("SELECT s FROM AccountingSetting s WHERE s.id.companyId = :companyId")
+    List<AccountingSetting> findAllByCompanyId(@Param("companyId") Integer companyId);
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.nubixconta.modules.accounting.repository;
 import com.nubixconta.modules.accounting.entity.CierreMensual;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -20,6 +21,21 @@ public interface CierreMensualRepository extends JpaRepository<CierreMensual, Lo
     @Query("SELECT MAX(cm.fechaCierre) FROM CierreMensual cm WHERE cm.company.id = :companyId AND cm.cerrado = true")
     Optional<LocalDate> findLatestClosedDate(Integer companyId);
 
+    /**
+     * Bloqueo compartido de los períodos de una empresa hasta el final de la transacción.
+     * Lo toman las contabilizaciones solo al confirmar (ver CierreContableService).
+     * Usa la clave de 64 bits, que no se cruza con los bloqueos de dos claves de AccountDailyBalanceRepository.
+     */
+    @Query(value = "SELECT COUNT(*) FROM (SELECT pg_advisory_xact_lock_shared(CAST(:companyId AS bigint))) l", nativeQuery = true)
+    long lockPeriodsShared(@Param("companyId") Integer companyId);
+
+    /**
+     * Bloqueo exclusivo de los períodos de una empresa hasta el final de la transacción.
+     * Lo toman el cierre y la reapertura: esperan a las contabilizaciones que están confirmando.
+     */
+    @Query(value = "SELECT COUNT(*) FROM (SELECT pg_advisory_xact_lock(CAST(:companyId AS bigint))) l", nativeQuery = true)
+    long lockPeriodsExclusive(@Param("companyId") Integer companyId);
+
     /**
      * Busca un registro de cierre específico por empresa, año y mes.
      * @param companyId El ID de la empresa.
@@ -0,0 +1,291 @@
+package com.nubixconta.modules.accounting.repository;
+
+import com.nubixconta.modules.accounting.dto.reports.AccountBalanceDTO;
+import com.nubixconta.modules.accounting.dto.reports.JournalMovementDetailDTO;
+import com.nubixconta.modules.accounting.dto.reports.LedgerLineDTO;
+import com.nubixconta.modules.accounting.entity.JournalLine;
+import com.nubixconta.modules.accounting.service.JournalLineService;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+import com.nubixconta.modules.accounting.dto.reports.LedgerMovementDetailDTO;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Acceso al libro diario unificado ('journal_line').
+ * Todas las consultas de reportes filtran por empresa y fecha sobre columnas indexadas.
+ */
+@Repository
+public interface JournalLineRepository extends JpaRepository<JournalLine, Long> {
+
+    /**
+     * Obtiene todos los movimientos de un período para una empresa, enriquecidos
+     * con los detalles de la cuenta (código y nombre) desde Catalog y Account.
+     * Utiliza un DTO de proyección para eficiencia.
+     */
+    @Query("SELECT new com.nubixconta.modules.accounting.dto.reports.JournalMovementDetailDTO(" +
+            "  v.documentId, v.documentType, v.accountingDate, v.idCatalog, " +
+            "  COALESCE(c.customCode, a.generatedCode), COALESCE(c.customName, a.accountName), " +
+            "  v.debe, v.haber, v.description) " +
+            "FROM JournalLine v " +
+            "JOIN Catalog c ON v.idCatalog = c.id " +
+            "JOIN c.account a " +
+            "WHERE v.companyId = :companyId AND v.accountingDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY v.accountingDate ASC, v.documentId ASC")
+    List<JournalMovementDetailDTO> findJournalWithAccountDetails(Integer companyId, LocalDateTime startDate, LocalDateTime endDate);
+
+
+    // Caso 1: Filtrar por Rango de Fechas (todas las cuentas)
+    @Query("SELECT new com.nubixconta.modules.accounting.dto.reports.LedgerMovementDetailDTO(" +
+            "  CAST(v.id AS String), v.documentId, v.documentType, v.accountingDate, v.idCatalog, " +
+            "  COALESCE(c.customCode, a.generatedCode), COALESCE(c.customName, a.accountName), " +
+            "  v.debe, v.haber, v.description, v.companyId) " +
+            "FROM JournalLine v JOIN Catalog c ON v.idCatalog = c.id JOIN c.account a " +
+            "WHERE v.companyId = :companyId AND v.accountingDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY v.idCatalog, v.accountingDate ASC")
+    List<LedgerMovementDetailDTO> findLedgerByDateRange(Integer companyId, LocalDateTime startDate, LocalDateTime endDate);
+
+    // Caso 2: Filtrar por Rango de Fechas Y Cuenta
+    @Query("SELECT new com.nubixconta.modules.accounting.dto.reports.LedgerMovementDetailDTO(" +
+            "  CAST(v.id AS String), v.documentId, v.documentType, v.accountingDate, v.idCatalog, " +
+            "  COALESCE(c.customCode, a.generatedCode), COALESCE(c.customName, a.accountName), " +
+            "  v.debe, v.haber, v.description, v.companyId) " +
+            "FROM JournalLine v JOIN Catalog c ON v.idCatalog = c.id JOIN c.account a " +
+            "WHERE v.companyId = :companyId AND v.idCatalog = :catalogId AND v.accountingDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY v.idCatalog, v.accountingDate ASC")
+    List<LedgerMovementDetailDTO> findLedgerByDateRangeAndCatalog(Integer companyId, LocalDateTime startDate, LocalDateTime endDate, Integer catalogId);
+
+    // Caso 3: Filtrar solo por Cuenta (todas las fechas)
+    @Query("SELECT new com.nubixconta.modules.accounting.dto.reports.LedgerMovementDetailDTO(" +
+            "  CAST(v.id AS String), v.documentId, v.documentType, v.accountingDate, v.idCatalog, " +
+            "  COALESCE(c.customCode, a.generatedCode), COALESCE(c.customName, a.accountName), " +
+            "  v.debe, v.haber, v.description, v.companyId) " +
+            "FROM JournalLine v JOIN Catalog c ON v.idCatalog = c.id JOIN c.account a " +
+            "WHERE v.companyId = :companyId AND v.idCatalog = :catalogId " +
+            "ORDER BY v.idCatalog, v.accountingDate ASC")
+    List<LedgerMovementDetailDTO> findLedgerByCatalog(Integer companyId, Integer catalogId);
+
+    // --- VARIANTES EN STREAMING (cursor JDBC) ---
+    // Mismas consultas que arriba, pero devuelven un Stream leído por bloques de 'fetchSize' filas.
+    // Deben consumirse dentro de una transacción de solo lectura y cerrarse al terminar.
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.nubixconta.modules.accounting.dto.reports.JournalMovementDetailDTO(" +
+            "  v.documentId, v.documentType, v.accountingDate, v.idCatalog, " +
+            "  COALESCE(c.customCode, a.generatedCode), COALESCE(c.customName, a.accountName), " +
+            "  v.debe, v.haber, v.description) " +
+            "FROM JournalLine v " +
+            "JOIN Catalog c ON v.idCatalog = c.id " +
+            "JOIN c.account a " +
+            "WHERE v.companyId = :companyId AND v.accountingDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY v.accountingDate ASC, v.documentId ASC")
+    Stream<JournalMovementDetailDTO> streamJournalWithAccountDetails(Integer companyId, LocalDateTime startDate, LocalDateTime endDate);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.nubixconta.modules.accounting.dto.reports.LedgerMovementDetailDTO(" +
+            "  CAST(v.id AS String), v.documentId, v.documentType, v.accountingDate, v.idCatalog, " +
+            "  COALESCE(c.customCode, a.generatedCode), COALESCE(c.customName, a.accountName), " +
+            "  v.debe, v.haber, v.description, v.companyId) " +
+            "FROM JournalLine v JOIN Catalog c ON v.idCatalog = c.id JOIN c.account a " +
+            "WHERE v.companyId = :companyId AND v.accountingDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY v.idCatalog, v.accountingDate ASC")
+    Stream<LedgerMovementDetailDTO> streamLedgerByDateRange(Integer companyId, LocalDateTime startDate, LocalDateTime endDate);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.nubixconta.modules.accounting.dto.reports.LedgerMovementDetailDTO(" +
+            "  CAST(v.id AS String), v.documentId, v.documentType, v.accountingDate, v.idCatalog, " +
+            "  COALESCE(c.customCode, a.generatedCode), COALESCE(c.customName, a.accountName), " +
+            "  v.debe, v.haber, v.description, v.companyId) " +
+            "FROM JournalLine v JOIN Catalog c ON v.idCatalog = c.id JOIN c.account a " +
+            "WHERE v.companyId = :companyId AND v.idCatalog = :catalogId AND v.accountingDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY v.idCatalog, v.accountingDate ASC")
+    Stream<LedgerMovementDetailDTO> streamLedgerByDateRangeAndCatalog(Integer companyId, LocalDateTime startDate, LocalDateTime endDate, Integer catalogId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.nubixconta.modules.accounting.dto.reports.LedgerMovementDetailDTO(" +
+            "  CAST(v.id AS String), v.documentId, v.documentType, v.accountingDate, v.idCatalog, " +
+            "  COALESCE(c.customCode, a.generatedCode), COALESCE(c.customName, a.accountName), " +
+            "  v.debe, v.haber, v.description, v.companyId) " +
+            "FROM JournalLine v JOIN Catalog c ON v.idCatalog = c.id JOIN c.account a " +
+            "WHERE v.companyId = :companyId AND v.idCatalog = :catalogId " +
+            "ORDER BY v.idCatalog, v.accountingDate ASC")
+    Stream<LedgerMovementDetailDTO> streamLedgerByCatalog(Integer companyId, Integer catalogId);
+
+    // --- NUEVO MÉTODO PARA SALDOS INICIALES ---
+    /**
+     * Calcula el saldo acumulado (Debe - Haber) de cada cuenta desde el inicio
+     * de los tiempos hasta una fecha de corte (exclusiva).
+     * Es la base para calcular los Saldos Iniciales.
+     */
+    @Query("SELECT new com.nubixconta.modules.accounting.dto.reports.AccountBalanceDTO(" +
+            "  v.idCatalog, SUM(v.debe - v.haber)) " +
+            "FROM JournalLine v " +
+            "WHERE v.companyId = :companyId AND v.accountingDate < :endDate " +
+            "GROUP BY v.idCatalog")
+    List<AccountBalanceDTO> getAccumulatedBalancesBefore(Integer companyId, LocalDateTime endDate);
+
+    // --- NUEVO MÉTODO PARA MOVIMIENTOS DEL PERÍODO ---
+    /**
+     * Calcula los movimientos totales (Debe y Haber) de cada cuenta DENTRO de un período.
+     * Es la base para los Movimientos del Período.
+     */
+    @Query("SELECT new com.nubixconta.modules.accounting.dto.reports.AccountBalanceDTO(" +
+            "  v.idCatalog, SUM(v.debe), SUM(v.haber)) " +
+            "FROM JournalLine v " +
+            "WHERE v.companyId = :companyId AND v.accountingDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY v.idCatalog")
+    List<AccountBalanceDTO> getPeriodMovements(Integer companyId, LocalDateTime startDate, LocalDateTime endDate);
+
+    // --- PAGINACIÓN POR CURSOR (keyset sobre accountingDate, id) ---
+    // La página siguiente empieza estrictamente después de (afterDate, afterId), por lo que el costo
+    // de cada página no depende de cuántas se hayan leído antes (a diferencia de OFFSET).
+
+    @Query("SELECT new com.nubixconta.modules.accounting.dto.reports.LedgerLineDTO(" +
+            "  v.id, v.documentId, v.documentType, v.accountingDate, v.idCatalog, " +
+            "  COALESCE(c.customCode, a.generatedCode), COALESCE(c.customName, a.accountName), " +
+            "  v.debe, v.haber, v.description) " +
+            "FROM JournalLine v JOIN Catalog c ON v.idCatalog = c.id JOIN c.account a " +
+            "WHERE v.companyId = :companyId AND v.accountingDate BETWEEN :startDate AND :endDate " +
+            "  AND (v.accountingDate > :afterDate OR (v.accountingDate = :afterDate AND v.id > :afterId)) " +
+            "ORDER BY v.accountingDate ASC, v.id ASC")
+    List<LedgerLineDTO> findJournalPage(@Param("companyId") Integer companyId,
+                                        @Param("startDate") LocalDateTime startDate,
+                                        @Param("endDate") LocalDateTime endDate,
+                                        @Param("afterDate") LocalDateTime afterDate,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
+
+    @Query("SELECT new com.nubixconta.modules.accounting.dto.reports.LedgerLineDTO(" +
+            "  v.id, v.documentId, v.documentType, v.accountingDate, v.idCatalog, " +
+            "  COALESCE(c.customCode, a.generatedCode), COALESCE(c.customName, a.accountName), " +
+            "  v.debe, v.haber, v.description) " +
+            "FROM JournalLine v JOIN Catalog c ON v.idCatalog = c.id JOIN c.account a " +
+            "WHERE v.companyId = :companyId AND v.idCatalog = :catalogId " +
+            "  AND v.accountingDate BETWEEN :startDate AND :endDate " +
+            "  AND (v.accountingDate > :afterDate OR (v.accountingDate = :afterDate AND v.id > :afterId)) " +
+            "ORDER BY v.accountingDate ASC, v.id ASC")
+    List<LedgerLineDTO> findLedgerPage(@Param("companyId") Integer companyId,
+                                       @Param("catalogId") Integer catalogId,
+                                       @Param("startDate") LocalDateTime startDate,
+                                       @Param("endDate") LocalDateTime endDate,
+                                       @Param("afterDate") LocalDateTime afterDate,
+                                       @Param("afterId") Long afterId,
+                                       Pageable pageable);
+
+    /**
+     * Suma (Debe - Haber) de una cuenta desde 'fromDate' hasta la posición (afterDate, afterId), inclusive.
+     * Se usa para completar el saldo inicial de una página con los movimientos del mismo día del cursor,
+     * que no están consolidados en los saldos diarios anteriores.
+     */
+    @Query("SELECT COALESCE(SUM(v.debe - v.haber), 0) FROM JournalLine v " +
+            "WHERE v.companyId = :companyId AND v.idCatalog = :catalogId AND v.accountingDate >= :fromDate " +
+            "  AND (v.accountingDate < :afterDate OR (v.accountingDate = :afterDate AND v.id <= :afterId))")
+    BigDecimal sumBalanceUpTo(@Param("companyId") Integer companyId,
+                              @Param("catalogId") Integer catalogId,
+                              @Param("fromDate") LocalDateTime fromDate,
+                              @Param("afterDate") LocalDateTime afterDate,
+                              @Param("afterId") Long afterId);
+
+    // --- MANTENIMIENTO DE LAS LÍNEAS ---
+
+    List<JournalLine> findByCompanyIdAndDocumentTypeAndDocumentId(Integer companyId, String documentType, Long documentId);
+
+    @Modifying
+    @Query("DELETE FROM JournalLine j WHERE j.companyId = :companyId AND j.documentType = :documentType AND j.documentId = :documentId")
+    void deleteByDocument(@Param("companyId") Integer companyId,
+                          @Param("documentType") String documentType,
+                          @Param("documentId") Long documentId);
+
+    @Modifying
+    @Query("DELETE FROM JournalLine j WHERE j.companyId = :companyId")
+    void deleteByCompanyId(@Param("companyId") Integer companyId);
+
+    /**
+     * Traducción de las etiquetas 'document_type' de 'v_general_ledger' a los tipos con los que
+     * JournalLineService registra y elimina las líneas (DOC_*). Se normalizan mayúsculas, tildes,
+     * espacios y guiones antes de comparar; una etiqueta desconocida da NULL.
+     */
+    String VIEW_DOCUMENT_TYPE =
+            "CASE REPLACE(REPLACE(UPPER(TRANSLATE(TRIM(v.document_type), 'áéíóúÁÉÍÓÚ -', 'aeiouAEIOU__')), '_DE_', '_'), '_SOBRE_', '_') " +
+            "  WHEN 'VENTA' THEN '" + JournalLineService.DOC_SALE + "' " +
+            "  WHEN 'VENTAS' THEN '" + JournalLineService.DOC_SALE + "' " +
+            "  WHEN 'SALE' THEN '" + JournalLineService.DOC_SALE + "' " +
+            "  WHEN 'NOTA_CREDITO' THEN '" + JournalLineService.DOC_CREDIT_NOTE + "' " +
+            "  WHEN 'NOTA_CREDITO_VENTA' THEN '" + JournalLineService.DOC_CREDIT_NOTE + "' " +
+            "  WHEN 'CREDIT_NOTE' THEN '" + JournalLineService.DOC_CREDIT_NOTE + "' " +
+            "  WHEN 'COMPRA' THEN '" + JournalLineService.DOC_PURCHASE + "' " +
+            "  WHEN 'COMPRAS' THEN '" + JournalLineService.DOC_PURCHASE + "' " +
+            "  WHEN 'PURCHASE' THEN '" + JournalLineService.DOC_PURCHASE + "' " +
+            "  WHEN 'NOTA_CREDITO_COMPRA' THEN '" + JournalLineService.DOC_PURCHASE_CREDIT_NOTE + "' " +
+            "  WHEN 'PURCHASE_CREDIT_NOTE' THEN '" + JournalLineService.DOC_PURCHASE_CREDIT_NOTE + "' " +
+            "  WHEN 'RETENCION_ISR' THEN '" + JournalLineService.DOC_INCOME_TAX + "' " +
+            "  WHEN 'RETENCION' THEN '" + JournalLineService.DOC_INCOME_TAX + "' " +
+            "  WHEN 'INCOME_TAX' THEN '" + JournalLineService.DOC_INCOME_TAX + "' " +
+            "  WHEN 'COBRO' THEN '" + JournalLineService.DOC_COLLECTION + "' " +
+            "  WHEN 'COBROS' THEN '" + JournalLineService.DOC_COLLECTION + "' " +
+            "  WHEN 'COLLECTION' THEN '" + JournalLineService.DOC_COLLECTION + "' " +
+            "  WHEN 'PAGO' THEN '" + JournalLineService.DOC_PAYMENT + "' " +
+            "  WHEN 'PAGOS' THEN '" + JournalLineService.DOC_PAYMENT + "' " +
+            "  WHEN 'PAYMENT' THEN '" + JournalLineService.DOC_PAYMENT + "' " +
+            "  WHEN 'TRANSACCION_BANCARIA' THEN '" + JournalLineService.DOC_BANK + "' " +
+            "  WHEN 'BANCO' THEN '" + JournalLineService.DOC_BANK + "' " +
+            "  WHEN 'BANCOS' THEN '" + JournalLineService.DOC_BANK + "' " +
+            "  WHEN 'BANK' THEN '" + JournalLineService.DOC_BANK + "' " +
+            "  WHEN 'PARTIDA_CONTABLE' THEN '" + JournalLineService.DOC_ACCOUNTING + "' " +
+            "  WHEN 'PARTIDA' THEN '" + JournalLineService.DOC_ACCOUNTING + "' " +
+            "  WHEN 'PARTIDA_MANUAL' THEN '" + JournalLineService.DOC_ACCOUNTING + "' " +
+            "  WHEN 'ACCOUNTING' THEN '" + JournalLineService.DOC_ACCOUNTING + "' " +
+            "END";
+
+    @Query(value = "SELECT to_regclass('v_general_ledger') IS NOT NULL", nativeQuery = true)
+    boolean legacyViewExists();
+
+    /**
+     * Etiquetas de 'v_general_ledger' pendientes de migrar que no tienen equivalencia en VIEW_DOCUMENT_TYPE.
+     */
+    @Query(value = "SELECT DISTINCT v.document_type FROM v_general_ledger v " +
+            "WHERE " + VIEW_DOCUMENT_TYPE + " IS NULL " +
+            "  AND NOT EXISTS (SELECT 1 FROM journal_line j WHERE j.company_id = v.company_id)",
+            nativeQuery = true)
+    List<String> findUnmappedViewDocumentTypes();
+
+    /**
+     * Carga inicial para todas las empresas que tienen movimientos en 'v_general_ledger'
+     * pero todavía no tienen ninguna línea en 'journal_line'.
+     * Se ejecuta en su propia transacción porque se invoca al arrancar la aplicación.
+     * El ID se toma explícitamente de la secuencia para no depender del DEFAULT de la columna,
+     * y el tipo de documento se traduce con VIEW_DOCUMENT_TYPE.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO journal_line (journal_line_id, company_id, document_type, document_id, accounting_date, id_catalog, debe, haber, description) " +
+            "SELECT nextval('journal_line_seq'), v.company_id, " + VIEW_DOCUMENT_TYPE + ", v.document_id, v.accounting_date, v.id_catalog, " +
+            "       COALESCE(v.debe, 0), COALESCE(v.haber, 0), v.description " +
+            "FROM v_general_ledger v " +
+            "WHERE NOT EXISTS (SELECT 1 FROM journal_line j WHERE j.company_id = v.company_id)",
+            nativeQuery = true)
+    int backfillMissingCompaniesFromView();
+}
@@ -0,0 +1,35 @@
+package com.nubixconta.modules.accounting.repository;
+
+import com.nubixconta.modules.accounting.entity.LedgerPeriodVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+@Repository
+public interface LedgerPeriodVersionRepository extends JpaRepository<LedgerPeriodVersion, Long> {
+
+    /**
+     * Incrementa la versión de un mes de forma atómica, creando la fila si no existe.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO ledger_period_version (company_id, period_month, version) " +
+            "VALUES (:companyId, :periodMonth, 1) " +
+            "ON CONFLICT (company_id, period_month) DO UPDATE SET " +
+            "  version = ledger_period_version.version + 1",
+            nativeQuery = true)
+    void bump(@Param("companyId") Integer companyId, @Param("periodMonth") LocalDate periodMonth);
+
+    /**
+     * Huella de las versiones de un rango de meses (ambos inclusive).
+     * Como las versiones solo crecen, la suma cambia siempre que cambie cualquier mes del rango.
+     */
+    @Query("SELECT COALESCE(SUM(v.version), 0) FROM LedgerPeriodVersion v " +
+            "WHERE v.companyId = :companyId AND v.periodMonth BETWEEN :fromMonth AND :toMonth")
+    Long getVersionFingerprint(@Param("companyId") Integer companyId,
+                               @Param("fromMonth") LocalDate fromMonth,
+                               @Param("toMonth") LocalDate toMonth);
+}
@@ -3,6 +3,7 @@ package com.nubixconta.modules.accounting.repository;
 import com.nubixconta.modules.accounting.entity.TransactionAccounting;
 import com.nubixconta.modules.accounting.entity.enums.AccountingTransactionStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -11,7 +12,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface TransactionAccountingRepository extends JpaRepository<TransactionAccounting, Long> {
+public interface TransactionAccountingRepository extends JpaRepository<TransactionAccounting, Long>, JpaSpecificationExecutor<TransactionAccounting> {
 
     /**
      * Busca una transacción contable por su ID, asegurando que pertenezca a la empresa actual.
@@ -60,16 +61,10 @@ public interface TransactionAccountingRepository extends JpaRepository<Transacti
 
     /**
      * Devuelve todas las transacciones ordenadas por estado y luego por fecha.
-     * VERSIÓN FINAL CORREGIDA: Usa la ruta del paquete correcta para el Enum.
+     * El orden de estados viene de la columna generada statusRank (ver DocumentStatusRank).
      */
     @Query("SELECT t FROM TransactionAccounting t WHERE t.company.id = :companyId ORDER BY " +
-            "CASE t.status " +
-            // --- ESTA ES LA RUTA CORREGIDA BASADA EN TU ESTRUCTURA ---
-            "  WHEN com.nubixconta.modules.accounting.entity.enums.AccountingTransactionStatus.PENDIENTE THEN 1 " +
-            "  WHEN com.nubixconta.modules.accounting.entity.enums.AccountingTransactionStatus.APLICADA  THEN 2 " +
-            "  WHEN com.nubixconta.modules.accounting.entity.enums.AccountingTransactionStatus.ANULADA   THEN 3 " +
-            "  ELSE 4 " +
-            "END, " +
+            "t.statusRank, " +
             "t.transactionDate DESC")
     List<TransactionAccounting> findAllByCompanyIdOrderByStatusAndDate(@Param("companyId") Integer companyId);
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+package com.nubixconta.modules.accounting.service;
+
+import com.nubixconta.modules.accounting.repository.AccountDailyBalanceRepository;
+import com.nubixconta.security.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Mantiene la tabla 'account_daily_balance' sincronizada con el libro diario.
+ * JournalLineService llama a registerEntries(...) al escribir las líneas de una partida y a
+ * reverseEntries(...) antes de eliminarlas, siempre dentro de la misma transacción.
+ * Además del total del día se mantiene el saldo acumulado de cada fila; un movimiento con fecha
+ * anterior ajusta también las filas posteriores de la cuenta, bajo un lock por cuenta.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccountBalanceService {
+
+    private final AccountDailyBalanceRepository dailyBalanceRepository;
+    private final ReportCacheService reportCache;
+
+    /**
+     * Suma las líneas de un asiento a los saldos diarios de sus cuentas.
+     * Las líneas se agrupan por cuenta para hacer una sola actualización por cuenta.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> void registerEntries(Integer companyId, LocalDate accountingDate, Collection<T> entries,
+                                    Function<T, Integer> catalogIdOf,
+                                    Function<T, BigDecimal> debeOf,
+                                    Function<T, BigDecimal> haberOf) {
+        apply(companyId, accountingDate, entries, catalogIdOf, debeOf, haberOf, false);
+    }
+
+    /**
+     * Resta las líneas de un asiento que se va a eliminar de los saldos diarios de sus cuentas.
+     * Debe llamarse con la misma fecha contable que se usó al registrarlas.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> void reverseEntries(Integer companyId, LocalDate accountingDate, Collection<T> entries,
+                                   Function<T, Integer> catalogIdOf,
+                                   Function<T, BigDecimal> debeOf,
+                                   Function<T, BigDecimal> haberOf) {
+        apply(companyId, accountingDate, entries, catalogIdOf, debeOf, haberOf, true);
+    }
+
+    /**
+     * Reconstruye desde cero los saldos diarios de la empresa del contexto usando 'journal_line'.
+     * @return El número de filas (cuenta/día) generadas.
+     */
+    @Transactional
+    public int rebuildForCurrentCompany() {
+        Integer companyId = TenantContext.getCurrentTenant()
+                .orElseThrow(() -> new IllegalStateException("No se puede determinar la empresa del contexto."));
+        dailyBalanceRepository.deleteByCompanyId(companyId);
+        int rows = dailyBalanceRepository.rebuildFromLedger(companyId);
+        // Los reportes guardados se calcularon con los saldos anteriores.
+        reportCache.evictCompany(companyId);
+        return rows;
+    }
+
+    /**
+     * Carga inicial: genera los saldos diarios de las empresas que todavía no los tienen.
+     * Para las empresas ya inicializadas es una sola consulta sin efecto.
+     * Se invoca al arrancar, después de la carga inicial de 'journal_line'; un error detiene el arranque.
+     */
+    public void backfillMissingCompanies() {
+        int rows = dailyBalanceRepository.backfillMissingCompanies();
+        if (rows > 0) {
+            log.info("Saldos diarios inicializados desde journal_line: {} filas.", rows);
+        }
+        int updated = dailyBalanceRepository.initializeMissingRunningBalances();
+        if (updated > 0) {
+            log.info("Saldos acumulados calculados para {} filas de saldos diarios existentes.", updated);
+        }
+    }
+
+    private <T> void apply(Integer companyId, LocalDate accountingDate, Collection<T> entries,
+                           Function<T, Integer> catalogIdOf,
+                           Function<T, BigDecimal> debeOf,
+                           Function<T, BigDecimal> haberOf,
+                           boolean reverse) {
+        if (entries == null || entries.isEmpty()) {
+            return;
+        }
+
+        // Agrupar por cuenta: [0] = Debe, [1] = Haber. Ordenadas por ID para que dos transacciones
+        // tomen los locks de sus cuentas en el mismo orden.
+        Map<Integer, BigDecimal[]> totalsByCatalog = new TreeMap<>();
+        for (T entry : entries) {
+            Integer catalogId = catalogIdOf.apply(entry);
+            if (catalogId == null) continue;
+            BigDecimal[] totals = totalsByCatalog.computeIfAbsent(catalogId, id -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+            totals[0] = totals[0].add(nullToZero(debeOf.apply(entry)));
+            totals[1] = totals[1].add(nullToZero(haberOf.apply(entry)));
+        }
+
+        totalsByCatalog.forEach((catalogId, totals) -> {
+            if (totals[0].signum() == 0 && totals[1].signum() == 0) return;
+            BigDecimal debe = reverse ? totals[0].negate() : totals[0];
+            BigDecimal haber = reverse ? totals[1].negate() : totals[1];
+            dailyBalanceRepository.lockAccount(companyId, catalogId);
+            dailyBalanceRepository.addMovement(companyId, catalogId, accountingDate, debe, haber);
+            dailyBalanceRepository.shiftRunningBalancesAfter(companyId, catalogId, accountingDate, debe.subtract(haber));
+        });
+    }
+
+    private static BigDecimal nullToZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -1,45 +1,113 @@
 package com.nubixconta.modules.accounting.service;
 
 import com.nubixconta.common.exception.BusinessRuleException;
-import com.nubixconta.modules.accounting.entity.Account;
-import com.nubixconta.modules.accounting.entity.AccountingSetting;
-// --- ¡CAMBIO EN LA IMPORTACIÓN! ---
-import com.nubixconta.modules.accounting.entity.AccountingSetting.AccountingSettingId;
 import com.nubixconta.modules.accounting.entity.Catalog;
 import com.nubixconta.modules.accounting.repository.AccountingSettingRepository;
-import lombok.RequiredArgsConstructor;
+import com.nubixconta.modules.accounting.repository.CatalogRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Resuelve las cuentas configuradas por clave (VAT_DEBIT_ACCOUNT, DEFAULT_CUSTOMER_ACCOUNT, ...).
+ * Las configuraciones de cada empresa se cargan en una sola consulta y se guardan en memoria
+ * (clave -> ID de catálogo), así que al contabilizar documentos no se consulta la BD: la cuenta se
+ * valida contra la foto del catálogo (ChartSnapshotService), que ya refleja activaciones y
+ * desactivaciones, y se devuelve como referencia.
+ * La aplicación no modifica la tabla 'accounting_setting' (se carga por fuera), así que las
+ * configuraciones de una empresa se recargan al vencer 'nubixconta.accounting-settings.ttl-minutes'.
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class AccountingConfigurationService {
 
     private final AccountingSettingRepository settingRepository;
+    private final CatalogRepository catalogRepository;
+    private final ChartSnapshotService chartSnapshots;
+    private final long ttlMillis;
+
+    private final Map<Integer, CompanySettings> settingsByCompany = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public AccountingConfigurationService(AccountingSettingRepository settingRepository,
+                                          CatalogRepository catalogRepository,
+                                          ChartSnapshotService chartSnapshots,
+                                          @Value("${nubixconta.accounting-settings.ttl-minutes:10}") long ttlMinutes) {
+        this.settingRepository = settingRepository;
+        this.catalogRepository = catalogRepository;
+        this.chartSnapshots = chartSnapshots;
+        this.ttlMillis = ttlMinutes * 60_000L;
+    }
 
     @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
     public Catalog findCatalogBySettingKey(String key, Integer companyId) {
-        // --- ¡CAMBIO EN LA CREACIÓN DEL OBJETO! ---
-        // Ahora se instancia usando la sintaxis de clase estática interna.
-        AccountingSettingId settingId = new AccountingSetting.AccountingSettingId();
-        settingId.setSettingKey(key);
-        settingId.setCompanyId(companyId);
+        Integer catalogId = getSettings(companyId).catalogIdByKey().get(key);
+        if (catalogId == null) {
+            throw new BusinessRuleException("Configuración contable clave '" + key + "' no ha sido definida para esta empresa.");
+        }
 
-        AccountingSetting setting = settingRepository.findById(settingId)
-                .orElseThrow(() -> new BusinessRuleException("Configuración contable clave '" + key + "' no ha sido definida para esta empresa."));
+        CompanyChartSnapshot chart = chartSnapshots.getSnapshot(companyId);
+        int index = chart.indexOf(catalogId);
+        if (index < 0) {
+            throw new BusinessRuleException("La configuración para '" + key + "' apunta a una cuenta que no pertenece al catálogo de esta empresa.");
+        }
 
-        Catalog catalog = setting.getCatalog();
-        Account account = catalog.getAccount();
+        if (!chart.isActive(index)) {
+            throw new BusinessRuleException("La configuración para '" + key + "' apunta a una cuenta ('" + chart.name(index) + "') que está actualmente desactivada para esta empresa.");
+        }
 
-        if (!catalog.isActive()) {
-            throw new BusinessRuleException("La configuración para '" + key + "' apunta a una cuenta ('" + account.getAccountName() + "') que está actualmente desactivada para esta empresa.");
+        if (!chart.isPostable(index)) {
+            throw new BusinessRuleException("La cuenta '" + chart.name(index) + "' configurada para '" + key + "' no es una cuenta de detalle (no es 'postable').");
         }
 
-        if (!account.isPostable()) {
-            throw new BusinessRuleException("La cuenta '" + account.getAccountName() + "' configurada para '" + key + "' no es una cuenta de detalle (no es 'postable').");
+        // Referencia sin consulta: las líneas de la partida solo necesitan la FK.
+        return catalogRepository.getReferenceById(catalogId);
+    }
+
+    /**
+     * Tasa de aciertos de la caché desde el arranque (0 a 1).
+     */
+    public double getCacheHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    // Registra periódicamente la tasa de aciertos para poder seguirla en los logs.
+    @Scheduled(fixedDelayString = "${nubixconta.accounting-settings.stats-log-ms:900000}")
+    public void logCacheStats() {
+        long h = hits.sum();
+        long m = misses.sum();
+        if (h + m > 0) {
+            log.info("Caché de configuración contable: {} aciertos, {} recargas, tasa de aciertos {}%.",
+                    h, m, Math.round(getCacheHitRate() * 1000) / 10.0);
         }
+    }
+
+    private CompanySettings getSettings(Integer companyId) {
+        CompanySettings current = settingsByCompany.get(companyId);
+        if (current != null && System.currentTimeMillis() - current.loadedAtMillis() < ttlMillis) {
+            hits.increment();
+            return current;
+        }
+        misses.increment();
+        // getCatalog().getId() sobre el proxy LAZY no dispara consultas.
+        Map<String, Integer> catalogIdByKey = settingRepository.findAllByCompanyId(companyId).stream()
+                .collect(Collectors.toUnmodifiableMap(s -> s.getId().getSettingKey(), s -> s.getCatalog().getId()));
+        CompanySettings loaded = new CompanySettings(catalogIdByKey, System.currentTimeMillis());
+        settingsByCompany.put(companyId, loaded);
+        return loaded;
+    }
 
-        return catalog;
+    private record CompanySettings(Map<String, Integer> catalogIdByKey, long loadedAtMillis) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,108 @@
+package com.nubixconta.modules.accounting.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Revisión periódica de los saldos de cuentas por cobrar y por pagar.
+ *
+ * Los saldos se mantienen con ajustes atómicos (applyBalanceDelta de CollectionDetailService y
+ * PaymentDetailsService), sin volver a sumar el detalle en cada cobro o pago. Esta tarea recalcula
+ * en bloque, con una consulta por tabla y ambas en paralelo, el saldo esperado de todas las empresas
+ * y deja en el log las filas que no coinciden. No corrige nada: solo informa.
+ */
+@Slf4j
+@Service
+public class BalanceDriftVerifier {
+
+    // Saldo esperado: total de la venta menos los cobros no anulados.
+    private static final String RECEIVABLE_DRIFT_SQL =
+            "SELECT ar.account_receivable_id, ar.company_id, ar.balance, " +
+            "       s.total_amount - COALESCE(SUM(cd.payment_amount) " +
+            "           FILTER (WHERE UPPER(COALESCE(cd.payment_status, '')) <> 'ANULADO'), 0) AS expected " +
+            "FROM accounts_receivable ar " +
+            "JOIN sale s ON s.sale_id = ar.sale_id " +
+            "LEFT JOIN collection_detail cd ON cd.account_receivable_id = ar.account_receivable_id " +
+            "GROUP BY ar.account_receivable_id, ar.company_id, ar.balance, s.total_amount " +
+            "HAVING ar.balance <> s.total_amount - COALESCE(SUM(cd.payment_amount) " +
+            "           FILTER (WHERE UPPER(COALESCE(cd.payment_status, '')) <> 'ANULADO'), 0) " +
+            "LIMIT ?";
+
+    // Saldo esperado: monto a pagar (ya ajustado por notas de crédito y retenciones) menos los pagos no anulados.
+    private static final String PAYABLE_DRIFT_SQL =
+            "SELECT ap.account_payable_id, ap.company_id, ap.balance, " +
+            "       ap.payable_amount - COALESCE(SUM(pd.payment_amount) " +
+            "           FILTER (WHERE UPPER(COALESCE(pd.payment_status, '')) <> 'ANULADO'), 0) AS expected " +
+            "FROM accounts_payable ap " +
+            "LEFT JOIN payment_details pd ON pd.account_payment_id = ap.account_payable_id " +
+            "GROUP BY ap.account_payable_id, ap.company_id, ap.balance, ap.payable_amount " +
+            "HAVING ap.balance <> ap.payable_amount - COALESCE(SUM(pd.payment_amount) " +
+            "           FILTER (WHERE UPPER(COALESCE(pd.payment_status, '')) <> 'ANULADO'), 0) " +
+            "LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxReportedRows;
+    private final ExecutorService executor;
+
+    public BalanceDriftVerifier(JdbcTemplate jdbcTemplate,
+                                @Value("${nubixconta.balance-verifier.max-reported-rows:100}") int maxReportedRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxReportedRows = maxReportedRows;
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "saldos-verifier-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(initialDelayString = "${nubixconta.balance-verifier.initial-delay-ms:600000}",
+            fixedDelayString = "${nubixconta.balance-verifier.interval-ms:3600000}")
+    public void verify() {
+        CompletableFuture<Void> receivables = CompletableFuture.runAsync(
+                () -> check("accounts_receivable", RECEIVABLE_DRIFT_SQL), executor);
+        CompletableFuture<Void> payables = CompletableFuture.runAsync(
+                () -> check("accounts_payable", PAYABLE_DRIFT_SQL), executor);
+        CompletableFuture.allOf(receivables, payables).join();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void check(String table, String sql) {
+        try {
+            List<Drift> drifts = jdbcTemplate.query(sql, (rs, rowNum) -> new Drift(
+                    rs.getInt(1), rs.getInt(2), rs.getBigDecimal(3), rs.getBigDecimal(4)), maxReportedRows);
+            if (drifts.isEmpty()) {
+                log.debug("Saldos de {} consistentes con su detalle.", table);
+                return;
+            }
+            for (Drift drift : drifts) {
+                log.warn("Saldo descuadrado en {} id={} empresa={}: guardado={}, esperado={}",
+                        table, drift.id(), drift.companyId(), drift.stored(), drift.expected());
+            }
+            if (drifts.size() == maxReportedRows) {
+                log.warn("Se alcanzó el límite de {} filas descuadradas reportadas en {}.", maxReportedRows, table);
+            }
+        } catch (RuntimeException e) {
+            log.error("No se pudo verificar los saldos de {}: {}", table, e.getMessage());
+        }
+    }
+
+    private record Drift(int id, int companyId, BigDecimal stored, BigDecimal expected) {
+    }
+}
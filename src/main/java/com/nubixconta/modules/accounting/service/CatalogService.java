@@ -32,6 +32,7 @@ public class CatalogService {
     private final CatalogRepository catalogRepository;
     private final AccountRepository accountRepository; // <-- INYECTAR
     private final CompanyRepository companyRepository; // <-- INYECTAR
+    private final ChartSnapshotService chartSnapshots;
 
     // ModelMapper no es necesario aquí, el mapeo es simple y explícito.
 
@@ -39,20 +40,16 @@ public class CatalogService {
      * MÉTODO CRÍTICO para PurchaseService.
      * Busca una entrada del catálogo por su ID.
      * Lanza una excepción si no se encuentra o no está activa.
-     * La seguridad multi-tenant es manejada por el filtro de Hibernate.
+     * La validación se hace contra la foto del catálogo de la empresa actual (ChartSnapshotService),
+     * sin consultar la BD; solo se devuelve una referencia para asociarla a las líneas de la partida.
      *
      * @param id El ID de la entrada del catálogo.
-     * @return La entidad Catalog completa si es válida.
+     * @return Una referencia a la entidad Catalog si es válida.
      */
     public Catalog findEntityById(Integer id) {
-        Catalog catalog = catalogRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("La cuenta contable con ID de catálogo " + id + " no fue encontrada."));
-
-        if (!catalog.isActive() || !catalog.getAccount().isPostable()) {
-            throw new BusinessRuleException("La cuenta contable '" + catalog.getAccount().getAccountName() + "' no está activa o no permite movimientos.");
-        }
-
-        return catalog;
+        Integer companyId = TenantContext.getCurrentTenant().orElseThrow();
+        chartSnapshots.requirePostable(companyId, id);
+        return catalogRepository.getReferenceById(id);
     }
 
     /**
@@ -189,6 +186,7 @@ public class CatalogService {
         if (!entriesToUpdate.isEmpty()) {
             catalogRepository.saveAll(entriesToUpdate);
         }
+        chartSnapshots.invalidateAfterCommit(companyId);
     }
     /**
      * Actualiza los campos personalizados de una entrada del catálogo.
@@ -208,6 +206,7 @@ public class CatalogService {
         catalog.setCustomCode(dto.getCustomCode());
 
         Catalog savedCatalog = catalogRepository.save(catalog);
+        chartSnapshots.invalidateAfterCommit(companyId);
         return mapToCompanyNodeDTO(savedCatalog);
     }
 
@@ -242,6 +241,7 @@ public class CatalogService {
         if (!entriesToUpdate.isEmpty()) {
             entriesToUpdate.forEach(catalog -> catalog.setActive(false));
             catalogRepository.saveAll(entriesToUpdate);
+            chartSnapshots.invalidateAfterCommit(companyId);
         }
     }
 
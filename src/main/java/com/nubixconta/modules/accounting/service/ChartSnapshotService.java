@@ -0,0 +1,104 @@
+package com.nubixconta.modules.accounting.service;
+
+import com.nubixconta.common.exception.BusinessRuleException;
+import com.nubixconta.common.exception.NotFoundException;
+import com.nubixconta.modules.accounting.repository.CatalogRepository;
+import com.nubixconta.security.TenantContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mantiene una foto inmutable del catálogo de cuentas por empresa (CompanyChartSnapshot).
+ * Los lectores usan siempre la foto vigente sin bloqueo; cuando CatalogService cambia el catálogo,
+ * la foto (y los reportes guardados de la empresa) se descarta al confirmarse la transacción y la
+ * siguiente lectura construye una nueva (copy-on-write). Una generación por empresa evita que una foto construida con datos anteriores al
+ * cambio reemplace a la nueva.
+ * Como red de seguridad (cambios hechos desde otra instancia o directamente en la BD), cada foto
+ * se reconstruye tras 'nubixconta.chart-snapshot.ttl-minutes'.
+ */
+@Service
+public class ChartSnapshotService {
+
+    private final CatalogRepository catalogRepository;
+    private final ReportCacheService reportCache;
+    private final long ttlMillis;
+    private final Map<Integer, CompanyChartSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public ChartSnapshotService(CatalogRepository catalogRepository,
+                                ReportCacheService reportCache,
+                                @Value("${nubixconta.chart-snapshot.ttl-minutes:10}") long ttlMinutes) {
+        this.catalogRepository = catalogRepository;
+        this.reportCache = reportCache;
+        this.ttlMillis = ttlMinutes * 60_000L;
+    }
+
+    /**
+     * Foto del catálogo de la empresa indicada; la construye si no existe o está vencida.
+     */
+    public CompanyChartSnapshot getSnapshot(Integer companyId) {
+        CompanyChartSnapshot current = snapshots.get(companyId);
+        if (current != null && System.currentTimeMillis() - current.getBuiltAtMillis() < ttlMillis) {
+            return current;
+        }
+
+        AtomicLong generation = generations.computeIfAbsent(companyId, id -> new AtomicLong());
+        long expected = generation.get();
+        CompanyChartSnapshot built = CompanyChartSnapshot.build(catalogRepository.findByCompany_IdWithAccount(companyId));
+        // Solo se publica si el catálogo no cambió mientras se construía.
+        snapshots.compute(companyId, (id, existing) -> generation.get() == expected ? built : existing);
+        return built;
+    }
+
+    public CompanyChartSnapshot getSnapshotForCurrentCompany() {
+        Integer companyId = TenantContext.getCurrentTenant()
+                .orElseThrow(() -> new IllegalStateException("No se puede determinar la empresa del contexto."));
+        return getSnapshot(companyId);
+    }
+
+    /**
+     * Índice de una cuenta que puede recibir movimientos (activa y de detalle) en la empresa.
+     * Reemplaza la validación sobre la entidad Catalog al contabilizar.
+     */
+    public int requirePostable(Integer companyId, Integer catalogId) {
+        CompanyChartSnapshot chart = getSnapshot(companyId);
+        int index = chart.indexOf(catalogId);
+        if (index < 0) {
+            throw new NotFoundException("La cuenta contable con ID de catálogo " + catalogId + " no fue encontrada.");
+        }
+        if (!chart.isActive(index) || !chart.isPostable(index)) {
+            throw new BusinessRuleException("La cuenta contable '" + chart.name(index) + "' no está activa o no permite movimientos.");
+        }
+        return index;
+    }
+
+    /**
+     * Descarta la foto de la empresa cuando la transacción en curso se confirme
+     * (de inmediato si no hay transacción). Si la transacción se revierte, la foto sigue siendo válida.
+     */
+    public void invalidateAfterCommit(Integer companyId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(companyId);
+                }
+            });
+        } else {
+            invalidate(companyId);
+        }
+    }
+
+    private void invalidate(Integer companyId) {
+        generations.computeIfAbsent(companyId, id -> new AtomicLong()).incrementAndGet();
+        snapshots.remove(companyId);
+        // Los reportes guardados llevan códigos y nombres de la foto anterior.
+        reportCache.evictCompany(companyId);
+    }
+}
@@ -11,6 +11,8 @@ import com.nubixconta.security.TenantContext;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
 import java.time.Month;
@@ -19,8 +21,22 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+/**
+ * Cierres mensuales y guardián de período abierto.
+ * La última fecha cerrada de cada empresa se guarda en memoria, así que verificarPeriodoAbierto(...)
+ * no consulta la BD ni toma bloqueos. cerrarMes/reabrirMes son los únicos que la modifican: la
+ * recalculan dentro de su transacción y la publican al confirmar.
+ * Para que un cierre no se cruce con una contabilización en curso, la BD tiene la última palabra:
+ * al confirmar, la transacción que pasó por el guardián toma el bloqueo compartido de los períodos
+ * de la empresa y vuelve a leer la última fecha cerrada; el cierre/reapertura toma el exclusivo.
+ * Así el cierre solo espera a las contabilizaciones que están confirmando, y una contabilización
+ * que empezó antes de un cierre de su período se revierte en lugar de quedar dentro del mes cerrado.
+ */
 @Service
 @RequiredArgsConstructor
 public class CierreContableService {
@@ -28,6 +44,12 @@ public class CierreContableService {
     private final CierreMensualRepository cierreRepository;
     private final CompanyRepository companyRepository; // Necesario para obtener la referencia de la empresa
 
+    // companyId -> última fecha cerrada (Optional.empty() si no tiene cierres).
+    private final Map<Integer, Optional<LocalDate>> latestClosedByCompany = new ConcurrentHashMap<>();
+
+    // Clave del recurso de transacción con la fecha más antigua verificada por empresa.
+    private final Object pendingChecksKey = new Object();
+
     private Integer getCompanyIdFromContext() {
         return TenantContext.getCurrentTenant()
                 .orElseThrow(() -> new IllegalStateException("No se puede determinar la empresa del contexto."));
@@ -40,15 +62,8 @@ public class CierreContableService {
      */
     public void verificarPeriodoAbierto(LocalDate fecha) {
         Integer companyId = getCompanyIdFromContext();
-
-        cierreRepository.findLatestClosedDate(companyId).ifPresent(ultimaFechaCerrada -> {
-            if (!fecha.isAfter(ultimaFechaCerrada)) {
-                throw new BusinessRuleException(
-                        "La operación no puede realizarse con fecha " + fecha +
-                                ". El período contable hasta " + ultimaFechaCerrada + " ya se encuentra cerrado."
-                );
-            }
-        });
+        checkOpen(fecha, getLatestClosedDate(companyId));
+        recheckBeforeCommit(companyId, fecha);
     }
 
     /**
@@ -57,6 +72,7 @@ public class CierreContableService {
     @Transactional
     public void cerrarMes(int anio, int mes) {
         Integer companyId = getCompanyIdFromContext();
+        cierreRepository.lockPeriodsExclusive(companyId);
 
         // Lógica de validación (opcional pero recomendada): verificar que el mes anterior esté cerrado.
 
@@ -68,6 +84,7 @@ public class CierreContableService {
 
         cierre.setCerrado(true);
         cierreRepository.save(cierre);
+        publishLatestClosedDateAfterCommit(companyId);
     }
 
     /**
@@ -76,6 +93,7 @@ public class CierreContableService {
     @Transactional
     public void reabrirMes(int anio, int mes) {
         Integer companyId = getCompanyIdFromContext();
+        cierreRepository.lockPeriodsExclusive(companyId);
 
         // Validar que no se pueda reabrir un mes si el siguiente ya está cerrado.
         LocalDate siguienteMes = LocalDate.of(anio, mes, 1).plusMonths(1);
@@ -100,6 +118,7 @@ public class CierreContableService {
 
         cierre.setCerrado(false);
         cierreRepository.save(cierre);
+        publishLatestClosedDateAfterCommit(companyId);
     }
 
     /**
@@ -135,4 +154,78 @@ public class CierreContableService {
 
         return estados;
     }
-}
\ No newline at end of file
+
+    // --- Caché de la última fecha cerrada ---
+
+    private Optional<LocalDate> getLatestClosedDate(Integer companyId) {
+        return latestClosedByCompany.computeIfAbsent(companyId, cierreRepository::findLatestClosedDate);
+    }
+
+    /**
+     * Recalcula la última fecha cerrada dentro de la transacción actual (ve su propio cambio)
+     * y la publica en memoria solo si la transacción se confirma.
+     */
+    private void publishLatestClosedDateAfterCommit(Integer companyId) {
+        cierreRepository.flush();
+        Optional<LocalDate> latest = cierreRepository.findLatestClosedDate(companyId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                latestClosedByCompany.put(companyId, latest);
+            }
+        });
+    }
+
+    // --- Coordinación entre cierres y operaciones en curso ---
+
+    private static void checkOpen(LocalDate fecha, Optional<LocalDate> latestClosed) {
+        latestClosed.ifPresent(ultimaFechaCerrada -> {
+            if (!fecha.isAfter(ultimaFechaCerrada)) {
+                throw new BusinessRuleException(
+                        "La operación no puede realizarse con fecha " + fecha +
+                                ". El período contable hasta " + ultimaFechaCerrada + " ya se encuentra cerrado."
+                );
+            }
+        });
+    }
+
+    /**
+     * Registra la fecha verificada para repetir la verificación contra la BD justo antes de confirmar.
+     * Por transacción se guarda solo la fecha más antigua de cada empresa (el guardián suele llamarse
+     * varias veces en la misma operación). Fuera de una transacción no hay nada que proteger hasta el commit.
+     */
+    private void recheckBeforeCommit(Integer companyId, LocalDate fecha) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<Integer, LocalDate> pending = (Map<Integer, LocalDate>) TransactionSynchronizationManager.getResource(pendingChecksKey);
+        if (pending == null) {
+            // Ordenado por empresa: los bloqueos se toman siempre en el mismo orden.
+            Map<Integer, LocalDate> earliestByCompany = new TreeMap<>();
+            TransactionSynchronizationManager.bindResource(pendingChecksKey, earliestByCompany);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    if (readOnly) {
+                        return;
+                    }
+                    // Primero el bloqueo y después la lectura, en otra sentencia: si un cierre estaba
+                    // confirmando, la lectura ya ve su fecha. Una excepción aquí revierte la transacción.
+                    earliestByCompany.forEach((id, earliest) -> {
+                        cierreRepository.lockPeriodsShared(id);
+                        checkOpen(earliest, cierreRepository.findLatestClosedDate(id));
+                    });
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(pendingChecksKey);
+                }
+            });
+            pending = earliestByCompany;
+        }
+        pending.merge(companyId, fecha, (a, b) -> a.isBefore(b) ? a : b);
+    }
+}
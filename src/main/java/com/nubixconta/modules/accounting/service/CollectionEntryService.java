@@ -17,18 +17,15 @@ import com.nubixconta.modules.accounting.repository.CollectionEntryRepository;
 import com.nubixconta.modules.accountsreceivable.service.CollectionDetailService;
 import com.nubixconta.modules.sales.entity.Sale;
 import com.nubixconta.modules.sales.repository.SaleRepository;
-import com.nubixconta.security.JwtUtil;
+import com.nubixconta.security.AuthenticatedUser;
 import org.springframework.transaction.annotation.Transactional;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -44,6 +41,7 @@ public class CollectionEntryService {
     private final PaymentEntryRepository paymentEntryRepository;
     private final PaymentDetailsRepository paymentDetailsRepository;
     private final CierreContableService cierreContableService;
+    private final JournalLineService journalLineService;
 
     @Autowired
     public CollectionEntryService(CollectionEntryRepository entryRepository,
@@ -54,7 +52,8 @@ public class CollectionEntryService {
                                   CollectionDetailService collectionDetailService,
                                   SaleRepository saleRepository,
                                   PaymentEntryRepository paymentEntryRepository,
-                                  PaymentDetailsRepository paymentDetailsRepository,CierreContableService cierreContableService) {
+                                  PaymentDetailsRepository paymentDetailsRepository,CierreContableService cierreContableService,
+                                  JournalLineService journalLineService) {
         this.entryRepository = entryRepository;
         this.accountRepository = accountRepository;
         this.catalogRepository = catalogRepository;
@@ -65,6 +64,7 @@ public class CollectionEntryService {
         this.paymentEntryRepository = paymentEntryRepository;
         this.paymentDetailsRepository = paymentDetailsRepository;
         this.cierreContableService=cierreContableService;
+        this.journalLineService = journalLineService;
     }
 
     // Este metodo mapea en el dto el numero de documento, el nombre del cliente de Sale
@@ -128,19 +128,8 @@ public class CollectionEntryService {
     }
     //  Obtener el ID de la empresa del token
     private Integer getCompanyIdFromToken() {
-        String bearerToken = Optional.ofNullable(RequestContextHolder.getRequestAttributes())
-                .filter(ServletRequestAttributes.class::isInstance)
-                .map(ServletRequestAttributes.class::cast)
-                .map(ServletRequestAttributes::getRequest)
-                .map(request -> request.getHeader("Authorization"))
-                .orElseThrow(() -> new RuntimeException("No se pudo obtener el token de autorización de la solicitud."));
-
-        if (!bearerToken.startsWith("Bearer ")) {
-            throw new RuntimeException("Formato de token JWT inválido. No empieza con 'Bearer '.");
-        }
-        String jwtToken = bearerToken.replace("Bearer ", "");
-
-        return JwtUtil.extractCompanyId(jwtToken)
+        return AuthenticatedUser.current()
+                .map(AuthenticatedUser::companyId)
                 .orElseThrow(() -> new RuntimeException("No se pudo obtener el ID de la empresa del token JWT. Asegúrate que el token contiene el 'company_id' claim."));
     }
 
@@ -188,6 +177,9 @@ public class CollectionEntryService {
         collectionDetailRepository.save(detail);
         entryRepository.save(entryDebe);
         entryRepository.save(entryHaber);
+        journalLineService.post(companyId, JournalLineService.DOC_COLLECTION, detail.getId().longValue(),
+                detail.getCollectionDetailDate(), List.of(entryDebe, entryHaber),
+                CollectionEntry::getCatalog, CollectionEntry::getDebit, CollectionEntry::getCredit, CollectionEntry::getDescription);
     }
 
     @Transactional
@@ -197,16 +189,19 @@ public class CollectionEntryService {
             throw new RuntimeException("No existe un detalle con ID: " + detailId);
         }
 
+        CollectionDetail detail = collectionDetailRepository.findById(detailId)
+                .orElseThrow(() -> new RuntimeException("Detalle no encontrado"));
+
+        journalLineService.remove(detail.getCompany().getId(), JournalLineService.DOC_COLLECTION, detailId.longValue());
 
         entryRepository.deleteByCollectionDetailId(detailId);
 
-        // Cambiar el estado del CollectionDetail a "ANULADO" si quieres
-        CollectionDetail detail = collectionDetailRepository.findById(detailId)
-                .orElseThrow(() -> new RuntimeException("Detalle no encontrado"));
+        // Si ya estaba anulado no hay nada que devolver al saldo.
+        BigDecimal released = CollectionDetailService.effectiveAmount(detail);
 
         detail.setPaymentStatus("ANULADO");
         collectionDetailRepository.save(detail);
-        collectionDetailService.recalcularBalancePorReceivableId(detail.getAccountReceivable().getId());
+        collectionDetailService.applyBalanceDelta(detail.getAccountReceivable(), released);
 
     }
     // *** Método existente para CollectionEntry, modificado para ser más genérico si quieres o dejarlo ***
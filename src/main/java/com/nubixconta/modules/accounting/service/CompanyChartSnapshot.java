@@ -0,0 +1,211 @@
+package com.nubixconta.modules.accounting.service;
+
+import com.nubixconta.modules.accounting.entity.Account;
+import com.nubixconta.modules.accounting.entity.Catalog;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Foto inmutable del catálogo de cuentas de una empresa: código, nombre, tipo, estado y padre de
+ * cada cuenta en arreglos indexados por posición, sin entidades de Hibernate.
+ * La comparten los reportes y las validaciones de contabilización (ver ChartSnapshotService), que
+ * la reemplaza por una nueva, nunca la modifica, cuando el catálogo cambia.
+ * Los padres se resuelven por 'Catalog.parent' y, si no está definido, por la cuenta padre maestra
+ * ('Account.parentAccount') activada en la misma empresa.
+ * Se guarda un orden topológico (hijos antes que padres), así que acumular los saldos de todo el
+ * catálogo es una sola pasada sobre arreglos, sin recursión ni consultas adicionales.
+ */
+public final class CompanyChartSnapshot {
+
+    private final int[] catalogIds;
+    private final int[] parentIndex;      // -1 si es raíz
+    private final int[] level;            // 1 para las raíces
+    private final int[] bottomUpOrder;    // índices ordenados de mayor a menor nivel
+    private final String[] codes;
+    private final String[] names;
+    private final String[] accountTypes;
+    private final boolean[] postable;
+    private final boolean[] active;
+    private final Map<Integer, Integer> indexByCatalogId;
+    private final long builtAtMillis = System.currentTimeMillis();
+
+    private CompanyChartSnapshot(int size) {
+        this.catalogIds = new int[size];
+        this.parentIndex = new int[size];
+        this.level = new int[size];
+        this.bottomUpOrder = new int[size];
+        this.codes = new String[size];
+        this.names = new String[size];
+        this.accountTypes = new String[size];
+        this.postable = new boolean[size];
+        this.active = new boolean[size];
+        this.indexByCatalogId = new HashMap<>(size * 2);
+    }
+
+    /**
+     * Construye el árbol a partir del catálogo completo de una empresa.
+     * Las cuentas deben venir con su 'Account' cargada (ver CatalogRepository.findByCompany_IdWithAccount).
+     */
+    public static CompanyChartSnapshot build(List<Catalog> catalogs) {
+        int n = catalogs.size();
+        CompanyChartSnapshot snapshot = new CompanyChartSnapshot(n);
+
+        Map<Integer, Integer> indexByAccountId = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            Catalog catalog = catalogs.get(i);
+            Account account = catalog.getAccount();
+            snapshot.catalogIds[i] = catalog.getId();
+            snapshot.codes[i] = catalog.getEffectiveCode();
+            snapshot.names[i] = catalog.getEffectiveName();
+            snapshot.accountTypes[i] = account.getAccountType();
+            snapshot.postable[i] = account.isPostable();
+            snapshot.active[i] = catalog.isActive();
+            snapshot.indexByCatalogId.put(catalog.getId(), i);
+            indexByAccountId.put(account.getId(), i);
+        }
+
+        // 1. Resolver el padre de cada cuenta. getId() sobre los proxies LAZY no dispara consultas.
+        for (int i = 0; i < n; i++) {
+            Catalog catalog = catalogs.get(i);
+            Integer parent = null;
+            if (catalog.getParent() != null) {
+                parent = snapshot.indexByCatalogId.get(catalog.getParent().getId());
+            } else if (catalog.getAccount().getParentAccount() != null) {
+                parent = indexByAccountId.get(catalog.getAccount().getParentAccount().getId());
+            }
+            snapshot.parentIndex[i] = (parent != null && parent != i) ? parent : -1;
+        }
+
+        // 2. Calcular el nivel de cada cuenta. Un ciclo (dato corrupto) se corta tratando la cuenta como raíz.
+        int maxLevel = 0;
+        for (int i = 0; i < n; i++) {
+            maxLevel = Math.max(maxLevel, snapshot.computeLevel(i));
+        }
+
+        // 3. Orden topológico por niveles (counting sort): primero las hojas más profundas.
+        int[] countByLevel = new int[maxLevel + 2];
+        for (int i = 0; i < n; i++) {
+            countByLevel[snapshot.level[i]]++;
+        }
+        int[] start = new int[maxLevel + 2];
+        int position = 0;
+        for (int l = maxLevel; l >= 1; l--) {
+            start[l] = position;
+            position += countByLevel[l];
+        }
+        for (int i = 0; i < n; i++) {
+            snapshot.bottomUpOrder[start[snapshot.level[i]]++] = i;
+        }
+        return snapshot;
+    }
+
+    private int computeLevel(int index) {
+        if (level[index] > 0) {
+            return level[index];
+        }
+        // Se sube hasta encontrar un ancestro con nivel conocido o una raíz.
+        int depth = 0;
+        int current = index;
+        while (current >= 0 && level[current] == 0 && depth <= catalogIds.length) {
+            current = parentIndex[current];
+            depth++;
+        }
+        if (depth > catalogIds.length) {
+            parentIndex[index] = -1;
+            level[index] = 1;
+            return 1;
+        }
+        int base = (current >= 0) ? level[current] : 0;
+        // Segunda pasada para asignar el nivel a todo el camino recorrido.
+        current = index;
+        for (int d = depth; d > 0; d--) {
+            level[current] = base + d;
+            current = parentIndex[current];
+        }
+        return level[index];
+    }
+
+    /**
+     * Acumula cada columna hacia arriba: al terminar, el valor de cada cuenta es la suma de su
+     * propio valor y el de todas sus descendientes. Las columnas se modifican en el mismo arreglo.
+     */
+    public void rollUp(BigDecimal[]... columns) {
+        for (int index : bottomUpOrder) {
+            int parent = parentIndex[index];
+            if (parent < 0) continue;
+            for (BigDecimal[] column : columns) {
+                column[parent] = column[parent].add(column[index]);
+            }
+        }
+    }
+
+    /**
+     * Marca cada cuenta que tiene valores propios o en alguna descendiente.
+     */
+    public void rollUp(boolean[] flags) {
+        for (int index : bottomUpOrder) {
+            int parent = parentIndex[index];
+            if (parent >= 0 && flags[index]) {
+                flags[parent] = true;
+            }
+        }
+    }
+
+    /** Devuelve una columna del tamaño del árbol inicializada en cero. */
+    public BigDecimal[] newColumn() {
+        BigDecimal[] column = new BigDecimal[catalogIds.length];
+        Arrays.fill(column, BigDecimal.ZERO);
+        return column;
+    }
+
+    /** Índice de la cuenta en el árbol, o -1 si no pertenece al catálogo de la empresa. */
+    public int indexOf(Integer catalogId) {
+        Integer index = indexByCatalogId.get(catalogId);
+        return index != null ? index : -1;
+    }
+
+    public int size() {
+        return catalogIds.length;
+    }
+
+    public int catalogId(int index) {
+        return catalogIds[index];
+    }
+
+    /** ID de catálogo del padre, o null si es raíz. */
+    public Integer parentCatalogId(int index) {
+        return parentIndex[index] >= 0 ? catalogIds[parentIndex[index]] : null;
+    }
+
+    public int level(int index) {
+        return level[index];
+    }
+
+    public String code(int index) {
+        return codes[index];
+    }
+
+    public String name(int index) {
+        return names[index];
+    }
+
+    public String accountType(int index) {
+        return accountTypes[index];
+    }
+
+    public boolean isPostable(int index) {
+        return postable[index];
+    }
+
+    public boolean isActive(int index) {
+        return active[index];
+    }
+
+    long getBuiltAtMillis() {
+        return builtAtMillis;
+    }
+}
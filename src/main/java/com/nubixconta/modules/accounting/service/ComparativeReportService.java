@@ -0,0 +1,292 @@
+package com.nubixconta.modules.accounting.service;
+
+import com.nubixconta.common.exception.BusinessRuleException;
+import com.nubixconta.modules.accounting.dto.reports.AccountBalanceDTO;
+import com.nubixconta.modules.accounting.dto.reports.LineaComparativaDTO;
+import com.nubixconta.modules.accounting.dto.reports.PeriodMovementView;
+import com.nubixconta.modules.accounting.dto.reports.PeriodoComparativoDTO;
+import com.nubixconta.modules.accounting.dto.reports.ReporteComparativoDTO;
+import com.nubixconta.modules.accounting.entity.enums.PeriodGranularity;
+import com.nubixconta.modules.accounting.repository.AccountDailyBalanceRepository;
+import com.nubixconta.security.TenantContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Reportes comparativos por períodos (meses, trimestres o años).
+ * Todos los períodos salen de UNA sola consulta agrupada por cuenta y date_trunc(período) sobre
+ * los saldos diarios, y cada columna se arma en una sola pasada sobre su resultado, en lugar de
+ * repetir el reporte normal una vez por período.
+ */
+@Service
+@RequiredArgsConstructor
+public class ComparativeReportService {
+
+    // Límite de columnas por reporte (p. ej. tres años mes a mes).
+    private static final int MAX_PERIODS = 36;
+    private static final BigDecimal CIEN = new BigDecimal("100");
+
+    // Secciones del Estado de Resultados, en el orden en que se presentan.
+    private static final List<String> SECCIONES_RESULTADOS = List.of(
+            "INGRESOS_OPERACIONALES", "COSTO_VENTA", "GASTOS_VENTA",
+            "GASTOS_ADMINISTRACION", "OTROS_INGRESOS", "OTROS_GASTOS");
+
+    private final AccountDailyBalanceRepository dailyBalanceRepository;
+    private final ChartSnapshotService chartSnapshots;
+    private final ReportCacheService reportCache;
+
+    private Integer getCompanyIdFromContext() {
+        return TenantContext.getCurrentTenant()
+                .orElseThrow(() -> new IllegalStateException("No se puede determinar la empresa del contexto."));
+    }
+
+    /**
+     * Estado de Resultados comparativo: una columna por período con el total de cada cuenta,
+     * y las filas de totales (utilidad bruta, operacional, antes de impuestos y del ejercicio).
+     */
+    @Transactional(readOnly = true)
+    public ReporteComparativoDTO getEstadoResultadosComparativo(LocalDate startDate, LocalDate endDate,
+                                                                PeriodGranularity granularity) {
+        Integer companyId = getCompanyIdFromContext();
+        return reportCache.getOrCompute(companyId, "ESTADO_RESULTADOS_COMPARATIVO:" + granularity, startDate, endDate,
+                startDate, endDate, ReporteComparativoDTO.class,
+                () -> buildEstadoResultadosComparativo(companyId, startDate, endDate, granularity));
+    }
+
+    /**
+     * Balanza de Comprobación comparativa: para cada cuenta, Debe y Haber de cada período y el
+     * saldo al cierre de cada uno (según la naturaleza de la cuenta).
+     */
+    @Transactional(readOnly = true)
+    public ReporteComparativoDTO getBalanzaComparativa(LocalDate startDate, LocalDate endDate,
+                                                       PeriodGranularity granularity) {
+        Integer companyId = getCompanyIdFromContext();
+        return reportCache.getOrCompute(companyId, "BALANZA_COMPARATIVA:" + granularity, startDate, endDate,
+                ReportCacheService.BEGINNING_OF_TIME, endDate, ReporteComparativoDTO.class,
+                () -> buildBalanzaComparativa(companyId, startDate, endDate, granularity));
+    }
+
+    private ReporteComparativoDTO buildEstadoResultadosComparativo(Integer companyId, LocalDate startDate, LocalDate endDate,
+                                                                   PeriodGranularity granularity) {
+        List<PeriodoComparativoDTO> periodos = buildPeriods(startDate, endDate, granularity);
+        Map<LocalDate, Integer> columnByPeriod = columnIndex(periodos, granularity);
+        int n = periodos.size();
+
+        List<PeriodMovementView> movimientos = dailyBalanceRepository.getMovementsByPeriod(
+                companyId, granularity.getSqlUnit(), startDate, endDate);
+        CompanyChartSnapshot chart = chartSnapshots.getSnapshot(companyId);
+
+        // 1. Una pasada: cada fila (cuenta, período) suma en su celda y en el total de su sección.
+        Map<Integer, BigDecimal[]> valoresPorCuenta = new HashMap<>();
+        Map<Integer, String> seccionPorCuenta = new HashMap<>();
+        Map<String, BigDecimal[]> totalesPorSeccion = new HashMap<>();
+        SECCIONES_RESULTADOS.forEach(seccion -> totalesPorSeccion.put(seccion, zeros(n)));
+
+        for (PeriodMovementView mov : movimientos) {
+            int index = chart.indexOf(mov.getIdCatalog());
+            if (index < 0) continue;
+            String accountType = chart.accountType(index).toUpperCase().trim();
+            String seccion = seccionResultados(accountType);
+            if (seccion == null) continue;
+
+            boolean esIngreso = accountType.startsWith("INGRESO");
+            BigDecimal neto = esIngreso
+                    ? nz(mov.getTotalHaber()).subtract(nz(mov.getTotalDebe()))
+                    : nz(mov.getTotalDebe()).subtract(nz(mov.getTotalHaber()));
+            int col = columnByPeriod.get(mov.getPeriodStart());
+
+            BigDecimal[] valores = valoresPorCuenta.computeIfAbsent(mov.getIdCatalog(), id -> zeros(n));
+            valores[col] = valores[col].add(neto);
+            seccionPorCuenta.put(mov.getIdCatalog(), seccion);
+            BigDecimal[] totalSeccion = totalesPorSeccion.get(seccion);
+            totalSeccion[col] = totalSeccion[col].add(neto);
+        }
+
+        // 2. Filas de cuentas, ordenadas por sección y código.
+        List<LineaComparativaDTO> lineas = new ArrayList<>();
+        valoresPorCuenta.forEach((idCatalog, valores) -> {
+            int index = chart.indexOf(idCatalog);
+            lineas.add(newLine(idCatalog, chart.code(index), chart.name(index),
+                    seccionPorCuenta.get(idCatalog), valores));
+        });
+        lineas.sort(Comparator.comparing((LineaComparativaDTO l) -> SECCIONES_RESULTADOS.indexOf(l.getSeccion()))
+                .thenComparing(LineaComparativaDTO::getAccountCode));
+
+        // 3. Totales por período, con las mismas reglas que el Estado de Resultados normal.
+        BigDecimal[] utilidadBruta = zeros(n);
+        BigDecimal[] utilidadOperacional = zeros(n);
+        BigDecimal[] utilidadAntesImpuestos = zeros(n);
+        BigDecimal[] reservaLegal = zeros(n);
+        BigDecimal[] impuestoSobreLaRenta = zeros(n);
+        BigDecimal[] utilidadDelEjercicio = zeros(n);
+        for (int p = 0; p < n; p++) {
+            utilidadBruta[p] = totalesPorSeccion.get("INGRESOS_OPERACIONALES")[p]
+                    .subtract(totalesPorSeccion.get("COSTO_VENTA")[p]);
+            utilidadOperacional[p] = utilidadBruta[p]
+                    .subtract(totalesPorSeccion.get("GASTOS_VENTA")[p])
+                    .subtract(totalesPorSeccion.get("GASTOS_ADMINISTRACION")[p]);
+            utilidadAntesImpuestos[p] = utilidadOperacional[p]
+                    .add(totalesPorSeccion.get("OTROS_INGRESOS")[p])
+                    .subtract(totalesPorSeccion.get("OTROS_GASTOS")[p]);
+            reservaLegal[p] = FinancialReportService.calcularReservaLegal(utilidadAntesImpuestos[p]);
+            impuestoSobreLaRenta[p] = FinancialReportService.calcularImpuestoSobreLaRenta(utilidadAntesImpuestos[p], reservaLegal[p]);
+            utilidadDelEjercicio[p] = utilidadAntesImpuestos[p].subtract(reservaLegal[p]).subtract(impuestoSobreLaRenta[p]);
+        }
+        for (String seccion : SECCIONES_RESULTADOS) {
+            lineas.add(newLine(null, null, "Total " + seccion, "TOTAL", totalesPorSeccion.get(seccion)));
+        }
+        lineas.add(newLine(null, null, "Utilidad Bruta", "TOTAL", utilidadBruta));
+        lineas.add(newLine(null, null, "Utilidad Operacional", "TOTAL", utilidadOperacional));
+        lineas.add(newLine(null, null, "Utilidad antes de Impuestos", "TOTAL", utilidadAntesImpuestos));
+        lineas.add(newLine(null, null, "Reserva Legal", "TOTAL", reservaLegal));
+        lineas.add(newLine(null, null, "Impuesto sobre la Renta", "TOTAL", impuestoSobreLaRenta));
+        lineas.add(newLine(null, null, "Utilidad del Ejercicio", "TOTAL", utilidadDelEjercicio));
+
+        return newReport(granularity, periodos, lineas);
+    }
+
+    private ReporteComparativoDTO buildBalanzaComparativa(Integer companyId, LocalDate startDate, LocalDate endDate,
+                                                          PeriodGranularity granularity) {
+        List<PeriodoComparativoDTO> periodos = buildPeriods(startDate, endDate, granularity);
+        Map<LocalDate, Integer> columnByPeriod = columnIndex(periodos, granularity);
+        int n = periodos.size();
+
+        Map<Integer, BigDecimal> saldosIniciales = dailyBalanceRepository
+                .getAccumulatedBalancesBefore(companyId, startDate)
+                .stream().collect(Collectors.toMap(AccountBalanceDTO::getIdCatalog, AccountBalanceDTO::getSaldo));
+        List<PeriodMovementView> movimientos = dailyBalanceRepository.getMovementsByPeriod(
+                companyId, granularity.getSqlUnit(), startDate, endDate);
+        CompanyChartSnapshot chart = chartSnapshots.getSnapshot(companyId);
+
+        // 1. Una pasada sobre el resultado agrupado para llenar Debe y Haber de cada celda.
+        Map<Integer, BigDecimal[]> debes = new HashMap<>();
+        Map<Integer, BigDecimal[]> haberes = new HashMap<>();
+        for (PeriodMovementView mov : movimientos) {
+            int col = columnByPeriod.get(mov.getPeriodStart());
+            debes.computeIfAbsent(mov.getIdCatalog(), id -> zeros(n))[col] = nz(mov.getTotalDebe());
+            haberes.computeIfAbsent(mov.getIdCatalog(), id -> zeros(n))[col] = nz(mov.getTotalHaber());
+        }
+
+        // 2. Saldo al cierre de cada período: saldo inicial más los movimientos acumulados.
+        Set<Integer> cuentas = new HashSet<>(saldosIniciales.keySet());
+        cuentas.addAll(debes.keySet());
+
+        List<LineaComparativaDTO> lineas = new ArrayList<>(cuentas.size());
+        for (Integer idCatalog : cuentas) {
+            int index = chart.indexOf(idCatalog);
+            if (index < 0) continue;
+            String accountType = chart.accountType(index).toUpperCase().trim();
+            boolean esDeudora = accountType.startsWith("ACTIVO") || accountType.startsWith("GASTO") || accountType.startsWith("COSTO");
+
+            BigDecimal[] debe = debes.getOrDefault(idCatalog, zeros(n));
+            BigDecimal[] haber = haberes.getOrDefault(idCatalog, zeros(n));
+            BigDecimal[] saldos = new BigDecimal[n];
+            BigDecimal saldo = saldosIniciales.getOrDefault(idCatalog, BigDecimal.ZERO);
+            for (int p = 0; p < n; p++) {
+                saldo = saldo.add(debe[p]).subtract(haber[p]);
+                saldos[p] = esDeudora ? saldo : saldo.negate();
+            }
+
+            LineaComparativaDTO linea = newLine(idCatalog, chart.code(index), chart.name(index),
+                    accountType, saldos);
+            linea.setDebes(Arrays.asList(debe));
+            linea.setHaberes(Arrays.asList(haber));
+            lineas.add(linea);
+        }
+        lineas.sort(Comparator.comparing(LineaComparativaDTO::getAccountCode));
+
+        return newReport(granularity, periodos, lineas);
+    }
+
+    // --- Métodos Privados de Ayuda ---
+
+    static List<PeriodoComparativoDTO> buildPeriods(LocalDate startDate, LocalDate endDate, PeriodGranularity granularity) {
+        List<PeriodoComparativoDTO> periodos = new ArrayList<>();
+        for (LocalDate periodStart = granularity.truncate(startDate);
+             !periodStart.isAfter(endDate);
+             periodStart = granularity.next(periodStart)) {
+            if (periodos.size() == MAX_PERIODS) {
+                throw new BusinessRuleException("El reporte comparativo admite como máximo " + MAX_PERIODS + " períodos.");
+            }
+            LocalDate from = periodStart.isBefore(startDate) ? startDate : periodStart;
+            LocalDate lastDay = granularity.next(periodStart).minusDays(1);
+            LocalDate to = lastDay.isAfter(endDate) ? endDate : lastDay;
+            periodos.add(new PeriodoComparativoDTO(granularity.label(periodStart), from, to));
+        }
+        return periodos;
+    }
+
+    // La consulta devuelve el inicio "truncado" del período, que puede ser anterior al inicio recortado.
+    private Map<LocalDate, Integer> columnIndex(List<PeriodoComparativoDTO> periodos, PeriodGranularity granularity) {
+        Map<LocalDate, Integer> index = new HashMap<>();
+        for (int i = 0; i < periodos.size(); i++) {
+            index.put(granularity.truncate(periodos.get(i).getStartDate()), i);
+        }
+        return index;
+    }
+
+    // Misma clasificación que FinancialReportService.getEstadoDeResultados.
+    private static String seccionResultados(String accountType) {
+        if (accountType.startsWith("INGRESO.OPERACIONAL")) return "INGRESOS_OPERACIONALES";
+        if (accountType.startsWith("INGRESO.NO_OPERACIONAL")) return "OTROS_INGRESOS";
+        if (accountType.startsWith("COSTO")) return "COSTO_VENTA";
+        if (accountType.equals("GASTO.VENTA")) return "GASTOS_VENTA";
+        if (accountType.equals("GASTO.ADMINISTRACION")) return "GASTOS_ADMINISTRACION";
+        if (accountType.startsWith("GASTO.FINANCIERO") || accountType.startsWith("GASTO.NO_OPERACIONAL")) return "OTROS_GASTOS";
+        return null;
+    }
+
+    static LineaComparativaDTO newLine(Integer idCatalog, String code, String name, String seccion, BigDecimal[] valores) {
+        LineaComparativaDTO linea = new LineaComparativaDTO();
+        linea.setIdCatalog(idCatalog);
+        linea.setAccountCode(code);
+        linea.setAccountName(name);
+        linea.setSeccion(seccion);
+        linea.setValores(Arrays.asList(valores));
+
+        // Variación de cada período respecto al anterior.
+        List<BigDecimal> variaciones = new ArrayList<>(valores.length);
+        List<BigDecimal> porcentajes = new ArrayList<>(valores.length);
+        for (int p = 0; p < valores.length; p++) {
+            if (p == 0) {
+                variaciones.add(null);
+                porcentajes.add(null);
+                continue;
+            }
+            BigDecimal anterior = valores[p - 1];
+            BigDecimal variacion = valores[p].subtract(anterior);
+            variaciones.add(variacion);
+            porcentajes.add(anterior.signum() == 0 ? null
+                    : variacion.multiply(CIEN).divide(anterior.abs(), 2, RoundingMode.HALF_UP));
+        }
+        linea.setVariaciones(variaciones);
+        linea.setVariacionesPorcentuales(porcentajes);
+        return linea;
+    }
+
+    private static ReporteComparativoDTO newReport(PeriodGranularity granularity, List<PeriodoComparativoDTO> periodos,
+                                                   List<LineaComparativaDTO> lineas) {
+        ReporteComparativoDTO report = new ReporteComparativoDTO();
+        report.setGranularidad(granularity);
+        report.setPeriodos(periodos);
+        report.setLineas(lineas);
+        return report;
+    }
+
+    private static BigDecimal[] zeros(int size) {
+        BigDecimal[] values = new BigDecimal[size];
+        Arrays.fill(values, BigDecimal.ZERO);
+        return values;
+    }
+
+    private static BigDecimal nz(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
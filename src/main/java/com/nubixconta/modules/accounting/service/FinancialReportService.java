@@ -1,14 +1,16 @@
 package com.nubixconta.modules.accounting.service;
+import com.nubixconta.common.exception.NotFoundException;
 import com.nubixconta.modules.accounting.dto.reports.BalanceGeneralLineaDTO;
 import com.nubixconta.modules.accounting.dto.reports.BalanceGeneralResponseDTO;
 import com.nubixconta.modules.accounting.dto.reports.*;
 import com.nubixconta.modules.accounting.dto.reports.JournalMovementDetailDTO;
 import com.nubixconta.modules.accounting.dto.reports.EstadoResultadosLineaDTO;
 import com.nubixconta.modules.accounting.dto.reports.EstadoResultadosResponseDTO;
-import com.nubixconta.modules.accounting.repository.CatalogRepository;
-import com.nubixconta.modules.accounting.repository.GeneralLedgerViewRepository;
+import com.nubixconta.modules.accounting.repository.AccountDailyBalanceRepository;
+import com.nubixconta.modules.accounting.repository.JournalLineRepository;
 import com.nubixconta.security.TenantContext;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
@@ -20,14 +22,28 @@ import java.util.*;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class FinancialReportService {
 
-    private final GeneralLedgerViewRepository ledgerRepository;
-    private final CatalogRepository catalogRepository;
+    // Límites para las consultas paginadas por cursor
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final LocalDate MIN_LEDGER_DATE = LocalDate.of(1900, 1, 1);
+    private static final LocalDate MAX_LEDGER_DATE = LocalDate.of(9999, 12, 31);
+
+    // Porcentajes del Estado de Resultados.
+    // Nota: Estos porcentajes deberían venir de una configuración de la empresa en el futuro.
+    private static final BigDecimal PORCENTAJE_RESERVA_LEGAL = new BigDecimal("0.07");
+    private static final BigDecimal PORCENTAJE_IMPUESTO_RENTA = new BigDecimal("0.30");
+
+    private final JournalLineRepository ledgerRepository;
+    private final ChartSnapshotService chartSnapshots;
+    private final AccountDailyBalanceRepository dailyBalanceRepository;
+    private final ReportCacheService reportCache;
 
     private Integer getCompanyIdFromContext() {
         return TenantContext.getCurrentTenant()
@@ -141,46 +157,167 @@ public class FinancialReportService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Libro Diario paginado por cursor (keyset sobre fecha contable e ID de línea).
+     * @param afterDate Fecha del último movimiento de la página anterior (null para la primera página).
+     * @param afterId ID de línea del último movimiento de la página anterior (null para la primera página).
+     */
+    @Transactional(readOnly = true)
+    public LibroDiarioPageDTO getLibroDiarioPage(LocalDate startDate, LocalDate endDate,
+                                                 LocalDateTime afterDate, Long afterId, Integer size) {
+        Integer companyId = getCompanyIdFromContext();
+        int pageSize = normalizePageSize(size);
+        LocalDateTime startDateTime = startDate.atStartOfDay();
+
+        // Se pide una fila de más para saber si hay página siguiente sin hacer un COUNT.
+        List<LedgerLineDTO> lines = new ArrayList<>(ledgerRepository.findJournalPage(
+                companyId, startDateTime, endDate.atTime(LocalTime.MAX),
+                afterDate != null ? afterDate : startDateTime,
+                afterDate != null && afterId != null ? afterId : 0L,
+                PageRequest.of(0, pageSize + 1)));
+
+        boolean hasMore = lines.size() > pageSize;
+        if (hasMore) {
+            lines.remove(pageSize);
+        }
+        LedgerLineDTO last = lines.isEmpty() ? null : lines.get(lines.size() - 1);
+
+        return new LibroDiarioPageDTO(
+                lines,
+                last != null ? last.getAccountingDate() : null,
+                last != null ? last.getLineId() : null,
+                hasMore
+        );
+    }
+
+    /**
+     * Movimientos de una cuenta paginados por cursor, con saldo inicial y saldo acumulado por línea.
+     * Sirve tanto para el Libro Mayor de una cuenta como para el detalle de una línea de la Balanza.
+     * El saldo inicial se obtiene de los saldos diarios más los movimientos del mismo día del cursor,
+     * así que su costo no depende de cuántas páginas se hayan recorrido.
+     * @param startDate Fecha de inicio (opcional; sin ella se recorre todo el historial).
+     * @param endDate Fecha de fin (opcional).
+     */
+    @Transactional(readOnly = true)
+    public LibroMayorPageDTO getLibroMayorPage(Integer catalogId, LocalDate startDate, LocalDate endDate,
+                                               LocalDateTime afterDate, Long afterId, Integer size) {
+        Integer companyId = getCompanyIdFromContext();
+        int pageSize = normalizePageSize(size);
+        LocalDateTime startDateTime = (startDate != null ? startDate : MIN_LEDGER_DATE).atStartOfDay();
+        LocalDateTime endDateTime = (endDate != null ? endDate : MAX_LEDGER_DATE).atTime(LocalTime.MAX);
+        boolean hasCursor = afterDate != null && afterId != null;
+
+        // 1. Saldo inicial de la página.
+        BigDecimal saldoInicial;
+        if (hasCursor) {
+            LocalDate cursorDay = afterDate.toLocalDate();
+            saldoInicial = dailyBalanceRepository.getAccountBalanceBefore(companyId, catalogId, cursorDay)
+                    .add(ledgerRepository.sumBalanceUpTo(companyId, catalogId, cursorDay.atStartOfDay(), afterDate, afterId));
+        } else {
+            saldoInicial = dailyBalanceRepository.getAccountBalanceBefore(companyId, catalogId, startDateTime.toLocalDate());
+        }
+
+        // 2. Movimientos de la página (una fila de más para saber si hay página siguiente).
+        List<LedgerLineDTO> lines = new ArrayList<>(ledgerRepository.findLedgerPage(
+                companyId, catalogId, startDateTime, endDateTime,
+                hasCursor ? afterDate : startDateTime,
+                hasCursor ? afterId : 0L,
+                PageRequest.of(0, pageSize + 1)));
+
+        boolean hasMore = lines.size() > pageSize;
+        if (hasMore) {
+            lines.remove(pageSize);
+        }
+
+        // 3. Saldo acumulado línea a línea.
+        BigDecimal saldo = saldoInicial;
+        for (LedgerLineDTO line : lines) {
+            saldo = saldo.add(line.getDebe()).subtract(line.getHaber());
+            line.setSaldo(saldo);
+        }
+
+        LibroMayorPageDTO page = new LibroMayorPageDTO();
+        page.setIdCatalog(catalogId);
+        if (!lines.isEmpty()) {
+            page.setAccountCode(lines.get(0).getAccountCode());
+            page.setAccountName(lines.get(0).getAccountName());
+        } else {
+            CompanyChartSnapshot chart = chartSnapshots.getSnapshot(companyId);
+            int index = chart.indexOf(catalogId);
+            if (index < 0) {
+                throw new NotFoundException("Cuenta con ID " + catalogId + " no encontrada.");
+            }
+            page.setAccountCode(chart.code(index));
+            page.setAccountName(chart.name(index));
+        }
+        page.setSaldoInicial(saldoInicial);
+        page.setSaldoFinal(saldo);
+        page.setMovimientos(lines);
+
+        LedgerLineDTO last = lines.isEmpty() ? null : lines.get(lines.size() - 1);
+        page.setNextAfterDate(last != null ? last.getAccountingDate() : null);
+        page.setNextAfterId(last != null ? last.getLineId() : null);
+        page.setHasMore(hasMore);
+        return page;
+    }
+
     @Transactional(readOnly = true)
     public List<BalanzaComprobacionLineaDTO> getBalanzaDeComprobacion(LocalDate startDate, LocalDate endDate) {
         Integer companyId = getCompanyIdFromContext();
+        // Depende de todo el historial hasta 'endDate' (por los saldos iniciales).
+        return reportCache.getOrComputeList(companyId, "BALANZA", startDate, endDate,
+                ReportCacheService.BEGINNING_OF_TIME, endDate, BalanzaComprobacionLineaDTO.class,
+                () -> buildBalanzaDeComprobacion(companyId, startDate, endDate));
+    }
 
-        // 1. Obtener los datos crudos de la BD en dos consultas eficientes
-        Map<Integer, AccountBalanceDTO> saldosInicialesMap = ledgerRepository
-                .getAccumulatedBalancesBefore(companyId, startDate.atStartOfDay())
-                .stream().collect(Collectors.toMap(AccountBalanceDTO::getIdCatalog, Function.identity()));
+    private List<BalanzaComprobacionLineaDTO> buildBalanzaDeComprobacion(Integer companyId, LocalDate startDate, LocalDate endDate) {
+
+        // 1. Obtener los datos crudos de la BD en dos consultas eficientes.
+        // Los saldos iniciales se leen de los saldos diarios, no del libro diario completo.
+        List<AccountBalanceDTO> saldosIniciales = dailyBalanceRepository.getAccumulatedBalancesBefore(companyId, startDate);
+        List<AccountBalanceDTO> movimientosPeriodo = ledgerRepository
+                .getPeriodMovements(companyId, startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX));
+
+        // La info del catálogo (tipo de cuenta, código, nombre) sale de la foto en memoria.
+        return deriveBalanzaDeComprobacion(saldosIniciales, movimientosPeriodo, chartSnapshots.getSnapshot(companyId));
+    }
 
-        Map<Integer, AccountBalanceDTO> movimientosPeriodoMap = ledgerRepository
-                .getPeriodMovements(companyId, startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX))
+    /**
+     * Arma la Balanza a partir de datos ya cargados. No accede a la BD, por lo que puede
+     * ejecutarse fuera de la transacción (ver getFinancialPackage).
+     */
+    private List<BalanzaComprobacionLineaDTO> deriveBalanzaDeComprobacion(List<AccountBalanceDTO> saldosIniciales,
+                                                                          List<AccountBalanceDTO> movimientosPeriodo,
+                                                                          CompanyChartSnapshot chart) {
+        Map<Integer, AccountBalanceDTO> saldosInicialesMap = saldosIniciales
+                .stream().collect(Collectors.toMap(AccountBalanceDTO::getIdCatalog, Function.identity()));
+        Map<Integer, AccountBalanceDTO> movimientosPeriodoMap = movimientosPeriodo
                 .stream().collect(Collectors.toMap(AccountBalanceDTO::getIdCatalog, Function.identity()));
 
         // 2. Unir todas las cuentas que tuvieron algún movimiento
         Set<Integer> allAccountIds = Stream.concat(saldosInicialesMap.keySet().stream(), movimientosPeriodoMap.keySet().stream())
                 .collect(Collectors.toSet());
 
-        // Necesitamos la info del catálogo para saber el tipo de cuenta
-        Map<Integer, com.nubixconta.modules.accounting.entity.Catalog> catalogMap = catalogRepository.findAllById(allAccountIds)
-                .stream().collect(Collectors.toMap(com.nubixconta.modules.accounting.entity.Catalog::getId, Function.identity()));
-
         // 3. Procesar y combinar los resultados
         return allAccountIds.stream()
+                .filter(id -> chart.indexOf(id) >= 0)
                 .map(id -> {
                     AccountBalanceDTO saldoInicialData = saldosInicialesMap.getOrDefault(id, new AccountBalanceDTO(id, BigDecimal.ZERO));
                     AccountBalanceDTO movimientoData = movimientosPeriodoMap.getOrDefault(id, new AccountBalanceDTO(id, BigDecimal.ZERO, BigDecimal.ZERO));
-                    com.nubixconta.modules.accounting.entity.Catalog catalog = catalogMap.get(id);
+                    int index = chart.indexOf(id);
 
                     BigDecimal saldoInicial = saldoInicialData.getSaldo();
                     BigDecimal saldoFinal = saldoInicial.add(movimientoData.getTotalDebe()).subtract(movimientoData.getTotalHaber());
 
                     BalanzaComprobacionLineaDTO linea = new BalanzaComprobacionLineaDTO();
                     linea.setIdCatalog(id);
-                    linea.setAccountCode(catalog.getEffectiveCode());
-                    linea.setAccountName(catalog.getEffectiveName());
+                    linea.setAccountCode(chart.code(index));
+                    linea.setAccountName(chart.name(index));
                     linea.setTotalDebePeriodo(movimientoData.getTotalDebe());
                     linea.setTotalHaberPeriodo(movimientoData.getTotalHaber());
 
                     // Lógica contable: Separar saldos en Deudor/Acreedor
-                    String accountType = catalog.getAccount().getAccountType();
+                    String accountType = chart.accountType(index);
                     boolean esDeudora = accountType.startsWith("ACTIVO") || accountType.startsWith("GASTO") || accountType.startsWith("COSTO");
 
                     if (esDeudora) {
@@ -203,6 +340,13 @@ public class FinancialReportService {
     @Transactional(readOnly = true)
     public EstadoResultadosResponseDTO getEstadoDeResultados(LocalDate startDate, LocalDate endDate) {
         Integer companyId = getCompanyIdFromContext();
+        // Solo depende de los movimientos del período.
+        return reportCache.getOrCompute(companyId, "ESTADO_RESULTADOS", startDate, endDate,
+                startDate, endDate, EstadoResultadosResponseDTO.class,
+                () -> buildEstadoDeResultados(companyId, startDate, endDate));
+    }
+
+    private EstadoResultadosResponseDTO buildEstadoDeResultados(Integer companyId, LocalDate startDate, LocalDate endDate) {
 
         // 1. REUTILIZAR: Obtener los movimientos del período. Es la misma llamada que en la Balanza.
         List<AccountBalanceDTO> movimientosPeriodo = ledgerRepository.getPeriodMovements(
@@ -211,13 +355,15 @@ public class FinancialReportService {
                 endDate.atTime(LocalTime.MAX)
         );
 
-        // 2. Obtener la información completa del catálogo para saber el tipo de cada cuenta.
-        Set<Integer> accountIds = movimientosPeriodo.stream()
-                .map(AccountBalanceDTO::getIdCatalog)
-                .collect(Collectors.toSet());
-        Map<Integer, com.nubixconta.modules.accounting.entity.Catalog> catalogMap = catalogRepository.findAllById(accountIds)
-                .stream().collect(Collectors.toMap(com.nubixconta.modules.accounting.entity.Catalog::getId, Function.identity()));
+        // 2. El tipo de cada cuenta sale de la foto del catálogo en memoria.
+        return deriveEstadoDeResultados(movimientosPeriodo, chartSnapshots.getSnapshot(companyId));
+    }
 
+    /**
+     * Arma el Estado de Resultados a partir de los movimientos del período ya cargados.
+     */
+    private EstadoResultadosResponseDTO deriveEstadoDeResultados(List<AccountBalanceDTO> movimientosPeriodo,
+                                                                 CompanyChartSnapshot chart) {
         // 3. Inicializar listas y totales
         EstadoResultadosResponseDTO response = new EstadoResultadosResponseDTO();
         response.setIngresosOperacionales(new ArrayList<>());
@@ -229,15 +375,15 @@ public class FinancialReportService {
 
         // 3. CLASIFICAR EN LAS NUEVAS SUBCATEGORÍAS
         for (AccountBalanceDTO movimiento : movimientosPeriodo) {
-            com.nubixconta.modules.accounting.entity.Catalog catalog = catalogMap.get(movimiento.getIdCatalog());
-            if (catalog == null || catalog.getAccount() == null) continue;
+            int index = chart.indexOf(movimiento.getIdCatalog());
+            if (index < 0) continue;
 
-            String accountType = catalog.getAccount().getAccountType().toUpperCase().trim();
+            String accountType = chart.accountType(index).toUpperCase().trim();
 
             EstadoResultadosLineaDTO linea = new EstadoResultadosLineaDTO();
-            linea.setIdCatalog(catalog.getId());
-            linea.setAccountCode(catalog.getEffectiveCode());
-            linea.setAccountName(catalog.getEffectiveName());
+            linea.setIdCatalog(movimiento.getIdCatalog());
+            linea.setAccountCode(chart.code(index));
+            linea.setAccountName(chart.name(index));
 
             if (accountType.startsWith("INGRESO.OPERACIONAL")) {
                 linea.setTotalPeriodo(movimiento.getTotalHaber().subtract(movimiento.getTotalDebe()));
@@ -279,24 +425,8 @@ public class FinancialReportService {
         BigDecimal utilidadAntesImpuestos = utilidadOperacional.add(totalOtrosIngresos).subtract(totalOtrosGastos);
 
         // 5. CÁLCULOS FINALES: RESERVA E IMPUESTOS
-        // Nota: Estos porcentajes deberían venir de una configuración de la empresa en el futuro.
-        BigDecimal porcentajeReserva = new BigDecimal("0.07");
-        BigDecimal porcentajeImpuesto = new BigDecimal("0.30");
-
-        BigDecimal reservaLegal = BigDecimal.ZERO;
-        BigDecimal baseParaImpuesto = utilidadAntesImpuestos;
-
-        // La reserva legal solo se calcula si hay utilidad
-        if (utilidadAntesImpuestos.compareTo(BigDecimal.ZERO) > 0) {
-            reservaLegal = utilidadAntesImpuestos.multiply(porcentajeReserva).setScale(2, RoundingMode.HALF_UP);
-            baseParaImpuesto = utilidadAntesImpuestos.subtract(reservaLegal);
-        }
-
-        BigDecimal impuestoSobreLaRenta = BigDecimal.ZERO;
-        // El impuesto solo se calcula si la base es positiva
-        if (baseParaImpuesto.compareTo(BigDecimal.ZERO) > 0) {
-            impuestoSobreLaRenta = baseParaImpuesto.multiply(porcentajeImpuesto).setScale(2, RoundingMode.HALF_UP);
-        }
+        BigDecimal reservaLegal = calcularReservaLegal(utilidadAntesImpuestos);
+        BigDecimal impuestoSobreLaRenta = calcularImpuestoSobreLaRenta(utilidadAntesImpuestos, reservaLegal);
 
         BigDecimal utilidadDelEjercicio = utilidadAntesImpuestos.subtract(reservaLegal).subtract(impuestoSobreLaRenta);
 
@@ -322,22 +452,30 @@ public class FinancialReportService {
     @Transactional(readOnly = true)
     public BalanceGeneralResponseDTO getBalanceGeneral(LocalDate endDate) {
         Integer companyId = getCompanyIdFromContext();
+        return reportCache.getOrCompute(companyId, "BALANCE_GENERAL", null, endDate,
+                ReportCacheService.BEGINNING_OF_TIME, endDate, BalanceGeneralResponseDTO.class,
+                () -> buildBalanceGeneral(companyId, endDate));
+    }
+
+    private BalanceGeneralResponseDTO buildBalanceGeneral(Integer companyId, LocalDate endDate) {
 
         // 1. OBTENER EL SALDO ACUMULADO FINAL DE TODAS LAS CUENTAS.
-        // Esta es la única consulta de agregación que necesitamos. Es muy eficiente.
-        // Se incluyen los movimientos del 'endDate' usando 'plusNanos(1)' para que la fecha sea inclusiva.
-        List<AccountBalanceDTO> saldosFinales = ledgerRepository.getAccumulatedBalancesBefore(
+        // Se suma sobre los saldos diarios por cuenta, no sobre las líneas del libro diario.
+        // Se incluyen los movimientos del 'endDate' usando 'plusDays(1)' porque el corte es exclusivo.
+        List<AccountBalanceDTO> saldosFinales = dailyBalanceRepository.getAccumulatedBalancesBefore(
                 companyId,
-                endDate.atTime(LocalTime.MAX).plusNanos(1)
+                endDate.plusDays(1)
         );
 
-        // 2. OBTENER INFO DEL CATÁLOGO PARA TODAS LAS CUENTAS CON SALDO.
-        Set<Integer> allAccountIds = saldosFinales.stream()
-                .map(AccountBalanceDTO::getIdCatalog)
-                .collect(Collectors.toSet());
-        Map<Integer, com.nubixconta.modules.accounting.entity.Catalog> catalogMap = catalogRepository.findAllById(allAccountIds)
-                .stream().collect(Collectors.toMap(com.nubixconta.modules.accounting.entity.Catalog::getId, Function.identity()));
+        // 2. LA INFO DEL CATÁLOGO SALE DE LA FOTO EN MEMORIA.
+        return deriveBalanceGeneral(saldosFinales, chartSnapshots.getSnapshot(companyId));
+    }
 
+    /**
+     * Arma el Balance General a partir de los saldos acumulados ya cargados.
+     */
+    private BalanceGeneralResponseDTO deriveBalanceGeneral(List<AccountBalanceDTO> saldosFinales,
+                                                           CompanyChartSnapshot chart) {
         // 3. INICIALIZAR ESTRUCTURAS DE DATOS
         List<BalanceGeneralLineaDTO> activosCorrientes = new ArrayList<>();
         List<BalanceGeneralLineaDTO> activosNoCorrientes = new ArrayList<>();
@@ -348,10 +486,10 @@ public class FinancialReportService {
 
         // 4. CLASIFICAR CADA CUENTA Y ACUMULAR EL RESULTADO DEL EJERCICIO
         for (AccountBalanceDTO saldoDto : saldosFinales) {
-            com.nubixconta.modules.accounting.entity.Catalog catalog = catalogMap.get(saldoDto.getIdCatalog());
-            if (catalog == null || catalog.getAccount() == null) continue;
+            int index = chart.indexOf(saldoDto.getIdCatalog());
+            if (index < 0) continue;
 
-            String accountType = catalog.getAccount().getAccountType().toUpperCase().trim();
+            String accountType = chart.accountType(index).toUpperCase().trim();
             BigDecimal saldoFinal = saldoDto.getSaldo();
 
             // Solo procesamos cuentas con saldo diferente de cero para mantener el reporte limpio
@@ -361,8 +499,8 @@ public class FinancialReportService {
 
             BalanceGeneralLineaDTO linea = new BalanceGeneralLineaDTO();
             linea.setIdCatalog(saldoDto.getIdCatalog());
-            linea.setAccountCode(catalog.getEffectiveCode());
-            linea.setAccountName(catalog.getEffectiveName());
+            linea.setAccountCode(chart.code(index));
+            linea.setAccountName(chart.name(index));
 
             if (accountType.startsWith("ACTIVO")) {
                 linea.setSaldoFinal(saldoFinal);
@@ -449,6 +587,191 @@ public class FinancialReportService {
         return response;
     }
 
+    /**
+     * Paquete financiero de cierre: Balanza de Comprobación y Estado de Resultados del período, y
+     * Balance General al 'endDate', calculados con UNA lectura de saldos iniciales, UNA agregación de
+     * movimientos del período y UNA carga del catálogo. Los saldos finales del Balance se obtienen en
+     * memoria (saldo inicial + movimientos), y los tres estados se arman en memoria a partir de esos datos.
+     */
+    @Transactional(readOnly = true)
+    public PaqueteFinancieroDTO getPaqueteFinanciero(LocalDate startDate, LocalDate endDate) {
+        Integer companyId = getCompanyIdFromContext();
+        return reportCache.getOrCompute(companyId, "PAQUETE_FINANCIERO", startDate, endDate,
+                ReportCacheService.BEGINNING_OF_TIME, endDate, PaqueteFinancieroDTO.class,
+                () -> buildPaqueteFinanciero(companyId, startDate, endDate));
+    }
+
+    private PaqueteFinancieroDTO buildPaqueteFinanciero(Integer companyId, LocalDate startDate, LocalDate endDate) {
+        // 1. Las dos agregaciones compartidas.
+        List<AccountBalanceDTO> saldosIniciales = dailyBalanceRepository.getAccumulatedBalancesBefore(companyId, startDate);
+        List<AccountBalanceDTO> movimientosPeriodo = ledgerRepository
+                .getPeriodMovements(companyId, startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX));
+
+        // 2. Saldos acumulados al 'endDate' sin volver a consultar: saldo inicial + Debe - Haber.
+        Map<Integer, BigDecimal> finales = new HashMap<>();
+        saldosIniciales.forEach(s -> finales.merge(s.getIdCatalog(), s.getSaldo(), BigDecimal::add));
+        movimientosPeriodo.forEach(m -> finales.merge(m.getIdCatalog(),
+                m.getTotalDebe().subtract(m.getTotalHaber()), BigDecimal::add));
+        List<AccountBalanceDTO> saldosFinales = finales.entrySet().stream()
+                .map(e -> new AccountBalanceDTO(e.getKey(), e.getValue()))
+                .collect(Collectors.toList());
+
+        // 3. La foto del catálogo y las tres derivaciones, que solo leen los datos anteriores.
+        CompanyChartSnapshot chart = chartSnapshots.getSnapshot(companyId);
+
+        PaqueteFinancieroDTO paquete = new PaqueteFinancieroDTO();
+        paquete.setStartDate(startDate);
+        paquete.setEndDate(endDate);
+        paquete.setBalanzaComprobacion(deriveBalanzaDeComprobacion(saldosIniciales, movimientosPeriodo, chart));
+        paquete.setEstadoResultados(deriveEstadoDeResultados(movimientosPeriodo, chart));
+        paquete.setBalanceGeneral(deriveBalanceGeneral(saldosFinales, chart));
+        return paquete;
+    }
+
+    /**
+     * Balanza de Comprobación jerárquica: además de las cuentas de detalle, devuelve el subtotal de
+     * cada cuenta de grupo (rubro, cuenta, subcuenta...) acumulado a lo largo de 'Catalog.parent'.
+     * @param maxLevel Nivel máximo a devolver (1 = solo rubros). Null devuelve todos los niveles.
+     */
+    @Transactional(readOnly = true)
+    public List<CuentaJerarquicaDTO> getBalanzaJerarquica(LocalDate startDate, LocalDate endDate, Integer maxLevel) {
+        Integer companyId = getCompanyIdFromContext();
+        return reportCache.getOrComputeList(companyId, "BALANZA_JERARQUICA:" + maxLevel, startDate, endDate,
+                ReportCacheService.BEGINNING_OF_TIME, endDate, CuentaJerarquicaDTO.class,
+                () -> {
+                    CompanyChartSnapshot chart = chartSnapshots.getSnapshot(companyId);
+                    BigDecimal[] inicial = chart.newColumn();
+                    BigDecimal[] debe = chart.newColumn();
+                    BigDecimal[] haber = chart.newColumn();
+                    boolean[] conDatos = new boolean[chart.size()];
+
+                    for (AccountBalanceDTO saldo : dailyBalanceRepository.getAccumulatedBalancesBefore(companyId, startDate)) {
+                        int i = chart.indexOf(saldo.getIdCatalog());
+                        if (i < 0) continue;
+                        inicial[i] = saldo.getSaldo();
+                        conDatos[i] = true;
+                    }
+                    for (AccountBalanceDTO mov : ledgerRepository.getPeriodMovements(
+                            companyId, startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX))) {
+                        int i = chart.indexOf(mov.getIdCatalog());
+                        if (i < 0) continue;
+                        debe[i] = mov.getTotalDebe();
+                        haber[i] = mov.getTotalHaber();
+                        conDatos[i] = true;
+                    }
+
+                    return toHierarchicalLines(chart, inicial, debe, haber, conDatos, maxLevel, accountType -> true);
+                });
+    }
+
+    /**
+     * Balance General jerárquico a una fecha de corte: saldos de Activo, Pasivo y Patrimonio con el
+     * subtotal de cada cuenta de grupo. La utilidad del ejercicio no forma parte del catálogo; se
+     * obtiene del Balance General normal o del Estado de Resultados.
+     * @param maxLevel Nivel máximo a devolver (1 = solo rubros). Null devuelve todos los niveles.
+     */
+    @Transactional(readOnly = true)
+    public List<CuentaJerarquicaDTO> getBalanceGeneralJerarquico(LocalDate endDate, Integer maxLevel) {
+        Integer companyId = getCompanyIdFromContext();
+        return reportCache.getOrComputeList(companyId, "BALANCE_GENERAL_JERARQUICO:" + maxLevel, null, endDate,
+                ReportCacheService.BEGINNING_OF_TIME, endDate, CuentaJerarquicaDTO.class,
+                () -> {
+                    CompanyChartSnapshot chart = chartSnapshots.getSnapshot(companyId);
+                    BigDecimal[] saldo = chart.newColumn();
+                    boolean[] conDatos = new boolean[chart.size()];
+
+                    for (AccountBalanceDTO dto : dailyBalanceRepository.getAccumulatedBalancesBefore(companyId, endDate.plusDays(1))) {
+                        int i = chart.indexOf(dto.getIdCatalog());
+                        if (i < 0) continue;
+                        saldo[i] = dto.getSaldo();
+                        conDatos[i] = true;
+                    }
+
+                    List<CuentaJerarquicaDTO> lineas = toHierarchicalLines(chart, saldo, chart.newColumn(), chart.newColumn(),
+                            conDatos, maxLevel,
+                            accountType -> accountType.startsWith("ACTIVO")
+                                    || accountType.startsWith("PASIVO")
+                                    || accountType.startsWith("PATRIMONIO"));
+                    // Es una foto a la fecha de corte: solo se informa el saldo final.
+                    lineas.forEach(linea -> {
+                        linea.setSaldoInicial(null);
+                        linea.setTotalDebePeriodo(null);
+                        linea.setTotalHaberPeriodo(null);
+                    });
+                    return lineas;
+                });
+    }
+
+    /**
+     * Acumula las columnas en una sola pasada de abajo hacia arriba y arma las líneas del reporte,
+     * omitiendo las cuentas sin datos propios ni en sus subcuentas.
+     * Los importes de entrada son con signo deudor (debe - haber).
+     */
+    static List<CuentaJerarquicaDTO> toHierarchicalLines(CompanyChartSnapshot chart, BigDecimal[] inicial, BigDecimal[] debe,
+                                                         BigDecimal[] haber, boolean[] conDatos, Integer maxLevel,
+                                                         Predicate<String> includeType) {
+        chart.rollUp(inicial, debe, haber);
+        chart.rollUp(conDatos);
+
+        List<CuentaJerarquicaDTO> lineas = new ArrayList<>();
+        for (int i = 0; i < chart.size(); i++) {
+            if (!conDatos[i] || (maxLevel != null && chart.level(i) > maxLevel)) continue;
+            String accountType = chart.accountType(i).toUpperCase().trim();
+            if (!includeType.test(accountType)) continue;
+
+            BigDecimal saldoFinal = inicial[i].add(debe[i]).subtract(haber[i]);
+            boolean esDeudora = isDeudora(accountType);
+
+            CuentaJerarquicaDTO linea = new CuentaJerarquicaDTO();
+            linea.setIdCatalog(chart.catalogId(i));
+            linea.setParentIdCatalog(chart.parentCatalogId(i));
+            linea.setAccountCode(chart.code(i));
+            linea.setAccountName(chart.name(i));
+            linea.setNivel(chart.level(i));
+            linea.setPostable(chart.isPostable(i));
+            linea.setSaldoInicial(esDeudora ? inicial[i] : inicial[i].negate());
+            linea.setTotalDebePeriodo(debe[i]);
+            linea.setTotalHaberPeriodo(haber[i]);
+            linea.setSaldoFinal(esDeudora ? saldoFinal : saldoFinal.negate());
+            lineas.add(linea);
+        }
+        lineas.sort(Comparator.comparing(CuentaJerarquicaDTO::getAccountCode));
+        return lineas;
+    }
+
+    private static boolean isDeudora(String accountType) {
+        return accountType.startsWith("ACTIVO") || accountType.startsWith("GASTO") || accountType.startsWith("COSTO");
+    }
+
+    /**
+     * Reserva legal sobre la utilidad antes de impuestos; solo se calcula si hay utilidad.
+     * Compartido con los reportes comparativos (ComparativeReportService).
+     */
+    static BigDecimal calcularReservaLegal(BigDecimal utilidadAntesImpuestos) {
+        if (utilidadAntesImpuestos.compareTo(BigDecimal.ZERO) > 0) {
+            return utilidadAntesImpuestos.multiply(PORCENTAJE_RESERVA_LEGAL).setScale(2, RoundingMode.HALF_UP);
+        }
+        return BigDecimal.ZERO;
+    }
+
+    /**
+     * Impuesto sobre la renta sobre la utilidad menos la reserva; solo se calcula si la base es positiva.
+     */
+    static BigDecimal calcularImpuestoSobreLaRenta(BigDecimal utilidadAntesImpuestos, BigDecimal reservaLegal) {
+        BigDecimal baseParaImpuesto = utilidadAntesImpuestos.subtract(reservaLegal);
+        if (baseParaImpuesto.compareTo(BigDecimal.ZERO) > 0) {
+            return baseParaImpuesto.multiply(PORCENTAJE_IMPUESTO_RENTA).setScale(2, RoundingMode.HALF_UP);
+        }
+        return BigDecimal.ZERO;
+    }
+
+    private int normalizePageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
     private LibroDiarioMovimientoDTO mapToLibroDiarioDTO(JournalMovementDetailDTO projection) {
         LibroDiarioMovimientoDTO dto = new LibroDiarioMovimientoDTO();
         dto.setDocumentId(projection.getDocumentId());
@@ -0,0 +1,191 @@
+package com.nubixconta.modules.accounting.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.nubixconta.modules.accounting.dto.reports.JournalMovementDetailDTO;
+import com.nubixconta.modules.accounting.dto.reports.LedgerMovementDetailDTO;
+import com.nubixconta.modules.accounting.dto.reports.LibroDiarioMovimientoDTO;
+import com.nubixconta.modules.accounting.dto.reports.LibroMayorMovimientoDTO;
+import com.nubixconta.modules.accounting.repository.JournalLineRepository;
+import com.nubixconta.security.TenantContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Versión en streaming del Libro Diario y del Libro Mayor.
+ * Lee los movimientos con un cursor JDBC y los escribe directamente en la respuesta HTTP
+ * como NDJSON (un objeto JSON por línea), de modo que la memoria usada no depende
+ * del tamaño del rango consultado.
+ */
+@Service
+@RequiredArgsConstructor
+public class FinancialReportStreamingService {
+
+    // Cada cuántas filas se vacía el buffer hacia el cliente.
+    private static final int FLUSH_EVERY = 500;
+
+    private final JournalLineRepository ledgerRepository;
+    private final ObjectMapper objectMapper;
+
+    private Integer getCompanyIdFromContext() {
+        return TenantContext.getCurrentTenant()
+                .orElseThrow(() -> new IllegalStateException("No se puede determinar la empresa del contexto."));
+    }
+
+    /**
+     * Escribe el Libro Diario como NDJSON: una línea por movimiento, con el mismo formato
+     * que LibroDiarioMovimientoDTO.
+     */
+    @Transactional(readOnly = true)
+    public void writeLibroDiario(LocalDate startDate, LocalDate endDate, OutputStream out) throws IOException {
+        Integer companyId = getCompanyIdFromContext();
+
+        try (Stream<JournalMovementDetailDTO> movimientos = ledgerRepository.streamJournalWithAccountDetails(
+                companyId, startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX));
+             JsonGenerator generator = createGenerator(out)) {
+
+            ObjectWriter writer = rowWriter();
+            int rows = 0;
+            Iterator<JournalMovementDetailDTO> it = movimientos.iterator();
+            while (it.hasNext()) {
+                writer.writeValue(generator, toLibroDiarioDTO(it.next()));
+                generator.writeRaw('\n');
+                if (++rows % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+        }
+    }
+
+    /**
+     * Escribe el Libro Mayor como NDJSON: una línea por cuenta, con el mismo formato que
+     * LibroMayorCuentaDTO. El agrupamiento es incremental y se apoya en que la consulta ya viene
+     * ordenada por cuenta, así que solo se mantiene en memoria la cuenta en curso (y ni siquiera
+     * sus movimientos, que se escriben a medida que llegan).
+     * Los totales se escriben al cerrar cada cuenta, después de su lista de movimientos.
+     */
+    @Transactional(readOnly = true)
+    public void writeLibroMayor(LocalDate startDate, LocalDate endDate, Integer catalogId, OutputStream out) throws IOException {
+        Integer companyId = getCompanyIdFromContext();
+
+        LocalDateTime startDateTime = (startDate != null) ? startDate.atStartOfDay() : null;
+        LocalDateTime endDateTime = (endDate != null) ? endDate.atTime(LocalTime.MAX) : null;
+        boolean hasDateRange = startDateTime != null && endDateTime != null;
+        boolean hasCatalog = catalogId != null;
+
+        Stream<LedgerMovementDetailDTO> source;
+        if (hasDateRange && hasCatalog) {
+            source = ledgerRepository.streamLedgerByDateRangeAndCatalog(companyId, startDateTime, endDateTime, catalogId);
+        } else if (hasDateRange) {
+            source = ledgerRepository.streamLedgerByDateRange(companyId, startDateTime, endDateTime);
+        } else if (hasCatalog) {
+            source = ledgerRepository.streamLedgerByCatalog(companyId, catalogId);
+        } else {
+            source = Stream.empty();
+        }
+
+        try (Stream<LedgerMovementDetailDTO> movimientos = source;
+             JsonGenerator generator = createGenerator(out)) {
+
+            Integer currentCatalog = null;
+            BigDecimal totalDebe = BigDecimal.ZERO;
+            BigDecimal totalHaber = BigDecimal.ZERO;
+            ObjectWriter writer = rowWriter();
+            int rows = 0;
+
+            Iterator<LedgerMovementDetailDTO> it = movimientos.iterator();
+            while (it.hasNext()) {
+                LedgerMovementDetailDTO m = it.next();
+
+                if (!Objects.equals(m.getIdCatalog(), currentCatalog)) {
+                    if (currentCatalog != null) {
+                        writeCuentaEnd(generator, totalDebe, totalHaber);
+                    }
+                    currentCatalog = m.getIdCatalog();
+                    totalDebe = BigDecimal.ZERO;
+                    totalHaber = BigDecimal.ZERO;
+                    writeCuentaStart(generator, m);
+                }
+
+                totalDebe = totalDebe.add(m.getDebe());
+                totalHaber = totalHaber.add(m.getHaber());
+                writer.writeValue(generator, new LibroMayorMovimientoDTO(
+                        m.getAccountingDate(),
+                        m.getDocumentType(),
+                        m.getDocumentId(),
+                        m.getDescription(),
+                        m.getDebe(),
+                        m.getHaber()
+                ));
+
+                if (++rows % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+
+            if (currentCatalog != null) {
+                writeCuentaEnd(generator, totalDebe, totalHaber);
+            }
+        }
+    }
+
+    // --- Métodos Privados de Ayuda ---
+
+    private JsonGenerator createGenerator(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        // El stream de la respuesta lo cierra el contenedor, no nosotros.
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Sin separador entre valores raíz: cada línea termina con '\n' explícito.
+        generator.setRootValueSeparator(null);
+        return generator;
+    }
+
+    // El flush lo controlamos nosotros cada FLUSH_EVERY filas, no en cada valor escrito.
+    private ObjectWriter rowWriter() {
+        return objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    private void writeCuentaStart(JsonGenerator generator, LedgerMovementDetailDTO first) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("idCatalog", first.getIdCatalog());
+        generator.writeStringField("accountCode", first.getAccountCode());
+        generator.writeStringField("accountName", first.getAccountName());
+        generator.writeArrayFieldStart("movimientos");
+    }
+
+    private void writeCuentaEnd(JsonGenerator generator, BigDecimal totalDebe, BigDecimal totalHaber) throws IOException {
+        generator.writeEndArray();
+        generator.writeNumberField("totalDebe", totalDebe);
+        generator.writeNumberField("totalHaber", totalHaber);
+        generator.writeNumberField("saldoPeriodo", totalDebe.subtract(totalHaber));
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private LibroDiarioMovimientoDTO toLibroDiarioDTO(JournalMovementDetailDTO projection) {
+        LibroDiarioMovimientoDTO dto = new LibroDiarioMovimientoDTO();
+        dto.setDocumentId(projection.getDocumentId());
+        dto.setDocumentType(projection.getDocumentType());
+        dto.setAccountingDate(projection.getAccountingDate());
+        dto.setIdCatalog(projection.getIdCatalog());
+        dto.setAccountCode(projection.getAccountCode());
+        dto.setAccountName(projection.getAccountName());
+        dto.setDebe(projection.getDebe());
+        dto.setHaber(projection.getHaber());
+        dto.setDescription(projection.getDescription());
+        return dto;
+    }
+}
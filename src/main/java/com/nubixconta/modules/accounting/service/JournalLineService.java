@@ -0,0 +1,134 @@
+package com.nubixconta.modules.accounting.service;
+
+import com.nubixconta.modules.accounting.entity.Catalog;
+import com.nubixconta.modules.accounting.entity.JournalLine;
+import com.nubixconta.modules.accounting.repository.JournalLineRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Punto único de escritura del libro diario ('journal_line').
+ * Cada servicio que genera una partida llama a post(...) después de guardar sus líneas
+ * y a remove(...) al anular el documento, siempre dentro de su propia transacción.
+ * También mantiene los saldos diarios por cuenta (AccountBalanceService) y la versión
+ * del mes afectado, que usa la caché de reportes (ReportCacheService).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class JournalLineService {
+
+    // --- Tipos de documento que se registran en el libro diario ---
+    public static final String DOC_SALE = "VENTA";
+    public static final String DOC_CREDIT_NOTE = "NOTA_CREDITO";
+    public static final String DOC_PURCHASE = "COMPRA";
+    public static final String DOC_PURCHASE_CREDIT_NOTE = "NOTA_CREDITO_COMPRA";
+    public static final String DOC_INCOME_TAX = "RETENCION_ISR";
+    public static final String DOC_COLLECTION = "COBRO";
+    public static final String DOC_PAYMENT = "PAGO";
+    public static final String DOC_BANK = "TRANSACCION_BANCARIA";
+    public static final String DOC_ACCOUNTING = "PARTIDA_CONTABLE";
+
+    private final JournalLineRepository journalLineRepository;
+    private final AccountBalanceService accountBalanceService;
+    private final ReportCacheService reportCache;
+
+    /**
+     * Registra en el libro diario las líneas de la partida de un documento.
+     * @param entries Las líneas propias del módulo (SaleEntry, BankEntry, etc.).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> void post(Integer companyId, String documentType, Long documentId, LocalDateTime accountingDate,
+                         Collection<T> entries,
+                         Function<T, Catalog> catalogOf,
+                         Function<T, BigDecimal> debeOf,
+                         Function<T, BigDecimal> haberOf,
+                         Function<T, String> descriptionOf) {
+        if (entries == null || entries.isEmpty()) {
+            return;
+        }
+
+        List<JournalLine> lines = new ArrayList<>(entries.size());
+        for (T entry : entries) {
+            Catalog catalog = catalogOf.apply(entry);
+            if (catalog == null) continue;
+            JournalLine line = new JournalLine();
+            line.setCompanyId(companyId);
+            line.setDocumentType(documentType);
+            line.setDocumentId(documentId);
+            line.setAccountingDate(accountingDate);
+            line.setIdCatalog(catalog.getId());
+            line.setDebe(nullToZero(debeOf.apply(entry)));
+            line.setHaber(nullToZero(haberOf.apply(entry)));
+            line.setDescription(descriptionOf.apply(entry));
+            lines.add(line);
+        }
+
+        journalLineRepository.saveAll(lines);
+        accountBalanceService.registerEntries(companyId, accountingDate.toLocalDate(), lines,
+                JournalLine::getIdCatalog, JournalLine::getDebe, JournalLine::getHaber);
+        reportCache.markChangedAfterCommit(companyId, accountingDate.toLocalDate());
+    }
+
+    /**
+     * Elimina del libro diario las líneas de un documento anulado y revierte sus saldos diarios.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void remove(Integer companyId, String documentType, Long documentId) {
+        List<JournalLine> lines = journalLineRepository.findByCompanyIdAndDocumentTypeAndDocumentId(companyId, documentType, documentId);
+        if (lines.isEmpty()) {
+            return;
+        }
+
+        // Normalmente todas las líneas comparten fecha, pero se agrupa por si acaso.
+        Map<LocalDate, List<JournalLine>> linesByDate = lines.stream()
+                .collect(Collectors.groupingBy(l -> l.getAccountingDate().toLocalDate()));
+        linesByDate.forEach((date, dayLines) -> accountBalanceService.reverseEntries(companyId, date, dayLines,
+                JournalLine::getIdCatalog, JournalLine::getDebe, JournalLine::getHaber));
+        linesByDate.keySet().forEach(date -> reportCache.markChangedAfterCommit(companyId, date));
+
+        journalLineRepository.deleteByDocument(companyId, documentType, documentId);
+    }
+
+    /**
+     * Carga inicial al arrancar: copia desde 'v_general_ledger' las líneas de las empresas que
+     * todavía no tienen ninguna en 'journal_line' y, a continuación, inicializa sus saldos diarios.
+     * Para las empresas ya migradas son consultas sin efecto.
+     * Si la carga falla se detiene el arranque: continuar dejaría los reportes vacíos sin aviso.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillMissingCompanies() {
+        // Si la vista ya no existe no hay nada que migrar.
+        if (journalLineRepository.legacyViewExists()) {
+            List<String> unmapped = journalLineRepository.findUnmappedViewDocumentTypes();
+            if (!unmapped.isEmpty()) {
+                throw new IllegalStateException("No se puede migrar el libro diario desde v_general_ledger: " +
+                        "tipos de documento sin equivalencia " + unmapped);
+            }
+            int rows = journalLineRepository.backfillMissingCompaniesFromView();
+            if (rows > 0) {
+                log.info("Libro diario inicializado desde v_general_ledger: {} líneas.", rows);
+            }
+        }
+        accountBalanceService.backfillMissingCompanies();
+    }
+
+    private static BigDecimal nullToZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -13,18 +13,15 @@ import com.nubixconta.modules.accounting.repository.CatalogRepository;
 import com.nubixconta.modules.accounting.repository.PaymentEntryRepository;
 import com.nubixconta.modules.purchases.entity.Purchase;
 import com.nubixconta.modules.purchases.repository.PurchaseRepository;
-import com.nubixconta.security.JwtUtil;
+import com.nubixconta.security.AuthenticatedUser;
 import jakarta.transaction.Transactional;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 
@@ -37,6 +34,7 @@ public class PaymentEntryService {
     private final CatalogRepository catalogRepository;
     private final PaymentDetailsRepository paymentDetailsRepository;
     private final PaymentDetailsService paymentDetailsService;
+    private final JournalLineService journalLineService;
 
     @Autowired
     public PaymentEntryService(PaymentEntryRepository entryRepository,
@@ -45,7 +43,8 @@ public class PaymentEntryService {
                                   ModelMapper mapper,
                                   CatalogRepository catalogRepository,
                                   PaymentDetailsService paymentDetailsService,
-                                  PurchaseRepository purchaseRepository) {
+                                  PurchaseRepository purchaseRepository,
+                                  JournalLineService journalLineService) {
         this.entryRepository = entryRepository;
         this.accountRepository = accountRepository;
         this.catalogRepository = catalogRepository;
@@ -53,6 +52,7 @@ public class PaymentEntryService {
         this.purchaseRepository = purchaseRepository;
         this.mapper = mapper;
         this.paymentDetailsService = paymentDetailsService;
+        this.journalLineService = journalLineService;
     }
 
     // Este metodo mapea en el dto el numero de documento, el nombre del cliente de Sale
@@ -117,19 +117,8 @@ public class PaymentEntryService {
     }
     //  Obtener el ID de la empresa del token
     private Integer getCompanyIdFromToken() {
-        String bearerToken = Optional.ofNullable(RequestContextHolder.getRequestAttributes())
-                .filter(ServletRequestAttributes.class::isInstance)
-                .map(ServletRequestAttributes.class::cast)
-                .map(ServletRequestAttributes::getRequest)
-                .map(request -> request.getHeader("Authorization"))
-                .orElseThrow(() -> new RuntimeException("No se pudo obtener el token de autorización de la solicitud."));
-
-        if (!bearerToken.startsWith("Bearer ")) {
-            throw new RuntimeException("Formato de token JWT inválido. No empieza con 'Bearer '.");
-        }
-        String jwtToken = bearerToken.replace("Bearer ", "");
-
-        return JwtUtil.extractCompanyId(jwtToken)
+        return AuthenticatedUser.current()
+                .map(AuthenticatedUser::companyId)
                 .orElseThrow(() -> new RuntimeException("No se pudo obtener el ID de la empresa del token JWT. Asegúrate que el token contiene el 'company_id' claim."));
     }
 
@@ -175,6 +164,9 @@ public class PaymentEntryService {
         paymentDetailsRepository.save(detail);
         entryRepository.save(entryDebe);
         entryRepository.save(entryHaber);
+        journalLineService.post(companyId, JournalLineService.DOC_PAYMENT, detail.getId().longValue(),
+                detail.getPaymentDetailsDate(), List.of(entryDebe, entryHaber),
+                PaymentEntry::getCatalog, PaymentEntry::getDebit, PaymentEntry::getCredit, PaymentEntry::getDescription);
     }
 
     @Transactional
@@ -184,16 +176,19 @@ public class PaymentEntryService {
             throw new RuntimeException("No existe un detalle con ID: " + detailId);
         }
 
+        PaymentDetails detail = paymentDetailsRepository.findById(detailId)
+                .orElseThrow(() -> new RuntimeException("Detalle no encontrado"));
+
+        journalLineService.remove(detail.getCompany().getId(), JournalLineService.DOC_PAYMENT, detailId.longValue());
 
         entryRepository.deleteByPaymentDetailsId(detailId);
 
-        // Cambiar el estado del CollectionDetail a "ANULADO" si quieres
-        PaymentDetails detail = paymentDetailsRepository.findById(detailId)
-                .orElseThrow(() -> new RuntimeException("Detalle no encontrado"));
+        // Si ya estaba anulado no hay nada que devolver al saldo.
+        BigDecimal released = PaymentDetailsService.effectiveAmount(detail);
 
         detail.setPaymentStatus("ANULADO");
         paymentDetailsRepository.save(detail);
-        paymentDetailsService.recalcularBalancePorPayableId(detail.getAccountsPayable().getId());
+        paymentDetailsService.applyBalanceDelta(detail.getAccountsPayable(), released);
 
     }
 }
@@ -31,6 +31,7 @@ public class PurchasesAccountingService {
     private final AccountingConfigurationService configService;
     private final PurchaseCreditNoteEntryRepository purchaseCreditNoteEntryRepository;
     private final IncomeTaxEntryRepository incomeTaxEntryRepository;
+    private final JournalLineService journalLineService;
 
     /**
      * Crea la partida contable completa para una compra que se está aplicando.
@@ -85,6 +86,8 @@ public class PurchasesAccountingService {
         // 5. Validar que la partida esté cuadrada y guardarla.
         validatePurchaseEntryTotals(entries);
         purchaseEntryRepository.saveAll(entries);
+        journalLineService.post(companyId, JournalLineService.DOC_PURCHASE, purchase.getIdPurchase().longValue(), purchase.getIssueDate(), entries,
+                PurchaseEntry::getCatalog, PurchaseEntry::getDebe, PurchaseEntry::getHaber, PurchaseEntry::getDescription);
     }
 
     /**
@@ -93,6 +96,7 @@ public class PurchasesAccountingService {
      */
     @Transactional(propagation = Propagation.MANDATORY)
     public void deleteEntriesForPurchaseCancellation(Purchase purchase) {
+        journalLineService.remove(purchase.getCompany().getId(), JournalLineService.DOC_PURCHASE, purchase.getIdPurchase().longValue());
         purchaseEntryRepository.deleteByPurchase_IdPurchase(purchase.getIdPurchase());
     }
 
@@ -196,6 +200,8 @@ public class PurchasesAccountingService {
         // 5. Validar que la partida esté cuadrada y guardarla.
         validatePurchaseCreditNoteEntryTotals(entries);
         purchaseCreditNoteEntryRepository.saveAll(entries);
+        journalLineService.post(companyId, JournalLineService.DOC_PURCHASE_CREDIT_NOTE, creditNote.getIdPurchaseCreditNote().longValue(), creditNote.getIssueDate(), entries,
+                PurchaseCreditNoteEntry::getCatalog, PurchaseCreditNoteEntry::getDebe, PurchaseCreditNoteEntry::getHaber, PurchaseCreditNoteEntry::getDescription);
     }
 
     /**
@@ -204,6 +210,7 @@ public class PurchasesAccountingService {
      */
     @Transactional(propagation = Propagation.MANDATORY)
     public void deleteEntriesForCreditNoteCancellation(PurchaseCreditNote creditNote) {
+        journalLineService.remove(creditNote.getCompany().getId(), JournalLineService.DOC_PURCHASE_CREDIT_NOTE, creditNote.getIdPurchaseCreditNote().longValue());
         purchaseCreditNoteEntryRepository.deleteByPurchaseCreditNote_IdPurchaseCreditNote(creditNote.getIdPurchaseCreditNote());
     }
 
@@ -285,6 +292,8 @@ public class PurchasesAccountingService {
         // 4. Validar que la partida esté cuadrada y guardarla.
         validateIncomeTaxEntryTotals(entries);
         incomeTaxEntryRepository.saveAll(entries);
+        journalLineService.post(companyId, JournalLineService.DOC_INCOME_TAX, incomeTax.getIdIncomeTax().longValue(), incomeTax.getIssueDate(), entries,
+                IncomeTaxEntry::getCatalog, IncomeTaxEntry::getDebe, IncomeTaxEntry::getHaber, IncomeTaxEntry::getDescription);
     }
 
     /**
@@ -293,6 +302,7 @@ public class PurchasesAccountingService {
      */
     @Transactional(propagation = Propagation.MANDATORY)
     public void deleteEntryForIncomeTaxCancellation(IncomeTax incomeTax) {
+        journalLineService.remove(incomeTax.getCompany().getId(), JournalLineService.DOC_INCOME_TAX, incomeTax.getIdIncomeTax().longValue());
         incomeTaxEntryRepository.deleteByIncomeTax_IdIncomeTax(incomeTax.getIdIncomeTax());
     }
 
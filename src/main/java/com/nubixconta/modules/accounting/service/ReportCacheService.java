@@ -0,0 +1,188 @@
+package com.nubixconta.modules.accounting.service;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nubixconta.modules.accounting.repository.LedgerPeriodVersionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Caché en memoria de reportes financieros, por (empresa, reporte, rango).
+ * Cada resultado se guarda junto con la huella de versiones del libro diario de los meses de los que
+ * depende (ver LedgerPeriodVersion). Si al consultarlo la huella cambió, el resultado se recalcula;
+ * así no hace falta invalidar nada explícitamente al registrar o anular documentos, y los reportes
+ * de meses cerrados se sirven siempre desde la caché.
+ * Los resultados se guardan serializados y cada consulta recibe su propia copia, así que quien
+ * la modifique no afecta a las demás peticiones.
+ */
+@Slf4j
+@Service
+public class ReportCacheService {
+
+    // Inicio del historial para los reportes acumulados (Balanza, Balance General)
+    public static final LocalDate BEGINNING_OF_TIME = LocalDate.of(1900, 1, 1);
+
+    private final LedgerPeriodVersionRepository versionRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate versionTransaction;
+    private final Map<CacheKey, CachedReport> cache;
+
+    // Clave del recurso de transacción con los meses modificados pendientes de versionar.
+    private final Object pendingMonthsKey = new Object();
+
+    public ReportCacheService(LedgerPeriodVersionRepository versionRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${nubixconta.reports.cache.max-entries:500}") int maxEntries) {
+        this.versionRepository = versionRepository;
+        this.objectMapper = objectMapper;
+        // El incremento de versiones corre después del commit, en su propia transacción.
+        this.versionTransaction = new TransactionTemplate(transactionManager);
+        this.versionTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // LRU acotado: se descarta el reporte usado hace más tiempo al superar el máximo.
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, CachedReport> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Devuelve una copia del reporte guardado si los meses entre 'dependsFrom' y 'dependsTo' no
+     * cambiaron; si no, lo calcula con 'loader' y lo guarda.
+     * @param dependsFrom Primer día del que depende el reporte (BEGINNING_OF_TIME si es acumulado).
+     * @param dependsTo Último día del que depende el reporte.
+     * @param type Clase del reporte, para reconstruir la copia.
+     */
+    public <T> T getOrCompute(Integer companyId, String report, LocalDate startDate, LocalDate endDate,
+                              LocalDate dependsFrom, LocalDate dependsTo, Class<T> type, Supplier<T> loader) {
+        return getOrCompute(companyId, report, startDate, endDate, dependsFrom, dependsTo,
+                objectMapper.constructType(type), loader);
+    }
+
+    /**
+     * Igual que getOrCompute(...), para reportes que son una lista de líneas.
+     * @param lineType Clase de cada línea de la lista.
+     */
+    public <E> List<E> getOrComputeList(Integer companyId, String report, LocalDate startDate, LocalDate endDate,
+                                        LocalDate dependsFrom, LocalDate dependsTo, Class<E> lineType,
+                                        Supplier<List<E>> loader) {
+        return getOrCompute(companyId, report, startDate, endDate, dependsFrom, dependsTo,
+                objectMapper.getTypeFactory().constructCollectionType(List.class, lineType), loader);
+    }
+
+    /**
+     * Descarta todos los reportes guardados de una empresa (por ejemplo, tras reconstruir sus saldos).
+     */
+    public void evictCompany(Integer companyId) {
+        synchronized (cache) {
+            cache.keySet().removeIf(key -> key.companyId().equals(companyId));
+        }
+    }
+
+    /**
+     * Registra que cambiaron las líneas del mes de 'date'. La versión del mes se incrementa cuando
+     * la transacción en curso se confirma (de inmediato si no hay transacción), en una transacción
+     * propia y corta: así las contabilizaciones concurrentes del mismo mes no esperan unas a otras
+     * por la fila de la versión. Los meses de una misma transacción se incrementan una sola vez.
+     */
+    public void markChangedAfterCommit(Integer companyId, LocalDate date) {
+        LocalDate month = date.withDayOfMonth(1);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bumpVersions(Map.of(companyId, Set.of(month)));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<Integer, Set<LocalDate>> pending =
+                (Map<Integer, Set<LocalDate>>) TransactionSynchronizationManager.getResource(pendingMonthsKey);
+        if (pending == null) {
+            Map<Integer, Set<LocalDate>> months = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(pendingMonthsKey, months);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpVersions(months);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(pendingMonthsKey);
+                }
+            });
+            pending = months;
+        }
+        pending.computeIfAbsent(companyId, id -> new TreeSet<>()).add(month);
+    }
+
+    private <T> T getOrCompute(Integer companyId, String report, LocalDate startDate, LocalDate endDate,
+                               LocalDate dependsFrom, LocalDate dependsTo, JavaType type, Supplier<T> loader) {
+        CacheKey key = new CacheKey(companyId, report, startDate, endDate);
+
+        // La huella se lee ANTES de calcular: si se registra algo durante el cálculo,
+        // la siguiente consulta verá otra huella y recalculará.
+        long fingerprint = versionRepository.getVersionFingerprint(
+                companyId, dependsFrom.withDayOfMonth(1), dependsTo.withDayOfMonth(1));
+
+        CachedReport cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null && cached.fingerprint() == fingerprint) {
+            try {
+                return objectMapper.readValue(cached.json(), type);
+            } catch (IOException e) {
+                log.warn("No se pudo leer el reporte '{}' guardado en caché; se recalcula: {}", report, e.getMessage());
+            }
+        }
+
+        T value = loader.get();
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            synchronized (cache) {
+                cache.put(key, new CachedReport(fingerprint, json));
+            }
+        } catch (IOException e) {
+            log.warn("No se pudo guardar el reporte '{}' en caché: {}", report, e.getMessage());
+        }
+        // El objeto recién calculado no queda en la caché, así que se puede devolver tal cual.
+        return value;
+    }
+
+    private void bumpVersions(Map<Integer, Set<LocalDate>> monthsByCompany) {
+        monthsByCompany.forEach((companyId, months) -> {
+            try {
+                versionTransaction.executeWithoutResult(status ->
+                        months.forEach(month -> versionRepository.bump(companyId, month)));
+            } catch (RuntimeException e) {
+                // Los datos ya están confirmados: sin la nueva versión la caché podría servir
+                // reportes viejos, así que se descartan los de la empresa.
+                log.warn("No se pudo actualizar la versión del libro diario de la empresa {}: {}", companyId, e.getMessage());
+                evictCompany(companyId);
+            }
+        });
+    }
+
+    private record CacheKey(Integer companyId, String report, LocalDate startDate, LocalDate endDate) {
+    }
+
+    private record CachedReport(long fingerprint, byte[] json) {
+    }
+}
@@ -0,0 +1,240 @@
+package com.nubixconta.modules.accounting.service;
+
+import com.nubixconta.common.export.ExportFormat;
+import com.nubixconta.common.export.TabularWriter;
+import com.nubixconta.modules.accounting.dto.reports.*;
+import com.nubixconta.modules.accounting.entity.enums.PeriodGranularity;
+import com.nubixconta.modules.accounting.repository.JournalLineRepository;
+import com.nubixconta.security.TenantContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Exportación de los reportes financieros a XLSX o CSV, escrita directamente en la respuesta HTTP.
+ * El XLSX se escribe por ventanas de filas (ver TabularWriter), así que el Libro Diario y el Libro
+ * Mayor (que se leen con un cursor, como en FinancialReportStreamingService) se exportan sin cargar
+ * el reporte completo.
+ * Los demás reportes reutilizan FinancialReportService/ComparativeReportService (y su caché).
+ */
+@Service
+@RequiredArgsConstructor
+public class ReportExportService {
+
+    private final JournalLineRepository ledgerRepository;
+    private final FinancialReportService reportService;
+    private final ComparativeReportService comparativeReportService;
+
+    private Integer getCompanyIdFromContext() {
+        return TenantContext.getCurrentTenant()
+                .orElseThrow(() -> new IllegalStateException("No se puede determinar la empresa del contexto."));
+    }
+
+    @Transactional(readOnly = true)
+    public void exportLibroDiario(LocalDate startDate, LocalDate endDate, ExportFormat format, OutputStream out) throws IOException {
+        Integer companyId = getCompanyIdFromContext();
+        try (Stream<JournalMovementDetailDTO> movimientos = ledgerRepository.streamJournalWithAccountDetails(
+                companyId, startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX));
+             TabularWriter writer = TabularWriter.open(format, "Libro Diario", out)) {
+
+            writer.header("Fecha", "Tipo Documento", "Documento", "Código", "Cuenta", "Descripción", "Debe", "Haber");
+            Iterator<JournalMovementDetailDTO> it = movimientos.iterator();
+            while (it.hasNext()) {
+                JournalMovementDetailDTO m = it.next();
+                writer.row(m.getAccountingDate(), m.getDocumentType(), m.getDocumentId(), m.getAccountCode(),
+                        m.getAccountName(), m.getDescription(), m.getDebe(), m.getHaber());
+            }
+            writer.complete();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportLibroMayor(LocalDate startDate, LocalDate endDate, Integer catalogId, ExportFormat format,
+                                 OutputStream out) throws IOException {
+        Integer companyId = getCompanyIdFromContext();
+        LocalDateTime startDateTime = (startDate != null) ? startDate.atStartOfDay() : null;
+        LocalDateTime endDateTime = (endDate != null) ? endDate.atTime(LocalTime.MAX) : null;
+
+        Stream<LedgerMovementDetailDTO> source;
+        if (startDateTime != null && endDateTime != null && catalogId != null) {
+            source = ledgerRepository.streamLedgerByDateRangeAndCatalog(companyId, startDateTime, endDateTime, catalogId);
+        } else if (startDateTime != null && endDateTime != null) {
+            source = ledgerRepository.streamLedgerByDateRange(companyId, startDateTime, endDateTime);
+        } else if (catalogId != null) {
+            source = ledgerRepository.streamLedgerByCatalog(companyId, catalogId);
+        } else {
+            source = Stream.empty();
+        }
+
+        try (Stream<LedgerMovementDetailDTO> movimientos = source;
+             TabularWriter writer = TabularWriter.open(format, "Libro Mayor", out)) {
+
+            writer.header("Código", "Cuenta", "Fecha", "Tipo Documento", "Documento", "Descripción", "Debe", "Haber");
+            Iterator<LedgerMovementDetailDTO> it = movimientos.iterator();
+            while (it.hasNext()) {
+                LedgerMovementDetailDTO m = it.next();
+                writer.row(m.getAccountCode(), m.getAccountName(), m.getAccountingDate(), m.getDocumentType(),
+                        m.getDocumentId(), m.getDescription(), m.getDebe(), m.getHaber());
+            }
+            writer.complete();
+        }
+    }
+
+    public void exportBalanzaDeComprobacion(LocalDate startDate, LocalDate endDate, ExportFormat format,
+                                            OutputStream out) throws IOException {
+        List<BalanzaComprobacionLineaDTO> lineas = reportService.getBalanzaDeComprobacion(startDate, endDate);
+        try (TabularWriter writer = TabularWriter.open(format, "Balanza de Comprobación", out)) {
+            writer.header("Código", "Cuenta", "Saldo Inicial Deudor", "Saldo Inicial Acreedor",
+                    "Debe", "Haber", "Saldo Final Deudor", "Saldo Final Acreedor");
+            for (BalanzaComprobacionLineaDTO l : lineas) {
+                writer.row(l.getAccountCode(), l.getAccountName(), l.getSaldoInicialDeudor(), l.getSaldoInicialAcreedor(),
+                        l.getTotalDebePeriodo(), l.getTotalHaberPeriodo(), l.getSaldoFinalDeudor(), l.getSaldoFinalAcreedor());
+            }
+            writer.complete();
+        }
+    }
+
+    public void exportBalanzaJerarquica(LocalDate startDate, LocalDate endDate, Integer maxLevel, ExportFormat format,
+                                        OutputStream out) throws IOException {
+        writeHierarchy(reportService.getBalanzaJerarquica(startDate, endDate, maxLevel),
+                "Balanza por Niveles", true, format, out);
+    }
+
+    public void exportBalanceGeneralJerarquico(LocalDate endDate, Integer maxLevel, ExportFormat format,
+                                               OutputStream out) throws IOException {
+        writeHierarchy(reportService.getBalanceGeneralJerarquico(endDate, maxLevel),
+                "Balance General por Niveles", false, format, out);
+    }
+
+    public void exportEstadoDeResultados(LocalDate startDate, LocalDate endDate, ExportFormat format,
+                                         OutputStream out) throws IOException {
+        EstadoResultadosResponseDTO er = reportService.getEstadoDeResultados(startDate, endDate);
+        try (TabularWriter writer = TabularWriter.open(format, "Estado de Resultados", out)) {
+            writer.header("Código", "Cuenta", "Total");
+            writeSection(writer, "Ingresos Operacionales", er.getIngresosOperacionales(), er.getTotalIngresosOperacionales());
+            writeSection(writer, "Costo de Venta", er.getCostoVenta(), er.getTotalCostoVenta());
+            writer.row(null, "Utilidad Bruta", er.getUtilidadBruta());
+            writeSection(writer, "Gastos de Venta", er.getGastosVenta(), er.getTotalGastosVenta());
+            writeSection(writer, "Gastos de Administración", er.getGastosAdministracion(), er.getTotalGastosAdministracion());
+            writer.row(null, "Total Gastos Operacionales", er.getTotalGastosOperacionales());
+            writer.row(null, "Utilidad Operacional", er.getUtilidadOperacional());
+            writeSection(writer, "Otros Ingresos", er.getOtrosIngresos(), er.getTotalOtrosIngresos());
+            writeSection(writer, "Otros Gastos", er.getOtrosGastos(), er.getTotalOtrosGastos());
+            writer.row(null, "Utilidad antes de Impuestos", er.getUtilidadAntesImpuestos());
+            writer.row(null, "Reserva Legal", er.getReservaLegal());
+            writer.row(null, "Impuesto sobre la Renta", er.getImpuestoSobreLaRenta());
+            writer.row(null, "Utilidad del Ejercicio", er.getUtilidadDelEjercicio());
+            writer.complete();
+        }
+    }
+
+    public void exportBalanceGeneral(LocalDate endDate, ExportFormat format, OutputStream out) throws IOException {
+        BalanceGeneralResponseDTO bg = reportService.getBalanceGeneral(endDate);
+        try (TabularWriter writer = TabularWriter.open(format, "Balance General", out)) {
+            writer.header("Código", "Cuenta", "Saldo");
+            writeCategory(writer, "Activo Corriente", bg.getActivoCorriente());
+            writeCategory(writer, "Activo No Corriente", bg.getActivoNoCorriente());
+            writer.row(null, "Total Activos", bg.getTotalActivos());
+            writeCategory(writer, "Pasivo Corriente", bg.getPasivoCorriente());
+            writeCategory(writer, "Pasivo No Corriente", bg.getPasivoNoCorriente());
+            writer.row(null, "Total Pasivos", bg.getTotalPasivos());
+            writeCategory(writer, "Patrimonio", bg.getPatrimonio());
+            writer.row(null, "Total Patrimonio", bg.getTotalPatrimonio());
+            writer.row(null, "Total Pasivo y Patrimonio", bg.getTotalPasivoYPatrimonio());
+            writer.complete();
+        }
+    }
+
+    public void exportEstadoResultadosComparativo(LocalDate startDate, LocalDate endDate, PeriodGranularity granularity,
+                                                  ExportFormat format, OutputStream out) throws IOException {
+        writeComparative(comparativeReportService.getEstadoResultadosComparativo(startDate, endDate, granularity),
+                "Estado de Resultados Comp.", format, out);
+    }
+
+    public void exportBalanzaComparativa(LocalDate startDate, LocalDate endDate, PeriodGranularity granularity,
+                                         ExportFormat format, OutputStream out) throws IOException {
+        writeComparative(comparativeReportService.getBalanzaComparativa(startDate, endDate, granularity),
+                "Balanza Comparativa", format, out);
+    }
+
+    // --- Métodos Privados de Ayuda ---
+
+    private void writeComparative(ReporteComparativoDTO report, String title, ExportFormat format,
+                                  OutputStream out) throws IOException {
+        List<PeriodoComparativoDTO> periodos = report.getPeriodos();
+        try (TabularWriter writer = TabularWriter.open(format, title, out)) {
+            Object[] header = new Object[3 + periodos.size() * 2];
+            header[0] = "Código";
+            header[1] = "Cuenta";
+            header[2] = "Sección";
+            for (int p = 0; p < periodos.size(); p++) {
+                header[3 + p * 2] = periodos.get(p).getEtiqueta();
+                header[4 + p * 2] = "Var. % " + periodos.get(p).getEtiqueta();
+            }
+            writer.header(header);
+
+            for (LineaComparativaDTO l : report.getLineas()) {
+                Object[] row = new Object[header.length];
+                row[0] = l.getAccountCode();
+                row[1] = l.getAccountName();
+                row[2] = l.getSeccion();
+                for (int p = 0; p < periodos.size(); p++) {
+                    row[3 + p * 2] = l.getValores().get(p);
+                    row[4 + p * 2] = l.getVariacionesPorcentuales().get(p);
+                }
+                writer.row(row);
+            }
+            writer.complete();
+        }
+    }
+
+    private void writeHierarchy(List<CuentaJerarquicaDTO> lineas, String title, boolean withMovements,
+                                ExportFormat format, OutputStream out) throws IOException {
+        try (TabularWriter writer = TabularWriter.open(format, title, out)) {
+            if (withMovements) {
+                writer.header("Nivel", "Código", "Cuenta", "Saldo Inicial", "Debe", "Haber", "Saldo Final");
+            } else {
+                writer.header("Nivel", "Código", "Cuenta", "Saldo");
+            }
+            for (CuentaJerarquicaDTO l : lineas) {
+                // Se sangra el nombre según el nivel para que la jerarquía se lea en la hoja.
+                String nombre = "  ".repeat(Math.max(0, l.getNivel() - 1)) + l.getAccountName();
+                if (withMovements) {
+                    writer.row(l.getNivel(), l.getAccountCode(), nombre, l.getSaldoInicial(),
+                            l.getTotalDebePeriodo(), l.getTotalHaberPeriodo(), l.getSaldoFinal());
+                } else {
+                    writer.row(l.getNivel(), l.getAccountCode(), nombre, l.getSaldoFinal());
+                }
+            }
+            writer.complete();
+        }
+    }
+
+    private void writeSection(TabularWriter writer, String title, List<EstadoResultadosLineaDTO> lineas,
+                              BigDecimal total) throws IOException {
+        writer.row(null, title, null);
+        for (EstadoResultadosLineaDTO l : lineas) {
+            writer.row(l.getAccountCode(), l.getAccountName(), l.getTotalPeriodo());
+        }
+        writer.row(null, "Total " + title, total);
+    }
+
+    private void writeCategory(TabularWriter writer, String title, CategoriaBalanceDTO categoria) throws IOException {
+        writer.row(null, title, null);
+        if (categoria == null) return;
+        for (BalanceGeneralLineaDTO l : categoria.getCuentas()) {
+            writer.row(l.getAccountCode(), l.getAccountName(), l.getSaldoFinal());
+        }
+        writer.row(null, "Total " + title, categoria.getSubtotal());
+    }
+}
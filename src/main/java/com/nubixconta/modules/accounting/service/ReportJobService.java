@@ -0,0 +1,376 @@
+package com.nubixconta.modules.accounting.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nubixconta.common.exception.BadRequestException;
+import com.nubixconta.common.exception.BusinessRuleException;
+import com.nubixconta.common.exception.NotFoundException;
+import com.nubixconta.modules.accounting.dto.reports.jobs.ReportJobRequestDTO;
+import com.nubixconta.modules.accounting.dto.reports.jobs.ReportJobStatusDTO;
+import com.nubixconta.modules.accounting.entity.enums.ReportJobStatus;
+import com.nubixconta.modules.accounting.entity.enums.ReportType;
+import com.nubixconta.security.TenantContext;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Genera reportes financieros en segundo plano para no ocupar los hilos de Tomcat
+ * (ni chocar con los timeouts del proxy) en los cierres de mes.
+ *
+ * - Un pool global de tamaño fijo limita cuántos reportes se calculan a la vez, de modo que
+ *   siempre quedan conexiones a la BD para las peticiones interactivas.
+ * - Cada empresa puede tener como máximo 'max-per-company' trabajos en cola o en proceso,
+ *   para que el cierre anual de una empresa no acapare el pool. Debe ser menor que 'max-concurrent',
+ *   de modo que siempre quede al menos un hilo para las demás empresas.
+ * - El resultado se guarda como JSON en disco y se elimina al expirar su TTL.
+ *
+ * El registro de trabajos vive en memoria: al reiniciar la aplicación se pierden los trabajos
+ * en curso y se limpian los resultados que hubiera en disco.
+ */
+@Slf4j
+@Service
+public class ReportJobService {
+
+    private final FinancialReportService reportService;
+    private final ObjectMapper objectMapper;
+    private final Path storageDir;
+    private final long resultTtlMinutes;
+    private final int maxJobsPerCompany;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicInteger> activeJobsByCompany = new ConcurrentHashMap<>();
+
+    public ReportJobService(FinancialReportService reportService,
+                            ObjectMapper objectMapper,
+                            @Value("${nubixconta.reports.jobs.storage-dir:${java.io.tmpdir}/nubixconta-reports}") String storageDir,
+                            @Value("${nubixconta.reports.jobs.result-ttl-minutes:60}") long resultTtlMinutes,
+                            @Value("${nubixconta.reports.jobs.max-concurrent:3}") int maxConcurrent,
+                            @Value("${nubixconta.reports.jobs.queue-capacity:50}") int queueCapacity,
+                            @Value("${nubixconta.reports.jobs.max-per-company:2}") int maxJobsPerCompany) throws IOException {
+        if (maxJobsPerCompany < 1 || maxJobsPerCompany >= maxConcurrent) {
+            throw new IllegalArgumentException("'nubixconta.reports.jobs.max-per-company' (" + maxJobsPerCompany
+                    + ") debe ser al menos 1 y menor que 'nubixconta.reports.jobs.max-concurrent' (" + maxConcurrent + ").");
+        }
+        this.reportService = reportService;
+        this.objectMapper = objectMapper;
+        this.storageDir = Paths.get(storageDir);
+        this.resultTtlMinutes = resultTtlMinutes;
+        this.maxJobsPerCompany = maxJobsPerCompany;
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                maxConcurrent, maxConcurrent,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-job-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        // Los resultados de una ejecución anterior ya no tienen trabajo asociado.
+        Files.createDirectories(this.storageDir);
+        try (Stream<Path> files = Files.list(this.storageDir)) {
+            files.forEach(this::deleteQuietly);
+        }
+    }
+
+    // --- API PÚBLICA ---
+
+    public ReportJobStatusDTO submit(ReportJobRequestDTO request) {
+        Integer companyId = getCompanyIdFromContext();
+        validateRequest(request);
+
+        ReportJob job = new ReportJob(UUID.randomUUID().toString(), companyId, request);
+
+        AtomicInteger active = activeJobsByCompany.computeIfAbsent(companyId, id -> new AtomicInteger());
+        if (active.incrementAndGet() > maxJobsPerCompany) {
+            active.decrementAndGet();
+            throw new BusinessRuleException("Ya hay " + maxJobsPerCompany + " reportes en proceso para esta empresa. Espere a que terminen o cancele alguno.");
+        }
+
+        jobs.put(job.id, job);
+        try {
+            job.future = executor.submit(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            releaseSlot(job);
+            throw new BusinessRuleException("El servidor tiene demasiados reportes en cola. Intente de nuevo en unos minutos.");
+        }
+        return toDTO(job);
+    }
+
+    public ReportJobStatusDTO getStatus(String jobId) {
+        return toDTO(findOwnedJob(jobId));
+    }
+
+    public List<ReportJobStatusDTO> listJobs() {
+        Integer companyId = getCompanyIdFromContext();
+        return jobs.values().stream()
+                .filter(job -> job.companyId.equals(companyId))
+                .sorted(Comparator.comparing((ReportJob job) -> job.submittedAt).reversed())
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    public ReportJobStatusDTO cancel(String jobId) {
+        ReportJob job = findOwnedJob(jobId);
+        ReportJobStatus previous = job.cancel(resultTtlMinutes);
+        if (previous == null) {
+            throw new BusinessRuleException("Solo se pueden cancelar reportes en cola o en proceso.");
+        }
+
+        if (job.future != null) {
+            job.future.cancel(true);
+        }
+        // Un trabajo que nunca llegó a ejecutarse no pasa por run(), así que su cupo se libera aquí.
+        // Uno en proceso lo conserva hasta que run() termine: la consulta JDBC no atiende la
+        // interrupción, y liberarlo antes permitiría superar el límite cancelando y reenviando.
+        if (previous == ReportJobStatus.EN_COLA) {
+            releaseSlot(job);
+        }
+        return toDTO(job);
+    }
+
+    /**
+     * Devuelve la ruta del resultado de un trabajo completado, para que el controlador la envíe.
+     */
+    public Path getResultFile(String jobId) {
+        ReportJob job = findOwnedJob(jobId);
+        if (job.status != ReportJobStatus.COMPLETADO || job.resultFile == null || !Files.exists(job.resultFile)) {
+            throw new BusinessRuleException("El reporte todavía no está disponible para descargar.");
+        }
+        return job.resultFile;
+    }
+
+    public String getDownloadFileName(String jobId) {
+        ReportJob job = findOwnedJob(jobId);
+        return job.request.getReportType().name().toLowerCase() + "-" + job.id + ".json";
+    }
+
+    /**
+     * Elimina los trabajos terminados cuyo TTL ya venció, junto con su archivo de resultado.
+     */
+    @Scheduled(fixedDelayString = "${nubixconta.reports.jobs.cleanup-interval-ms:300000}")
+    public void purgeExpiredJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        jobs.values().removeIf(job -> {
+            boolean expired = job.expiresAt != null && job.expiresAt.isBefore(now);
+            if (expired && job.resultFile != null) {
+                deleteQuietly(job.resultFile);
+            }
+            return expired;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // --- EJECUCIÓN ---
+
+    private void run(ReportJob job) {
+        if (!job.start()) {
+            // Se canceló mientras estaba en cola.
+            releaseSlot(job);
+            return;
+        }
+
+        TenantContext.setCurrentTenant(job.companyId);
+        Path target = storageDir.resolve(job.id + ".json");
+        Path tmp = storageDir.resolve(job.id + ".json.tmp");
+        try {
+            job.progress = 10;
+            Object result = generate(job.request);
+            if (job.isCancelled()) return;
+
+            job.progress = 80;
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                objectMapper.writeValue(out, result);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            job.resultFile = target;
+            if (!job.finish(ReportJobStatus.COMPLETADO, null, resultTtlMinutes)) {
+                // Se canceló mientras se escribía el resultado.
+                deleteQuietly(target);
+            }
+        } catch (Exception e) {
+            deleteQuietly(tmp);
+            if (job.finish(ReportJobStatus.FALLIDO, e.getMessage(), resultTtlMinutes)) {
+                log.warn("Falló el reporte {} ({}) de la empresa {}: {}", job.id, job.request.getReportType(), job.companyId, e.getMessage());
+            }
+        } finally {
+            TenantContext.clear();
+            releaseSlot(job);
+        }
+    }
+
+    private Object generate(ReportJobRequestDTO request) {
+        return switch (request.getReportType()) {
+            case LIBRO_DIARIO -> reportService.getLibroDiario(request.getStartDate(), request.getEndDate());
+            case LIBRO_MAYOR -> reportService.getLibroMayor(request.getStartDate(), request.getEndDate(), request.getCatalogId());
+            case BALANZA_COMPROBACION -> reportService.getBalanzaDeComprobacion(request.getStartDate(), request.getEndDate());
+            case ESTADO_RESULTADOS -> reportService.getEstadoDeResultados(request.getStartDate(), request.getEndDate());
+            case BALANCE_GENERAL -> reportService.getBalanceGeneral(request.getEndDate());
+        };
+    }
+
+    // --- Métodos Privados de Ayuda ---
+
+    private void validateRequest(ReportJobRequestDTO request) {
+        ReportType type = request.getReportType();
+        if (type == null) {
+            throw new BadRequestException("El tipo de reporte es obligatorio.");
+        }
+        switch (type) {
+            case BALANCE_GENERAL -> {
+                if (request.getEndDate() == null) {
+                    throw new BadRequestException("El Balance General requiere la fecha de corte (endDate).");
+                }
+            }
+            case LIBRO_MAYOR -> {
+                boolean hasDateRange = request.getStartDate() != null && request.getEndDate() != null;
+                if (!hasDateRange && request.getCatalogId() == null) {
+                    throw new BadRequestException("Debe proporcionar al menos un filtro: rango de fechas o ID de cuenta.");
+                }
+            }
+            default -> {
+                if (request.getStartDate() == null || request.getEndDate() == null) {
+                    throw new BadRequestException("El reporte requiere fecha de inicio y fecha de fin.");
+                }
+            }
+        }
+        if (request.getStartDate() != null && request.getEndDate() != null
+                && request.getStartDate().isAfter(request.getEndDate())) {
+            throw new BadRequestException("La fecha de inicio no puede ser posterior a la fecha de fin.");
+        }
+    }
+
+    private ReportJob findOwnedJob(String jobId) {
+        Integer companyId = getCompanyIdFromContext();
+        ReportJob job = jobs.get(jobId);
+        // Un trabajo de otra empresa se trata igual que uno inexistente.
+        if (job == null || !job.companyId.equals(companyId)) {
+            throw new NotFoundException("Reporte con ID " + jobId + " no encontrado.");
+        }
+        return job;
+    }
+
+    private void releaseSlot(ReportJob job) {
+        if (job.slotReleased.compareAndSet(false, true)) {
+            AtomicInteger active = activeJobsByCompany.get(job.companyId);
+            if (active != null) {
+                active.decrementAndGet();
+            }
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("No se pudo eliminar el archivo de reporte {}: {}", path, e.getMessage());
+        }
+    }
+
+    private Integer getCompanyIdFromContext() {
+        return TenantContext.getCurrentTenant()
+                .orElseThrow(() -> new IllegalStateException("No se puede determinar la empresa del contexto."));
+    }
+
+    private ReportJobStatusDTO toDTO(ReportJob job) {
+        return new ReportJobStatusDTO(
+                job.id,
+                job.request.getReportType(),
+                job.status,
+                job.progress,
+                job.errorMessage,
+                job.submittedAt,
+                job.finishedAt,
+                job.expiresAt
+        );
+    }
+
+    /**
+     * Estado en memoria de un trabajo. Los campos mutables son 'volatile' porque los escribe
+     * el hilo del pool y los leen los hilos de las peticiones de consulta; los cambios de estado
+     * se sincronizan para que una cancelación no se pise con la finalización del cálculo.
+     */
+    private static final class ReportJob {
+        final String id;
+        final Integer companyId;
+        final ReportJobRequestDTO request;
+        final LocalDateTime submittedAt = LocalDateTime.now();
+        final AtomicBoolean slotReleased = new AtomicBoolean(false);
+
+        volatile ReportJobStatus status = ReportJobStatus.EN_COLA;
+        volatile int progress = 0;
+        volatile String errorMessage;
+        volatile LocalDateTime finishedAt;
+        volatile LocalDateTime expiresAt;
+        volatile Path resultFile;
+        volatile Future<?> future;
+
+        ReportJob(String id, Integer companyId, ReportJobRequestDTO request) {
+            this.id = id;
+            this.companyId = companyId;
+            this.request = request;
+        }
+
+        synchronized boolean start() {
+            if (status != ReportJobStatus.EN_COLA) return false;
+            status = ReportJobStatus.EN_PROCESO;
+            return true;
+        }
+
+        /**
+         * Pasa el trabajo a un estado final, solo si todavía no terminó.
+         * @return false si el trabajo ya estaba terminado (por ejemplo, cancelado).
+         */
+        synchronized boolean finish(ReportJobStatus finalStatus, String error, long ttlMinutes) {
+            if (status != ReportJobStatus.EN_COLA && status != ReportJobStatus.EN_PROCESO) return false;
+            status = finalStatus;
+            errorMessage = error;
+            if (finalStatus == ReportJobStatus.COMPLETADO) progress = 100;
+            finishedAt = LocalDateTime.now();
+            expiresAt = finishedAt.plusMinutes(ttlMinutes);
+            return true;
+        }
+
+        /**
+         * Cancela el trabajo si todavía no terminó.
+         * @return el estado que tenía (EN_COLA o EN_PROCESO), o null si ya estaba terminado.
+         */
+        synchronized ReportJobStatus cancel(long ttlMinutes) {
+            ReportJobStatus previous = status;
+            return finish(ReportJobStatus.CANCELADO, null, ttlMinutes) ? previous : null;
+        }
+
+        boolean isCancelled() {
+            return status == ReportJobStatus.CANCELADO || Thread.currentThread().isInterrupted();
+        }
+    }
+}
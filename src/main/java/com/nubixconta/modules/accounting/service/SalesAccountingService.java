@@ -37,6 +37,7 @@ public class SalesAccountingService {
     private final CreditNoteEntryRepository creditNoteEntryRepository;
     // --- ¡NUEVA INYECCIÓN! Depende del servicio de configuración central. ---
     private final AccountingConfigurationService configService;
+    private final JournalLineService journalLineService;
 
     // --- LÓGICA PARA VENTAS ---
 
@@ -90,10 +91,13 @@ public class SalesAccountingService {
 
         validateSaleEntryTotals(entries);
         saleEntryRepository.saveAll(entries);
+        journalLineService.post(companyId, JournalLineService.DOC_SALE, sale.getSaleId().longValue(), sale.getIssueDate(), entries,
+                SaleEntry::getCatalog, SaleEntry::getDebe, SaleEntry::getHaber, SaleEntry::getDescription);
     }
 
     @Transactional(propagation = Propagation.MANDATORY)
     public void deleteEntriesForSaleCancellation(Sale sale) {
+        journalLineService.remove(sale.getCompany().getId(), JournalLineService.DOC_SALE, sale.getSaleId().longValue());
         saleEntryRepository.deleteBySale_SaleId(sale.getSaleId());
     }
 
@@ -146,10 +150,13 @@ public class SalesAccountingService {
 
         validateCreditNoteEntryTotals(entries);
         creditNoteEntryRepository.saveAll(entries);
+        journalLineService.post(companyId, JournalLineService.DOC_CREDIT_NOTE, creditNote.getIdNotaCredit().longValue(), creditNote.getIssueDate(), entries,
+                CreditNoteEntry::getCatalog, CreditNoteEntry::getDebe, CreditNoteEntry::getHaber, CreditNoteEntry::getDescription);
     }
 
     @Transactional(propagation = Propagation.MANDATORY)
     public void deleteEntriesForCreditNoteCancellation(CreditNote creditNote) {
+        journalLineService.remove(creditNote.getCompany().getId(), JournalLineService.DOC_CREDIT_NOTE, creditNote.getIdNotaCredit().longValue());
         creditNoteEntryRepository.deleteByCreditNote_IdNotaCredit(creditNote.getIdNotaCredit());
     }
 
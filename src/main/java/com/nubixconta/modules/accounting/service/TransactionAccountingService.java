@@ -2,6 +2,9 @@ package com.nubixconta.modules.accounting.service;
 
 import com.nubixconta.common.exception.BusinessRuleException;
 import com.nubixconta.common.exception.NotFoundException;
+import com.nubixconta.common.pagination.CursorPageDTO;
+import com.nubixconta.common.pagination.DocumentListRequest;
+import com.nubixconta.common.pagination.DocumentPageQuery;
 import com.nubixconta.modules.accounting.dto.accounting.*;
 
 import com.nubixconta.modules.accounting.entity.AccountingEntry;
@@ -35,6 +38,11 @@ public class TransactionAccountingService {
     private final CatalogService catalogService;
     private final ModelMapper modelMapper;
     private final CierreContableService cierreContableService;
+    private final JournalLineService journalLineService;
+
+    // Listado paginado por cursor (ver DocumentPageQuery).
+    private static final DocumentPageQuery<TransactionAccounting> PAGE_QUERY = new DocumentPageQuery<TransactionAccounting>(
+            "transactionDate", TransactionAccounting::getTransactionDate, "id", TransactionAccounting::getId, TransactionAccounting::getStatusRank);
 
     private Integer getCompanyIdFromContext() {
         return TenantContext.getCurrentTenant()
@@ -70,6 +78,14 @@ public class TransactionAccountingService {
                 .map(this::mapToResponseDTO)
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Página de partidas contables con filtro opcional por estado y rango de fechas, paginada por cursor.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<TransactionAccountingResponseDTO> findPage(DocumentListRequest request) {
+        return PAGE_QUERY.fetch(transactionRepository, getCompanyIdFromContext(), request, this::mapToResponseDTO);
+    }
     /**
      * Busca transacciones contables utilizando una combinación de filtros.
      * @param startDate La fecha de inicio para el filtro (puede ser nula).
@@ -223,6 +239,9 @@ public class TransactionAccountingService {
 
         transaction.setStatus(AccountingTransactionStatus.APLICADA);
         TransactionAccounting appliedTransaction = transactionRepository.save(transaction);
+        journalLineService.post(companyId, JournalLineService.DOC_ACCOUNTING, transaction.getId(),
+                transaction.getTransactionDate(), transaction.getAccountingEntries(),
+                AccountingEntry::getCatalog, AccountingEntry::getDebe, AccountingEntry::getHaber, AccountingEntry::getDescription);
         return mapToResponseDTO(appliedTransaction);
     }
 
@@ -236,6 +255,8 @@ public class TransactionAccountingService {
             throw new BusinessRuleException("Solo se pueden anular transacciones en estado APLICADA.");
         }
 
+        journalLineService.remove(companyId, JournalLineService.DOC_ACCOUNTING, transaction.getId());
+
         // 1. ¡LÍNEA CLAVE! Elimina todas las líneas asociadas de la colección.
         // Gracias a 'orphanRemoval = true' en la entidad, JPA se encargará de ejecutar
         // las sentencias DELETE en la base de datos para cada una de estas líneas.
@@ -1,13 +1,22 @@
 package com.nubixconta.modules.accountsreceivable.controller;
 
+import com.nubixconta.common.export.ExportFormat;
+import com.nubixconta.common.export.TabularWriter;
+import com.nubixconta.common.pagination.AccountsListSort;
+import com.nubixconta.modules.accountsreceivable.dto.accountsreceivable.AccountsReceivablePageDTO;
 import com.nubixconta.modules.accountsreceivable.dto.accountsreceivable.AccountsReceivableResponseDTO;
 import com.nubixconta.modules.accountsreceivable.dto.accountsreceivable.AccountsReceivableSaleResponseDTO;
+import com.nubixconta.modules.accountsreceivable.dto.aging.AccountsReceivableAgingDTO;
+import com.nubixconta.modules.accountsreceivable.dto.aging.AgingInvoicePageDTO;
 import com.nubixconta.modules.accountsreceivable.entity.AccountsReceivable;
+import com.nubixconta.modules.accountsreceivable.service.AccountsReceivableAgingService;
 import com.nubixconta.modules.accountsreceivable.service.AccountsReceivableService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.modelmapper.ModelMapper;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -21,10 +30,13 @@ import java.util.Map;
 public class AccountsReceivableController {
 
     private final AccountsReceivableService service;
+    private final AccountsReceivableAgingService agingService;
     private final ModelMapper modelMapper;
 
-    public AccountsReceivableController(AccountsReceivableService service,ModelMapper modelMapper) {
+    public AccountsReceivableController(AccountsReceivableService service, AccountsReceivableAgingService agingService,
+                                        ModelMapper modelMapper) {
         this.service = service;
+        this.agingService = agingService;
         this.modelMapper= modelMapper;
     }
 
@@ -93,6 +105,46 @@ public class AccountsReceivableController {
         List<AccountsReceivableResponseDTO> sortedData = service.findAllSortedByStatus();
         return ResponseEntity.ok(sortedData);
     }
+
+    // Listado paginado por cursor (sort = REGISTRO, FECHA o ESTADO; por defecto FECHA).
+    @GetMapping("/page")
+    public ResponseEntity<AccountsReceivablePageDTO> getPage(
+            @RequestParam(required = false) AccountsListSort sort,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterIssueDate,
+            @RequestParam(required = false) Integer afterStatusRank,
+            @RequestParam(required = false) Integer afterId,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(service.findPage(sort, afterIssueDate, afterStatusRank, afterId, size));
+    }
+
+    // Antigüedad de saldos por cliente (corriente, 1-30, 31-60, 61-90, más de 90 días) a una fecha de corte.
+    @GetMapping("/aging")
+    public ResponseEntity<AccountsReceivableAgingDTO> getAging(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate) {
+        return ResponseEntity.ok(agingService.getAging(asOfDate));
+    }
+
+    // Detalle de la antigüedad de un cliente, paginado por cursor (afterDueDate + afterId).
+    @GetMapping("/aging/{customerId}/invoices")
+    public ResponseEntity<AgingInvoicePageDTO> getAgingInvoices(
+            @PathVariable Integer customerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate afterDueDate,
+            @RequestParam(required = false) Integer afterId,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(agingService.getCustomerInvoices(customerId, asOfDate, afterDueDate, afterId, size));
+    }
+
+    // Exportación del detalle de antigüedad ('?format=xlsx' o '?format=csv').
+    @GetMapping(value = "/aging", params = "format")
+    public void exportAging(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate,
+            @RequestParam String format,
+            HttpServletResponse response) throws IOException {
+        LocalDate cutoff = asOfDate != null ? asOfDate : LocalDate.now();
+        ExportFormat exportFormat = TabularWriter.prepareDownload(response, format, "antiguedad-cxc_" + cutoff);
+        agingService.exportAging(cutoff, exportFormat, response.getOutputStream());
+    }
  /*   // ENDPOINT para validar si una venta tiene cobros asociados
     @GetMapping("/validate-sale-collections/{saleId}")
     public ResponseEntity<Boolean> validateSaleCollections(@PathVariable Integer saleId) {
@@ -49,27 +49,10 @@ public class CollectionDetailController {
             @PathVariable Integer id,
             @RequestBody @Valid CollectionDetailUpdateDTO dto) {
 
-        return service.findById(id)
-                .map(existing -> {
-
-                    Integer receivableId = dto.getAccountReceivableId() != null
-                            ? dto.getAccountReceivableId()
-                            : existing.getAccountReceivable().getId();
-
-                    if (dto.getReference() != null) existing.setReference(dto.getReference());
-                    if (dto.getPaymentMethod() != null) existing.setPaymentMethod(dto.getPaymentMethod());
-                    if (dto.getPaymentAmount() != null) existing.setPaymentAmount(dto.getPaymentAmount());
-                    if (dto.getPaymentStatus() != null) existing.setPaymentStatus(dto.getPaymentStatus());
-                    if (dto.getPaymentDetailDescription() != null) existing.setPaymentDetailDescription(dto.getPaymentDetailDescription());
-                    if (dto.getAccountId() != null) existing.setAccountId(dto.getAccountId());
-
-                    CollectionDetail actualizado = service.save(existing);
-
-                    service.recalcularBalancePorReceivableId(receivableId);
-                    // Mapear la entidad actualizada al DTO antes de devolverla
-                    CollectionDetailResponseDTO responseDto = modelMapper.map(actualizado, CollectionDetailResponseDTO.class);
-                    return ResponseEntity.ok(responseDto);
-                })
+        // El ajuste del saldo y el guardado ocurren en la misma transacción del servicio.
+        return service.update(id, dto)
+                .map(actualizado -> modelMapper.map(actualizado, CollectionDetailResponseDTO.class))
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
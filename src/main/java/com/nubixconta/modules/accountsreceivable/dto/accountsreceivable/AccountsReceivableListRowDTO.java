@@ -0,0 +1,28 @@
+package com.nubixconta.modules.accountsreceivable.dto.accountsreceivable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Fila del listado de cuentas por cobrar, proyectada directamente desde la consulta
+ * (AccountsReceivableListRepository) sin cargar las entidades.
+ * 'statusRank' solo se calcula al ordenar por ESTADO; en los demás órdenes vale 99.
+ */
+@Data
+@AllArgsConstructor
+public class AccountsReceivableListRowDTO {
+    private Integer accountReceivableId;
+    private BigDecimal balance;
+    private Integer saleId;
+    private String documentNumber;
+    private LocalDateTime issueDate;
+    private BigDecimal totalAmount;
+    private String saleDescription;
+    private String customerName;
+    private String customerLastName;
+    private Integer creditDay;
+    private Integer statusRank;
+}
@@ -0,0 +1,22 @@
+package com.nubixconta.modules.accountsreceivable.dto.accountsreceivable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Página del listado de cuentas por cobrar. Para pedir la siguiente se envían, con el mismo 'sort',
+ * 'nextAfterId' como 'afterId' y, según el orden, 'nextAfterIssueDate' (FECHA) o
+ * 'nextAfterStatusRank' (ESTADO).
+ */
+@Data
+@AllArgsConstructor
+public class AccountsReceivablePageDTO {
+    private List<AccountsReceivableResponseDTO> items;
+    private LocalDateTime nextAfterIssueDate;
+    private Integer nextAfterStatusRank;
+    private Integer nextAfterId;
+    private boolean hasMore;
+}
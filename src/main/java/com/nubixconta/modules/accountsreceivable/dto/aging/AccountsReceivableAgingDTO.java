@@ -0,0 +1,19 @@
+package com.nubixconta.modules.accountsreceivable.dto.aging;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Reporte de antigüedad de cuentas por cobrar a una fecha de corte: una fila por cliente
+ * con saldo pendiente y los totales de la empresa.
+ */
+@Data
+@AllArgsConstructor
+public class AccountsReceivableAgingDTO {
+    private LocalDate asOfDate;
+    private List<CustomerAgingDTO> customers;
+    private AgingBucketsDTO totals;
+}
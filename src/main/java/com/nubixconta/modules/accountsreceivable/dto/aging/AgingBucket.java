@@ -0,0 +1,20 @@
+package com.nubixconta.modules.accountsreceivable.dto.aging;
+
+/**
+ * Tramos de antigüedad de saldos, según los días de atraso respecto a la fecha de vencimiento.
+ */
+public enum AgingBucket {
+    CORRIENTE,
+    DIAS_1_30,
+    DIAS_31_60,
+    DIAS_61_90,
+    MAS_DE_90;
+
+    public static AgingBucket of(int daysLate) {
+        if (daysLate <= 0) return CORRIENTE;
+        if (daysLate <= 30) return DIAS_1_30;
+        if (daysLate <= 60) return DIAS_31_60;
+        if (daysLate <= 90) return DIAS_61_90;
+        return MAS_DE_90;
+    }
+}
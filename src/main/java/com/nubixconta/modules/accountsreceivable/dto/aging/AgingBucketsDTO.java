@@ -0,0 +1,36 @@
+package com.nubixconta.modules.accountsreceivable.dto.aging;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Saldos pendientes repartidos por tramo de antigüedad (ver AgingBucket).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgingBucketsDTO {
+    private long documentCount;
+    private BigDecimal current = BigDecimal.ZERO;
+    private BigDecimal days1To30 = BigDecimal.ZERO;
+    private BigDecimal days31To60 = BigDecimal.ZERO;
+    private BigDecimal days61To90 = BigDecimal.ZERO;
+    private BigDecimal over90 = BigDecimal.ZERO;
+    private BigDecimal total = BigDecimal.ZERO;
+
+    /**
+     * Acumula otro conjunto de tramos en este (se usa para los totales del reporte).
+     */
+    public void add(AgingBucketsDTO other) {
+        documentCount += other.documentCount;
+        current = current.add(other.current);
+        days1To30 = days1To30.add(other.days1To30);
+        days31To60 = days31To60.add(other.days31To60);
+        days61To90 = days61To90.add(other.days61To90);
+        over90 = over90.add(other.over90);
+        total = total.add(other.total);
+    }
+}
@@ -0,0 +1,27 @@
+package com.nubixconta.modules.accountsreceivable.dto.aging;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Venta con saldo pendiente a la fecha de corte, para el detalle de la antigüedad de un cliente.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgingInvoiceDTO {
+    private Integer accountReceivableId;
+    private Integer saleId;
+    private String documentNumber;
+    private LocalDateTime issueDate;
+    private LocalDate dueDate;
+    private BigDecimal totalAmount;
+    private BigDecimal outstanding;
+    private int daysLate;
+    private AgingBucket bucket;
+}
@@ -0,0 +1,20 @@
+package com.nubixconta.modules.accountsreceivable.dto.aging;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Página del detalle de antigüedad de un cliente. Para pedir la siguiente se envían
+ * 'nextAfterDueDate' y 'nextAfterId' como 'afterDueDate' y 'afterId'.
+ */
+@Data
+@AllArgsConstructor
+public class AgingInvoicePageDTO {
+    private List<AgingInvoiceDTO> invoices;
+    private LocalDate nextAfterDueDate;
+    private Integer nextAfterId;
+    private boolean hasMore;
+}
@@ -0,0 +1,18 @@
+package com.nubixconta.modules.accountsreceivable.dto.aging;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Antigüedad de saldos de un cliente.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerAgingDTO {
+    private Integer customerId;
+    private String customerName;
+    private String customerLastName;
+    private AgingBucketsDTO buckets;
+}
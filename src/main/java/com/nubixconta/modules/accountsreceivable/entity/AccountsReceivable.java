@@ -14,7 +14,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "accounts_receivable")
+@Table(name = "accounts_receivable",
+        indexes = @Index(name = "idx_accounts_receivable_company_sale", columnList = "company_id, sale_id"))
 @Data
 public class AccountsReceivable {
 
@@ -38,7 +39,7 @@ public class AccountsReceivable {
     private Sale sale;
 
     @NotNull(message = "El saldo es obligatorio")
-    @Column(precision = 10, scale = 2)
+    @Column(precision = 10, scale = 2, updatable = false)
     @Digits(integer = 8, fraction = 2, message = "El saldo puede tener hasta 8 dígitos enteros y 2 decimales")
     @DecimalMin(value="0.00",inclusive=true,message = "El Saldo no puede ser negativo")
     private BigDecimal balance;
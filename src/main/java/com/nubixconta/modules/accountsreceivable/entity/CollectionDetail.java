@@ -17,7 +17,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "collection_detail")
+@Table(name = "collection_detail",
+        indexes = @Index(name = "idx_collection_detail_receivable_date", columnList = "account_receivable_id, collection_detail_date"))
 @Data
 @Filter(name = "tenantFilter", condition = "company_id = :companyId")
 public class CollectionDetail {
@@ -0,0 +1,158 @@
+package com.nubixconta.modules.accountsreceivable.repository;
+
+import com.nubixconta.modules.accountsreceivable.dto.aging.AgingBucket;
+import com.nubixconta.modules.accountsreceivable.dto.aging.AgingBucketsDTO;
+import com.nubixconta.modules.accountsreceivable.dto.aging.AgingInvoiceDTO;
+import com.nubixconta.modules.accountsreceivable.dto.aging.CustomerAgingDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Consultas de antigüedad de cuentas por cobrar, resueltas por completo en la base de datos.
+ * El saldo de cada venta a la fecha de corte es su total menos los cobros no anulados registrados
+ * hasta esa fecha (la misma regla que CollectionDetailService usa para el saldo actual), y el
+ * vencimiento es 'sale.issue_date + customer.credit_day'.
+ * Son consultas nativas (SQL de PostgreSQL) porque el vencimiento y los tramos usan aritmética de fechas.
+ */
+@Repository
+public class AccountsReceivableAgingRepository {
+
+    // Filas que se leen por bloque al exportar.
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    /**
+     * Ventas con saldo pendiente a la fecha de corte, con su vencimiento y días de atraso.
+     */
+    private static final String OPEN_ITEMS =
+            "WITH items AS ( " +
+            "  SELECT ar.account_receivable_id, s.sale_id, s.document_number, s.issue_date, s.total_amount, " +
+            "         c.client_id, c.customer_name, c.customer_last_name, " +
+            "         CAST(s.issue_date AS date) + c.credit_day AS due_date, " +
+            "         s.total_amount - COALESCE((SELECT SUM(cd.payment_amount) FROM collection_detail cd " +
+            "             WHERE cd.account_receivable_id = ar.account_receivable_id " +
+            "               AND UPPER(COALESCE(cd.payment_status, '')) <> 'ANULADO' " +
+            "               AND cd.collection_detail_date < :asOfEnd), 0) AS outstanding " +
+            "  FROM accounts_receivable ar " +
+            "  JOIN sale s ON s.sale_id = ar.sale_id " +
+            "  JOIN customer c ON c.client_id = s.client_id " +
+            "  WHERE ar.company_id = :companyId AND s.sale_status <> 'ANULADA' AND s.issue_date < :asOfEnd " +
+            "), open_items AS ( " +
+            "  SELECT i.*, GREATEST(CAST(:asOfDate AS date) - i.due_date, 0) AS days_late " +
+            "  FROM items i WHERE i.outstanding > 0 " +
+            ") ";
+
+    private static final String SUMMARY_SQL = OPEN_ITEMS +
+            "SELECT client_id, customer_name, customer_last_name, COUNT(*) AS document_count, " +
+            "  COALESCE(SUM(outstanding) FILTER (WHERE days_late = 0), 0) AS current_amount, " +
+            "  COALESCE(SUM(outstanding) FILTER (WHERE days_late BETWEEN 1 AND 30), 0) AS days_1_30, " +
+            "  COALESCE(SUM(outstanding) FILTER (WHERE days_late BETWEEN 31 AND 60), 0) AS days_31_60, " +
+            "  COALESCE(SUM(outstanding) FILTER (WHERE days_late BETWEEN 61 AND 90), 0) AS days_61_90, " +
+            "  COALESCE(SUM(outstanding) FILTER (WHERE days_late > 90), 0) AS over_90, " +
+            "  SUM(outstanding) AS total " +
+            "FROM open_items " +
+            "GROUP BY client_id, customer_name, customer_last_name " +
+            "ORDER BY total DESC, client_id";
+
+    private static final String INVOICE_COLUMNS =
+            "SELECT account_receivable_id, sale_id, document_number, issue_date, due_date, total_amount, " +
+            "       outstanding, days_late, customer_name, customer_last_name ";
+
+    private static final String CUSTOMER_PAGE_SQL = OPEN_ITEMS + INVOICE_COLUMNS +
+            "FROM open_items " +
+            "WHERE client_id = :customerId " +
+            "  AND (due_date > :afterDueDate OR (due_date = :afterDueDate AND account_receivable_id > :afterId)) " +
+            "ORDER BY due_date, account_receivable_id " +
+            "LIMIT :limit";
+
+    private static final String EXPORT_SQL = OPEN_ITEMS + INVOICE_COLUMNS +
+            "FROM open_items " +
+            "ORDER BY customer_name, customer_last_name, client_id, due_date, account_receivable_id";
+
+    /**
+     * Fila de la exportación: la venta pendiente junto con el nombre de su cliente.
+     */
+    public record AgingExportRow(String customerName, String customerLastName, AgingInvoiceDTO invoice) {
+    }
+
+    private static final RowMapper<AgingInvoiceDTO> INVOICE_MAPPER = (rs, rowNum) -> {
+        int daysLate = rs.getInt("days_late");
+        return new AgingInvoiceDTO(
+                rs.getInt("account_receivable_id"),
+                rs.getInt("sale_id"),
+                rs.getString("document_number"),
+                rs.getObject("issue_date", LocalDateTime.class),
+                rs.getObject("due_date", LocalDate.class),
+                rs.getBigDecimal("total_amount"),
+                rs.getBigDecimal("outstanding"),
+                daysLate,
+                AgingBucket.of(daysLate));
+    };
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate streamingJdbc;
+
+    public AccountsReceivableAgingRepository(NamedParameterJdbcTemplate jdbc, DataSource dataSource) {
+        this.jdbc = jdbc;
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(STREAM_FETCH_SIZE);
+        this.streamingJdbc = new NamedParameterJdbcTemplate(streaming);
+    }
+
+    /**
+     * Tramos por cliente, en una sola consulta agrupada. Solo incluye clientes con saldo pendiente.
+     */
+    public List<CustomerAgingDTO> findCustomerAging(Integer companyId, LocalDate asOfDate) {
+        return jdbc.query(SUMMARY_SQL, params(companyId, asOfDate), (rs, rowNum) -> new CustomerAgingDTO(
+                rs.getInt("client_id"),
+                rs.getString("customer_name"),
+                rs.getString("customer_last_name"),
+                new AgingBucketsDTO(
+                        rs.getLong("document_count"),
+                        rs.getBigDecimal("current_amount"),
+                        rs.getBigDecimal("days_1_30"),
+                        rs.getBigDecimal("days_31_60"),
+                        rs.getBigDecimal("days_61_90"),
+                        rs.getBigDecimal("over_90"),
+                        rs.getBigDecimal("total"))));
+    }
+
+    /**
+     * Ventas pendientes de un cliente, paginadas por cursor sobre (due_date, account_receivable_id).
+     */
+    public List<AgingInvoiceDTO> findCustomerInvoicePage(Integer companyId, LocalDate asOfDate, Integer customerId,
+                                                         LocalDate afterDueDate, Integer afterId, int limit) {
+        MapSqlParameterSource params = params(companyId, asOfDate)
+                .addValue("customerId", customerId)
+                .addValue("afterDueDate", afterDueDate)
+                .addValue("afterId", afterId)
+                .addValue("limit", limit);
+        return jdbc.query(CUSTOMER_PAGE_SQL, params, INVOICE_MAPPER);
+    }
+
+    /**
+     * Todas las ventas pendientes de la empresa, leídas por bloques de STREAM_FETCH_SIZE filas.
+     * Debe consumirse dentro de una transacción de solo lectura y cerrarse al terminar.
+     */
+    public Stream<AgingExportRow> streamOpenInvoices(Integer companyId, LocalDate asOfDate) {
+        return streamingJdbc.queryForStream(EXPORT_SQL, params(companyId, asOfDate), (rs, rowNum) -> new AgingExportRow(
+                rs.getString("customer_name"),
+                rs.getString("customer_last_name"),
+                INVOICE_MAPPER.mapRow(rs, rowNum)));
+    }
+
+    private static MapSqlParameterSource params(Integer companyId, LocalDate asOfDate) {
+        return new MapSqlParameterSource()
+                .addValue("companyId", companyId)
+                .addValue("asOfDate", asOfDate)
+                .addValue("asOfEnd", asOfDate.plusDays(1).atStartOfDay());
+    }
+}
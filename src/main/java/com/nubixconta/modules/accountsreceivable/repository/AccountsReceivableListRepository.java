@@ -0,0 +1,54 @@
+package com.nubixconta.modules.accountsreceivable.repository;
+
+import com.nubixconta.common.pagination.AccountsListQuery;
+import com.nubixconta.common.pagination.AccountsListSort;
+import com.nubixconta.modules.accountsreceivable.dto.accountsreceivable.AccountsReceivableListRowDTO;
+import com.nubixconta.modules.accountsreceivable.dto.collectiondetail.CollectionDetailResponseDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Listados de cuentas por cobrar como proyecciones, sin hidratar AccountsReceivable, Sale ni Customer.
+ * Un listado son siempre dos consultas: los encabezados (ordenados y paginados en SQL) y los
+ * cobros de esos encabezados (ver AccountsListQuery).
+ */
+@Repository
+public class AccountsReceivableListRepository {
+
+    private static final AccountsListQuery<AccountsReceivableListRowDTO, CollectionDetailResponseDTO> QUERY =
+            new AccountsListQuery<>(AccountsReceivableListRowDTO.class,
+                    "h.id, h.balance, s.saleId, s.documentNumber, s.issueDate, s.totalAmount, s.saleDescription, " +
+                    "c.customerName, c.customerLastName, c.creditDay",
+                    "FROM AccountsReceivable h JOIN h.sale s LEFT JOIN s.customer c",
+                    "s.issueDate",
+                    "CollectionDetail", "accountReceivable", "collectionDetailDate",
+                    CollectionDetailResponseDTO::new);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Encabezados del listado en el orden pedido (ver AccountsListQuery.findRows).
+     * @param limit Máximo de filas; null para traerlas todas.
+     */
+    public List<AccountsReceivableListRowDTO> findRows(Integer companyId, AccountsListSort sort,
+                                                       LocalDateTime afterIssueDate, Integer afterStatusRank,
+                                                       Integer afterId, Integer limit) {
+        return QUERY.findRows(entityManager, companyId, sort, afterIssueDate, afterStatusRank, afterId, limit);
+    }
+
+    /**
+     * Cobros agrupados por cuenta por cobrar, ordenados dentro de cada cuenta según 'sort'.
+     * @param receivableIds Cuentas a incluir; null para todas las de la empresa.
+     */
+    public Map<Integer, List<CollectionDetailResponseDTO>> findDetails(Integer companyId, Collection<Integer> receivableIds,
+                                                                        AccountsListSort sort) {
+        return QUERY.findDetails(entityManager, companyId, receivableIds, sort);
+    }
+}
@@ -7,7 +7,9 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -28,4 +30,14 @@ public interface AccountsReceivableRepository extends JpaRepository<AccountsRece
 
     @Query("SELECT ar FROM AccountsReceivable ar JOIN FETCH ar.collectionDetails cd WHERE ar.sale.saleId = :saleId AND ar.company.id = :companyId")
     Optional<AccountsReceivable> findBySale_SaleIdAndCompany_IdWithCollectionDetails(@Param("saleId") Integer saleId, @Param("companyId") Integer companyId);
+
+    // --- Mantenimiento atómico del saldo (ver CollectionDetailService) ---
+    // Cada cobro registrado o anulado ajusta el saldo vigente con una sola sentencia; devuelve el
+    // saldo resultante o vacío si el ajuste lo dejaría negativo.
+
+    @Transactional
+    @Query(value = "UPDATE accounts_receivable SET balance = balance + :delta " +
+            "WHERE account_receivable_id = :id AND balance + :delta >= 0 RETURNING balance",
+            nativeQuery = true)
+    Optional<BigDecimal> addToBalance(@Param("id") Integer id, @Param("delta") BigDecimal delta);
 }
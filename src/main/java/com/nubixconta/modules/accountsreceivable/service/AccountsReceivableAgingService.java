@@ -0,0 +1,126 @@
+package com.nubixconta.modules.accountsreceivable.service;
+
+import com.nubixconta.common.exception.BusinessRuleException;
+import com.nubixconta.common.export.ExportFormat;
+import com.nubixconta.common.export.TabularWriter;
+import com.nubixconta.modules.accountsreceivable.dto.aging.AccountsReceivableAgingDTO;
+import com.nubixconta.modules.accountsreceivable.dto.aging.AgingBucketsDTO;
+import com.nubixconta.modules.accountsreceivable.dto.aging.AgingInvoiceDTO;
+import com.nubixconta.modules.accountsreceivable.dto.aging.AgingInvoicePageDTO;
+import com.nubixconta.modules.accountsreceivable.dto.aging.CustomerAgingDTO;
+import com.nubixconta.modules.accountsreceivable.repository.AccountsReceivableAgingRepository;
+import com.nubixconta.modules.accountsreceivable.repository.AccountsReceivableAgingRepository.AgingExportRow;
+import com.nubixconta.security.TenantContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Antigüedad de saldos de cuentas por cobrar (corriente, 1-30, 31-60, 61-90 y más de 90 días)
+ * a una fecha de corte. Los tramos se calculan en una sola consulta agrupada por cliente
+ * (AccountsReceivableAgingRepository); el detalle de un cliente se pagina por cursor y la
+ * exportación se lee por bloques, así que el costo no crece con el número de ventas en memoria.
+ */
+@Service
+@RequiredArgsConstructor
+public class AccountsReceivableAgingService {
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 500;
+    // Cursor inicial: anterior a cualquier vencimiento posible.
+    private static final LocalDate MIN_DUE_DATE = LocalDate.of(1900, 1, 1);
+
+    private final AccountsReceivableAgingRepository agingRepository;
+
+    private Integer getCompanyIdFromContext() {
+        return TenantContext.getCurrentTenant()
+                .orElseThrow(() -> new BusinessRuleException("No se ha seleccionado una empresa en el contexto."));
+    }
+
+    /**
+     * Tramos por cliente y totales de la empresa.
+     * @param asOfDate Fecha de corte (opcional; por defecto, hoy).
+     */
+    @Transactional(readOnly = true)
+    public AccountsReceivableAgingDTO getAging(LocalDate asOfDate) {
+        Integer companyId = getCompanyIdFromContext();
+        LocalDate cutoff = asOfDate != null ? asOfDate : LocalDate.now();
+
+        List<CustomerAgingDTO> customers = agingRepository.findCustomerAging(companyId, cutoff);
+        AgingBucketsDTO totals = new AgingBucketsDTO();
+        customers.forEach(customer -> totals.add(customer.getBuckets()));
+        return new AccountsReceivableAgingDTO(cutoff, customers, totals);
+    }
+
+    /**
+     * Ventas pendientes de un cliente ordenadas por vencimiento, paginadas por cursor.
+     */
+    @Transactional(readOnly = true)
+    public AgingInvoicePageDTO getCustomerInvoices(Integer customerId, LocalDate asOfDate,
+                                                   LocalDate afterDueDate, Integer afterId, Integer size) {
+        Integer companyId = getCompanyIdFromContext();
+        LocalDate cutoff = asOfDate != null ? asOfDate : LocalDate.now();
+        int pageSize = normalizePageSize(size);
+        boolean hasCursor = afterDueDate != null && afterId != null;
+
+        // Se pide una fila de más para saber si hay página siguiente sin hacer un COUNT.
+        List<AgingInvoiceDTO> invoices = new ArrayList<>(agingRepository.findCustomerInvoicePage(
+                companyId, cutoff, customerId,
+                hasCursor ? afterDueDate : MIN_DUE_DATE,
+                hasCursor ? afterId : 0,
+                pageSize + 1));
+
+        boolean hasMore = invoices.size() > pageSize;
+        if (hasMore) {
+            invoices.remove(pageSize);
+        }
+        AgingInvoiceDTO last = invoices.isEmpty() ? null : invoices.get(invoices.size() - 1);
+
+        return new AgingInvoicePageDTO(
+                invoices,
+                last != null ? last.getDueDate() : null,
+                last != null ? last.getAccountReceivableId() : null,
+                hasMore
+        );
+    }
+
+    /**
+     * Exporta el detalle de ventas pendientes (una fila por venta, agrupadas por cliente).
+     */
+    @Transactional(readOnly = true)
+    public void exportAging(LocalDate asOfDate, ExportFormat format, OutputStream out) throws IOException {
+        Integer companyId = getCompanyIdFromContext();
+        LocalDate cutoff = asOfDate != null ? asOfDate : LocalDate.now();
+
+        try (Stream<AgingExportRow> rows = agingRepository.streamOpenInvoices(companyId, cutoff);
+             TabularWriter writer = TabularWriter.open(format, "Antigüedad CxC", out)) {
+
+            writer.header("Cliente", "Apellido", "Documento", "Fecha Emisión", "Vencimiento",
+                    "Total", "Saldo", "Días Atraso", "Tramo");
+            Iterator<AgingExportRow> it = rows.iterator();
+            while (it.hasNext()) {
+                AgingExportRow row = it.next();
+                AgingInvoiceDTO invoice = row.invoice();
+                writer.row(row.customerName(), row.customerLastName(), invoice.getDocumentNumber(),
+                        invoice.getIssueDate(), invoice.getDueDate(), invoice.getTotalAmount(),
+                        invoice.getOutstanding(), invoice.getDaysLate(), invoice.getBucket());
+            }
+            writer.complete();
+        }
+    }
+
+    private static int normalizePageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+}
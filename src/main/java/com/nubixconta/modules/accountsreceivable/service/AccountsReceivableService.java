@@ -1,11 +1,16 @@
 package com.nubixconta.modules.accountsreceivable.service;
 
+import com.nubixconta.common.exception.BadRequestException;
 import com.nubixconta.common.exception.BusinessRuleException;
+import com.nubixconta.common.pagination.AccountsListSort;
+import com.nubixconta.modules.accountsreceivable.dto.accountsreceivable.AccountsReceivableListRowDTO;
+import com.nubixconta.modules.accountsreceivable.dto.accountsreceivable.AccountsReceivablePageDTO;
 import com.nubixconta.modules.accountsreceivable.dto.accountsreceivable.AccountsReceivableResponseDTO;
 import com.nubixconta.modules.accountsreceivable.dto.accountsreceivable.AccountsReceivableSaleResponseDTO;
 import com.nubixconta.modules.accountsreceivable.dto.collectiondetail.CollectionDetailResponseDTO;
 import com.nubixconta.modules.accountsreceivable.entity.AccountsReceivable;
 import com.nubixconta.modules.accountsreceivable.entity.CollectionDetail;
+import com.nubixconta.modules.accountsreceivable.repository.AccountsReceivableListRepository;
 import com.nubixconta.modules.accountsreceivable.repository.AccountsReceivableRepository;
 import com.nubixconta.modules.accountsreceivable.repository.CollectionDetailRepository;
 import com.nubixconta.modules.sales.dto.sales.SaleForAccountsReceivableDTO;
@@ -30,17 +35,17 @@ public class AccountsReceivableService {
     private final ModelMapper modelMapper;
     private final CollectionDetailRepository collectionDetailRepository;
 
-    // Mapa estático para definir el orden numérico de los estados.
-    private static final Map<String, Integer> STATUS_ORDER = Map.of(
-            "PENDIENTE", 0,
-            "APLICADO", 1,
-            "ANULADO", 2
-    );
+    private final AccountsReceivableListRepository listRepository;
 
-    public AccountsReceivableService(AccountsReceivableRepository repository, ModelMapper modelMapper,CollectionDetailRepository collectionDetailRepository) {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    public AccountsReceivableService(AccountsReceivableRepository repository, ModelMapper modelMapper,CollectionDetailRepository collectionDetailRepository,
+                                     AccountsReceivableListRepository listRepository) {
         this.repository = repository;
         this.modelMapper = modelMapper;
         this.collectionDetailRepository = collectionDetailRepository;
+        this.listRepository = listRepository;
     }
     // Helper privado para obtener el contexto de la empresa de forma segura y consistente.
     private Integer getCompanyIdFromContext() {
@@ -110,152 +115,105 @@ public List<Map<String, Serializable>> searchByCustomer(String name, String last
 }
 
     /**
-     * MÉTODO ORIGINAL: Devuelve todos los registros sin un orden específico en los detalles
+     * Devuelve todas las cuentas por cobrar en orden de registro.
      */
+    @Transactional(readOnly = true)
     public List<AccountsReceivableResponseDTO> findAll() {
-        Integer companyId = getCompanyIdFromContext();
-        return repository.findByCompanyId(companyId).stream()
-                .map(account -> {
-                    AccountsReceivableResponseDTO dto = modelMapper.map(account, AccountsReceivableResponseDTO.class);
-
-                    if (account.getSale() != null) {
-                        SaleForAccountsReceivableDTO saleDTO = new SaleForAccountsReceivableDTO();
-                        saleDTO.setDocumentNumber(account.getSale().getDocumentNumber());
-                        saleDTO.setIssueDate(account.getSale().getIssueDate());
-                        saleDTO.setTotalAmount(account.getSale().getTotalAmount());
-
-                        if (account.getSale().getCustomer() != null) {
-                            saleDTO.setCustomerName(account.getSale().getCustomer().getCustomerName());
-                            saleDTO.setCustomerLastName(account.getSale().getCustomer().getCustomerLastName());
-                            saleDTO.setCreditDay(account.getSale().getCustomer().getCreditDay());
-                        }
-
-                        dto.setSale(saleDTO);
-                    }
-                    // Transformar manualmente los detalles de cobro por que ModelMapper
-                    //no puede mapea todo el objeto CollectionDetail por defecto y no lo convierte
-                    // a CollectionDetailTDO hay que hacerlo manualmente
-                    List<CollectionDetailResponseDTO> collectionDTOs = account.getCollectionDetails().stream()
-                            .map(cd -> new CollectionDetailResponseDTO(
-                                    cd.getId(),
-                                    cd.getPaymentStatus(),
-                                    cd.getPaymentDetailDescription(),
-                                    cd.getCollectionDetailDate(),
-                                    cd.getPaymentMethod(),
-                                    cd.getPaymentAmount(),
-                                    cd.getReference()
-                            ))
-                            .toList();
-
-                    dto.setCollectionDetails(collectionDTOs);
-
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        return findAllSorted(AccountsListSort.REGISTRO);
     }
+
     /**
-     *   Devuelve los datos con los detalles ordenados por fecha descendente.
+     *   Devuelve los datos ordenados por fecha de la venta, con los cobros ordenados por fecha descendente.
      */
+    @Transactional(readOnly = true)
     public List<AccountsReceivableResponseDTO> findAllSortedByDate() {
-        Integer companyId = getCompanyIdFromContext();
-        List<AccountsReceivable> accounts = repository.findByCompanyId(companyId);
-
-        // Define el comparador para ordenar los detalles de cobro por fecha (de más reciente a más antiguo)
-        Comparator<CollectionDetailResponseDTO> detailDateComparator = Comparator
-                .comparing(CollectionDetailResponseDTO::getCollectionDetailDate, Comparator.nullsLast(Comparator.reverseOrder()));
-
-        // Define el comparador para ordenar la lista principal de cuentas por cobrar (por fecha de la venta)
-        Comparator<AccountsReceivableResponseDTO> mainListComparator = Comparator
-                .comparing(dto -> dto.getSale().getIssueDate(), Comparator.nullsLast(Comparator.reverseOrder()));
-
-        return accounts.stream()
-                // Primero, mapea a DTOs y ordena los detalles internos
-                .map(account -> mapToDtoAndSortDetails(account, detailDateComparator))
-                // Luego, ordena la lista principal de DTOs usando el nuevo comparador
-                .sorted(mainListComparator)
-                .collect(Collectors.toList());
+        return findAllSorted(AccountsListSort.FECHA);
     }
 
-
-    /**
-     *  Devuelve los datos con los detalles ordenados por estado personalizado.
-     */
     /**
      * Devuelve los datos con los detalles ordenados por estado personalizado,
      * y la lista principal de cuentas por cobrar ordenada por el estado de su primer detalle.
      */
+    @Transactional(readOnly = true)
     public List<AccountsReceivableResponseDTO> findAllSortedByStatus() {
-        Integer companyId = getCompanyIdFromContext();
-        List<AccountsReceivable> accounts = repository.findByCompanyId(companyId);
-
-        // 1. Define el comparador para ordenar los detalles de cada cuenta
-        Comparator<CollectionDetailResponseDTO> statusComparator = Comparator
-                .comparing(dto -> STATUS_ORDER.getOrDefault(dto.getPaymentStatus(), 99));
-
-        // 2. Define el comparador para ordenar la lista principal de cuentas por cobrar
-        Comparator<AccountsReceivableResponseDTO> mainListComparator = Comparator
-                .comparing(dto -> {
-                    // Obtiene el estado del primer detalle de cobro para ordenar la lista principal
-                    return dto.getCollectionDetails().stream()
-                            .findFirst()
-                            .map(detail -> STATUS_ORDER.getOrDefault(detail.getPaymentStatus(), 99))
-                            .orElse(99); // Cuentas sin detalles van al final
-                });
-
-        return accounts.stream()
-                // Mapea las entidades a DTOs y ordena los detalles internos
-                .map(account -> mapToDtoAndSortDetails(account, statusComparator))
-                // Ordena la lista principal de DTOs usando el estado del primer detalle
-                .sorted(mainListComparator)
-                .collect(Collectors.toList());
+        return findAllSorted(AccountsListSort.ESTADO);
     }
+
     /**
-     * MÉTODO PRIVADO REUTILIZABLE: Contiene la lógica de mapeo y aplica un ordenamiento opcional.
-     * @param account La entidad a convertir.
-     * @param detailComparator El comparador para ordenar los detalles. Si es nulo, no se ordena.
-     * @return El DTO procesado.
+     * Listado paginado por cursor. Cada página son dos consultas (encabezados y sus cobros),
+     * sin importar cuántas cuentas tenga la empresa (salvo el costo del orden ESTADO, ver AccountsListSort).
      */
-    private AccountsReceivableResponseDTO mapToDtoAndSortDetails(AccountsReceivable account, Comparator<CollectionDetailResponseDTO> detailComparator) {
-        // Mapeo inicial que ya tenías
-        AccountsReceivableResponseDTO dto = modelMapper.map(account, AccountsReceivableResponseDTO.class);
+    @Transactional(readOnly = true)
+    public AccountsReceivablePageDTO findPage(AccountsListSort sort, LocalDateTime afterIssueDate,
+                                              Integer afterStatusRank, Integer afterId, Integer size) {
+        Integer companyId = getCompanyIdFromContext();
+        AccountsListSort order = sort != null ? sort : AccountsListSort.FECHA;
+        if (afterId != null && ((order == AccountsListSort.FECHA && afterIssueDate == null)
+                || (order == AccountsListSort.ESTADO && afterStatusRank == null))) {
+            throw new BadRequestException("El cursor está incompleto para el orden " + order + ".");
+        }
+        int pageSize = normalizePageSize(size);
+
+        // Se pide una fila de más para saber si hay página siguiente sin hacer un COUNT.
+        List<AccountsReceivableListRowDTO> rows = new ArrayList<>(listRepository.findRows(
+                companyId, order, afterIssueDate, afterStatusRank, afterId, pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows.remove(pageSize);
+        }
 
-        if (account.getSale() != null) {
-            SaleForAccountsReceivableDTO saleDTO = new SaleForAccountsReceivableDTO();
-            saleDTO.setDocumentNumber(account.getSale().getDocumentNumber());
-            saleDTO.setIssueDate(account.getSale().getIssueDate());
-            saleDTO.setTotalAmount(account.getSale().getTotalAmount());
+        Map<Integer, List<CollectionDetailResponseDTO>> details = rows.isEmpty()
+                ? Map.of()
+                : listRepository.findDetails(companyId,
+                        rows.stream().map(AccountsReceivableListRowDTO::getAccountReceivableId).toList(), order);
+        AccountsReceivableListRowDTO last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+
+        return new AccountsReceivablePageDTO(
+                rows.stream().map(row -> toResponseDto(row, details)).collect(Collectors.toList()),
+                last != null ? last.getIssueDate() : null,
+                last != null && order == AccountsListSort.ESTADO ? last.getStatusRank() : null,
+                last != null ? last.getAccountReceivableId() : null,
+                hasMore
+        );
+    }
 
-            if (account.getSale().getCustomer() != null) {
-                saleDTO.setCustomerName(account.getSale().getCustomer().getCustomerName());
-                saleDTO.setCustomerLastName(account.getSale().getCustomer().getCustomerLastName());
-                saleDTO.setCreditDay(account.getSale().getCustomer().getCreditDay());
-            }
-            dto.setSale(saleDTO);
-        }
+    // Listado completo: los encabezados y todos los cobros de la empresa, en dos consultas.
+    private List<AccountsReceivableResponseDTO> findAllSorted(AccountsListSort sort) {
+        Integer companyId = getCompanyIdFromContext();
+        List<AccountsReceivableListRowDTO> rows = listRepository.findRows(companyId, sort, null, null, null, null);
+        Map<Integer, List<CollectionDetailResponseDTO>> details = listRepository.findDetails(companyId, null, sort);
+        return rows.stream()
+                .map(row -> toResponseDto(row, details))
+                .collect(Collectors.toList());
+    }
 
-        // Mapeo manual de detalles que ya tenías
-        List<CollectionDetailResponseDTO> collectionDTOs = account.getCollectionDetails().stream()
-                .map(cd -> new CollectionDetailResponseDTO(
-                        cd.getId(),
-                        cd.getPaymentStatus(),
-                        cd.getPaymentDetailDescription(),
-                        cd.getCollectionDetailDate(),
-                        cd.getPaymentMethod(),
-                        cd.getPaymentAmount(),
-                        cd.getReference()
-                ))
-                .collect(Collectors.toList()); // Usamos toList() para que sea mutable
-
-
-        // Si se proporcionó un comparador, se usa para ordenar la lista de detalles.
-        if (detailComparator != null) {
-            collectionDTOs.sort(detailComparator);
-        }
+    private AccountsReceivableResponseDTO toResponseDto(AccountsReceivableListRowDTO row,
+                                                        Map<Integer, List<CollectionDetailResponseDTO>> details) {
+        SaleForAccountsReceivableDTO saleDTO = new SaleForAccountsReceivableDTO();
+        saleDTO.setSaleId(row.getSaleId());
+        saleDTO.setDocumentNumber(row.getDocumentNumber());
+        saleDTO.setIssueDate(row.getIssueDate());
+        saleDTO.setTotalAmount(row.getTotalAmount());
+        saleDTO.setSaleDescription(row.getSaleDescription());
+        saleDTO.setCustomerName(row.getCustomerName());
+        saleDTO.setCustomerLastName(row.getCustomerLastName());
+        saleDTO.setCreditDay(row.getCreditDay());
 
-        dto.setCollectionDetails(collectionDTOs);
+        AccountsReceivableResponseDTO dto = new AccountsReceivableResponseDTO();
+        dto.setBalance(row.getBalance());
+        dto.setSale(saleDTO);
+        dto.setCreditDay(row.getCreditDay());
+        dto.setCollectionDetails(details.getOrDefault(row.getAccountReceivableId(), new ArrayList<>()));
         return dto;
     }
 
+    private static int normalizePageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
 
 
     // ¡ MÉTODO PARA FILTRAR POR RANGO DE FECHAS!
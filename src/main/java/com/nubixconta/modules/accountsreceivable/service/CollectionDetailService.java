@@ -16,6 +16,7 @@ import com.nubixconta.modules.sales.repository.SaleRepository;
 import com.nubixconta.security.TenantContext;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -93,13 +94,35 @@ public class CollectionDetailService {
             throw new IllegalStateException("No se puede eliminar un cobro ya aplicado.");
         }
 
-        Integer receivableId = detail.getAccountReceivable().getId();
+        AccountsReceivable receivable = detail.getAccountReceivable();
+        BigDecimal released = effectiveAmount(detail);
 
-        // Primero eliminar
         repository.deleteById(id);
 
-        // Luego recalcular el saldo
-        recalcularBalancePorReceivableId(receivableId);
+        // El monto del cobro eliminado vuelve al saldo.
+        applyBalanceDelta(receivable, released);
+    }
+
+    /**
+     * Actualiza parcialmente un cobro y ajusta el saldo de su cuenta por cobrar por la diferencia
+     * del monto (o del estado), en una sola transacción: si el guardado falla, el ajuste se revierte.
+     * @return El cobro actualizado, o vacío si no existe.
+     */
+    @Transactional
+    public Optional<CollectionDetail> update(Integer id, CollectionDetailUpdateDTO dto) {
+        return repository.findById(id).map(existing -> {
+            BigDecimal amountBefore = effectiveAmount(existing);
+
+            if (dto.getReference() != null) existing.setReference(dto.getReference());
+            if (dto.getPaymentMethod() != null) existing.setPaymentMethod(dto.getPaymentMethod());
+            if (dto.getPaymentAmount() != null) existing.setPaymentAmount(dto.getPaymentAmount());
+            if (dto.getPaymentStatus() != null) existing.setPaymentStatus(dto.getPaymentStatus());
+            if (dto.getPaymentDetailDescription() != null) existing.setPaymentDetailDescription(dto.getPaymentDetailDescription());
+            if (dto.getAccountId() != null) existing.setAccountId(dto.getAccountId());
+
+            applyBalanceDelta(existing.getAccountReceivable(), amountBefore.subtract(effectiveAmount(existing)));
+            return save(existing);
+        });
     }
 
 
@@ -121,18 +144,6 @@ public class CollectionDetailService {
                 .orElseThrow(() -> new EntityNotFoundException("Cuenta por cobrar no encontrada para la venta. Asegúrese de que la venta haya sido aplicada."));
 
 
-        BigDecimal montoTotalVenta = ar.getSale().getTotalAmount();
-        BigDecimal saldoActual = ar.getBalance();
-        BigDecimal abonoNuevo = dto.getPaymentAmount();
-        BigDecimal nuevoSaldo = saldoActual.subtract(abonoNuevo);
-
-        if (nuevoSaldo.compareTo(BigDecimal.ZERO) < 0) {
-            throw new IllegalArgumentException("El monto a abonar excede el saldo restante de la venta.");
-        }
-        // Actualizar el balance
-        ar.setBalance(nuevoSaldo);
-        accountsReceivableRepository.save(ar);
-
         //Obtener la referencia a la empresa.
         Company companyRef = companyRepository.getReferenceById(companyId);
 
@@ -149,8 +160,9 @@ public class CollectionDetailService {
         detail.setCollectionDetailDate(dto.getCollectionDetailDate());
         detail.setModuleType(dto.getModuleType());
 
+        // Descuenta el abono del saldo en una sola sentencia; falla si excede el saldo restante.
+        applyBalanceDelta(ar, effectiveAmount(detail).negate());
         CollectionDetail saved = repository.save(detail);
-        recalcularBalancePorReceivableId(ar.getId());
 
         // Bitácora de cambios
         changeHistoryService.logChange(
@@ -183,33 +195,34 @@ public class CollectionDetailService {
                     return accountsReceivableRepository.save(newAR);
                 });
     }
-        @Transactional
-    public void recalcularBalancePorReceivableId(Integer receivableId) {
-        var ar = accountsReceivableRepository.findById(receivableId)
-                .orElseThrow(() -> new RuntimeException("AccountsReceivable no encontrado"));
-
-        // Obtener solo los abonos que NO estén anulados
-        Integer companyId = getCompanyIdFromContext();
-        List<CollectionDetail> abonos = repository.findByAccountReceivableIdAndCompanyId(receivableId,companyId).stream()
-                .filter(detalle -> !"ANULADO".equalsIgnoreCase(detalle.getPaymentStatus()))
-                .toList();
-
-        BigDecimal totalAbonos = abonos.stream()
-                .map(CollectionDetail::getPaymentAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        Sale venta = ar.getSale();
-        if (venta == null) {
-            throw new IllegalStateException("La relación con la venta no está disponible para esta cuenta por cobrar.");
+    /**
+     * Ajusta el saldo de una cuenta por cobrar con un UPDATE atómico sobre el saldo vigente,
+     * sin recorrer los demás cobros. La consistencia con el detalle la revisa BalanceDriftVerifier.
+     * Si la entidad ya está cargada, recibe el saldo resultante para no quedar desactualizada
+     * durante el resto de la transacción (la columna no es actualizable, así que no genera otro UPDATE).
+     * @param delta Negativo al registrar un cobro; positivo al eliminarlo o anularlo.
+     * @throws IllegalArgumentException si el saldo quedaría negativo.
+     */
+    @Transactional
+    public void applyBalanceDelta(AccountsReceivable receivable, BigDecimal delta) {
+        if (delta.signum() == 0) {
+            return;
         }
+        BigDecimal newBalance = accountsReceivableRepository.addToBalance(receivable.getId(), delta)
+                .orElseThrow(() -> new IllegalArgumentException("El monto a abonar excede el saldo restante de la venta."));
+        // Un proxy sin inicializar leerá el saldo ya actualizado cuando se use.
+        if (Hibernate.isInitialized(receivable)) {
+            receivable.setBalance(newBalance);
+        }
+    }
 
-        BigDecimal montoTotalVenta = venta.getTotalAmount();
-        BigDecimal nuevoBalance = montoTotalVenta.subtract(totalAbonos);
-
-        if (nuevoBalance.compareTo(BigDecimal.ZERO) < 0) {
-                throw new IllegalStateException("El balance calculado es negativo, lo que indica un error en los datos.");
+    /**
+     * Monto con el que un cobro afecta el saldo: cero si está anulado.
+     */
+    public static BigDecimal effectiveAmount(CollectionDetail detail) {
+        if ("ANULADO".equalsIgnoreCase(detail.getPaymentStatus()) || detail.getPaymentAmount() == null) {
+            return BigDecimal.ZERO;
         }
-        ar.setBalance(nuevoBalance);
-        accountsReceivableRepository.save(ar);
+        return detail.getPaymentAmount();
     }
 }
@@ -8,17 +8,16 @@ import com.nubixconta.modules.administration.entity.User;
 import com.nubixconta.modules.administration.repository.ChangeHistoryRepository;
 import com.nubixconta.modules.administration.repository.CompanyRepository;
 import com.nubixconta.modules.administration.repository.UserRepository;
-import com.nubixconta.security.JwtUtil;
+import com.nubixconta.security.AuthenticatedUser;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,15 +26,18 @@ public class ChangeHistoryService {
     private final ChangeHistoryRepository changeHistoryRepository;
     private final UserRepository userRepository;
     private final CompanyRepository companyRepository;
+    private final ChangeHistoryWriter changeHistoryWriter;
 
     @Autowired
     public ChangeHistoryService(ChangeHistoryRepository changeHistoryRepository,
                                 UserRepository userRepository,
-                                CompanyRepository companyRepository
+                                CompanyRepository companyRepository,
+                                ChangeHistoryWriter changeHistoryWriter
     ) {
         this.changeHistoryRepository = changeHistoryRepository;
         this.companyRepository = companyRepository;
         this.userRepository = userRepository;
+        this.changeHistoryWriter = changeHistoryWriter;
     }
 
     /**
@@ -66,35 +68,32 @@ public class ChangeHistoryService {
         changeHistoryRepository.save(change);
     }
 
-    //Metodo para registrar un cambio en cualquier modulo
+    /**
+     * Registra un cambio en cualquier módulo.
+     * El usuario y la empresa se toman del principal de la petición (AuthenticatedUser) y el registro se
+     * entrega a ChangeHistoryWriter cuando la transacción actual se confirma; si la operación
+     * se revierte no queda en la bitácora. Fuera de una transacción se entrega de inmediato.
+     */
     public void logChange(String moduleName, String actionPerformed) {
-        // 1. Obtener el ID del usuario autenticado del token.
-        Integer authenticatedUserId = JwtUtil.extractCurrentUserId();
-
-        // 2. Extraer el token completo para poder obtener el companyId.
-        String bearerToken = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes())
-                .getRequest()
-                .getHeader("Authorization");
-
-        // 3. Extraer el companyId del token (si existe) utilizando el método ya creado.
-        //    El método devuelve un Optional para manejar la posibilidad de que el ID no esté.
-        Optional<Integer> companyIdOptional = JwtUtil.extractCompanyId(bearerToken.replace("Bearer ", ""));
-
-        ChangeHistory history = new ChangeHistory();
-        history.setUser(userRepository.findById(authenticatedUserId)
-                .orElseThrow(() -> new EntityNotFoundException("Usuario autenticado no encontrado")));
-        history.setModuleName(moduleName);
-        history.setActionPerformed(actionPerformed);
-        history.setDate(LocalDateTime.now());
-
-        // 4. Si el companyId está presente en el token, se agrega al registro.
-        companyIdOptional.ifPresent(companyId -> {
-            Company company = companyRepository.findById(companyId)
-                    .orElseThrow(() -> new EntityNotFoundException("Empresa no encontrada"));
-            history.setCompany(company);
-        });
-
-        changeHistoryRepository.save(history);
+        AuthenticatedUser user = AuthenticatedUser.current()
+                .orElseThrow(() -> new IllegalStateException("No hay un usuario autenticado en la petición actual."));
+        ChangeHistoryWriter.PendingChange change = new ChangeHistoryWriter.PendingChange(
+                user.userId(),
+                user.companyId(),
+                moduleName,
+                actionPerformed,
+                LocalDateTime.now());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    changeHistoryWriter.submit(change);
+                }
+            });
+        } else {
+            changeHistoryWriter.submit(change);
+        }
     }
 
     public List<ChangeHistoryResponseDTO> getAllHistoryResponses() {
@@ -0,0 +1,285 @@
+package com.nubixconta.modules.administration.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escritor en segundo plano de la bitácora ('change_history').
+ * ChangeHistoryService encola los registros cuando la transacción del negocio se confirma y un
+ * hilo dedicado los inserta por lotes con JDBC, así que registrar un cambio no agrega consultas
+ * a la operación.
+ * - La cola es acotada ('nubixconta.audit.queue-capacity'). Si está llena se espera un momento y,
+ *   si sigue llena, el registro se escribe en el hilo que lo generó (no se pierde).
+ * - Al apagar la aplicación se detiene el hilo y se escribe todo lo pendiente.
+ * - Si un lote no se puede escribir tras varios intentos se guarda en disco
+ *   ('nubixconta.audit.spill-dir') y el hilo lo vuelve a intentar más tarde, también al reiniciar.
+ *   Si lo que falla es un registro concreto (p. ej. un usuario que ya no existe), el lote se escribe
+ *   de a uno y solo ese registro se aparta en 'rechazados.jsonl' para revisarlo a mano.
+ */
+@Slf4j
+@Component
+public class ChangeHistoryWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO change_history (user_id, company_id, date, action_performed, module_name) VALUES (?, ?, ?, ?, ?)";
+    private static final long OFFER_TIMEOUT_MS = 100;
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+    private static final long REPLAY_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * Registro pendiente de escribir. Solo lleva IDs: no hace falta cargar usuario ni empresa.
+     * El usuario y la fecha son obligatorios ('user_id' es NOT NULL); se validan al crearlo para que
+     * el error salga en la petición que lo generó y no haga fallar el lote de otras peticiones.
+     */
+    public record PendingChange(Integer userId, Integer companyId, String moduleName,
+                                String actionPerformed, LocalDateTime date) {
+        public PendingChange {
+            if (userId == null) {
+                throw new IllegalArgumentException("El registro de bitácora requiere el usuario que hizo el cambio.");
+            }
+            if (date == null) {
+                throw new IllegalArgumentException("El registro de bitácora requiere la fecha del cambio.");
+            }
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<PendingChange> queue;
+    private final int batchSize;
+    // Registros que no se pudieron escribir y se reintentan más tarde.
+    private final Path spillFile;
+    // Archivo de reintentos que se está procesando; si la aplicación cae a mitad, se retoma al iniciar.
+    private final Path replayFile;
+    // Registros que la base de datos rechaza por sí mismos; no se reintentan.
+    private final Path rejectedFile;
+    private final Object spillLock = new Object();
+    private volatile boolean running = true;
+    private Thread worker;
+
+    public ChangeHistoryWriter(JdbcTemplate jdbcTemplate,
+                               ObjectMapper objectMapper,
+                               @Value("${nubixconta.audit.queue-capacity:10000}") int queueCapacity,
+                               @Value("${nubixconta.audit.batch-size:200}") int batchSize,
+                               @Value("${nubixconta.audit.spill-dir:bitacora-pendiente}") Path spillDir) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.spillFile = spillDir.resolve("pendientes.jsonl");
+        this.replayFile = spillDir.resolve("en-proceso.jsonl");
+        this.rejectedFile = spillDir.resolve("rechazados.jsonl");
+    }
+
+    @PostConstruct
+    void start() {
+        worker = new Thread(this::run, "bitacora-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Encola un registro. Si la cola sigue llena tras una breve espera, lo escribe directamente.
+     */
+    public void submit(PendingChange change) {
+        if (change == null) {
+            throw new IllegalArgumentException("El registro de bitácora es obligatorio.");
+        }
+        try {
+            if (running && queue.offer(change, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writeOrSpill(List.of(change));
+    }
+
+    private void run() {
+        List<PendingChange> batch = new ArrayList<>(batchSize);
+        long nextReplay = 0;
+        while (running) {
+            try {
+                // Con la cola vacía se reintenta lo guardado en disco, como mucho una vez por minuto.
+                if (queue.isEmpty() && System.currentTimeMillis() >= nextReplay) {
+                    replaySpilled();
+                    nextReplay = System.currentTimeMillis() + REPLAY_INTERVAL_MS;
+                }
+                PendingChange first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeOrSpill(batch);
+            } catch (InterruptedException e) {
+                // stop() interrumpe el hilo; lo pendiente se escribe allí.
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Error inesperado en el escritor de la bitácora: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+
+        List<PendingChange> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        for (int from = 0; from < pending.size(); from += batchSize) {
+            writeOrSpill(pending.subList(from, Math.min(from + batchSize, pending.size())));
+        }
+        if (!pending.isEmpty()) {
+            log.info("Bitácora: {} registros pendientes procesados al apagar.", pending.size());
+        }
+    }
+
+    /**
+     * Escribe el lote; si no se puede, lo guarda en disco en lugar de descartarlo.
+     */
+    private void writeOrSpill(List<PendingChange> batch) {
+        RuntimeException error = write(batch);
+        if (error == null) {
+            return;
+        }
+        if (error instanceof DataIntegrityViolationException) {
+            if (batch.size() > 1) {
+                // Un registro inválido hace fallar todo el lote: se escriben de a uno para aislarlo.
+                batch.forEach(change -> writeOrSpill(List.of(change)));
+            } else {
+                log.error("La base de datos rechazó un registro de bitácora; se aparta para revisión: {}. Registro: {}",
+                        error.getMessage(), batch.get(0));
+                spill(rejectedFile, batch);
+            }
+            return;
+        }
+        log.error("No se pudieron escribir {} registros de bitácora; se reintentarán más tarde: {}", batch.size(), error.getMessage());
+        spill(spillFile, batch);
+    }
+
+    /**
+     * Inserta el lote, reintentando los fallos transitorios. Devuelve el último error, o null si se escribió.
+     */
+    private RuntimeException write(List<PendingChange> batch) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, change) -> {
+                    ps.setInt(1, change.userId());
+                    ps.setObject(2, change.companyId());
+                    ps.setTimestamp(3, Timestamp.valueOf(change.date()));
+                    ps.setString(4, change.actionPerformed());
+                    ps.setString(5, change.moduleName());
+                });
+                return null;
+            } catch (DataIntegrityViolationException e) {
+                // Reintentar no cambia el resultado.
+                return e;
+            } catch (RuntimeException e) {
+                if (attempt >= MAX_WRITE_ATTEMPTS) {
+                    return e;
+                }
+                log.warn("Fallo al escribir la bitácora (intento {} de {}): {}", attempt, MAX_WRITE_ATTEMPTS, e.getMessage());
+                try {
+                    Thread.sleep(500L * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return e;
+                }
+            }
+        }
+    }
+
+    // Agrega los registros al archivo, uno por línea en JSON.
+    private void spill(Path file, List<PendingChange> batch) {
+        synchronized (spillLock) {
+            try {
+                Files.createDirectories(file.getParent());
+                List<String> lines = new ArrayList<>(batch.size());
+                for (PendingChange change : batch) {
+                    lines.add(objectMapper.writeValueAsString(change));
+                }
+                Files.write(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                // Último recurso: que al menos queden en el log.
+                log.error("No se pudieron guardar {} registros de bitácora en {}: {}. Registros: {}",
+                        batch.size(), file, e.getMessage(), batch);
+            }
+        }
+    }
+
+    /**
+     * Reintenta los registros guardados en disco. El archivo se renombra antes de leerlo, así que lo
+     * que vuelva a fallar se guarda en uno nuevo; y si la aplicación cae a mitad, se retoma al iniciar.
+     * Solo lo llama el hilo del escritor.
+     */
+    private void replaySpilled() {
+        Path source;
+        synchronized (spillLock) {
+            try {
+                if (!Files.exists(replayFile)) {
+                    if (!Files.exists(spillFile)) {
+                        return;
+                    }
+                    Files.move(spillFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
+                }
+                source = replayFile;
+            } catch (IOException e) {
+                log.warn("No se pudo preparar el reintento de la bitácora guardada en {}: {}", spillFile, e.getMessage());
+                return;
+            }
+        }
+
+        try {
+            List<PendingChange> pending = new ArrayList<>();
+            for (String line : Files.readAllLines(source, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    pending.add(objectMapper.readValue(line, PendingChange.class));
+                } catch (IOException | IllegalArgumentException e) {
+                    log.error("Línea ilegible en {}; se aparta para revisión: {}", source, line);
+                    synchronized (spillLock) {
+                        Files.writeString(rejectedFile, line + System.lineSeparator(), StandardCharsets.UTF_8,
+                                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                    }
+                }
+            }
+            for (int from = 0; from < pending.size(); from += batchSize) {
+                writeOrSpill(pending.subList(from, Math.min(from + batchSize, pending.size())));
+            }
+            Files.delete(source);
+            if (!pending.isEmpty()) {
+                log.info("Bitácora: {} registros guardados en disco procesados de nuevo.", pending.size());
+            }
+        } catch (IOException e) {
+            log.warn("No se pudo reintentar la bitácora guardada en {}: {}", source, e.getMessage());
+        }
+    }
+}
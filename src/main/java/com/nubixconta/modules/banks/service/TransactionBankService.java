@@ -4,6 +4,7 @@ import com.nubixconta.common.exception.BusinessRuleException;
 import com.nubixconta.modules.accounting.repository.CollectionEntryRepository;
 import com.nubixconta.modules.accounting.service.BankEntryService;
 import com.nubixconta.modules.accounting.service.CierreContableService;
+import com.nubixconta.modules.accounting.service.JournalLineService;
 import com.nubixconta.modules.accountsreceivable.entity.CollectionDetail;
 import com.nubixconta.modules.accountsreceivable.repository.CollectionDetailRepository;
 import com.nubixconta.modules.administration.entity.Company;
@@ -46,6 +47,7 @@ public class TransactionBankService {
     private final BankEntryService bankEntryService;
     private final CompanyRepository companyRepository;
     private final CierreContableService cierreContableService;
+    private final JournalLineService journalLineService;
 
     // Helper privado para obtener el contexto de la empresa de forma segura y consistente.
     public Integer getCompanyIdFromContext() {
@@ -302,6 +304,9 @@ public class TransactionBankService {
 
         entity.setAccountingTransactionStatus("APLICADA");
         TransactionBank updated = repository.save(entity);
+        journalLineService.post(entity.getCompany().getId(), JournalLineService.DOC_BANK, entity.getIdBankTransaction().longValue(),
+                entity.getTransactionDate().atStartOfDay(), entity.getBankEntries(),
+                BankEntry::getIdCatalog, BankEntry::getDebit, BankEntry::getCredit, BankEntry::getDescription);
         return mapper.map(updated, TransactionBankDTO.class);
     }
 
@@ -316,6 +321,7 @@ public class TransactionBankService {
 
         // Eliminar todos los movimientos contables asociados a la transacción
         if (entity.getBankEntries() != null && !entity.getBankEntries().isEmpty()) {
+            journalLineService.remove(entity.getCompany().getId(), JournalLineService.DOC_BANK, entity.getIdBankTransaction().longValue());
             entity.getBankEntries().clear(); // cascade = ALL + orphanRemoval = true eliminará del DB
         }
 
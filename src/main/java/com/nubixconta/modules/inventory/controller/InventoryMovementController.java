@@ -1,5 +1,7 @@
 package com.nubixconta.modules.inventory.controller;
 
+import com.nubixconta.common.pagination.CursorPageDTO;
+import com.nubixconta.common.pagination.DocumentListRequest;
 import com.nubixconta.modules.inventory.dto.movement.ManualMovementCreateDTO;
 import com.nubixconta.modules.inventory.dto.movement.ManualMovementUpdateDTO;
 import com.nubixconta.modules.inventory.dto.movement.MovementResponseDTO;
@@ -8,6 +10,7 @@ import com.nubixconta.modules.inventory.service.InventoryService;
 import com.nubixconta.modules.inventory.service.ProductService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -38,6 +41,22 @@ public class InventoryMovementController {
         return ResponseEntity.ok(movements);
     }
 
+    /**
+     * Listado de movimientos paginado por cursor. Se activa al enviar 'cursor' (vacío para la primera página);
+     * la respuesta trae 'nextCursor' para pedir la siguiente. Filtros opcionales: 'status', 'startDate' y 'endDate'.
+     */
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageDTO<MovementResponseDTO>> findMovementsPage(
+            @RequestParam String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(name = "sortBy", defaultValue = "status") String sortBy,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        DocumentListRequest request = DocumentListRequest.of(sortBy, cursor, limit, status, startDate, endDate);
+        return ResponseEntity.ok(inventoryService.findPage(request));
+    }
+
     /**
      * Endpoint para obtener una lista de movimientos filtrada por un rango de fechas.
      */
@@ -1,5 +1,7 @@
 package com.nubixconta.modules.inventory.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.nubixconta.common.pagination.DocumentStatusRank;
 import com.nubixconta.modules.purchases.entity.Purchase;
 import com.nubixconta.modules.purchases.entity.PurchaseCreditNote;
 import com.nubixconta.modules.sales.entity.CreditNote;
@@ -8,6 +10,7 @@ import com.nubixconta.modules.administration.entity.Company;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
@@ -17,7 +20,11 @@ import org.hibernate.annotations.ParamDef;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "inventory_movement")
+@Table(name = "inventory_movement", indexes = {
+        // Listados paginados por cursor (DocumentPageQuery), en el mismo orden y sentido que sus dos ordenamientos.
+        @Index(name = "idx_inventory_movement_company_status_date_id", columnList = "company_id, status_rank, date DESC, movement_id DESC"),
+        @Index(name = "idx_inventory_movement_company_date_id", columnList = "company_id, date DESC, movement_id DESC")
+})
 @Getter
 @Setter
 @Filter(name = "tenantFilter", condition = "company_id = :companyId")
@@ -63,6 +70,14 @@ public class InventoryMovement {
     @Column(name = "movement_status", nullable = false)
     private MovementStatus status;
 
+    // Rango del estado (ver DocumentStatusRank), calculado por la base de datos; solo se usa para
+    // ordenar y paginar los listados.
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "status_rank", insertable = false, updatable = false,
+            columnDefinition = DocumentStatusRank.COLUMN_DEFINITION_PREFIX + "movement_status" + DocumentStatusRank.COLUMN_DEFINITION_SUFFIX)
+    private Integer statusRank;
+
     @Size(max = 256, message = "La descripción puede tener máximo 256 caracteres")
     @Column(name = "description", length = 256)
     private String description;
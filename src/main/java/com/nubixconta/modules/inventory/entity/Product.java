@@ -1,5 +1,6 @@
 package com.nubixconta.modules.inventory.entity;
 
+import com.nubixconta.common.pagination.DocumentListRequest;
 import jakarta.persistence.*;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.*;
@@ -12,6 +13,8 @@ import com.nubixconta.modules.administration.entity.Company;
 import org.hibernate.annotations.*;
 import java.time.LocalDateTime;
 
+// Los proxies de una página de documentos se cargan por lotes (una consulta IN) al mapearlos.
+@BatchSize(size = DocumentListRequest.MAX_LIMIT)
 @Table(name = "product", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"company_id", "product_code"})
 })
@@ -47,7 +50,7 @@ public class Product {
     private String unit;
 
     @NotNull(message = "La cantidad en stock es obligatoria")
-    @Column(name = "stock_quantity", nullable = false)
+    @Column(name = "stock_quantity", nullable = false, updatable = false)
     private Integer stockQuantity;
 
     @NotNull(message = "El estado del producto es obligatorio")
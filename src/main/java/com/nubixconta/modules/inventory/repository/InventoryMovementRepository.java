@@ -2,6 +2,7 @@ package com.nubixconta.modules.inventory.repository;
 
 import com.nubixconta.modules.inventory.entity.InventoryMovement;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -11,18 +12,13 @@ import java.util.List;
 
 
 @Repository
-public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, Integer> {
+public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, Integer>, JpaSpecificationExecutor<InventoryMovement> {
     // La búsqueda por rango de fechas ahora debe estar acotada a una empresa.
     List<InventoryMovement> findByCompany_IdAndDateBetween(Integer companyId, LocalDateTime startDate, LocalDateTime endDate);
     // NUEVO MÉTODO: Basado en tu estrategia del módulo de Ventas.
     // Ordena primero por el estado del movimiento y luego por fecha descendente.
     @Query("SELECT m FROM InventoryMovement m WHERE m.company.id = :companyId ORDER BY " +
-            "CASE m.status " +
-            "  WHEN 'PENDIENTE' THEN 1 " +
-            "  WHEN 'APLICADA'  THEN 2 " +
-            "  WHEN 'ANULADA'   THEN 3 " +
-            "  ELSE 4 " +
-            "END, " +
+            "m.statusRank, " +
             "m.date DESC")
     List<InventoryMovement> findAllByCompanyIdOrderByStatusAndDate(@Param("companyId") Integer companyId);
 
@@ -58,7 +54,7 @@ public interface InventoryMovementRepository extends JpaRepository<InventoryMove
             "LEFT JOIN FETCH m.sale s LEFT JOIN FETCH s.customer " +
             "LEFT JOIN FETCH m.creditNote cn LEFT JOIN FETCH cn.sale cns LEFT JOIN FETCH cns.customer " +
             "WHERE m.company.id = :companyId ORDER BY " +
-            "CASE m.status WHEN 'PENDIENTE' THEN 1 WHEN 'APLICADA' THEN 2 WHEN 'ANULADA' THEN 3 ELSE 4 END, " +
+            "m.statusRank, " +
             "m.date DESC")
     List<InventoryMovement> findAllByCompanyIdOrderByStatusAndDateWithDetails(@Param("companyId") Integer companyId);
 
@@ -7,6 +7,7 @@ import java.util.Optional;
 import java.util.List;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface ProductRepository extends JpaRepository<Product, Integer>{
     // =========================================================================================
@@ -43,4 +44,23 @@ public interface ProductRepository extends JpaRepository<Product, Integer>{
     // =========================================================================================
     // == FIN DE CÓDIGO MODIFICADO
     // =========================================================================================
+
+    // --- Actualizaciones atómicas de stock (InventoryService) ---
+    // Se ejecutan como una sola sentencia con RETURNING: la BD bloquea la fila, aplica el cambio
+    // sobre el valor vigente y devuelve el stock resultante (vacío si no se actualizó ninguna fila).
+
+    @Transactional
+    @Query(value = "UPDATE product SET stock_quantity = stock_quantity + :quantity, update_date = now() " +
+            "WHERE id_product = :productId RETURNING stock_quantity",
+            nativeQuery = true)
+    Optional<Integer> increaseStock(@Param("productId") Integer productId, @Param("quantity") int quantity);
+
+    @Transactional
+    @Query(value = "UPDATE product SET stock_quantity = stock_quantity - :quantity, update_date = now() " +
+            "WHERE id_product = :productId AND stock_quantity >= :quantity RETURNING stock_quantity",
+            nativeQuery = true)
+    Optional<Integer> decreaseStockIfAvailable(@Param("productId") Integer productId, @Param("quantity") int quantity);
+
+    @Query("SELECT p.stockQuantity FROM Product p WHERE p.idProduct = :productId")
+    Optional<Integer> findStockQuantityById(@Param("productId") Integer productId);
 }
@@ -2,6 +2,9 @@ package com.nubixconta.modules.inventory.service;
 
 import com.nubixconta.common.exception.BusinessRuleException;
 import com.nubixconta.common.exception.NotFoundException;
+import com.nubixconta.common.pagination.CursorPageDTO;
+import com.nubixconta.common.pagination.DocumentListRequest;
+import com.nubixconta.common.pagination.DocumentPageQuery;
 import com.nubixconta.modules.administration.service.ChangeHistoryService;
 import com.nubixconta.modules.inventory.dto.movement.ManualMovementCreateDTO;
 import com.nubixconta.modules.inventory.dto.movement.ManualMovementUpdateDTO;
@@ -13,11 +16,13 @@ import com.nubixconta.modules.inventory.entity.Product;
 import com.nubixconta.modules.inventory.repository.InventoryMovementRepository;
 import com.nubixconta.modules.inventory.repository.ProductRepository;
 import com.nubixconta.modules.purchases.entity.Purchase;
+import com.nubixconta.modules.purchases.entity.PurchaseCreditNoteDetail;
 import com.nubixconta.modules.purchases.entity.PurchaseDetail;
 import com.nubixconta.modules.sales.entity.CreditNote;
 import com.nubixconta.modules.sales.entity.CreditNoteDetail;
 import com.nubixconta.modules.sales.entity.Sale;
 import com.nubixconta.modules.sales.entity.SaleDetail;
+import jakarta.persistence.criteria.JoinType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
@@ -29,7 +34,12 @@ import com.nubixconta.modules.administration.entity.Company;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
 @Service
@@ -40,6 +50,15 @@ public class InventoryService {
     private final ProductRepository productRepository;
     private final ChangeHistoryService changeHistoryService;
 
+    // Listado paginado por cursor (ver DocumentPageQuery).
+    private static final DocumentPageQuery<InventoryMovement> PAGE_QUERY = new DocumentPageQuery<InventoryMovement>(
+            "date", InventoryMovement::getDate, "movementId", InventoryMovement::getMovementId, InventoryMovement::getStatusRank)
+            .withFetches(root -> {
+                root.fetch("product", JoinType.LEFT);
+                root.fetch("sale", JoinType.LEFT).fetch("customer", JoinType.LEFT);
+                root.fetch("creditNote", JoinType.LEFT).fetch("sale", JoinType.LEFT).fetch("customer", JoinType.LEFT);
+            });
+
     private Integer getCompanyIdFromContext() {
         return TenantContext.getCurrentTenant()
                 .orElseThrow(() -> new BusinessRuleException("No se ha seleccionado una empresa en el contexto."));
@@ -50,23 +69,15 @@ public class InventoryService {
      */
     @Transactional(propagation = Propagation.MANDATORY)
     public void processSaleApplication(Sale sale) {
-        for (SaleDetail detail : sale.getSaleDetails()) {
+        for (SaleDetail detail : inLockOrder(sale.getSaleDetails(), SaleDetail::getProduct)) {
             if (detail.getProduct() != null) {
-                Product product = productRepository.findById(detail.getProduct().getIdProduct())
-                        .orElseThrow(() -> new BusinessRuleException("Producto con ID " + detail.getProduct().getIdProduct() + " no encontrado durante la aplicación de la venta."));
-
+                Product product = detail.getProduct();
                 Integer quantityToDecrease = detail.getQuantity();
 
-                if (product.getStockQuantity() < quantityToDecrease) {
-                    throw new BusinessRuleException(
-                            "Stock insuficiente para aplicar la venta. Producto: " + product.getProductName() +
-                                    ". Stock actual: " + product.getStockQuantity() + ", se requiere: " + quantityToDecrease
-                    );
-                }
-
-                int newStock = product.getStockQuantity() - quantityToDecrease;
-                product.setStockQuantity(newStock);
-                productRepository.save(product);
+                int newStock = decreaseStock(product, quantityToDecrease,
+                        "Producto con ID " + product.getIdProduct() + " no encontrado durante la aplicación de la venta.",
+                        currentStock -> "Stock insuficiente para aplicar la venta. Producto: " + product.getProductName() +
+                                ". Stock actual: " + currentStock + ", se requiere: " + quantityToDecrease);
 
                 createMovementRecord(product, quantityToDecrease, MovementType.SALIDA, newStock, sale, null,null,null,sale.getCompany());
             }
@@ -78,14 +89,12 @@ public class InventoryService {
      */
     @Transactional(propagation = Propagation.MANDATORY)
     public void processSaleCancellation(Sale sale) {
-        for (SaleDetail detail : sale.getSaleDetails()) {
+        for (SaleDetail detail : inLockOrder(sale.getSaleDetails(), SaleDetail::getProduct)) {
             if (detail.getProduct() != null) {
-                Product product = productRepository.findById(detail.getProduct().getIdProduct())
-                        .orElseThrow(() -> new BusinessRuleException("Producto con ID " + detail.getProduct().getIdProduct() + " no encontrado durante la anulación de la venta."));
+                Product product = detail.getProduct();
 
-                int newStock = product.getStockQuantity() + detail.getQuantity();
-                product.setStockQuantity(newStock);
-                productRepository.save(product);
+                int newStock = increaseStock(product, detail.getQuantity(),
+                        "Producto con ID " + product.getIdProduct() + " no encontrado durante la anulación de la venta.");
 
                 createMovementRecord(product, detail.getQuantity(), MovementType.ENTRADA, newStock, sale, null,null,null,sale.getCompany());
             }
@@ -97,14 +106,12 @@ public class InventoryService {
      */
     @Transactional(propagation = Propagation.MANDATORY)
     public void processCreditNoteApplication(CreditNote creditNote) {
-        for (CreditNoteDetail detail : creditNote.getDetails()) {
+        for (CreditNoteDetail detail : inLockOrder(creditNote.getDetails(), CreditNoteDetail::getProduct)) {
             if (detail.getProduct() != null) {
-                Product product = productRepository.findById(detail.getProduct().getIdProduct())
-                        .orElseThrow(() -> new BusinessRuleException("Producto con ID " + detail.getProduct().getIdProduct() + " no encontrado durante la aplicación de la nota de crédito."));
+                Product product = detail.getProduct();
 
-                int newStock = product.getStockQuantity() + detail.getQuantity();
-                product.setStockQuantity(newStock);
-                productRepository.save(product);
+                int newStock = increaseStock(product, detail.getQuantity(),
+                        "Producto con ID " + product.getIdProduct() + " no encontrado durante la aplicación de la nota de crédito.");
 
                 createMovementRecord(product, detail.getQuantity(), MovementType.ENTRADA, newStock, null, creditNote,null,null,creditNote.getCompany());
             }
@@ -116,18 +123,14 @@ public class InventoryService {
      */
     @Transactional(propagation = Propagation.MANDATORY)
     public void processCreditNoteCancellation(CreditNote creditNote) {
-        for (CreditNoteDetail detail : creditNote.getDetails()) {
+        for (CreditNoteDetail detail : inLockOrder(creditNote.getDetails(), CreditNoteDetail::getProduct)) {
             if (detail.getProduct() != null) {
-                Product product = productRepository.findById(detail.getProduct().getIdProduct())
-                        .orElseThrow(() -> new BusinessRuleException("Producto con ID " + detail.getProduct().getIdProduct() + " no encontrado durante la anulación de la nota de crédito."));
-
+                Product product = detail.getProduct();
                 int quantityToDecrease = detail.getQuantity();
-                if (product.getStockQuantity() < quantityToDecrease) {
-                    throw new BusinessRuleException("Stock insuficiente para anular la nota de crédito del producto '" + product.getProductName() + "'. El stock se ha movido por otra operación.");
-                }
-                int newStock = product.getStockQuantity() - quantityToDecrease;
-                product.setStockQuantity(newStock);
-                productRepository.save(product);
+
+                int newStock = decreaseStock(product, quantityToDecrease,
+                        "Producto con ID " + product.getIdProduct() + " no encontrado durante la anulación de la nota de crédito.",
+                        currentStock -> "Stock insuficiente para anular la nota de crédito del producto '" + product.getProductName() + "'. El stock se ha movido por otra operación.");
 
                 createMovementRecord(product, quantityToDecrease, MovementType.SALIDA, newStock, null, creditNote,null,null,creditNote.getCompany());
             }
@@ -145,16 +148,13 @@ public class InventoryService {
      */
     @Transactional(propagation = Propagation.MANDATORY)
     public void processPurchaseApplication(Purchase purchase) {
-        for (PurchaseDetail detail : purchase.getPurchaseDetails()) {
+        for (PurchaseDetail detail : inLockOrder(purchase.getPurchaseDetails(), PurchaseDetail::getProduct)) {
             if (detail.getProduct() != null) {
-                // Obtenemos el producto para asegurar que trabajamos con la entidad más reciente.
-                Product product = productRepository.findById(detail.getProduct().getIdProduct())
-                        .orElseThrow(() -> new BusinessRuleException("Producto con ID " + detail.getProduct().getIdProduct() + " no encontrado durante la aplicación de la compra."));
+                Product product = detail.getProduct();
 
                 // La lógica de compra es AUMENTAR el stock.
-                int newStock = product.getStockQuantity() + detail.getQuantity();
-                product.setStockQuantity(newStock);
-                productRepository.save(product);
+                int newStock = increaseStock(product, detail.getQuantity(),
+                        "Producto con ID " + product.getIdProduct() + " no encontrado durante la aplicación de la compra.");
 
                 // Creamos el registro de movimiento para auditoría.
                 createMovementRecord(product, detail.getQuantity(), MovementType.ENTRADA, newStock, null, null, purchase,null, purchase.getCompany());
@@ -169,26 +169,17 @@ public class InventoryService {
      */
     @Transactional(propagation = Propagation.MANDATORY)
     public void processPurchaseCancellation(Purchase purchase) {
-        for (PurchaseDetail detail : purchase.getPurchaseDetails()) {
+        for (PurchaseDetail detail : inLockOrder(purchase.getPurchaseDetails(), PurchaseDetail::getProduct)) {
             if (detail.getProduct() != null) {
-                Product product = productRepository.findById(detail.getProduct().getIdProduct())
-                        .orElseThrow(() -> new BusinessRuleException("Producto con ID " + detail.getProduct().getIdProduct() + " no encontrado durante la anulación de la compra."));
-
+                Product product = detail.getProduct();
                 int quantityToDecrease = detail.getQuantity();
 
-                // Validación CRÍTICA: Asegurarse de que hay stock suficiente para revertir.
-                if (product.getStockQuantity() < quantityToDecrease) {
-                    throw new BusinessRuleException(
-                            "Stock insuficiente para anular la compra del producto '" + product.getProductName() + "'. " +
-                                    "Stock actual: " + product.getStockQuantity() + ", se intenta revertir una entrada de: " + quantityToDecrease + ". " +
-                                    "El producto pudo haber sido vendido o ajustado."
-                    );
-                }
-
-                // La lógica de anulación es DISMINUIR el stock.
-                int newStock = product.getStockQuantity() - quantityToDecrease;
-                product.setStockQuantity(newStock);
-                productRepository.save(product);
+                // La lógica de anulación es DISMINUIR el stock, siempre que alcance para revertir.
+                int newStock = decreaseStock(product, quantityToDecrease,
+                        "Producto con ID " + product.getIdProduct() + " no encontrado durante la anulación de la compra.",
+                        currentStock -> "Stock insuficiente para anular la compra del producto '" + product.getProductName() + "'. " +
+                                "Stock actual: " + currentStock + ", se intenta revertir una entrada de: " + quantityToDecrease + ". " +
+                                "El producto pudo haber sido vendido o ajustado.");
 
                 // Creamos el registro de movimiento para auditoría.
                 createMovementRecord(product, quantityToDecrease, MovementType.SALIDA, newStock, null, null, purchase,null, purchase.getCompany());
@@ -207,24 +198,16 @@ public class InventoryService {
      */
     @Transactional(propagation = Propagation.MANDATORY)
     public void processPurchaseCreditNoteApplication(PurchaseCreditNote creditNote) {
-        for (var detail : creditNote.getDetails()) {
+        for (var detail : inLockOrder(creditNote.getDetails(), PurchaseCreditNoteDetail::getProduct)) {
             if (detail.getProduct() != null) {
-                Product product = productRepository.findById(detail.getProduct().getIdProduct())
-                        .orElseThrow(() -> new BusinessRuleException("Producto con ID " + detail.getProduct().getIdProduct() + " no encontrado durante la aplicación de la N.C. de Compra."));
-
+                Product product = detail.getProduct();
                 int quantityToDecrease = detail.getQuantity();
 
-                // Validación CRÍTICA: Asegurarse de que hay stock suficiente para devolver.
-                if (product.getStockQuantity() < quantityToDecrease) {
-                    throw new BusinessRuleException(
-                            "Stock insuficiente para devolver el producto '" + product.getProductName() + "'. " +
-                                    "Stock actual: " + product.getStockQuantity() + ", se intenta devolver: " + quantityToDecrease + ". "
-                    );
-                }
-
-                int newStock = product.getStockQuantity() - quantityToDecrease;
-                product.setStockQuantity(newStock);
-                productRepository.save(product);
+                // Solo se devuelve si hay stock suficiente.
+                int newStock = decreaseStock(product, quantityToDecrease,
+                        "Producto con ID " + product.getIdProduct() + " no encontrado durante la aplicación de la N.C. de Compra.",
+                        currentStock -> "Stock insuficiente para devolver el producto '" + product.getProductName() + "'. " +
+                                "Stock actual: " + currentStock + ", se intenta devolver: " + quantityToDecrease + ". ");
 
                 // Creamos el registro de movimiento para auditoría.
                 createMovementRecord(product, quantityToDecrease, MovementType.SALIDA, newStock, null, null, null, creditNote, creditNote.getCompany());
@@ -239,15 +222,13 @@ public class InventoryService {
      */
     @Transactional(propagation = Propagation.MANDATORY)
     public void processPurchaseCreditNoteCancellation(PurchaseCreditNote creditNote) {
-        for (var detail : creditNote.getDetails()) {
+        for (var detail : inLockOrder(creditNote.getDetails(), PurchaseCreditNoteDetail::getProduct)) {
             if (detail.getProduct() != null) {
-                Product product = productRepository.findById(detail.getProduct().getIdProduct())
-                        .orElseThrow(() -> new BusinessRuleException("Producto con ID " + detail.getProduct().getIdProduct() + " no encontrado durante la anulación de la N.C. de Compra."));
+                Product product = detail.getProduct();
 
                 // La lógica de anulación es AUMENTAR el stock.
-                int newStock = product.getStockQuantity() + detail.getQuantity();
-                product.setStockQuantity(newStock);
-                productRepository.save(product);
+                int newStock = increaseStock(product, detail.getQuantity(),
+                        "Producto con ID " + product.getIdProduct() + " no encontrado durante la anulación de la N.C. de Compra.");
 
                 // Creamos el registro de movimiento para auditoría.
                 createMovementRecord(product, detail.getQuantity(), MovementType.ENTRADA, newStock, null, null, null, creditNote, creditNote.getCompany());
@@ -308,6 +289,14 @@ public class InventoryService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Página de movimientos de inventario con filtro opcional por estado y rango de fechas, paginada por cursor.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<MovementResponseDTO> findPage(DocumentListRequest request) {
+        return PAGE_QUERY.fetch(movementRepository, getCompanyIdFromContext(), request, MovementResponseDTO::fromEntity);
+    }
+
     /**
      * Devuelve una lista de movimientos filtrada por un rango de fechas.
      */
@@ -336,20 +325,16 @@ public class InventoryService {
         }
 
         Product product = movement.getProduct();
+        String notFoundMessage = "Producto con ID " + product.getIdProduct() + " no encontrado.";
         int newStock;
 
         if (movement.getMovementType() == MovementType.SALIDA) {
-            if (product.getStockQuantity() < movement.getQuantity()) {
-                throw new BusinessRuleException("Stock insuficiente para el producto '" + product.getProductName() + "'. Stock actual: " + product.getStockQuantity() + ", se requiere: " + movement.getQuantity());
-            }
-            newStock = product.getStockQuantity() - movement.getQuantity();
+            newStock = decreaseStock(product, movement.getQuantity(), notFoundMessage,
+                    currentStock -> "Stock insuficiente para el producto '" + product.getProductName() + "'. Stock actual: " + currentStock + ", se requiere: " + movement.getQuantity());
         } else {
-            newStock = product.getStockQuantity() + movement.getQuantity();
+            newStock = increaseStock(product, movement.getQuantity(), notFoundMessage);
         }
 
-        product.setStockQuantity(newStock);
-        productRepository.save(product);
-
         movement.setStatus(MovementStatus.APLICADA);
         movement.setStockAfterMovement(newStock);
         InventoryMovement appliedMovement = movementRepository.save(movement);
@@ -378,20 +363,16 @@ public class InventoryService {
         }
 
         Product product = movement.getProduct();
+        String notFoundMessage = "Producto con ID " + product.getIdProduct() + " no encontrado.";
         int newStock;
 
         if (movement.getMovementType() == MovementType.SALIDA) {
-            newStock = product.getStockQuantity() + movement.getQuantity();
+            newStock = increaseStock(product, movement.getQuantity(), notFoundMessage);
         } else {
-            if (product.getStockQuantity() < movement.getQuantity()) {
-                throw new BusinessRuleException("Stock insuficiente para anular la entrada del producto '" + product.getProductName() + "'. Stock actual: " + product.getStockQuantity() + ", se requiere revertir: " + movement.getQuantity());
-            }
-            newStock = product.getStockQuantity() - movement.getQuantity();
+            newStock = decreaseStock(product, movement.getQuantity(), notFoundMessage,
+                    currentStock -> "Stock insuficiente para anular la entrada del producto '" + product.getProductName() + "'. Stock actual: " + currentStock + ", se requiere revertir: " + movement.getQuantity());
         }
 
-        product.setStockQuantity(newStock);
-        productRepository.save(product);
-
         movement.setStatus(MovementStatus.ANULADA);
         movement.setStockAfterMovement(newStock);
         InventoryMovement cancelledMovement = movementRepository.save(movement);
@@ -480,6 +461,48 @@ public class InventoryService {
         return movement;
     }
 
+    // =================================================================================
+    // ACTUALIZACIÓN ATÓMICA DEL STOCK
+    // =================================================================================
+
+    /**
+     * Devuelve los detalles ordenados por ID de producto (los que no tienen producto, al final).
+     * Los UPDATE de stock de cada documento bloquean las filas de producto en este orden fijo;
+     * así dos documentos concurrentes con productos en común no se interbloquean (40P01).
+     */
+    static <D> List<D> inLockOrder(Collection<D> details, Function<D, Product> productOf) {
+        return details.stream()
+                .sorted(Comparator.comparing(
+                        (D detail) -> productOf.apply(detail) == null ? null : productOf.apply(detail).getIdProduct(),
+                        Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+    }
+
+    /**
+     * Suma 'quantity' al stock con un solo UPDATE ... RETURNING y devuelve el stock resultante.
+     * No se lee el producto antes, así que dos operaciones concurrentes nunca pisan sus cambios.
+     * La entidad Product en memoria no se modifica (no debe guardarse con save, pisaría el valor).
+     */
+    private int increaseStock(Product product, int quantity, String notFoundMessage) {
+        return productRepository.increaseStock(product.getIdProduct(), quantity)
+                .orElseThrow(() -> new BusinessRuleException(notFoundMessage));
+    }
+
+    /**
+     * Resta 'quantity' al stock solo si alcanza (condición evaluada por la BD en el mismo UPDATE)
+     * y devuelve el stock resultante. Si no se actualizó ninguna fila, se distingue entre producto
+     * inexistente y stock insuficiente para dar el mensaje adecuado.
+     */
+    private int decreaseStock(Product product, int quantity, String notFoundMessage, IntFunction<String> insufficientStockMessage) {
+        Optional<Integer> newStock = productRepository.decreaseStockIfAvailable(product.getIdProduct(), quantity);
+        if (newStock.isEmpty()) {
+            int currentStock = productRepository.findStockQuantityById(product.getIdProduct())
+                    .orElseThrow(() -> new BusinessRuleException(notFoundMessage));
+            throw new BusinessRuleException(insufficientStockMessage.apply(currentStock));
+        }
+        return newStock.get();
+    }
+
     /**
      * Método helper privado para crear y guardar el registro de movimiento.
      * Ahora soporta Sale, CreditNote y Purchase.
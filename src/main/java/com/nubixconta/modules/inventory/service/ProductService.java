@@ -15,6 +15,11 @@ import com.nubixconta.modules.inventory.repository.ProductRepository;
 import org.modelmapper.ModelMapper;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.stereotype.Service;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -178,4 +183,28 @@ public class ProductService {
                 .orElseThrow(() -> new NotFoundException("Producto con ID " + id + " no encontrado"));
     }
 
+    /**
+     * Carga en una sola consulta los productos de todas las líneas de un documento (o de varios).
+     * Ignora IDs nulos (líneas de servicio o gasto) y repetidos, y verifica en memoria que todos
+     * existan y pertenezcan a la empresa actual.
+     * @return Mapa ID de producto -> entidad.
+     */
+    public Map<Integer, Product> findEntitiesByIds(Collection<Integer> ids) {
+        Set<Integer> distinctIds = ids.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        if (distinctIds.isEmpty()) {
+            return Map.of();
+        }
+        Integer companyId = getCompanyIdFromContext();
+        Map<Integer, Product> products = productRepository.findAllById(distinctIds).stream()
+                .collect(Collectors.toMap(Product::getIdProduct, Function.identity()));
+
+        for (Integer id : distinctIds) {
+            Product product = products.get(id);
+            if (product == null || !product.getCompany().getId().equals(companyId)) {
+                throw new NotFoundException("Producto con ID " + id + " no encontrado");
+            }
+        }
+        return products;
+    }
+
 }
\ No newline at end of file
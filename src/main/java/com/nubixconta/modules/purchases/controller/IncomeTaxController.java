@@ -1,5 +1,7 @@
 package com.nubixconta.modules.purchases.controller;
 import com.nubixconta.common.exception.BadRequestException;
+import com.nubixconta.common.pagination.CursorPageDTO;
+import com.nubixconta.common.pagination.DocumentListRequest;
 import com.nubixconta.modules.accounting.dto.AccountingEntryResponseDTO;
 import com.nubixconta.modules.accounting.service.PurchasesAccountingService;
 import com.nubixconta.modules.purchases.dto.incometax.IncomeTaxCreateDTO;
@@ -31,6 +33,22 @@ public class IncomeTaxController {
         return ResponseEntity.ok(incomeTaxes);
     }
 
+    /**
+     * Listado de retenciones paginado por cursor. Se activa al enviar 'cursor' (vacío para la primera página);
+     * la respuesta trae 'nextCursor' para pedir la siguiente. Filtros opcionales: 'status', 'startDate' y 'endDate'.
+     */
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageDTO<IncomeTaxResponseDTO>> getIncomeTaxesPage(
+            @RequestParam String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(name = "sortBy", defaultValue = "status") String sortBy,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        DocumentListRequest request = DocumentListRequest.of(sortBy, cursor, limit, status, startDate, endDate);
+        return ResponseEntity.ok(incomeTaxService.findPage(request));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<IncomeTaxResponseDTO> getIncomeTaxById(@PathVariable Integer id) {
         return ResponseEntity.ok(incomeTaxService.findById(id));
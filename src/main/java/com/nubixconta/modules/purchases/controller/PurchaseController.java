@@ -1,6 +1,10 @@
 package com.nubixconta.modules.purchases.controller;
 
+import com.nubixconta.common.batch.BatchApplyRequestDTO;
+import com.nubixconta.common.batch.BatchApplyResultDTO;
 import com.nubixconta.common.exception.BadRequestException;
+import com.nubixconta.common.pagination.CursorPageDTO;
+import com.nubixconta.common.pagination.DocumentListRequest;
 import com.nubixconta.modules.accounting.dto.AccountingEntryResponseDTO;
 import com.nubixconta.modules.accounting.service.PurchasesAccountingService;
 import com.nubixconta.modules.purchases.dto.purchases.PurchaseCreateDTO;
@@ -43,6 +47,22 @@ public class PurchaseController {
         return ResponseEntity.ok(purchases);
     }
 
+    /**
+     * Listado de compras paginado por cursor. Se activa al enviar 'cursor' (vacío para la primera página);
+     * la respuesta trae 'nextCursor' para pedir la siguiente. Filtros opcionales: 'status', 'startDate' y 'endDate'.
+     */
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageDTO<PurchaseResponseDTO>> getPurchasesPage(
+            @RequestParam String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(name = "sortBy", defaultValue = "status") String sortBy,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        DocumentListRequest request = DocumentListRequest.of(sortBy, cursor, limit, status, startDate, endDate);
+        return ResponseEntity.ok(purchaseService.findPage(request));
+    }
+
     /**
      * Obtiene una compra específica por su ID, incluyendo sus detalles.
      */
@@ -135,6 +155,15 @@ public class PurchaseController {
         return purchaseService.applyPurchase(id);
     }
 
+    /**
+     * Aplica varias compras PENDIENTES en una sola solicitud.
+     * Devuelve el resultado de cada compra; las que fallan no impiden aplicar las demás.
+     */
+    @PostMapping("/apply-batch")
+    public ResponseEntity<BatchApplyResultDTO> applyPurchasesBatch(@Valid @RequestBody BatchApplyRequestDTO request) {
+        return ResponseEntity.ok(purchaseService.applyPurchasesBatch(request.getIds()));
+    }
+
     /**
      * Cambia el estado de una compra de 'APLICADA' a 'ANULADA'.
      */
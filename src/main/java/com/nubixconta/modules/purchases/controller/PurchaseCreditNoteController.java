@@ -1,6 +1,10 @@
 package com.nubixconta.modules.purchases.controller;
 
+import com.nubixconta.common.batch.BatchApplyRequestDTO;
+import com.nubixconta.common.batch.BatchApplyResultDTO;
 import com.nubixconta.common.exception.BadRequestException;
+import com.nubixconta.common.pagination.CursorPageDTO;
+import com.nubixconta.common.pagination.DocumentListRequest;
 import com.nubixconta.modules.accounting.dto.AccountingEntryResponseDTO;
 import com.nubixconta.modules.accounting.service.PurchasesAccountingService;
 import com.nubixconta.modules.purchases.dto.creditnote.PurchaseCreditNoteCreateDTO;
@@ -35,6 +39,22 @@ public class PurchaseCreditNoteController {
         return ResponseEntity.ok(creditNotes);
     }
 
+    /**
+     * Listado de notas de crédito de compra paginado por cursor. Se activa al enviar 'cursor' (vacío para la primera página);
+     * la respuesta trae 'nextCursor' para pedir la siguiente. Filtros opcionales: 'status', 'startDate' y 'endDate'.
+     */
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageDTO<PurchaseCreditNoteResponseDTO>> getCreditNotesPage(
+            @RequestParam String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(name = "sortBy", defaultValue = "status") String sortBy,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        DocumentListRequest request = DocumentListRequest.of(sortBy, cursor, limit, status, startDate, endDate);
+        return ResponseEntity.ok(creditNoteService.findPage(request));
+    }
+
     @GetMapping("/{idPurchaseCreditNote}")
     public ResponseEntity<PurchaseCreditNoteResponseDTO> getCreditNoteById(@PathVariable Integer idPurchaseCreditNote) {
         return ResponseEntity.ok(creditNoteService.findById(idPurchaseCreditNote));
@@ -82,6 +102,15 @@ public class PurchaseCreditNoteController {
         return ResponseEntity.ok(appliedNote);
     }
 
+    /**
+     * Aplica varias notas de crédito de compra PENDIENTES en una sola solicitud.
+     * Devuelve el resultado de cada nota; las que fallan no impiden aplicar las demás.
+     */
+    @PostMapping("/apply-batch")
+    public ResponseEntity<BatchApplyResultDTO> applyCreditNotesBatch(@Valid @RequestBody BatchApplyRequestDTO request) {
+        return ResponseEntity.ok(creditNoteService.applyCreditNotesBatch(request.getIds()));
+    }
+
     @PostMapping("/{idPurchaseCreditNote}/cancel")
     public ResponseEntity<PurchaseCreditNoteResponseDTO> cancelCreditNote(@PathVariable Integer idPurchaseCreditNote) { // <-- ¡CORREGIDO!
         PurchaseCreditNoteResponseDTO cancelledNote = creditNoteService.cancelCreditNote(idPurchaseCreditNote);
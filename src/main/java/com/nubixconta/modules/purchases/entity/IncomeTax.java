@@ -1,11 +1,14 @@
 package com.nubixconta.modules.purchases.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.nubixconta.common.pagination.DocumentStatusRank;
 import com.nubixconta.modules.administration.entity.Company;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -24,6 +27,10 @@ import java.time.LocalDateTime;
 @Table(name = "income_tax", uniqueConstraints = {
         // El número de documento debe ser único por empresa
         @UniqueConstraint(columnNames = {"company_id", "document_number"})
+}, indexes = {
+        // Listados paginados por cursor (DocumentPageQuery), en el mismo orden y sentido que sus dos ordenamientos.
+        @Index(name = "idx_income_tax_company_status_date_id", columnList = "company_id, status_rank, issue_date DESC, id_income_tax DESC"),
+        @Index(name = "idx_income_tax_company_date_id", columnList = "company_id, issue_date DESC, id_income_tax DESC")
 })
 @Getter
 @Setter
@@ -56,6 +63,14 @@ public class IncomeTax {
     @Column(name = "income_tax_status", length = 10, nullable = false)
     private String incomeTaxStatus;
 
+    // Rango del estado (ver DocumentStatusRank), calculado por la base de datos; solo se usa para
+    // ordenar y paginar los listados.
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "status_rank", insertable = false, updatable = false,
+            columnDefinition = DocumentStatusRank.COLUMN_DEFINITION_PREFIX + "income_tax_status" + DocumentStatusRank.COLUMN_DEFINITION_SUFFIX)
+    private Integer statusRank;
+
     @NotBlank(message = "La descripción es obligatoria")
     @Size(max = 256, message = "La descripción puede tener máximo 256 caracteres")
     @Column(name = "description", length = 256, nullable = false)
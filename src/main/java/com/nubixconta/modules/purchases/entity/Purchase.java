@@ -1,13 +1,18 @@
 package com.nubixconta.modules.purchases.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.nubixconta.common.pagination.DocumentListRequest;
+import com.nubixconta.common.pagination.DocumentStatusRank;
 import com.nubixconta.modules.administration.entity.Company;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.Filter;
 import org.hibernate.annotations.UpdateTimestamp;
@@ -20,6 +25,10 @@ import java.util.Set;
 @Entity
 @Table(name = "purchase", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"company_id", "document_number"})
+}, indexes = {
+        // Listados paginados por cursor (DocumentPageQuery), en el mismo orden y sentido que sus dos ordenamientos.
+        @Index(name = "idx_purchase_company_status_date_id", columnList = "company_id, status_rank, issue_date DESC, id_purchase DESC"),
+        @Index(name = "idx_purchase_company_date_id", columnList = "company_id, issue_date DESC, id_purchase DESC")
 })
 @Getter
 @Setter
@@ -52,6 +61,14 @@ public class Purchase {
     @Column(name = "purchase_status", length = 10, nullable = false)
     private String purchaseStatus;
 
+    // Rango del estado (ver DocumentStatusRank), calculado por la base de datos; solo se usa para
+    // ordenar y paginar los listados.
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "status_rank", insertable = false, updatable = false,
+            columnDefinition = DocumentStatusRank.COLUMN_DEFINITION_PREFIX + "purchase_status" + DocumentStatusRank.COLUMN_DEFINITION_SUFFIX)
+    private Integer statusRank;
+
     @NotNull
     @Column(name = "issue_date", nullable = false)
     private LocalDateTime issueDate;
@@ -86,6 +103,8 @@ public class Purchase {
     @Column(name = "update_date")
     private LocalDateTime updateDate;
 
+    // Al mapear una página de documentos, los detalles de toda la página se cargan en una sola consulta IN.
+    @BatchSize(size = DocumentListRequest.MAX_LIMIT)
     @OneToMany(mappedBy = "purchase", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private Set<PurchaseDetail> purchaseDetails = new HashSet<>();
 
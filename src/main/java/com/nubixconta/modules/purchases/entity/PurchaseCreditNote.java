@@ -1,14 +1,19 @@
 package com.nubixconta.modules.purchases.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.nubixconta.common.pagination.DocumentListRequest;
+import com.nubixconta.common.pagination.DocumentStatusRank;
 import com.nubixconta.modules.administration.entity.Company;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.Filter;
 import org.hibernate.annotations.UpdateTimestamp;
@@ -22,6 +27,10 @@ import java.util.Set;
 @Table(name = "purchase_credit_note", uniqueConstraints = {
         // El número de documento debe ser único dentro de la misma empresa.
         @UniqueConstraint(columnNames = {"company_id", "document_number"})
+}, indexes = {
+        // Listados paginados por cursor (DocumentPageQuery), en el mismo orden y sentido que sus dos ordenamientos.
+        @Index(name = "idx_purchase_credit_note_company_status_date_id", columnList = "company_id, status_rank, credit_note_date DESC, id_credit_note DESC"),
+        @Index(name = "idx_purchase_credit_note_company_date_id", columnList = "company_id, credit_note_date DESC, id_credit_note DESC")
 })
 @Getter
 @Setter
@@ -49,6 +58,14 @@ public class PurchaseCreditNote {
     @Column(name = "credit_note_status", length = 10, nullable = false)
     private String creditNoteStatus;
 
+    // Rango del estado (ver DocumentStatusRank), calculado por la base de datos; solo se usa para
+    // ordenar y paginar los listados.
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "status_rank", insertable = false, updatable = false,
+            columnDefinition = DocumentStatusRank.COLUMN_DEFINITION_PREFIX + "credit_note_status" + DocumentStatusRank.COLUMN_DEFINITION_SUFFIX)
+    private Integer statusRank;
+
     // Cambiado de credit_note_date a issueDate para consistencia con ventas
     @NotNull(message = "La fecha de emisión es obligatoria")
     @Column(name = "credit_note_date", nullable = false)
@@ -87,6 +104,8 @@ public class PurchaseCreditNote {
     @Column(name = "total_amount", nullable = false)
     private BigDecimal totalAmount;
 
+    // Al mapear una página de documentos, los detalles de toda la página se cargan en una sola consulta IN.
+    @BatchSize(size = DocumentListRequest.MAX_LIMIT)
     @OneToMany(
             mappedBy = "purchaseCreditNote",
             cascade = CascadeType.ALL,
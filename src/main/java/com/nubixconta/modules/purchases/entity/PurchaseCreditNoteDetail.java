@@ -22,7 +22,8 @@ import java.util.Objects;
 public class PurchaseCreditNoteDetail {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "purchase_credit_note_detail_seq")
+    @SequenceGenerator(name = "purchase_credit_note_detail_seq", sequenceName = "purchase_credit_note_detail_seq", allocationSize = 50)
     @Column(name = "credit_note_detail_id")
     private Integer id;
 
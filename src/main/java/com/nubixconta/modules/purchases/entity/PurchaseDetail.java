@@ -20,7 +20,8 @@ import java.util.Objects;
 public class PurchaseDetail {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "purchasedetail_seq")
+    @SequenceGenerator(name = "purchasedetail_seq", sequenceName = "purchasedetail_seq", allocationSize = 50)
     @Column(name = "purchase_detail_id")
     private Integer purchaseDetailId;
 
@@ -88,7 +88,7 @@ public class Supplier {
     private BigDecimal creditLimit;
 
     @NotNull
-    @Column(name = "current_balance", precision = 10, scale = 2, nullable = false)
+    @Column(name = "current_balance", precision = 10, scale = 2, nullable = false, updatable = false)
     private BigDecimal currentBalance = BigDecimal.ZERO;
 
     @NotNull(message = "El estado es obligatorio")
@@ -2,6 +2,7 @@ package com.nubixconta.modules.purchases.repository;
 
 import com.nubixconta.modules.purchases.entity.IncomeTax;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -11,7 +12,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface IncomeTaxRepository extends JpaRepository<IncomeTax, Integer> {
+public interface IncomeTaxRepository extends JpaRepository<IncomeTax, Integer>, JpaSpecificationExecutor<IncomeTax> {
 
     // --- MÉTODOS DE VALIDACIÓN ---
 
@@ -48,7 +49,7 @@ public interface IncomeTaxRepository extends JpaRepository<IncomeTax, Integer> {
             "LEFT JOIN FETCH it.purchase p " +
             "LEFT JOIN FETCH p.supplier " +
             "WHERE it.company.id = :companyId " +
-            "ORDER BY CASE it.incomeTaxStatus WHEN 'PENDIENTE' THEN 1 WHEN 'APLICADA' THEN 2 WHEN 'ANULADA' THEN 3 ELSE 4 END, it.issueDate DESC")
+            "ORDER BY it.statusRank, it.issueDate DESC")
     List<IncomeTax> findAllWithDetailsByCompanyIdOrderByStatus(@Param("companyId") Integer companyId);
 
     /**
@@ -2,6 +2,7 @@ package com.nubixconta.modules.purchases.repository;
 
 import com.nubixconta.modules.purchases.entity.PurchaseCreditNote;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -11,7 +12,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository // <-- Es buena práctica añadir esta anotación
-public interface PurchaseCreditNoteRepository extends JpaRepository<PurchaseCreditNote, Integer> {
+public interface PurchaseCreditNoteRepository extends JpaRepository<PurchaseCreditNote, Integer>, JpaSpecificationExecutor<PurchaseCreditNote> {
 
     // --- MÉTODOS DE VALIDACIÓN (sin cambios) ---
     boolean existsByCompany_IdAndDocumentNumber(Integer companyId, String documentNumber);
@@ -36,7 +37,7 @@ public interface PurchaseCreditNoteRepository extends JpaRepository<PurchaseCred
             "LEFT JOIN FETCH pcn.purchase p " +
             "LEFT JOIN FETCH p.supplier " +
             "WHERE pcn.company.id = :companyId " +
-            "ORDER BY CASE pcn.creditNoteStatus WHEN 'PENDIENTE' THEN 1 WHEN 'APLICADA' THEN 2 WHEN 'ANULADA' THEN 3 ELSE 4 END, pcn.issueDate DESC")
+            "ORDER BY pcn.statusRank, pcn.issueDate DESC")
     List<PurchaseCreditNote> findAllWithDetailsByCompanyIdOrderByStatus(@Param("companyId") Integer companyId);
 
     // --- MÉTODO OPTIMIZADO PARA findAll (ordenado por fecha) - CORREGIDO ---
@@ -63,4 +64,13 @@ public interface PurchaseCreditNoteRepository extends JpaRepository<PurchaseCred
             @Param("end") LocalDateTime end,
             @Param("status") String status
     );
-}
\ No newline at end of file
+
+    /**
+     * Carga las notas de crédito de compra de un bloque de aplicación masiva junto con su compra,
+     * proveedor, detalles y productos.
+     */
+    @Query("SELECT DISTINCT cn FROM PurchaseCreditNote cn JOIN FETCH cn.purchase p JOIN FETCH p.supplier " +
+            "LEFT JOIN FETCH cn.details d LEFT JOIN FETCH d.product " +
+            "WHERE cn.company.id = :companyId AND cn.idPurchaseCreditNote IN :ids")
+    List<PurchaseCreditNote> findAllForApplication(@Param("companyId") Integer companyId, @Param("ids") List<Integer> ids);
+}
@@ -3,6 +3,7 @@ package com.nubixconta.modules.purchases.repository;
 import com.nubixconta.modules.purchases.entity.Purchase;
 import com.nubixconta.modules.sales.entity.Sale;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,7 +13,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface PurchaseRepository extends JpaRepository<Purchase, Integer> {
+public interface PurchaseRepository extends JpaRepository<Purchase, Integer>, JpaSpecificationExecutor<Purchase> {
 
     // --- Métodos de Validación y Búsqueda Básica (Espejo de SaleRepository) ---
 
@@ -29,12 +30,7 @@ public interface PurchaseRepository extends JpaRepository<Purchase, Integer> {
 
     // Ordenamiento por estado, idéntico al de Ventas
     @Query("SELECT p FROM Purchase p WHERE p.company.id = :companyId ORDER BY " +
-            "CASE p.purchaseStatus " +
-            "  WHEN 'PENDIENTE' THEN 1 " +
-            "  WHEN 'APLICADA'  THEN 2 " +
-            "  WHEN 'ANULADA'   THEN 3 " +
-            "  ELSE 4 " +
-            "END, " +
+            "p.statusRank, " +
             "p.issueDate DESC")
     List<Purchase> findAllByCompanyIdOrderByStatusAndIssueDate(@Param("companyId") Integer companyId);
 
@@ -82,4 +78,12 @@ public interface PurchaseRepository extends JpaRepository<Purchase, Integer> {
             "SELECT 1 FROM IncomeTax it WHERE it.purchase = p AND it.incomeTaxStatus IN ('PENDIENTE', 'APLICADA')" +
             ")")
     List<Purchase> findPurchasesAvailableForISR(@Param("companyId") Integer companyId, @Param("supplierId") Integer supplierId);
-}
\ No newline at end of file
+
+    /**
+     * Carga las compras de un bloque de aplicación masiva junto con su proveedor, detalles y productos.
+     */
+    @Query("SELECT DISTINCT p FROM Purchase p JOIN FETCH p.supplier " +
+            "LEFT JOIN FETCH p.purchaseDetails d LEFT JOIN FETCH d.product " +
+            "WHERE p.company.id = :companyId AND p.idPurchase IN :ids")
+    List<Purchase> findAllForApplication(@Param("companyId") Integer companyId, @Param("ids") List<Integer> ids);
+}
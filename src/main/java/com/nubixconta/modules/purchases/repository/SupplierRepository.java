@@ -5,8 +5,11 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface SupplierRepository extends JpaRepository<Supplier, Integer> {
@@ -65,4 +68,20 @@ public interface SupplierRepository extends JpaRepository<Supplier, Integer> {
             @Param("dui") String dui,
             @Param("nit") String nit
     );
-}
\ No newline at end of file
+
+    // --- Mantenimiento atómico del saldo (ver SupplierService) ---
+    // Cada cambio es una sola sentencia sobre el saldo vigente; devuelve el saldo resultante
+    // o vacío si no se actualizó ninguna fila.
+
+    @Transactional
+    @Query(value = "UPDATE supplier SET current_balance = current_balance + :amount " +
+            "WHERE id_supplier = :supplierId AND current_balance + :amount <= credit_limit RETURNING current_balance",
+            nativeQuery = true)
+    Optional<BigDecimal> addToBalanceWithinCreditLimit(@Param("supplierId") Integer supplierId, @Param("amount") BigDecimal amount);
+
+    @Transactional
+    @Query(value = "UPDATE supplier SET current_balance = current_balance + :amount " +
+            "WHERE id_supplier = :supplierId RETURNING current_balance",
+            nativeQuery = true)
+    Optional<BigDecimal> addToBalance(@Param("supplierId") Integer supplierId, @Param("amount") BigDecimal amount);
+}
@@ -2,6 +2,9 @@ package com.nubixconta.modules.purchases.service;
 
 import com.nubixconta.common.exception.BusinessRuleException;
 import com.nubixconta.common.exception.NotFoundException;
+import com.nubixconta.common.pagination.CursorPageDTO;
+import com.nubixconta.common.pagination.DocumentListRequest;
+import com.nubixconta.common.pagination.DocumentPageQuery;
 import com.nubixconta.modules.AccountsPayable.service.AccountsPayableService;
 import com.nubixconta.modules.accounting.service.CierreContableService;
 import com.nubixconta.modules.accounting.service.PurchasesAccountingService;
@@ -16,6 +19,7 @@ import com.nubixconta.modules.purchases.entity.Purchase;
 import com.nubixconta.modules.purchases.repository.IncomeTaxRepository;
 import com.nubixconta.modules.purchases.repository.PurchaseRepository;
 import com.nubixconta.security.TenantContext;
+import jakarta.persistence.criteria.JoinType;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
@@ -44,6 +48,11 @@ public class IncomeTaxService {
     private final AccountsPayableService accountsPayableService;
 
 
+    // Listado paginado por cursor (ver DocumentPageQuery).
+    private static final DocumentPageQuery<IncomeTax> PAGE_QUERY = new DocumentPageQuery<IncomeTax>(
+            "issueDate", IncomeTax::getIssueDate, "idIncomeTax", IncomeTax::getIdIncomeTax, IncomeTax::getStatusRank)
+            .withFetches(root -> root.fetch("purchase", JoinType.LEFT).fetch("supplier", JoinType.LEFT));
+
     private Integer getCompanyIdFromContext() {
         return TenantContext.getCurrentTenant()
                 .orElseThrow(() -> new BusinessRuleException("No se ha seleccionado una empresa en el contexto."));
@@ -261,6 +270,14 @@ public class IncomeTaxService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Página de retenciones con filtro opcional por estado y rango de fechas, paginada por cursor.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<IncomeTaxResponseDTO> findPage(DocumentListRequest request) {
+        return PAGE_QUERY.fetch(incomeTaxRepository, getCompanyIdFromContext(), request, it -> modelMapper.map(it, IncomeTaxResponseDTO.class));
+    }
+
     @Transactional(readOnly = true)
     public IncomeTaxResponseDTO findById(Integer id) {
         IncomeTax incomeTax = incomeTaxRepository.findByIdWithDetails(id)
@@ -1,7 +1,12 @@
 package com.nubixconta.modules.purchases.service;
 
+import com.nubixconta.common.batch.BatchApplyExecutor;
+import com.nubixconta.common.batch.BatchApplyResultDTO;
 import com.nubixconta.common.exception.BusinessRuleException;
 import com.nubixconta.common.exception.NotFoundException;
+import com.nubixconta.common.pagination.CursorPageDTO;
+import com.nubixconta.common.pagination.DocumentListRequest;
+import com.nubixconta.common.pagination.DocumentPageQuery;
 import com.nubixconta.modules.AccountsPayable.service.AccountsPayableService;
 import com.nubixconta.modules.AccountsPayable.service.PaymentDetailsService;
 import com.nubixconta.modules.accounting.entity.Catalog;
@@ -18,8 +23,8 @@ import com.nubixconta.modules.purchases.dto.creditnote.*;
 import com.nubixconta.modules.purchases.entity.*;
 import com.nubixconta.modules.purchases.repository.PurchaseCreditNoteRepository;
 import com.nubixconta.modules.purchases.repository.PurchaseRepository;
-import com.nubixconta.modules.purchases.repository.SupplierRepository;
 import com.nubixconta.security.TenantContext;
+import jakarta.persistence.criteria.JoinType;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
@@ -44,7 +49,7 @@ public class PurchaseCreditNoteService {
     // --- Repositorios y Servicios Principales ---
     private final PurchaseCreditNoteRepository creditNoteRepository;
     private final PurchaseRepository purchaseRepository;
-    private final SupplierRepository supplierRepository;
+    private final SupplierService supplierService;
     private final CompanyRepository companyRepository;
     private final ProductService productService;
     private final CatalogService catalogService;
@@ -57,8 +62,14 @@ public class PurchaseCreditNoteService {
     private final AccountsPayableService accountsPayableService;
     private final ChangeHistoryService changeHistoryService;
     private final PaymentDetailsService paymentDetailsService;
+    private final BatchApplyExecutor batchApplyExecutor;
 
 
+    // Listado paginado por cursor (ver DocumentPageQuery).
+    private static final DocumentPageQuery<PurchaseCreditNote> PAGE_QUERY = new DocumentPageQuery<PurchaseCreditNote>(
+            "issueDate", PurchaseCreditNote::getIssueDate, "idPurchaseCreditNote", PurchaseCreditNote::getIdPurchaseCreditNote, PurchaseCreditNote::getStatusRank)
+            .withFetches(root -> root.fetch("purchase", JoinType.LEFT).fetch("supplier", JoinType.LEFT));
+
     private Integer getCompanyIdFromContext() {
         return TenantContext.getCurrentTenant()
                 .orElseThrow(() -> new BusinessRuleException("No se ha seleccionado una empresa en el contexto."));
@@ -125,8 +136,11 @@ public class PurchaseCreditNoteService {
         newCreditNote.setVatAmount(dto.getVatAmount());
         newCreditNote.setTotalAmount(dto.getTotalAmount());
 
+        // Todos los productos del documento en una sola consulta.
+        Map<Integer, Product> products = productService.findEntitiesByIds(
+                dto.getDetails().stream().map(PurchaseCreditNoteDetailCreateDTO::getProductId).toList());
         for (PurchaseCreditNoteDetailCreateDTO detailDTO : dto.getDetails()) {
-            newCreditNote.addDetail(mapToPurchaseCreditNoteDetail(detailDTO));
+            newCreditNote.addDetail(mapToPurchaseCreditNoteDetail(detailDTO, products));
         }
 
         PurchaseCreditNote savedCreditNote = creditNoteRepository.save(newCreditNote);
@@ -216,6 +230,25 @@ public class PurchaseCreditNoteService {
         PurchaseCreditNote creditNote = creditNoteRepository.findById(creditNoteId)
                 .orElseThrow(() -> new NotFoundException("Nota de crédito de compra con ID " + creditNoteId + " no encontrada."));
 
+        return modelMapper.map(applyLoadedCreditNote(creditNote), PurchaseCreditNoteResponseDTO.class);
+    }
+
+    /**
+     * Aplica varias notas de crédito de compra PENDIENTES por bloques (ver BatchApplyExecutor).
+     * Cada bloque carga notas, detalles, productos, compras y proveedores en una sola consulta.
+     * @return El resultado de cada nota; las que fallan no impiden aplicar las demás.
+     */
+    public BatchApplyResultDTO applyCreditNotesBatch(List<Integer> creditNoteIds) {
+        Integer companyId = getCompanyIdFromContext();
+        return batchApplyExecutor.apply(creditNoteIds,
+                ids -> creditNoteRepository.findAllForApplication(companyId, ids).stream()
+                        .collect(Collectors.toMap(PurchaseCreditNote::getIdPurchaseCreditNote, Function.identity())),
+                this::applyLoadedCreditNote,
+                id -> "Nota de crédito de compra con ID " + id + " no encontrada.");
+    }
+
+    // Lógica común de aplicación individual y masiva; se ejecuta dentro de la transacción del llamador.
+    private PurchaseCreditNote applyLoadedCreditNote(PurchaseCreditNote creditNote) {
         if (!"PENDIENTE".equals(creditNote.getCreditNoteStatus())) {
             throw new BusinessRuleException("Solo se pueden aplicar notas de crédito en estado PENDIENTE.");
         }
@@ -237,9 +270,7 @@ public class PurchaseCreditNoteService {
         );
 
         // 4. SALDO DEL PROVEEDOR: Actualizar el saldo directamente.
-        Supplier supplier = creditNote.getPurchase().getSupplier();
-        supplier.setCurrentBalance(supplier.getCurrentBalance().subtract(creditNote.getTotalAmount()));
-        supplierRepository.save(supplier);
+        supplierService.adjustBalance(creditNote.getPurchase().getSupplier(), creditNote.getTotalAmount().negate());
 
         // 5. Actualizar estado y persistir
         creditNote.setCreditNoteStatus("APLICADA");
@@ -248,7 +279,7 @@ public class PurchaseCreditNoteService {
         changeHistoryService.logChange("Notas de Crédito - Compras",
                 String.format("Aplicó la nota de crédito N° %s. Estado cambió a APLICADA.", appliedCreditNote.getDocumentNumber()));
 
-        return modelMapper.map(appliedCreditNote, PurchaseCreditNoteResponseDTO.class);
+        return appliedCreditNote;
     }
 
     @Transactional
@@ -286,9 +317,7 @@ public class PurchaseCreditNoteService {
         );
 
         // 4. SALDO DEL PROVEEDOR: Revertir la actualización del saldo.
-        Supplier supplier = creditNote.getPurchase().getSupplier();
-        supplier.setCurrentBalance(supplier.getCurrentBalance().add(creditNote.getTotalAmount()));
-        supplierRepository.save(supplier);
+        supplierService.adjustBalance(creditNote.getPurchase().getSupplier(), creditNote.getTotalAmount());
 
         // 5. Actualizar estado y persistir
         creditNote.setCreditNoteStatus("ANULADA");
@@ -321,6 +350,14 @@ public class PurchaseCreditNoteService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Página de notas de crédito de compra con filtro opcional por estado y rango de fechas, paginada por cursor.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PurchaseCreditNoteResponseDTO> findPage(DocumentListRequest request) {
+        return PAGE_QUERY.fetch(creditNoteRepository, getCompanyIdFromContext(), request, cn -> modelMapper.map(cn, PurchaseCreditNoteResponseDTO.class));
+    }
+
     @Transactional(readOnly = true)
     public PurchaseCreditNoteResponseDTO findById(Integer id) {
         // ¡Ahora llamamos al método con JOIN FETCH!
@@ -452,7 +489,7 @@ public class PurchaseCreditNoteService {
         }
     }
 
-    private PurchaseCreditNoteDetail mapToPurchaseCreditNoteDetail(PurchaseCreditNoteDetailCreateDTO dto) {
+    private PurchaseCreditNoteDetail mapToPurchaseCreditNoteDetail(PurchaseCreditNoteDetailCreateDTO dto, Map<Integer, Product> products) {
         PurchaseCreditNoteDetail detail = new PurchaseCreditNoteDetail();
         detail.setQuantity(dto.getQuantity());
         detail.setUnitPrice(dto.getUnitPrice());
@@ -461,7 +498,7 @@ public class PurchaseCreditNoteService {
         detail.setLineDescription(dto.getLineDescription());
 
         if (dto.getProductId() != null) {
-            Product product = productService.findEntityById(dto.getProductId());
+            Product product = products.get(dto.getProductId());
             detail.setProduct(product);
         } else { // catalogId no puede ser null por validaciones previas
             // CORRECCIÓN: Usamos CatalogService para obtener la entidad Catalog y la asignamos directamente.
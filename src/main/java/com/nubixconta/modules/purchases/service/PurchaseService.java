@@ -1,7 +1,12 @@
 package com.nubixconta.modules.purchases.service;
 
+import com.nubixconta.common.batch.BatchApplyExecutor;
+import com.nubixconta.common.batch.BatchApplyResultDTO;
 import com.nubixconta.common.exception.BusinessRuleException;
 import com.nubixconta.common.exception.NotFoundException;
+import com.nubixconta.common.pagination.CursorPageDTO;
+import com.nubixconta.common.pagination.DocumentListRequest;
+import com.nubixconta.common.pagination.DocumentPageQuery;
 import com.nubixconta.modules.AccountsPayable.service.AccountsPayableService;
 import com.nubixconta.modules.accounting.entity.Catalog;
 import com.nubixconta.modules.accounting.service.CatalogService; // <-- ¡NUEVA DEPENDENCIA!
@@ -20,8 +25,8 @@ import com.nubixconta.modules.purchases.entity.Supplier;
 import com.nubixconta.modules.purchases.repository.IncomeTaxRepository;
 import com.nubixconta.modules.purchases.repository.PurchaseCreditNoteRepository;
 import com.nubixconta.modules.purchases.repository.PurchaseRepository;
-import com.nubixconta.modules.purchases.repository.SupplierRepository;
 import com.nubixconta.security.TenantContext;
+import jakarta.persistence.criteria.JoinType;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
@@ -35,6 +40,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -50,11 +56,16 @@ public class PurchaseService {
     private final InventoryService inventoryService;
     private final ChangeHistoryService changeHistoryService;
     private final CompanyRepository companyRepository;
-    private final SupplierRepository supplierRepository;
     private final PurchasesAccountingService purchasesAccountingService;
     private final PurchaseCreditNoteRepository purchaseCreditNoteRepository;
     private final AccountsPayableService accountsPayableService;
     private final CierreContableService cierreContableService;
+    private final BatchApplyExecutor batchApplyExecutor;
+
+    // Listado paginado por cursor (ver DocumentPageQuery).
+    private static final DocumentPageQuery<Purchase> PAGE_QUERY = new DocumentPageQuery<Purchase>(
+            "issueDate", Purchase::getIssueDate, "idPurchase", Purchase::getIdPurchase, Purchase::getStatusRank)
+            .withFetches(root -> root.fetch("supplier", JoinType.LEFT));
 
     // Helper para obtener el companyId de forma segura
     private Integer getCompanyIdFromContext() {
@@ -80,6 +91,14 @@ public class PurchaseService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Página de compras con filtro opcional por estado y rango de fechas, paginada por cursor.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PurchaseResponseDTO> findPage(DocumentListRequest request) {
+        return PAGE_QUERY.fetch(purchaseRepository, getCompanyIdFromContext(), request, purchase -> modelMapper.map(purchase, PurchaseResponseDTO.class));
+    }
+
     /**
      * Busca una compra por su ID.
      */
@@ -285,6 +304,8 @@ public class PurchaseService {
                     ));
 
             Set<PurchaseDetail> updatedDetails = new HashSet<>();
+            Map<Integer, Product> products = productService.findEntitiesByIds(
+                    dto.getPurchaseDetails().stream().map(PurchaseDetailCreateDTO::getProductId).toList());
 
             for (PurchaseDetailCreateDTO detailDTO : dto.getPurchaseDetails()) {
                 Object key = detailDTO.getProductId() != null ? (Object) detailDTO.getProductId() : detailDTO.getCatalogId();
@@ -301,7 +322,7 @@ public class PurchaseService {
                     existingDetailsMap.remove(key); // Lo removemos para saber que ya fue procesado.
                 } else {
                     // NUEVO DETALLE: Lo creamos y asociamos a la compra.
-                    PurchaseDetail newDetail = mapToPurchaseDetail(detailDTO, purchase);
+                    PurchaseDetail newDetail = mapToPurchaseDetail(detailDTO, purchase, products);
                     updatedDetails.add(newDetail);
                 }
             }
@@ -328,7 +349,7 @@ public class PurchaseService {
      * Método de ayuda para mapear un DTO de detalle a una entidad PurchaseDetail.
      * Es una versión refactorizada de la lógica en `mapDetailsToEntities` para un solo objeto.
      */
-    private PurchaseDetail mapToPurchaseDetail(PurchaseDetailCreateDTO dto, Purchase purchase) {
+    private PurchaseDetail mapToPurchaseDetail(PurchaseDetailCreateDTO dto, Purchase purchase, Map<Integer, Product> products) {
         // Validación de exclusividad
         if ((dto.getProductId() != null && dto.getCatalogId() != null) || (dto.getProductId() == null && dto.getCatalogId() == null)) {
             throw new BusinessRuleException("Un detalle debe ser un producto o un gasto contable, pero no ambos o ninguno.");
@@ -343,7 +364,7 @@ public class PurchaseService {
         detail.setLineDescription(dto.getLineDescription());
 
         if (dto.getProductId() != null) {
-            Product product = productService.findEntityById(dto.getProductId());
+            Product product = products.get(dto.getProductId());
             detail.setProduct(product);
         } else { // catalogId no es null
             Catalog catalog = catalogService.findEntityById(dto.getCatalogId());
@@ -381,6 +402,25 @@ public class PurchaseService {
         Purchase purchase = purchaseRepository.findById(purchaseId)
                 .orElseThrow(() -> new NotFoundException("Compra con ID " + purchaseId + " no encontrada."));
 
+        return modelMapper.map(applyLoadedPurchase(purchase), PurchaseResponseDTO.class);
+    }
+
+    /**
+     * Aplica varias compras PENDIENTES por bloques (ver BatchApplyExecutor).
+     * Cada bloque carga compras, detalles, productos y proveedores en una sola consulta.
+     * @return El resultado de cada compra; las que fallan no impiden aplicar las demás.
+     */
+    public BatchApplyResultDTO applyPurchasesBatch(List<Integer> purchaseIds) {
+        Integer companyId = getCompanyIdFromContext();
+        return batchApplyExecutor.apply(purchaseIds,
+                ids -> purchaseRepository.findAllForApplication(companyId, ids).stream()
+                        .collect(Collectors.toMap(Purchase::getIdPurchase, Function.identity())),
+                this::applyLoadedPurchase,
+                id -> "Compra con ID " + id + " no encontrada.");
+    }
+
+    // Lógica común de aplicación individual y masiva; se ejecuta dentro de la transacción del llamador.
+    private Purchase applyLoadedPurchase(Purchase purchase) {
         cierreContableService.verificarPeriodoAbierto(purchase.getIssueDate().toLocalDate());
 
         if (!"PENDIENTE".equals(purchase.getPurchaseStatus())) {
@@ -391,6 +431,7 @@ public class PurchaseService {
         validateActiveProductsInDetails(purchase);
         Supplier supplier = purchase.getSupplier();
         BigDecimal newBalance = supplier.getCurrentBalance().add(purchase.getTotalAmount());
+        // Comprobación rápida; la definitiva la hace la BD al actualizar el saldo.
         if (newBalance.compareTo(supplier.getCreditLimit()) > 0) {
             throw new BusinessRuleException("Límite de crédito del proveedor excedido.");
         }
@@ -406,16 +447,16 @@ public class PurchaseService {
         accountsPayableService.findOrCreateAccountsPayable(purchase);
 
         // --- ACTUALIZACIÓN DE ESTADOS ---
-        supplier.setCurrentBalance(newBalance);
+        // Saldo del proveedor: sentencia atómica con el límite de crédito validado por la BD.
+        supplierService.increaseBalanceWithinCreditLimit(supplier, purchase.getTotalAmount());
         purchase.setPurchaseStatus("APLICADA");
 
-        supplierRepository.save(supplier);
         Purchase appliedPurchase = purchaseRepository.save(purchase);
 
         String logMessage = String.format("Aplicó la compra con documento '%s'.", appliedPurchase.getDocumentNumber());
         changeHistoryService.logChange("Compras", logMessage);
 
-        return modelMapper.map(appliedPurchase, PurchaseResponseDTO.class);
+        return appliedPurchase;
     }
 
     /**
@@ -468,12 +509,9 @@ public class PurchaseService {
         // accountsPayableService.cancelPayableForPurchase(purchase);
 
         // --- ACTUALIZACIÓN DE ESTADOS ---
-        Supplier supplier = purchase.getSupplier();
-        BigDecimal revertedBalance = supplier.getCurrentBalance().subtract(purchase.getTotalAmount());
-        supplier.setCurrentBalance(revertedBalance);
+        supplierService.adjustBalance(purchase.getSupplier(), purchase.getTotalAmount().negate());
         purchase.setPurchaseStatus("ANULADA");
 
-        supplierRepository.save(supplier);
         Purchase cancelledPurchase = purchaseRepository.save(purchase);
 
         String logMessage = String.format("Anuló la compra con documento '%s'.", cancelledPurchase.getDocumentNumber());
@@ -518,6 +556,9 @@ public class PurchaseService {
     }
 
     private Set<PurchaseDetail> mapDetailsToEntities(List<PurchaseDetailCreateDTO> detailDTOs, Purchase purchase) {
+        // Todos los productos del documento en una sola consulta.
+        Map<Integer, Product> products = productService.findEntitiesByIds(
+                detailDTOs.stream().map(PurchaseDetailCreateDTO::getProductId).toList());
         return detailDTOs.stream().map(dto -> {
             // Validación de exclusividad
             if (dto.getProductId() != null && dto.getCatalogId() != null) {
@@ -536,7 +577,7 @@ public class PurchaseService {
             detail.setLineDescription(dto.getLineDescription());
 
             if (dto.getProductId() != null) {
-                Product product = productService.findEntityById(dto.getProductId());
+                Product product = products.get(dto.getProductId());
                 detail.setProduct(product);
             } else {
                 Catalog catalog = catalogService.findEntityById(dto.getCatalogId());
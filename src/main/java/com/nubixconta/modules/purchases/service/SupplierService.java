@@ -18,6 +18,7 @@ import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -286,4 +287,29 @@ public class SupplierService {
             }
         }
     }
-}
\ No newline at end of file
+
+    // =========================================================================================
+    // == SALDO DEL PROVEEDOR
+    // =========================================================================================
+    // El saldo solo se modifica con estas sentencias atómicas (la columna no es 'updatable' en la
+    // entidad), así que dos operaciones simultáneas sobre el mismo proveedor nunca pierden un cambio.
+    // Deben llamarse dentro de la transacción del documento.
+
+    /**
+     * Suma 'amount' al saldo del proveedor solo si el resultado no supera su límite de crédito.
+     * @return El nuevo saldo.
+     */
+    public BigDecimal increaseBalanceWithinCreditLimit(Supplier supplier, BigDecimal amount) {
+        return supplierRepository.addToBalanceWithinCreditLimit(supplier.getIdSupplier(), amount)
+                .orElseThrow(() -> new BusinessRuleException("Límite de crédito del proveedor excedido."));
+    }
+
+    /**
+     * Suma 'amount' (negativo para restar) al saldo del proveedor, sin validar el límite de crédito.
+     * @return El nuevo saldo.
+     */
+    public BigDecimal adjustBalance(Supplier supplier, BigDecimal amount) {
+        return supplierRepository.addToBalance(supplier.getIdSupplier(), amount)
+                .orElseThrow(() -> new NotFoundException("Proveedor con ID " + supplier.getIdSupplier() + " no encontrado."));
+    }
+}
@@ -1,6 +1,10 @@
 package com.nubixconta.modules.sales.controller;
 
+import com.nubixconta.common.batch.BatchApplyRequestDTO;
+import com.nubixconta.common.batch.BatchApplyResultDTO;
 import com.nubixconta.common.exception.BadRequestException;
+import com.nubixconta.common.pagination.CursorPageDTO;
+import com.nubixconta.common.pagination.DocumentListRequest;
 import com.nubixconta.modules.sales.dto.creditnote.CreditNoteCreateDTO;
 import com.nubixconta.modules.sales.dto.creditnote.CreditNoteResponseDTO;
 import com.nubixconta.modules.sales.dto.creditnote.CreditNoteUpdateDTO;
@@ -44,6 +48,22 @@ public class CreditNoteController {
         return ResponseEntity.ok(creditNotes);
     }
 
+    /**
+     * Listado de notas de crédito paginado por cursor. Se activa al enviar 'cursor' (vacío para la primera página);
+     * la respuesta trae 'nextCursor' para pedir la siguiente. Filtros opcionales: 'status', 'startDate' y 'endDate'.
+     */
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageDTO<CreditNoteResponseDTO>> getCreditNotesPage(
+            @RequestParam String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(name = "sortBy", defaultValue = "status") String sortBy,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        DocumentListRequest request = DocumentListRequest.of(sortBy, cursor, limit, status, startDate, endDate);
+        return ResponseEntity.ok(creditNoteService.findPage(request));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<CreditNoteResponseDTO> getCreditNoteById(@PathVariable Integer id) {
         return ResponseEntity.ok(creditNoteService.findById(id));
@@ -96,6 +116,15 @@ public class CreditNoteController {
         return ResponseEntity.ok(appliedNote);
     }
 
+    /**
+     * Aplica varias notas de crédito PENDIENTES en una sola solicitud.
+     * Devuelve el resultado de cada nota; las que fallan no impiden aplicar las demás.
+     */
+    @PostMapping("/apply-batch")
+    public ResponseEntity<BatchApplyResultDTO> applyCreditNotesBatch(@Valid @RequestBody BatchApplyRequestDTO request) {
+        return ResponseEntity.ok(creditNoteService.applyCreditNotesBatch(request.getIds()));
+    }
+
     /**
      * Anula una nota de crédito que está en estado APLICADA.
      * Esto revertirá la afectación al stock y cambiará el estado a ANULADA.
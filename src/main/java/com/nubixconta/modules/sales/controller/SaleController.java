@@ -1,6 +1,10 @@
 package com.nubixconta.modules.sales.controller;
 
+import com.nubixconta.common.batch.BatchApplyRequestDTO;
+import com.nubixconta.common.batch.BatchApplyResultDTO;
 import com.nubixconta.common.exception.BadRequestException;
+import com.nubixconta.common.pagination.CursorPageDTO;
+import com.nubixconta.common.pagination.DocumentListRequest;
 import com.nubixconta.modules.sales.dto.sales.SaleForAccountsReceivableDTO;
 import com.nubixconta.modules.sales.dto.sales.SaleCreateDTO;
 import com.nubixconta.modules.sales.dto.sales.SaleResponseDTO;
@@ -47,6 +51,22 @@ public class SaleController {
         return ResponseEntity.ok(sales);
     }
 
+    /**
+     * Listado de ventas paginado por cursor. Se activa al enviar 'cursor' (vacío para la primera página);
+     * la respuesta trae 'nextCursor' para pedir la siguiente. Filtros opcionales: 'status', 'startDate' y 'endDate'.
+     */
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageDTO<SaleResponseDTO>> getSalesPage(
+            @RequestParam String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(name = "sortBy", defaultValue = "status") String sortBy,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        DocumentListRequest request = DocumentListRequest.of(sortBy, cursor, limit, status, startDate, endDate);
+        return ResponseEntity.ok(saleService.findPage(request));
+    }
+
     /**
      * Obtener una venta por ID, incluyendo sus detalles.
      */
@@ -174,6 +194,15 @@ public class SaleController {
         return saleService.applySale(id);
     }
 
+    /**
+     * Aplica varias ventas PENDIENTES en una sola solicitud (cierre de mes).
+     * Devuelve el resultado de cada venta; las que fallan no impiden aplicar las demás.
+     */
+    @PostMapping("/apply-batch")
+    public ResponseEntity<BatchApplyResultDTO> applySalesBatch(@Valid @RequestBody BatchApplyRequestDTO request) {
+        return ResponseEntity.ok(saleService.applySalesBatch(request.getIds()));
+    }
+
     @PostMapping("/{id}/cancel")
     @ResponseStatus(HttpStatus.OK)
     public SaleResponseDTO cancelSale(@PathVariable Integer id) {
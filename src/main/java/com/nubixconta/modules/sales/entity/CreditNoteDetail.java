@@ -17,7 +17,8 @@ import java.util.Objects; // <-- Asegúrate de importar esto
 @NoArgsConstructor
 public class CreditNoteDetail {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "credit_note_detail_seq")
+    @SequenceGenerator(name = "credit_note_detail_seq", sequenceName = "credit_note_detail_seq", allocationSize = 50)
     @Column(name = "credit_note_detail_id")
     private Integer creditNoteDetailId;
 
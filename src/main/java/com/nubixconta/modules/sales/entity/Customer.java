@@ -98,7 +98,7 @@ public class Customer {
     // Lo inicializamos en CERO para nuevos clientes.
     @NotNull
     @Digits(integer = 10, fraction = 2)
-    @Column(name = "current_balance", precision = 10, scale = 2, nullable = false)
+    @Column(name = "current_balance", precision = 10, scale = 2, nullable = false, updatable = false)
     private BigDecimal currentBalance = BigDecimal.ZERO;
 
 
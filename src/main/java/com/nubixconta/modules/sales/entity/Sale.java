@@ -1,11 +1,16 @@
 package com.nubixconta.modules.sales.entity;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.nubixconta.common.pagination.DocumentListRequest;
+import com.nubixconta.common.pagination.DocumentStatusRank;
 import com.nubixconta.modules.administration.entity.Company;
 import jakarta.persistence.*;
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -20,6 +25,10 @@ import java.util.HashSet;
 @Table(name="sale", uniqueConstraints = {
         // El número de documento ahora debe ser único solo dentro de la misma empresa.
         @UniqueConstraint(columnNames = {"company_id", "document_number"})
+}, indexes = {
+        // Listados paginados por cursor (DocumentPageQuery), en el mismo orden y sentido que sus dos ordenamientos.
+        @Index(name = "idx_sale_company_status_date_id", columnList = "company_id, status_rank, issue_date DESC, sale_id DESC"),
+        @Index(name = "idx_sale_company_date_id", columnList = "company_id, issue_date DESC, sale_id DESC")
 })
 @Entity
 @Getter
@@ -55,6 +64,14 @@ public class Sale {
     @Column(name = "sale_status", length = 10, nullable = false)
     private String saleStatus;
 
+    // Rango del estado (ver DocumentStatusRank), calculado por la base de datos; solo se usa para
+    // ordenar y paginar los listados.
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "status_rank", insertable = false, updatable = false,
+            columnDefinition = DocumentStatusRank.COLUMN_DEFINITION_PREFIX + "sale_status" + DocumentStatusRank.COLUMN_DEFINITION_SUFFIX)
+    private Integer statusRank;
+
     @NotNull(message = "La fecha de emisión es obligatoria")
     @Column(name = "issue_date", nullable = false)
     private LocalDateTime issueDate;
@@ -87,6 +104,8 @@ public class Sale {
 
 
     // Relación con SaleDetail
+    // Al mapear una página de documentos, los detalles de toda la página se cargan en una sola consulta IN.
+    @BatchSize(size = DocumentListRequest.MAX_LIMIT)
     @OneToMany(mappedBy = "sale", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<SaleDetail> saleDetails = new HashSet<>();
 
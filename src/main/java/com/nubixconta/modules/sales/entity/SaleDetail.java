@@ -17,7 +17,8 @@ import java.util.Objects;
 @NoArgsConstructor
 public class SaleDetail {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sale_detail_seq")
+    @SequenceGenerator(name = "sale_detail_seq", sequenceName = "sale_detail_seq", allocationSize = 50)
     @Column(name = "sale_detail_id")
     private Integer saleDetailId;
 
@@ -2,13 +2,14 @@ package com.nubixconta.modules.sales.repository;
 
 import com.nubixconta.modules.sales.entity.CreditNote;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
-public interface CreditNoteRepository extends JpaRepository<CreditNote, Integer> {
+public interface CreditNoteRepository extends JpaRepository<CreditNote, Integer>, JpaSpecificationExecutor<CreditNote> {
 
     // =========================================================================================
     // == INICIO DE CÓDIGO MODIFICADO: Consultas "Tenant-Aware"
@@ -40,16 +41,20 @@ public interface CreditNoteRepository extends JpaRepository<CreditNote, Integer>
 
     // La ordenación por estado ahora está acotada a la empresa.
     @Query("SELECT cn FROM CreditNote cn WHERE cn.company.id = :companyId ORDER BY " +
-            "CASE cn.creditNoteStatus " +
-            "  WHEN 'PENDIENTE' THEN 1 " +
-            "  WHEN 'APLICADA'  THEN 2 " +
-            "  WHEN 'ANULADA'   THEN 3 " +
-            "  ELSE 4 " +
-            "END, " +
+            "cn.statusRank, " +
             "cn.issueDate DESC")
     List<CreditNote> findAllByCompanyIdOrderByStatusAndCreditNoteDate(@Param("companyId") Integer companyId);
 
     // =========================================================================================
     // == FIN DE CÓDIGO MODIFICADO
     // =========================================================================================
-}
\ No newline at end of file
+
+    /**
+     * Carga las notas de crédito de un bloque de aplicación masiva junto con su venta, cliente,
+     * detalles y productos.
+     */
+    @Query("SELECT DISTINCT cn FROM CreditNote cn JOIN FETCH cn.sale s JOIN FETCH s.customer " +
+            "LEFT JOIN FETCH cn.details d LEFT JOIN FETCH d.product " +
+            "WHERE cn.company.id = :companyId AND cn.idNotaCredit IN :ids")
+    List<CreditNote> findAllForApplication(@Param("companyId") Integer companyId, @Param("ids") List<Integer> ids);
+}
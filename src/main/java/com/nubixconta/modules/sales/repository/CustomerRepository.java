@@ -3,7 +3,11 @@ import com.nubixconta.modules.sales.entity.Customer;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 public interface CustomerRepository extends JpaRepository<Customer, Integer>{
     /**
@@ -75,4 +79,22 @@ public interface CustomerRepository extends JpaRepository<Customer, Integer>{
     @Query(value = "SELECT EXISTS(SELECT 1 FROM customer WHERE phone = :phone AND client_id <> :clientId)", nativeQuery = true)
     boolean existsByPhoneGlobalAndClientIdNot(@Param("phone") String phone, @Param("clientId") Integer clientId);
 
+    // --- Mantenimiento atómico del saldo (ver CustomerService) ---
+    // Cada cambio es una sola sentencia sobre el saldo vigente; devuelve el saldo resultante
+    // o vacío si no se actualizó ninguna fila.
+
+    @Transactional
+    @Query(value = "UPDATE customer SET current_balance = current_balance + :amount " +
+            "WHERE client_id = :clientId AND current_balance + :amount <= credit_limit RETURNING current_balance",
+            nativeQuery = true)
+    Optional<BigDecimal> addToBalanceWithinCreditLimit(@Param("clientId") Integer clientId, @Param("amount") BigDecimal amount);
+
+    @Transactional
+    @Query(value = "UPDATE customer SET current_balance = current_balance + :amount " +
+            "WHERE client_id = :clientId RETURNING current_balance",
+            nativeQuery = true)
+    Optional<BigDecimal> addToBalance(@Param("clientId") Integer clientId, @Param("amount") BigDecimal amount);
+
+    @Query("SELECT c.currentBalance FROM Customer c WHERE c.clientId = :clientId")
+    Optional<BigDecimal> findCurrentBalanceById(@Param("clientId") Integer clientId);
 }
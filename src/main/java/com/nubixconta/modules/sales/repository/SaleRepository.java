@@ -1,6 +1,7 @@
 package com.nubixconta.modules.sales.repository;
 import com.nubixconta.modules.sales.entity.Sale;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -8,7 +9,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
-public interface SaleRepository extends JpaRepository<Sale, Integer>{
+public interface SaleRepository extends JpaRepository<Sale, Integer>, JpaSpecificationExecutor<Sale>{
 
 
     /**
@@ -34,12 +35,7 @@ public interface SaleRepository extends JpaRepository<Sale, Integer>{
 
     // La consulta de ordenamiento por estado también debe estar acotada a la empresa.
     @Query("SELECT s FROM Sale s WHERE s.company.id = :companyId ORDER BY " +
-            "CASE s.saleStatus " +
-            "  WHEN 'PENDIENTE' THEN 1 " +
-            "  WHEN 'APLICADA'  THEN 2 " +
-            "  WHEN 'ANULADA'   THEN 3 " +
-            "  ELSE 4 " +
-            "END, " +
+            "s.statusRank, " +
             "s.issueDate DESC")
     List<Sale> findAllByCompanyIdOrderByStatusAndIssueDate(@Param("companyId") Integer companyId);
 
@@ -93,4 +89,12 @@ public interface SaleRepository extends JpaRepository<Sale, Integer>{
     // Busca una venta por su ID y el ID de la empresa.
     Optional<Sale> findBySaleIdAndCompanyId(Integer saleId, Integer companyId);
 
+    /**
+     * Carga las ventas de un bloque de aplicación masiva junto con su cliente, detalles y productos,
+     * para que aplicarlas no dispare consultas adicionales por documento.
+     */
+    @Query("SELECT DISTINCT s FROM Sale s JOIN FETCH s.customer " +
+            "LEFT JOIN FETCH s.saleDetails d LEFT JOIN FETCH d.product " +
+            "WHERE s.company.id = :companyId AND s.saleId IN :ids")
+    List<Sale> findAllForApplication(@Param("companyId") Integer companyId, @Param("ids") List<Integer> ids);
 }
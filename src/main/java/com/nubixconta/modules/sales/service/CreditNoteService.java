@@ -1,7 +1,12 @@
 package com.nubixconta.modules.sales.service;
 
+import com.nubixconta.common.batch.BatchApplyExecutor;
+import com.nubixconta.common.batch.BatchApplyResultDTO;
 import com.nubixconta.common.exception.BusinessRuleException;
 import com.nubixconta.common.exception.NotFoundException;
+import com.nubixconta.common.pagination.CursorPageDTO;
+import com.nubixconta.common.pagination.DocumentListRequest;
+import com.nubixconta.common.pagination.DocumentPageQuery;
 import com.nubixconta.modules.accounting.service.CierreContableService;
 import com.nubixconta.modules.accounting.service.SalesAccountingService;
 import com.nubixconta.modules.accountsreceivable.service.AccountsReceivableService;
@@ -14,9 +19,9 @@ import com.nubixconta.modules.inventory.service.ProductService;
 import com.nubixconta.modules.sales.dto.creditnote.*;
 import com.nubixconta.modules.sales.entity.*;
 import com.nubixconta.modules.sales.repository.CreditNoteRepository;
-import com.nubixconta.modules.sales.repository.CustomerRepository;
 import com.nubixconta.modules.sales.repository.SaleRepository;
 import com.nubixconta.security.TenantContext;
+import jakarta.persistence.criteria.JoinType;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
@@ -43,11 +48,17 @@ public class CreditNoteService {
     private final ModelMapper modelMapper;
     private final InventoryService inventoryService;
     private final SalesAccountingService salesAccountingService;
-    private final CustomerRepository customerRepository;
+    private final CustomerService customerService;
     private final CompanyRepository companyRepository;
     private final ChangeHistoryService changeHistoryService;
     private final AccountsReceivableService accountsReceivableService;
     private final CierreContableService cierreContableService;
+    private final BatchApplyExecutor batchApplyExecutor;
+
+    // Listado paginado por cursor (ver DocumentPageQuery).
+    private static final DocumentPageQuery<CreditNote> PAGE_QUERY = new DocumentPageQuery<CreditNote>(
+            "issueDate", CreditNote::getIssueDate, "idNotaCredit", CreditNote::getIdNotaCredit, CreditNote::getStatusRank)
+            .withFetches(root -> root.fetch("sale", JoinType.LEFT));
 
     // Helper privado para obtener el contexto de la empresa de forma segura y consistente.
     private Integer getCompanyIdFromContext() {
@@ -74,6 +85,14 @@ public class CreditNoteService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Página de notas de crédito con filtro opcional por estado y rango de fechas, paginada por cursor.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<CreditNoteResponseDTO> findPage(DocumentListRequest request) {
+        return PAGE_QUERY.fetch(creditNoteRepository, getCompanyIdFromContext(), request, cn -> modelMapper.map(cn, CreditNoteResponseDTO.class));
+    }
+
 
     /**
      * Busca una nota de crédito por su ID y la retorna como DTO.
@@ -202,9 +221,11 @@ public class CreditNoteService {
         newCreditNote.setVatAmount(dto.getVatAmount());
         newCreditNote.setTotalAmount(dto.getTotalAmount());
 
-        // 12. Construir y asociar los detalles
+        // 12. Construir y asociar los detalles (todos los productos en una sola consulta)
+        Map<Integer, Product> products = productService.findEntitiesByIds(
+                dto.getDetails().stream().map(CreditNoteDetailCreateDTO::getProductId).toList());
         for (CreditNoteDetailCreateDTO detailDTO : dto.getDetails()) {
-            CreditNoteDetail newDetail = mapToCreditNoteDetail(detailDTO, newCreditNote);
+            CreditNoteDetail newDetail = mapToCreditNoteDetail(detailDTO, newCreditNote, products);
             newCreditNote.addDetail(newDetail);
         }
 
@@ -410,6 +431,25 @@ public class CreditNoteService {
         CreditNote creditNote = creditNoteRepository.findById(creditNoteId)
                 .orElseThrow(() -> new NotFoundException("Nota de crédito con ID " + creditNoteId + " no encontrada."));
 
+        return modelMapper.map(applyLoadedCreditNote(creditNote), CreditNoteResponseDTO.class);
+    }
+
+    /**
+     * Aplica varias notas de crédito PENDIENTES por bloques (ver BatchApplyExecutor).
+     * Cada bloque carga notas, detalles, productos, ventas y clientes en una sola consulta.
+     * @return El resultado de cada nota; las que fallan no impiden aplicar las demás.
+     */
+    public BatchApplyResultDTO applyCreditNotesBatch(List<Integer> creditNoteIds) {
+        Integer companyId = getCompanyIdFromContext();
+        return batchApplyExecutor.apply(creditNoteIds,
+                ids -> creditNoteRepository.findAllForApplication(companyId, ids).stream()
+                        .collect(Collectors.toMap(CreditNote::getIdNotaCredit, Function.identity())),
+                this::applyLoadedCreditNote,
+                id -> "Nota de crédito con ID " + id + " no encontrada.");
+    }
+
+    // Lógica común de aplicación individual y masiva; se ejecuta dentro de la transacción del llamador.
+    private CreditNote applyLoadedCreditNote(CreditNote creditNote) {
         // 1. Validar el estado actual
         if (!"PENDIENTE".equals(creditNote.getCreditNoteStatus())) {
             throw new BusinessRuleException("Solo se pueden aplicar notas de crédito en estado PENDIENTE. Estado actual: " + creditNote.getCreditNoteStatus());
@@ -422,11 +462,8 @@ public class CreditNoteService {
         // 3. (Futuro) Aquí se llamaría a la lógica contable.
         salesAccountingService.createEntriesForCreditNoteApplication(creditNote);
 
-        // --- NUEVA LÓGICA DE AJUSTE DE SALDO ---
-        Customer customer = creditNote.getSale().getCustomer();
-        BigDecimal newBalance = customer.getCurrentBalance().subtract(creditNote.getTotalAmount());
-        customer.setCurrentBalance(newBalance);
-        customerRepository.save(customer);
+        // --- NUEVA LÓGICA DE AJUSTE DE SALDO (atómica, ver CustomerService) ---
+        customerService.adjustBalance(creditNote.getSale().getCustomer(), creditNote.getTotalAmount().negate());
         // --- FIN ---
 
         // 4. Actualizar el estado de la nota de crédito
@@ -438,7 +475,7 @@ public class CreditNoteService {
         changeHistoryService.logChange("Notas de Crédito - Ventas", logMessage);
         // --- FIN: REGISTRO EN BITÁCORA ---
 
-        return modelMapper.map(appliedCreditNote, CreditNoteResponseDTO.class);
+        return appliedCreditNote;
     }
 
     /**
@@ -461,12 +498,9 @@ public class CreditNoteService {
         // 3. Revertir la lógica contable.
         salesAccountingService.deleteEntriesForCreditNoteCancellation(creditNote);
         // --- INICIO DE LA LÓGICA DE REVERSIÓN DE SALDO ---
-        Customer customer = creditNote.getSale().getCustomer();
         // Sumamos de nuevo el monto de la NC al saldo, porque la anulación de la NC
         // significa que la deuda original del cliente vuelve a estar vigente.
-        BigDecimal newBalance = customer.getCurrentBalance().add(creditNote.getTotalAmount());
-        customer.setCurrentBalance(newBalance);
-        customerRepository.save(customer);
+        customerService.adjustBalance(creditNote.getSale().getCustomer(), creditNote.getTotalAmount());
         // --- FIN DE LA LÓGICA DE REVERSIÓN DE SALDO ---
 
         // 4. Actualizar el estado de la nota de crédito
@@ -493,7 +527,7 @@ public class CreditNoteService {
         }
     }
 
-    private CreditNoteDetail mapToCreditNoteDetail(CreditNoteDetailCreateDTO dto, CreditNote parent) {
+    private CreditNoteDetail mapToCreditNoteDetail(CreditNoteDetailCreateDTO dto, CreditNote parent, Map<Integer, Product> products) {
         CreditNoteDetail detail = new CreditNoteDetail();
         detail.setCreditNoteDetailId(null); // Asegurar que sea una nueva entidad
         detail.setQuantity(dto.getQuantity());
@@ -501,7 +535,7 @@ public class CreditNoteService {
         detail.setSubtotal(dto.getSubtotal());
 
         if (dto.getProductId() != null) {
-            Product product = productService.findEntityById(dto.getProductId());
+            Product product = products.get(dto.getProductId());
             detail.setProduct(product);
         } else if (dto.getServiceName() != null && !dto.getServiceName().isBlank()) {
             detail.setServiceName(dto.getServiceName());
@@ -15,6 +15,7 @@ import org.springframework.stereotype.Service;
 import com.nubixconta.common.exception.NotFoundException;
 import com.nubixconta.modules.sales.entity.PersonType;
 import org.springframework.util.StringUtils;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.stream.Collectors;
 import com.nubixconta.common.exception.BusinessRuleException;
@@ -256,4 +257,38 @@ public class CustomerService {
             }
         }
     }
-}
\ No newline at end of file
+
+    // =========================================================================================
+    // == SALDO DEL CLIENTE
+    // =========================================================================================
+    // El saldo solo se modifica con estas sentencias atómicas (la columna no es 'updatable' en la
+    // entidad), así que dos operaciones simultáneas sobre el mismo cliente nunca pierden un cambio.
+    // Deben llamarse dentro de la transacción del documento.
+
+    /**
+     * Suma 'amount' al saldo del cliente solo si el resultado no supera su límite de crédito.
+     * La condición la evalúa la BD sobre el saldo vigente, en la misma sentencia.
+     * @return El nuevo saldo.
+     */
+    public BigDecimal increaseBalanceWithinCreditLimit(Customer customer, BigDecimal amount) {
+        return customerRepository.addToBalanceWithinCreditLimit(customer.getClientId(), amount)
+                .orElseThrow(() -> {
+                    BigDecimal currentBalance = customerRepository.findCurrentBalanceById(customer.getClientId())
+                            .orElseThrow(() -> new NotFoundException("Cliente con ID " + customer.getClientId() + " no encontrado"));
+                    return new BusinessRuleException(
+                            "Límite de crédito excedido para el cliente. " +
+                                    "Límite: " + customer.getCreditLimit() + ", " +
+                                    "Saldo Actual: " + currentBalance + ", " +
+                                    "Total de esta Venta: " + amount);
+                });
+    }
+
+    /**
+     * Suma 'amount' (negativo para restar) al saldo del cliente, sin validar el límite de crédito.
+     * @return El nuevo saldo.
+     */
+    public BigDecimal adjustBalance(Customer customer, BigDecimal amount) {
+        return customerRepository.addToBalance(customer.getClientId(), amount)
+                .orElseThrow(() -> new NotFoundException("Cliente con ID " + customer.getClientId() + " no encontrado"));
+    }
+}
@@ -1,5 +1,10 @@
 package com.nubixconta.modules.sales.service;
 
+import com.nubixconta.common.batch.BatchApplyExecutor;
+import com.nubixconta.common.batch.BatchApplyResultDTO;
+import com.nubixconta.common.pagination.CursorPageDTO;
+import com.nubixconta.common.pagination.DocumentListRequest;
+import com.nubixconta.common.pagination.DocumentPageQuery;
 import com.nubixconta.modules.accounting.service.CierreContableService;
 import com.nubixconta.modules.accounting.service.SalesAccountingService;
 import com.nubixconta.modules.accountsreceivable.service.AccountsReceivableService;
@@ -12,8 +17,8 @@ import com.nubixconta.modules.sales.dto.sales.SaleForAccountsReceivableDTO;
 import com.nubixconta.modules.sales.entity.Customer;
 import com.nubixconta.modules.sales.entity.Sale;
 import com.nubixconta.modules.sales.repository.CreditNoteRepository;
-import com.nubixconta.modules.sales.repository.CustomerRepository;
 import com.nubixconta.modules.sales.repository.SaleRepository;
+import jakarta.persistence.criteria.JoinType;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -49,13 +54,18 @@ public class SaleService {
     private final ModelMapper modelMapper;
     private final InventoryService inventoryService;
     private final SalesAccountingService salesAccountingService;
-    private final CustomerRepository customerRepository;
     private final CompanyRepository companyRepository;
     private final CollectionDetailService collectionDetailService;
     private final ChangeHistoryService changeHistoryService;
     private final AccountsReceivableService accountsReceivableService;
     private final CreditNoteRepository creditNoteRepository;
     private final CierreContableService cierreContableService;
+    private final BatchApplyExecutor batchApplyExecutor;
+
+    // Listado paginado por cursor (ver DocumentPageQuery).
+    private static final DocumentPageQuery<Sale> PAGE_QUERY = new DocumentPageQuery<Sale>(
+            "issueDate", Sale::getIssueDate, "saleId", Sale::getSaleId, Sale::getStatusRank)
+            .withFetches(root -> root.fetch("customer", JoinType.LEFT));
 
     // Helper privado para obtener el contexto de la empresa de forma segura y consistente.
     private Integer getCompanyIdFromContext() {
@@ -92,6 +102,14 @@ public class SaleService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Página de ventas con filtro opcional por estado y rango de fechas, paginada por cursor.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<SaleResponseDTO> findPage(DocumentListRequest request) {
+        return PAGE_QUERY.fetch(saleRepository, getCompanyIdFromContext(), request, sale -> modelMapper.map(sale, SaleResponseDTO.class));
+    }
+
     /**
      * Busca una venta por su ID y la retorna como DTO. Lanza NotFoundException si no existe.
      */
@@ -261,6 +279,9 @@ public class SaleService {
 
         // 3. Crear y asociar los detalles en un bucle
         if (dto.getSaleDetails() != null) {
+            // Todos los productos del documento en una sola consulta.
+            Map<Integer, Product> products = productService.findEntitiesByIds(
+                    dto.getSaleDetails().stream().map(SaleDetailCreateDTO::getProductId).toList());
             for (SaleDetailCreateDTO detailDTO : dto.getSaleDetails()) {
                 // Validar que el detalle sea válido (producto o servicio, no ambos)
                 boolean hasProduct = detailDTO.getProductId() != null;
@@ -276,7 +297,7 @@ public class SaleService {
                 newDetail.setSubtotal(detailDTO.getSubtotal());
 
                 if (hasProduct) {
-                    Product product = productService.findEntityById(detailDTO.getProductId());
+                    Product product = products.get(detailDTO.getProductId());
                     newDetail.setProduct(product);
                 } else {
                     newDetail.setServiceName(detailDTO.getServiceName());
@@ -426,6 +447,8 @@ public class SaleService {
                             Function.identity()
                     ));
             Set<SaleDetail> updatedDetails = new HashSet<>();
+            Map<Integer, Product> products = productService.findEntitiesByIds(
+                    dto.getSaleDetails().stream().map(SaleDetailCreateDTO::getProductId).toList());
 
             for (SaleDetailCreateDTO detailDTO : dto.getSaleDetails()) {
                 boolean hasProduct = detailDTO.getProductId() != null;
@@ -443,7 +466,7 @@ public class SaleService {
                     existingDetailsMap.remove(key);
                 } else {
                     // NUEVO DETALLE: Usar el método helper que ya es seguro.
-                    SaleDetail newDetail = mapToSaleDetail(detailDTO, sale);
+                    SaleDetail newDetail = mapToSaleDetail(detailDTO, sale, products);
                     updatedDetails.add(newDetail);
                 }
             }
@@ -471,6 +494,25 @@ public class SaleService {
         Sale sale = saleRepository.findById(saleId)
                 .orElseThrow(() -> new NotFoundException("Venta con ID " + saleId + " no encontrada"));
 
+        return modelMapper.map(applyLoadedSale(sale), SaleResponseDTO.class);
+    }
+
+    /**
+     * Aplica varias ventas PENDIENTES por bloques (ver BatchApplyExecutor).
+     * Cada bloque carga ventas, detalles, productos y clientes en una sola consulta.
+     * @return El resultado de cada venta; las que fallan no impiden aplicar las demás.
+     */
+    public BatchApplyResultDTO applySalesBatch(List<Integer> saleIds) {
+        Integer companyId = getCompanyIdFromContext();
+        return batchApplyExecutor.apply(saleIds,
+                ids -> saleRepository.findAllForApplication(companyId, ids).stream()
+                        .collect(Collectors.toMap(Sale::getSaleId, Function.identity())),
+                this::applyLoadedSale,
+                id -> "Venta con ID " + id + " no encontrada");
+    }
+
+    // Lógica común de aplicación individual y masiva; se ejecuta dentro de la transacción del llamador.
+    private Sale applyLoadedSale(Sale sale) {
         cierreContableService.verificarPeriodoAbierto(sale.getIssueDate().toLocalDate());
 
         // 2. Validar estado actual
@@ -504,7 +546,7 @@ public class SaleService {
         Customer customer = sale.getCustomer();
         BigDecimal potentialNewBalance = customer.getCurrentBalance().add(sale.getTotalAmount());
 
-        // 5. Comprobar si el nuevo saldo excede el límite de crédito
+        // 5. Comprobación rápida del límite de crédito (la definitiva la hace la BD al actualizar el saldo)
         if (potentialNewBalance.compareTo(customer.getCreditLimit()) > 0) {
             throw new BusinessRuleException(
                     "Límite de crédito excedido para el cliente. " +
@@ -527,10 +569,9 @@ public class SaleService {
 
         // 8. Actualizar el estado de la venta
         sale.setSaleStatus("APLICADA");
-        customer.setCurrentBalance(potentialNewBalance); // <-- Actualizamos el saldo en la entidad
 
-        // 9. Persistir todos los cambios (Venta y Cliente)
-        customerRepository.save(customer); // <-- Guardamos el cliente con su nuevo saldo
+        // 9. Actualizar el saldo del cliente (atómico, con el límite de crédito validado por la BD) y persistir la venta
+        customerService.increaseBalanceWithinCreditLimit(customer, sale.getTotalAmount());
         Sale appliedSale = saleRepository.save(sale);
 
         //10 creamos el cobro
@@ -541,7 +582,7 @@ public class SaleService {
         changeHistoryService.logChange("Ventas", logMessage);
         // --- FIN: REGISTRO EN BITÁCORA ---
 
-        return modelMapper.map(appliedSale, SaleResponseDTO.class);
+        return appliedSale;
     }
 
     @Transactional
@@ -587,10 +628,7 @@ public class SaleService {
         salesAccountingService.deleteEntriesForSaleCancellation(sale);
 
         // --- NUEVA LÓGICA DE REVERSIÓN DE SALDO ---
-        Customer customer = sale.getCustomer();
-        BigDecimal newBalance = customer.getCurrentBalance().subtract(sale.getTotalAmount());
-        customer.setCurrentBalance(newBalance);
-        customerRepository.save(customer);
+        customerService.adjustBalance(sale.getCustomer(), sale.getTotalAmount().negate());
         // --- FIN ---
 
         // 6. Actualizar estado
@@ -609,7 +647,7 @@ public class SaleService {
      * Mapea un SaleDetailCreateDTO a una entidad SaleDetail, asociando el producto si es necesario.
      * Valida que tenga solo producto o servicio, pero no ambos o ninguno.
      */
-    private SaleDetail mapToSaleDetail(SaleDetailCreateDTO dto, Sale sale) {
+    private SaleDetail mapToSaleDetail(SaleDetailCreateDTO dto, Sale sale, Map<Integer, Product> products) {
         boolean hasProduct = dto.getProductId() != null;
         boolean hasService = dto.getServiceName() != null && !dto.getServiceName().isBlank();
 
@@ -627,7 +665,7 @@ public class SaleService {
 
         // Si es producto, buscar y asociar la entidad real (no un DTO)
         if (hasProduct) {
-            Product product = productService.findEntityById(dto.getProductId());
+            Product product = products.get(dto.getProductId());
             // VALIDACIÓN ADICIONAL DE CONSISTENCIA: Asegurar que el producto pertenece a la misma empresa que la venta
             if (!product.getCompany().getId().equals(sale.getCompany().getId())) {
                 throw new BusinessRuleException("Error de consistencia interna: El producto '" + product.getProductName() + "' no pertenece a la empresa de la venta.");
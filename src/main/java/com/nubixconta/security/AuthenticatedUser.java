@@ -0,0 +1,48 @@
+package com.nubixconta.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.security.Principal;
+import java.util.Optional;
+
+/**
+ * Usuario autenticado de la petición actual, construido una sola vez por JwtFilter a partir del token.
+ * Es inmutable y viaja como principal en el SecurityContext, así que el resto de la aplicación
+ * no necesita volver a leer ni a verificar el token.
+ *
+ * @param userId    ID del usuario (claim 'userId').
+ * @param userName  Nombre de usuario (subject del token).
+ * @param role      Rol del usuario (claim 'role').
+ * @param companyId Empresa seleccionada (claim 'company_id'), o null en un token genérico.
+ */
+public record AuthenticatedUser(Integer userId, String userName, Boolean role, Integer companyId) implements Principal {
+
+    static AuthenticatedUser fromClaims(Claims claims) {
+        return new AuthenticatedUser(
+                claims.get("userId", Integer.class),
+                claims.getSubject(),
+                claims.get("role", Boolean.class),
+                claims.get("company_id", Integer.class));
+    }
+
+    /**
+     * Devuelve el usuario autenticado de la petición actual, si lo hay.
+     */
+    public static Optional<AuthenticatedUser> current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return Optional.of(user);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Nombre usado por Spring Security en Authentication.getName().
+     */
+    @Override
+    public String getName() {
+        return userName;
+    }
+}
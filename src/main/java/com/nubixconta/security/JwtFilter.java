@@ -1,6 +1,5 @@
 package com.nubixconta.security;
 
-import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,6 +12,7 @@ import java.io.IOException;
 import java.util.Collections;
 
 public class JwtFilter extends OncePerRequestFilter {
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
@@ -27,16 +27,16 @@ public class JwtFilter extends OncePerRequestFilter {
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.replace("Bearer ", "");
             try {
-                Claims claims = JwtUtil.getClaims(token);
-                String userName = claims.getSubject();
+                // El token se verifica una sola vez; el resto de la petición usa el principal.
+                AuthenticatedUser user = AuthenticatedUser.fromClaims(JwtUtil.getClaims(token));
                 UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                        userName, null, Collections.emptyList());
+                        user, null, Collections.emptyList());
                 SecurityContextHolder.getContext().setAuthentication(auth);
 
-                // Después de autenticar al usuario, intentamos obtener el company_id del token.
-                // El método .ifPresent() ejecutará el código solo si el Optional no está vacío.
-                // Si el token es genérico (sin company_id), esta línea simplemente no hará nada.
-                JwtUtil.extractCompanyId(token).ifPresent(TenantContext::setCurrentTenant);
+                // Si el token es genérico (sin company_id), no se establece ninguna empresa.
+                if (user.companyId() != null) {
+                    TenantContext.setCurrentTenant(user.companyId());
+                }
 
             } catch (Exception e) {
                 // Buena práctica: si el token es inválido, asegurarse de que el contexto de seguridad esté limpio.
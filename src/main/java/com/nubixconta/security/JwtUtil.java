@@ -3,22 +3,22 @@ package com.nubixconta.security;
 import com.nubixconta.modules.administration.entity.User;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.security.Keys;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
 import java.util.Optional;
 
 import java.security.Key;
 import java.util.Date;
 
 public class JwtUtil {
-    private static final String SECRET_KEY = "clave-super-secreta-clave-super-secreta-2024-xxx"; // ¡mínimo 32 caracteres!
+    static final String SECRET_KEY = "clave-super-secreta-clave-super-secreta-2024-xxx"; // ¡mínimo 32 caracteres!
     private static final long EXPIRATION = 1000 * 60 * 60 * 24; // 24h
 
-    private static Key getSigningKey() {
-        byte[] keyBytes = SECRET_KEY.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
+    // La clave y el parser son inmutables y seguros entre hilos: se construyen una sola vez.
+    private static final Key SIGNING_KEY = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    private static final JwtParser PARSER = Jwts.parserBuilder()
+            .setSigningKey(SIGNING_KEY)
+            .build();
 
     // =========================================================================================
     // == INICIO DE CÓDIGO MODIFICADO Y AÑADIDO
@@ -60,7 +60,7 @@ public class JwtUtil {
         }
 
         // Firma y compacta el token.
-        return tokenBuilder.signWith(getSigningKey()).compact();
+        return tokenBuilder.signWith(SIGNING_KEY).compact();
     }
 
 
@@ -88,26 +88,18 @@ public class JwtUtil {
     // =========================================================================================
     //Decodifica el token
     public static Claims getClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return PARSER.parseClaimsJws(token).getBody();
     }
     public static Integer extractUserId(String token) {
         Claims claims = getClaims(token.replace("Bearer ", ""));
         return claims.get("userId", Integer.class);
     }
+    /**
+     * ID del usuario autenticado en la petición actual, tomado del principal que publica JwtFilter.
+     */
     public static Integer extractCurrentUserId() {
-        // Obtiene el token del header "Authorization"
-        String bearerToken = ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes())
-                .getRequest()
-                .getHeader("Authorization");
-
-        if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
-            return extractUserId(bearerToken);
-        }
-
-        throw new RuntimeException("Token JWT no encontrado o inválido");
+        return AuthenticatedUser.current()
+                .map(AuthenticatedUser::userId)
+                .orElseThrow(() -> new RuntimeException("Token JWT no encontrado o inválido"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,61 @@
+package com.nubixconta.common.pagination;
+
+import com.nubixconta.common.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DocumentCursorTest {
+
+    @Test
+    void codificarYDecodificarDevuelveElMismoCursor() {
+        DocumentCursor cursor = new DocumentCursor(DocumentStatusRank.APLICADA,
+                LocalDateTime.of(2024, 3, 15, 10, 30, 45, 123_000_000), 9_876_543_210L);
+
+        String encoded = cursor.encode();
+
+        assertThat(encoded).doesNotContain("|", "=", "+", "/");
+        assertThat(DocumentCursor.decode(encoded)).isEqualTo(cursor);
+        // El cliente puede devolverlo con espacios alrededor.
+        assertThat(DocumentCursor.decode(" " + encoded + " ")).isEqualTo(cursor);
+    }
+
+    @Test
+    void fechaAMedianocheSobreviveAlViajeDeIdaYVuelta() {
+        DocumentCursor cursor = new DocumentCursor(DocumentStatusRank.PENDIENTE, LocalDateTime.of(2024, 1, 1, 0, 0), 1);
+
+        assertThat(DocumentCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void cursorVacioEsPrimeraPagina() {
+        assertThat(DocumentCursor.decode(null)).isNull();
+        assertThat(DocumentCursor.decode("")).isNull();
+        assertThat(DocumentCursor.decode("   ")).isNull();
+    }
+
+    @Test
+    void rechazaCursoresInvalidos() {
+        assertInvalid("no es base64!");
+        assertInvalid(encode("1|2024-03-15T10:30"));            // faltan partes
+        assertInvalid(encode("1|2024-03-15T10:30|5|extra"));    // sobran partes
+        assertInvalid(encode("x|2024-03-15T10:30|5"));          // rango no numérico
+        assertInvalid(encode("1|15/03/2024|5"));                // fecha con otro formato
+        assertInvalid(encode("1|2024-03-15T10:30|abc"));        // id no numérico
+    }
+
+    private static void assertInvalid(String cursor) {
+        assertThatThrownBy(() -> DocumentCursor.decode(cursor))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("El cursor no es válido.");
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,71 @@
+package com.nubixconta.common.pagination;
+
+import com.nubixconta.common.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DocumentListRequestTest {
+
+    @Test
+    void sinParametrosUsaLosValoresPorDefecto() {
+        DocumentListRequest request = DocumentListRequest.of(null, null, null, null, null, null);
+
+        assertThat(request.sort()).isEqualTo(DocumentSort.STATUS);
+        assertThat(request.cursor()).isNull();
+        assertThat(request.limit()).isEqualTo(DocumentListRequest.DEFAULT_LIMIT);
+        assertThat(request.statusRank()).isNull();
+        assertThat(request.from()).isNull();
+        assertThat(request.to()).isNull();
+    }
+
+    @Test
+    void limiteSeAcotaAlMaximoYLosNoPositivosUsanElDefecto() {
+        assertThat(DocumentListRequest.of(null, null, 20, null, null, null).limit()).isEqualTo(20);
+        assertThat(DocumentListRequest.of(null, null, 10_000, null, null, null).limit()).isEqualTo(DocumentListRequest.MAX_LIMIT);
+        assertThat(DocumentListRequest.of(null, null, 0, null, null, null).limit()).isEqualTo(DocumentListRequest.DEFAULT_LIMIT);
+        assertThat(DocumentListRequest.of(null, null, -5, null, null, null).limit()).isEqualTo(DocumentListRequest.DEFAULT_LIMIT);
+    }
+
+    @Test
+    void fechasCubrenLosDiasCompletos() {
+        DocumentListRequest request = DocumentListRequest.of("date", null, null, null,
+                LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31));
+
+        assertThat(request.sort()).isEqualTo(DocumentSort.DATE);
+        assertThat(request.from()).isEqualTo(LocalDateTime.of(2024, 3, 1, 0, 0));
+        assertThat(request.to()).isEqualTo(LocalDate.of(2024, 3, 31).atTime(LocalTime.MAX));
+    }
+
+    @Test
+    void estadoSeConvierteASuRango() {
+        assertThat(DocumentListRequest.of(null, null, null, " pendiente ", null, null).statusRank())
+                .isEqualTo(DocumentStatusRank.PENDIENTE);
+        assertThat(DocumentListRequest.of(null, null, null, "ANULADA", null, null).statusRank())
+                .isEqualTo(DocumentStatusRank.ANULADA);
+        assertThat(DocumentListRequest.of(null, null, null, "  ", null, null).statusRank()).isNull();
+    }
+
+    @Test
+    void cursorSeDecodifica() {
+        DocumentCursor cursor = new DocumentCursor(DocumentStatusRank.ANULADA, LocalDateTime.of(2024, 5, 2, 8, 0), 42);
+
+        assertThat(DocumentListRequest.of(null, cursor.encode(), null, null, null, null).cursor()).isEqualTo(cursor);
+        assertThat(DocumentListRequest.of(null, "", null, null, null, null).cursor()).isNull();
+    }
+
+    @Test
+    void rechazaParametrosInvalidos() {
+        assertThatThrownBy(() -> DocumentListRequest.of("amount", null, null, null, null, null))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> DocumentListRequest.of(null, null, null, "BORRADOR", null, null))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> DocumentListRequest.of(null, "%%%", null, null, null, null))
+                .isInstanceOf(BadRequestException.class);
+    }
+}
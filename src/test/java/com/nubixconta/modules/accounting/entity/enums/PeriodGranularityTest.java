@@ -0,0 +1,47 @@
+package com.nubixconta.modules.accounting.entity.enums;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PeriodGranularityTest {
+
+    @Test
+    void truncateDevuelveElPrimerDiaDelPeriodo() {
+        LocalDate fecha = LocalDate.of(2025, 8, 17);
+
+        assertThat(PeriodGranularity.MES.truncate(fecha)).isEqualTo(LocalDate.of(2025, 8, 1));
+        assertThat(PeriodGranularity.TRIMESTRE.truncate(fecha)).isEqualTo(LocalDate.of(2025, 7, 1));
+        assertThat(PeriodGranularity.ANIO.truncate(fecha)).isEqualTo(LocalDate.of(2025, 1, 1));
+    }
+
+    @Test
+    void truncateEnLosLimitesDelTrimestre() {
+        assertThat(PeriodGranularity.TRIMESTRE.truncate(LocalDate.of(2025, 3, 31))).isEqualTo(LocalDate.of(2025, 1, 1));
+        assertThat(PeriodGranularity.TRIMESTRE.truncate(LocalDate.of(2025, 4, 1))).isEqualTo(LocalDate.of(2025, 4, 1));
+        assertThat(PeriodGranularity.TRIMESTRE.truncate(LocalDate.of(2025, 12, 31))).isEqualTo(LocalDate.of(2025, 10, 1));
+    }
+
+    @Test
+    void nextAvanzaUnPeriodoCompleto() {
+        assertThat(PeriodGranularity.MES.next(LocalDate.of(2025, 12, 1))).isEqualTo(LocalDate.of(2026, 1, 1));
+        assertThat(PeriodGranularity.TRIMESTRE.next(LocalDate.of(2025, 10, 1))).isEqualTo(LocalDate.of(2026, 1, 1));
+        assertThat(PeriodGranularity.ANIO.next(LocalDate.of(2025, 1, 1))).isEqualTo(LocalDate.of(2026, 1, 1));
+    }
+
+    @Test
+    void labelSegunLaGranularidad() {
+        assertThat(PeriodGranularity.MES.label(LocalDate.of(2025, 3, 1))).isEqualTo("2025-03");
+        assertThat(PeriodGranularity.TRIMESTRE.label(LocalDate.of(2025, 10, 1))).isEqualTo("2025-T4");
+        assertThat(PeriodGranularity.ANIO.label(LocalDate.of(2025, 1, 1))).isEqualTo("2025");
+    }
+
+    @Test
+    void unidadDeDateTrunc() {
+        assertThat(PeriodGranularity.MES.getSqlUnit()).isEqualTo("month");
+        assertThat(PeriodGranularity.TRIMESTRE.getSqlUnit()).isEqualTo("quarter");
+        assertThat(PeriodGranularity.ANIO.getSqlUnit()).isEqualTo("year");
+    }
+}
@@ -0,0 +1,176 @@
+package com.nubixconta.modules.accounting.service;
+
+import com.nubixconta.modules.accounting.dto.reports.CuentaJerarquicaDTO;
+import com.nubixconta.modules.accounting.entity.Account;
+import com.nubixconta.modules.accounting.entity.Catalog;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompanyChartSnapshotTest {
+
+    @Test
+    void resuelvePadresPorCatalogoYPorCuentaMaestra() {
+        Account activo = account(1, "1", "ACTIVO", false, null);
+        Account corriente = account(2, "11", "ACTIVO", false, activo);
+        Account caja = account(3, "1101", "ACTIVO", true, corriente);
+
+        Catalog cActivo = catalog(10, activo, null);
+        Catalog cCorriente = catalog(20, corriente, null);   // padre por la cuenta maestra
+        Catalog cCaja = catalog(30, caja, cCorriente);       // padre por Catalog.parent
+
+        CompanyChartSnapshot chart = CompanyChartSnapshot.build(List.of(cCaja, cActivo, cCorriente));
+
+        assertThat(chart.parentCatalogId(chart.indexOf(30))).isEqualTo(20);
+        assertThat(chart.parentCatalogId(chart.indexOf(20))).isEqualTo(10);
+        assertThat(chart.parentCatalogId(chart.indexOf(10))).isNull();
+        assertThat(chart.level(chart.indexOf(10))).isEqualTo(1);
+        assertThat(chart.level(chart.indexOf(20))).isEqualTo(2);
+        assertThat(chart.level(chart.indexOf(30))).isEqualTo(3);
+    }
+
+    @Test
+    void cuentaCuyoPadreNoEstaActivadoEsRaiz() {
+        Account grupo = account(1, "1", "ACTIVO", false, null);
+        Account huerfana = account(2, "1101", "ACTIVO", true, grupo);
+
+        // El grupo no forma parte del catálogo de la empresa.
+        CompanyChartSnapshot chart = CompanyChartSnapshot.build(List.of(catalog(20, huerfana, null)));
+
+        int i = chart.indexOf(20);
+        assertThat(chart.parentCatalogId(i)).isNull();
+        assertThat(chart.level(i)).isEqualTo(1);
+        assertThat(chart.indexOf(999)).isEqualTo(-1);
+    }
+
+    @Test
+    void cicloEnLosDatosNoCuelgaLaConstruccion() {
+        Account a = account(1, "1", "ACTIVO", false, null);
+        Account b = account(2, "2", "ACTIVO", false, null);
+        Catalog ca = catalog(10, a, null);
+        Catalog cb = catalog(20, b, ca);
+        ca.setParent(cb);
+
+        CompanyChartSnapshot chart = CompanyChartSnapshot.build(List.of(ca, cb));
+
+        assertThat(chart.level(chart.indexOf(10))).isPositive();
+        assertThat(chart.level(chart.indexOf(20))).isPositive();
+        // Al menos una de las dos queda como raíz para cortar el ciclo.
+        assertThat(chart.parentCatalogId(chart.indexOf(10)) == null
+                || chart.parentCatalogId(chart.indexOf(20)) == null).isTrue();
+    }
+
+    @Test
+    void rollUpAcumulaVariosNivelesEnUnaPasada() {
+        CompanyChartSnapshot chart = sampleChart();
+        BigDecimal[] debe = chart.newColumn();
+        BigDecimal[] haber = chart.newColumn();
+        debe[chart.indexOf(30)] = new BigDecimal("100");   // Caja
+        debe[chart.indexOf(40)] = new BigDecimal("50");    // Bancos
+        haber[chart.indexOf(40)] = new BigDecimal("20");
+        debe[chart.indexOf(60)] = new BigDecimal("7");     // Mobiliario
+
+        chart.rollUp(debe, haber);
+
+        assertThat(debe[chart.indexOf(20)]).isEqualByComparingTo("150");   // Activo corriente
+        assertThat(debe[chart.indexOf(50)]).isEqualByComparingTo("7");     // Activo no corriente
+        assertThat(debe[chart.indexOf(10)]).isEqualByComparingTo("157");   // Activo
+        assertThat(haber[chart.indexOf(10)]).isEqualByComparingTo("20");
+        assertThat(debe[chart.indexOf(30)]).isEqualByComparingTo("100");   // las hojas no cambian
+    }
+
+    @Test
+    void rollUpDeMarcasSubeHastaLaRaiz() {
+        CompanyChartSnapshot chart = sampleChart();
+        boolean[] flags = new boolean[chart.size()];
+        flags[chart.indexOf(60)] = true;
+
+        chart.rollUp(flags);
+
+        assertThat(flags[chart.indexOf(50)]).isTrue();
+        assertThat(flags[chart.indexOf(10)]).isTrue();
+        assertThat(flags[chart.indexOf(20)]).isFalse();
+        assertThat(flags[chart.indexOf(30)]).isFalse();
+    }
+
+    @Test
+    void lineasJerarquicasOmitenCuentasSinDatos() {
+        List<CuentaJerarquicaDTO> todas = hierarchicalLines(null);
+
+        assertThat(todas).extracting(CuentaJerarquicaDTO::getAccountCode)
+                .containsExactly("1", "11", "1101", "2", "2101");
+    }
+
+    @Test
+    void lineasJerarquicasRespetanElNivelMaximo() {
+        List<CuentaJerarquicaDTO> rubros = hierarchicalLines(1);
+
+        assertThat(rubros).extracting(CuentaJerarquicaDTO::getAccountCode).containsExactly("1", "2");
+        // Activo (deudora) y Pasivo (acreedora) con el subtotal de sus subcuentas y su signo natural.
+        assertThat(rubros.get(0).getSaldoFinal()).isEqualByComparingTo("15");
+        assertThat(rubros.get(1).getSaldoFinal()).isEqualByComparingTo("8");
+        assertThat(rubros.get(1).getParentIdCatalog()).isNull();
+    }
+
+    // Caja con saldo inicial 10 y Debe 5; Proveedores con Haber 8; el resto sin movimientos.
+    private static List<CuentaJerarquicaDTO> hierarchicalLines(Integer maxLevel) {
+        CompanyChartSnapshot chart = sampleChart();
+        BigDecimal[] inicial = chart.newColumn();
+        BigDecimal[] debe = chart.newColumn();
+        BigDecimal[] haber = chart.newColumn();
+        boolean[] conDatos = new boolean[chart.size()];
+        inicial[chart.indexOf(30)] = new BigDecimal("10");
+        debe[chart.indexOf(30)] = new BigDecimal("5");
+        conDatos[chart.indexOf(30)] = true;
+        haber[chart.indexOf(70)] = new BigDecimal("8");
+        conDatos[chart.indexOf(70)] = true;
+
+        return FinancialReportService.toHierarchicalLines(chart, inicial, debe, haber, conDatos, maxLevel, type -> true);
+    }
+
+    // Activo (1) > Corriente (11) > Caja (1101), Bancos (1102)
+    //            > No corriente (12) > Mobiliario (1201)
+    // Pasivo (2) > Proveedores (2101)
+    private static CompanyChartSnapshot sampleChart() {
+        Account activo = account(1, "1", "ACTIVO", false, null);
+        Account corriente = account(2, "11", "ACTIVO", false, activo);
+        Account caja = account(3, "1101", "ACTIVO", true, corriente);
+        Account bancos = account(4, "1102", "ACTIVO", true, corriente);
+        Account noCorriente = account(5, "12", "ACTIVO", false, activo);
+        Account mobiliario = account(6, "1201", "ACTIVO", true, noCorriente);
+        Account pasivo = account(7, "2", "PASIVO", false, null);
+        Account proveedores = account(8, "2101", "PASIVO", true, pasivo);
+
+        return CompanyChartSnapshot.build(List.of(
+                catalog(60, mobiliario, null),
+                catalog(30, caja, null),
+                catalog(10, activo, null),
+                catalog(40, bancos, null),
+                catalog(20, corriente, null),
+                catalog(80, pasivo, null),
+                catalog(50, noCorriente, null),
+                catalog(70, proveedores, null)));
+    }
+
+    private static Account account(int id, String code, String type, boolean postable, Account parent) {
+        Account account = new Account();
+        account.setId(id);
+        account.setGeneratedCode(code);
+        account.setAccountName("Cuenta " + code);
+        account.setAccountType(type);
+        account.setPostable(postable);
+        account.setParentAccount(parent);
+        return account;
+    }
+
+    private static Catalog catalog(int id, Account account, Catalog parent) {
+        Catalog catalog = new Catalog();
+        catalog.setId(id);
+        catalog.setAccount(account);
+        catalog.setParent(parent);
+        return catalog;
+    }
+}
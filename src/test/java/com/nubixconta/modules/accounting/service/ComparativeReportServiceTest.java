@@ -0,0 +1,101 @@
+package com.nubixconta.modules.accounting.service;
+
+import com.nubixconta.common.exception.BusinessRuleException;
+import com.nubixconta.modules.accounting.dto.reports.LineaComparativaDTO;
+import com.nubixconta.modules.accounting.dto.reports.PeriodoComparativoDTO;
+import com.nubixconta.modules.accounting.entity.enums.PeriodGranularity;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ComparativeReportServiceTest {
+
+    @Test
+    void periodosRecortadosAlRangoPedido() {
+        List<PeriodoComparativoDTO> periodos = ComparativeReportService.buildPeriods(
+                LocalDate.of(2025, 2, 15), LocalDate.of(2025, 8, 10), PeriodGranularity.TRIMESTRE);
+
+        assertThat(periodos).extracting(PeriodoComparativoDTO::getEtiqueta)
+                .containsExactly("2025-T1", "2025-T2", "2025-T3");
+        assertThat(periodos.get(0).getStartDate()).isEqualTo(LocalDate.of(2025, 2, 15));
+        assertThat(periodos.get(0).getEndDate()).isEqualTo(LocalDate.of(2025, 3, 31));
+        assertThat(periodos.get(1).getStartDate()).isEqualTo(LocalDate.of(2025, 4, 1));
+        assertThat(periodos.get(1).getEndDate()).isEqualTo(LocalDate.of(2025, 6, 30));
+        assertThat(periodos.get(2).getEndDate()).isEqualTo(LocalDate.of(2025, 8, 10));
+    }
+
+    @Test
+    void rangoDentroDeUnSoloMes() {
+        List<PeriodoComparativoDTO> periodos = ComparativeReportService.buildPeriods(
+                LocalDate.of(2025, 5, 3), LocalDate.of(2025, 5, 20), PeriodGranularity.MES);
+
+        assertThat(periodos).hasSize(1);
+        assertThat(periodos.get(0).getEtiqueta()).isEqualTo("2025-05");
+        assertThat(periodos.get(0).getStartDate()).isEqualTo(LocalDate.of(2025, 5, 3));
+        assertThat(periodos.get(0).getEndDate()).isEqualTo(LocalDate.of(2025, 5, 20));
+    }
+
+    @Test
+    void rechazaMasPeriodosQueElMaximo() {
+        assertThatThrownBy(() -> ComparativeReportService.buildPeriods(
+                LocalDate.of(2020, 1, 1), LocalDate.of(2023, 12, 31), PeriodGranularity.MES))
+                .isInstanceOf(BusinessRuleException.class);
+
+        assertThat(ComparativeReportService.buildPeriods(
+                LocalDate.of(2021, 1, 1), LocalDate.of(2023, 12, 31), PeriodGranularity.MES)).hasSize(36);
+    }
+
+    @Test
+    void variacionesRespectoAlPeriodoAnterior() {
+        LineaComparativaDTO linea = ComparativeReportService.newLine(1, "4101", "Ventas", "INGRESOS_OPERACIONALES",
+                values("100", "150", "120"));
+
+        assertThat(linea.getValores()).extracting(BigDecimal::toPlainString).containsExactly("100", "150", "120");
+        assertThat(linea.getVariaciones().get(0)).isNull();
+        assertThat(linea.getVariaciones().get(1)).isEqualByComparingTo("50");
+        assertThat(linea.getVariaciones().get(2)).isEqualByComparingTo("-30");
+        assertThat(linea.getVariacionesPorcentuales().get(0)).isNull();
+        assertThat(linea.getVariacionesPorcentuales().get(1)).isEqualByComparingTo("50.00");
+        assertThat(linea.getVariacionesPorcentuales().get(2)).isEqualByComparingTo("-20.00");
+    }
+
+    @Test
+    void porcentajeNuloSiElPeriodoAnteriorEsCero() {
+        LineaComparativaDTO linea = ComparativeReportService.newLine(null, null, "Total", "TOTAL",
+                values("0", "80"));
+
+        assertThat(linea.getVariaciones().get(1)).isEqualByComparingTo("80");
+        assertThat(linea.getVariacionesPorcentuales().get(1)).isNull();
+    }
+
+    @Test
+    void porcentajeSobreElValorAbsolutoDelAnterior() {
+        // De una pérdida de 200 a una pérdida de 100: mejora del 50 %.
+        LineaComparativaDTO linea = ComparativeReportService.newLine(null, null, "Utilidad", "TOTAL",
+                values("-200", "-100"));
+
+        assertThat(linea.getVariaciones().get(1)).isEqualByComparingTo("100");
+        assertThat(linea.getVariacionesPorcentuales().get(1)).isEqualByComparingTo("50.00");
+    }
+
+    @Test
+    void porcentajeRedondeadoADosDecimales() {
+        LineaComparativaDTO linea = ComparativeReportService.newLine(null, null, "Gastos", "TOTAL",
+                values("3", "4"));
+
+        assertThat(linea.getVariacionesPorcentuales().get(1)).isEqualTo(new BigDecimal("33.33"));
+    }
+
+    private static BigDecimal[] values(String... amounts) {
+        BigDecimal[] values = new BigDecimal[amounts.length];
+        for (int i = 0; i < amounts.length; i++) {
+            values[i] = new BigDecimal(amounts[i]);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,121 @@
+package com.nubixconta.modules.inventory.service;
+
+import com.nubixconta.modules.administration.entity.Company;
+import com.nubixconta.modules.administration.repository.CompanyRepository;
+import com.nubixconta.modules.inventory.entity.Product;
+import com.nubixconta.modules.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.nubixconta.support.ConcurrencyTestSupport.THREADS;
+import static com.nubixconta.support.ConcurrencyTestSupport.alternating;
+import static com.nubixconta.support.ConcurrencyTestSupport.newCompany;
+import static com.nubixconta.support.ConcurrencyTestSupport.runConcurrently;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class InventoryStockConcurrencyTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Company company;
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        company = newCompany(companyRepository, "Prueba stock");
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll(products);
+        companyRepository.delete(company);
+    }
+
+    @Test
+    void descuentosConcurrentesNoSuperanElStock() throws Exception {
+        Product product = newProduct("A", 10);
+
+        // 40 descuentos de 1 unidad contra un stock de 10: solo 10 pueden aplicarse.
+        List<Boolean> results = runConcurrently(40, () ->
+                productRepository.decreaseStockIfAvailable(product.getIdProduct(), 1).isPresent());
+
+        assertThat(results).filteredOn(applied -> applied).hasSize(10);
+        assertThat(productRepository.findStockQuantityById(product.getIdProduct())).contains(0);
+    }
+
+    @Test
+    void documentosConProductosEnOrdenOpuestoNoSeInterbloquean() throws Exception {
+        Product a = newProduct("A", 0);
+        Product b = newProduct("B", 0);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        // La mitad de los "documentos" trae los productos como (A, B) y la otra mitad como (B, A).
+        // Sin un orden fijo, dos transacciones cruzadas se bloquean mutuamente y PostgreSQL aborta una.
+        List<Boolean> results = runConcurrently(THREADS, alternating(
+                () -> applyInLockOrder(tx, List.of(a, b)),
+                () -> applyInLockOrder(tx, List.of(b, a))));
+
+        assertThat(results).hasSize(THREADS).containsOnly(true);
+        assertThat(productRepository.findStockQuantityById(a.getIdProduct())).contains(THREADS);
+        assertThat(productRepository.findStockQuantityById(b.getIdProduct())).contains(THREADS);
+    }
+
+    @Test
+    void ordenDeBloqueoEsPorIdDeProducto() {
+        Product a = newProduct("A", 0);
+        Product b = newProduct("B", 0);
+
+        List<Product> ordered = InventoryService.inLockOrder(List.of(b, a), p -> p);
+
+        assertThat(ordered).extracting(Product::getIdProduct)
+                .containsExactly(Math.min(a.getIdProduct(), b.getIdProduct()), Math.max(a.getIdProduct(), b.getIdProduct()));
+    }
+
+    private boolean applyInLockOrder(TransactionTemplate tx, List<Product> details) {
+        tx.executeWithoutResult(status -> {
+            for (Product product : InventoryService.inLockOrder(details, p -> p)) {
+                productRepository.increaseStock(product.getIdProduct(), 1);
+                pause();
+            }
+        });
+        return true;
+    }
+
+    // Deja la primera fila bloqueada un momento para que las transacciones se crucen.
+    private static void pause() {
+        try {
+            Thread.sleep(50);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Product newProduct(String code, int stock) {
+        Product product = new Product();
+        product.setCompany(company);
+        product.setProductCode(code);
+        product.setProductName("Producto " + code);
+        product.setUnit("UND");
+        product.setStockQuantity(stock);
+        product.setProductStatus(true);
+        product = productRepository.save(product);
+        products.add(product);
+        return product;
+    }
+}
@@ -0,0 +1,82 @@
+package com.nubixconta.modules.purchases.service;
+
+import com.nubixconta.common.exception.BusinessRuleException;
+import com.nubixconta.modules.administration.entity.Company;
+import com.nubixconta.modules.administration.repository.CompanyRepository;
+import com.nubixconta.modules.purchases.entity.Supplier;
+import com.nubixconta.modules.purchases.repository.SupplierRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static com.nubixconta.support.ConcurrencyTestSupport.alternating;
+import static com.nubixconta.support.ConcurrencyTestSupport.newCompany;
+import static com.nubixconta.support.ConcurrencyTestSupport.newSupplier;
+import static com.nubixconta.support.ConcurrencyTestSupport.runConcurrently;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SupplierBalanceConcurrencyTest {
+
+    @Autowired
+    private SupplierService supplierService;
+
+    @Autowired
+    private SupplierRepository supplierRepository;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    private Company company;
+    private Supplier supplier;
+
+    @BeforeEach
+    void setUp() {
+        company = newCompany(companyRepository, "Prueba crédito proveedores");
+        supplier = newSupplier(supplierRepository, company, new BigDecimal("100.00"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        supplierRepository.delete(supplier);
+        companyRepository.delete(company);
+    }
+
+    @Test
+    void comprasConcurrentesNoSuperanElLimiteDeCredito() throws Exception {
+        // 30 compras de 10 contra un límite de 100: solo 10 caben y las demás se rechazan.
+        List<Boolean> results = runConcurrently(30, () -> {
+            try {
+                supplierService.increaseBalanceWithinCreditLimit(supplier, BigDecimal.TEN);
+                return true;
+            } catch (BusinessRuleException e) {
+                return false;
+            }
+        });
+
+        assertThat(results).filteredOn(applied -> applied).hasSize(10);
+        assertThat(currentBalance()).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    void comprasYPagosConcurrentesNoPierdenCambios() throws Exception {
+        supplierService.adjustBalance(supplier, new BigDecimal("50.00"));
+
+        // 20 compras de 2 y 20 pagos de 1, intercalados: el saldo final debe reflejarlos todos.
+        List<BigDecimal> results = runConcurrently(40, alternating(
+                () -> supplierService.increaseBalanceWithinCreditLimit(supplier, new BigDecimal("2")),
+                () -> supplierService.adjustBalance(supplier, new BigDecimal("-1"))));
+
+        assertThat(results).hasSize(40);
+        assertThat(currentBalance()).isEqualByComparingTo("70.00");
+    }
+
+    private BigDecimal currentBalance() {
+        return supplierRepository.findById(supplier.getIdSupplier()).orElseThrow().getCurrentBalance();
+    }
+}
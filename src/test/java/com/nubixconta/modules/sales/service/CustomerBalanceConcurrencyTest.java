@@ -0,0 +1,82 @@
+package com.nubixconta.modules.sales.service;
+
+import com.nubixconta.common.exception.BusinessRuleException;
+import com.nubixconta.modules.administration.entity.Company;
+import com.nubixconta.modules.administration.repository.CompanyRepository;
+import com.nubixconta.modules.sales.entity.Customer;
+import com.nubixconta.modules.sales.repository.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static com.nubixconta.support.ConcurrencyTestSupport.alternating;
+import static com.nubixconta.support.ConcurrencyTestSupport.newCompany;
+import static com.nubixconta.support.ConcurrencyTestSupport.newCustomer;
+import static com.nubixconta.support.ConcurrencyTestSupport.runConcurrently;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class CustomerBalanceConcurrencyTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    private Company company;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        company = newCompany(companyRepository, "Prueba crédito clientes");
+        customer = newCustomer(customerRepository, company, new BigDecimal("100.00"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        customerRepository.delete(customer);
+        companyRepository.delete(company);
+    }
+
+    @Test
+    void cargosConcurrentesNoSuperanElLimiteDeCredito() throws Exception {
+        // 30 cargos de 10 contra un límite de 100: solo 10 caben.
+        List<Boolean> results = runConcurrently(30, () -> {
+            try {
+                customerService.increaseBalanceWithinCreditLimit(customer, BigDecimal.TEN);
+                return true;
+            } catch (BusinessRuleException e) {
+                return false;
+            }
+        });
+
+        assertThat(results).filteredOn(applied -> applied).hasSize(10);
+        assertThat(currentBalance()).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    void cargosYAbonosConcurrentesNoPierdenCambios() throws Exception {
+        customerService.adjustBalance(customer, new BigDecimal("50.00"));
+
+        // 20 cargos de 2 y 20 abonos de 1, intercalados: el saldo final debe reflejarlos todos.
+        List<BigDecimal> results = runConcurrently(40, alternating(
+                () -> customerService.increaseBalanceWithinCreditLimit(customer, new BigDecimal("2")),
+                () -> customerService.adjustBalance(customer, new BigDecimal("-1"))));
+
+        assertThat(results).hasSize(40);
+        assertThat(currentBalance()).isEqualByComparingTo("70.00");
+    }
+
+    private BigDecimal currentBalance() {
+        return customerRepository.findById(customer.getClientId()).orElseThrow().getCurrentBalance();
+    }
+}
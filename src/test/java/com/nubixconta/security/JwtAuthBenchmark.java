@@ -0,0 +1,102 @@
+package com.nubixconta.security;
+
+import com.nubixconta.modules.administration.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de autenticación por petición, antes y después de publicar el principal (AuthenticatedUser).
+ * - anterior*: cada lectura del token reconstruía la clave HMAC y el parser y volvía a verificar la firma.
+ *   JwtFilter lo hacía dos veces (claims + company_id) y ChangeHistoryService.logChange otras dos
+ *   (usuario + company_id), así que una petición que registra en la bitácora verificaba el token 4 veces.
+ * - actual*: JwtFilter verifica una vez con el parser ya construido y el resto lee el principal.
+ *
+ * Se ejecuta con main() después de 'mvn test-compile' (no lo corre surefire).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthBenchmark {
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        User user = new User();
+        user.setId(42);
+        user.setUserName("benchmark");
+        user.setRole(true);
+        token = JwtUtil.generateToken(user, 7);
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void anteriorSoloFiltro(Blackhole bh) {
+        bh.consume(legacyClaims(token).getSubject());
+        bh.consume(legacyClaims(token).get("company_id", Integer.class));
+    }
+
+    @Benchmark
+    public void anteriorConBitacora(Blackhole bh) {
+        anteriorSoloFiltro(bh);
+        bh.consume(legacyClaims(token).get("userId", Integer.class));
+        bh.consume(legacyClaims(token).get("company_id", Integer.class));
+    }
+
+    @Benchmark
+    public void actualSoloFiltro(Blackhole bh) {
+        AuthenticatedUser user = AuthenticatedUser.fromClaims(JwtUtil.getClaims(token));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, Collections.emptyList()));
+        bh.consume(user.companyId());
+    }
+
+    @Benchmark
+    public void actualConBitacora(Blackhole bh) {
+        actualSoloFiltro(bh);
+        AuthenticatedUser user = AuthenticatedUser.current().orElseThrow();
+        bh.consume(user.userId());
+        bh.consume(user.companyId());
+    }
+
+    // Como JwtUtil.getClaims antes del cambio: clave y parser nuevos en cada llamada.
+    private static Claims legacyClaims(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(JwtUtil.SECRET_KEY.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtAuthBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,114 @@
+package com.nubixconta.support;
+
+import com.nubixconta.modules.administration.entity.Company;
+import com.nubixconta.modules.administration.repository.CompanyRepository;
+import com.nubixconta.modules.purchases.entity.Supplier;
+import com.nubixconta.modules.purchases.repository.SupplierRepository;
+import com.nubixconta.modules.sales.entity.Customer;
+import com.nubixconta.modules.sales.entity.PersonType;
+import com.nubixconta.modules.sales.repository.CustomerRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Utilidades para las pruebas de concurrencia. Esas pruebas son @SpringBootTest y corren contra la
+ * base de datos configurada, igual que NubixContaApplicationTests; cada una crea sus propios datos
+ * (con los métodos new* de aquí) y los elimina al terminar.
+ */
+public final class ConcurrencyTestSupport {
+
+    public static final int THREADS = 8;
+
+    private ConcurrencyTestSupport() {
+    }
+
+    /**
+     * Lanza 'tasks' ejecuciones de 'task' a la vez (THREADS hilos, todos parten juntos) y devuelve
+     * sus resultados en orden. Falla si alguna ejecución lanzó una excepción o no terminó a tiempo.
+     */
+    public static <T> List<T> runConcurrently(int tasks, Callable<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < tasks; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tarea que ejecuta 'even' y 'odd' de forma intercalada, para mezclar dos operaciones en runConcurrently.
+     */
+    public static <T> Callable<T> alternating(Callable<T> even, Callable<T> odd) {
+        AtomicInteger next = new AtomicInteger();
+        return () -> next.getAndIncrement() % 2 == 0 ? even.call() : odd.call();
+    }
+
+    public static Company newCompany(CompanyRepository companyRepository, String name) {
+        Company company = new Company();
+        company.setCompanyName(name + " " + System.nanoTime());
+        company.setAddress("N/A");
+        company.setCreationDate(LocalDateTime.now());
+        return companyRepository.save(company);
+    }
+
+    public static Customer newCustomer(CustomerRepository customerRepository, Company company, BigDecimal creditLimit) {
+        long unique = System.nanoTime();
+        Customer customer = new Customer();
+        customer.setCompany(company);
+        customer.setCustomerName("Cliente");
+        customer.setNcr(String.valueOf(unique % 100_000_000_000_000L));
+        customer.setAddress("N/A");
+        customer.setEmail("c" + unique % 1_000_000_000L + "@prueba.com");
+        customer.setPhone(String.format("%08d", unique % 100_000_000L));
+        customer.setCreditDay(30);
+        customer.setCreditLimit(creditLimit);
+        customer.setStatus(true);
+        customer.setExemptFromVat(false);
+        customer.setBusinessActivity("Pruebas");
+        customer.setPersonType(PersonType.JURIDICA);
+        customer.setAppliesWithholding(false);
+        return customerRepository.save(customer);
+    }
+
+    public static Supplier newSupplier(SupplierRepository supplierRepository, Company company, BigDecimal creditLimit) {
+        long unique = System.nanoTime();
+        Supplier supplier = new Supplier();
+        supplier.setCompany(company);
+        supplier.setSupplierName("Proveedor");
+        supplier.setNrc(String.valueOf(unique % 100_000_000_000_000L));
+        supplier.setAddress("N/A");
+        supplier.setEmail("p" + unique % 1_000_000_000L + "@prueba.com");
+        supplier.setPhone(String.format("%08d", unique % 100_000_000L));
+        supplier.setCreditDay(30);
+        supplier.setCreditLimit(creditLimit);
+        supplier.setStatus(true);
+        supplier.setExemptFromVat(false);
+        supplier.setBusinessActivity("Pruebas");
+        supplier.setPersonType(PersonType.JURIDICA);
+        supplier.setAppliesPerception(false);
+        return supplierRepository.save(supplier);
+    }
+}